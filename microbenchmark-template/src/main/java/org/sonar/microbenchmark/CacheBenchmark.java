@@ -0,0 +1,143 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.microbenchmark;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.api.utils.internal.DefaultTempFolder;
+import org.sonar.batch.bootstrap.BootstrapProperties;
+import org.sonar.batch.index.Cache;
+import org.sonar.batch.index.Caches;
+import org.sonar.batch.index.CachesManager;
+
+/**
+ * Compares the stores of batch caches. Each invocation puts, gets then iterates
+ * {@link #size} values.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+public class CacheBenchmark {
+
+  @Param({"disk", "memory"})
+  public String store;
+
+  @Param({"10000", "100000"})
+  public int size;
+
+  File tempDir;
+  CachesManager cachesManager;
+  Caches caches;
+  Cache<String> cache;
+  int iteration = 0;
+
+  @Setup
+  public void setup() throws Exception {
+    tempDir = Files.createTempDirectory("cache-benchmark").toFile();
+    cachesManager = new CachesManager(new DefaultTempFolder(tempDir), new BootstrapProperties(ImmutableMap.of(CachesManager.STORE_PROPERTY, store)));
+    caches = new Caches(cachesManager);
+  }
+
+  @TearDown
+  public void tearDown() {
+    caches.stop();
+    cachesManager.stop();
+    FileUtils.deleteQuietly(tempDir);
+  }
+
+  @Benchmark
+  public int put() {
+    Cache<String> c = newCache();
+    for (int i = 0; i < size; i++) {
+      c.put("component" + (i % 100), i, "value" + i);
+    }
+    return size;
+  }
+
+  @Benchmark
+  public int putAndGet() {
+    Cache<String> c = newCache();
+    for (int i = 0; i < size; i++) {
+      c.put("component" + (i % 100), i, "value" + i);
+    }
+    int found = 0;
+    for (int i = 0; i < size; i++) {
+      if (c.get("component" + (i % 100), i) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int putAndIterate() {
+    Cache<String> c = newCache();
+    for (int i = 0; i < size; i++) {
+      c.put("component" + (i % 100), i, "value" + i);
+    }
+    int length = 0;
+    for (String value : c.values()) {
+      length += value.length();
+    }
+    return length;
+  }
+
+  private Cache<String> newCache() {
+    if (cache != null) {
+      cache.clear();
+    }
+    iteration++;
+    cache = caches.createCache("benchmark" + iteration);
+    return cache;
+  }
+
+  /**
+   * You can this benchmark with maven command-line (see run.sh) or by executing this method
+   * in IDE
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(CacheBenchmark.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.microbenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.MemoryCloneIndex;
+import org.sonar.duplications.index.PackedMemoryCloneIndex;
+import org.sonar.duplications.index.SortedPackedCloneIndex;
+
+/**
+ * Compares implementations of {@link CloneIndex}: insertion of all the blocks of {@link #files} files,
+ * then queries by resource and by hash as done by the detection of duplications.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+public class CloneIndexBenchmark {
+
+  private static final int BLOCKS_PER_FILE = 200;
+
+  @Param({"memory", "packed", "sortedPacked"})
+  public String index;
+
+  @Param({"100", "1000"})
+  public int files;
+
+  List<Block> blocks;
+
+  @Setup
+  public void setup() throws Exception {
+    Random random = new Random(42L);
+    blocks = new ArrayList<>();
+    for (int f = 0; f < files; f++) {
+      for (int i = 0; i < BLOCKS_PER_FILE; i++) {
+        blocks.add(Block.builder()
+          .setResourceId("file" + f)
+          // about 10% of duplicated hashes
+          .setBlockHash(new ByteArray((long) random.nextInt(files * BLOCKS_PER_FILE * 9 / 10)))
+          .setIndexInFile(i)
+          .setLines(i, i + 10)
+          .setUnit(i * 10, i * 10 + 100)
+          .build());
+      }
+    }
+  }
+
+  @Benchmark
+  public int insert() {
+    return populate().getByResourceId("file0").size();
+  }
+
+  @Benchmark
+  public int insertAndQuery() {
+    CloneIndex cloneIndex = populate();
+    int result = 0;
+    for (int f = 0; f < files; f++) {
+      for (Block block : cloneIndex.getByResourceId("file" + f)) {
+        result += cloneIndex.getBySequenceHash(block.getBlockHash()).size();
+      }
+    }
+    return result;
+  }
+
+  private CloneIndex populate() {
+    CloneIndex cloneIndex = newIndex();
+    for (Block block : blocks) {
+      cloneIndex.insert(block);
+    }
+    return cloneIndex;
+  }
+
+  private CloneIndex newIndex() {
+    switch (index) {
+      case "memory":
+        return new MemoryCloneIndex();
+      case "packed":
+        return new PackedMemoryCloneIndex();
+      case "sortedPacked":
+        return new SortedPackedCloneIndex();
+      default:
+        throw new IllegalArgumentException("Unknown index: " + index);
+    }
+  }
+
+  /**
+   * You can this benchmark with maven command-line (see run.sh) or by executing this method
+   * in IDE
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(CloneIndexBenchmark.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.microbenchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.PathPattern;
+import org.sonar.api.batch.fs.internal.PathPatternSet;
+
+/**
+ * Compares the exclusion of files by a loop on {@link PathPattern} with {@link PathPatternSet}.
+ * Each operation filters 10'000 files.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+public class PathPatternBenchmark {
+
+  private static final int FILES = 10_000;
+
+  @Param({"1", "10", "100", "300"})
+  public int size;
+
+  PathPattern[] patterns;
+  PathPatternSet patternSet;
+  InputFile[] files;
+
+  @Setup
+  public void setup() throws Exception {
+    String[] exclusions = new String[size];
+    for (int i = 0; i < size; i++) {
+      switch (i % 4) {
+        case 0:
+          exclusions[i] = "**/generated" + i + "/**";
+          break;
+        case 1:
+          exclusions[i] = "src/main/java/org/module" + i + "/**/*.java";
+          break;
+        case 2:
+          exclusions[i] = "**/*Dto" + i + ".java";
+          break;
+        default:
+          exclusions[i] = "src/*/resources/**/file" + i + ".x?l";
+      }
+    }
+    patterns = PathPattern.create(exclusions);
+    patternSet = new PathPatternSet(patterns);
+
+    files = new InputFile[FILES];
+    for (int i = 0; i < FILES; i++) {
+      files[i] = new DefaultInputFile("foo", "src/main/java/org/module" + (i % 500) + "/pkg" + (i % 17) + "/File" + i + ".java");
+    }
+  }
+
+  @Benchmark
+  public int loopOnPatterns() throws Exception {
+    int excluded = 0;
+    for (InputFile file : files) {
+      for (PathPattern pattern : patterns) {
+        if (pattern.match(file)) {
+          excluded++;
+          break;
+        }
+      }
+    }
+    return excluded;
+  }
+
+  @Benchmark
+  public int patternSet() throws Exception {
+    int excluded = 0;
+    for (InputFile file : files) {
+      if (patternSet.matchAny(file)) {
+        excluded++;
+      }
+    }
+    return excluded;
+  }
+
+  /**
+   * You can this benchmark with maven command-line (see run.sh) or by executing this method
+   * in IDE
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(PathPatternBenchmark.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
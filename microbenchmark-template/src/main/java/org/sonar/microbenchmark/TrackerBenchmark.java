@@ -0,0 +1,175 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.microbenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.core.issue.tracking.BlockHashSequence;
+import org.sonar.core.issue.tracking.Input;
+import org.sonar.core.issue.tracking.LineHashSequence;
+import org.sonar.core.issue.tracking.Trackable;
+import org.sonar.core.issue.tracking.Tracker;
+import org.sonar.core.issue.tracking.Tracking;
+
+/**
+ * Tracking of the issues of a generated file: one issue per line, few rules, and lines that are often
+ * repeated. Raw file is the base file with some lines inserted at the beginning, and with changed
+ * messages, so that all the matching passes are executed.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+public class TrackerBenchmark {
+
+  private static final RuleKey[] RULES = {RuleKey.of("java", "S1"), RuleKey.of("java", "S2"), RuleKey.of("java", "S3")};
+  private static final int DISTINCT_LINES = 50;
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  public int size;
+
+  Tracker<Issue, Issue> tracker = new Tracker<>();
+  FakeInput rawInput;
+  FakeInput baseInput;
+
+  @Setup
+  public void setup() throws Exception {
+    List<String> baseHashes = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      baseHashes.add("h" + (i % DISTINCT_LINES));
+    }
+    List<String> rawHashes = new ArrayList<>();
+    for (int i = 0; i < size / 10; i++) {
+      rawHashes.add("new" + i);
+    }
+    rawHashes.addAll(baseHashes);
+
+    baseInput = new FakeInput(baseHashes);
+    for (int line = 1; line <= baseHashes.size(); line++) {
+      baseInput.createIssueOnLine(line, RULES[line % RULES.length], "message " + (line % 7));
+    }
+    rawInput = new FakeInput(rawHashes);
+    for (int line = 1; line <= rawHashes.size(); line++) {
+      rawInput.createIssueOnLine(line, RULES[line % RULES.length], "message " + (line % 5));
+    }
+  }
+
+  @Benchmark
+  public int track() throws Exception {
+    Tracking<Issue, Issue> tracking = tracker.track(rawInput, baseInput);
+    return tracking.getMatchedRaws().size();
+  }
+
+  private static class Issue implements Trackable {
+    private final RuleKey ruleKey;
+    private final Integer line;
+    private final String message;
+    private final String lineHash;
+
+    Issue(Integer line, String lineHash, RuleKey ruleKey, String message) {
+      this.line = line;
+      this.lineHash = lineHash;
+      this.ruleKey = ruleKey;
+      this.message = message;
+    }
+
+    @Override
+    public Integer getLine() {
+      return line;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String getLineHash() {
+      return lineHash;
+    }
+
+    @Override
+    public RuleKey getRuleKey() {
+      return ruleKey;
+    }
+  }
+
+  private static class FakeInput implements Input<Issue> {
+    private final List<Issue> issues = new ArrayList<>();
+    private final List<String> lineHashes;
+    private final LineHashSequence lineHashSequence;
+    private final BlockHashSequence blockHashSequence;
+
+    FakeInput(List<String> lineHashes) {
+      this.lineHashes = lineHashes;
+      this.lineHashSequence = new LineHashSequence(lineHashes);
+      this.blockHashSequence = BlockHashSequence.create(lineHashSequence);
+    }
+
+    void createIssueOnLine(int line, RuleKey ruleKey, String message) {
+      issues.add(new Issue(line, lineHashes.get(line - 1), ruleKey, message));
+    }
+
+    @Override
+    public LineHashSequence getLineHashSequence() {
+      return lineHashSequence;
+    }
+
+    @Override
+    public BlockHashSequence getBlockHashSequence() {
+      return blockHashSequence;
+    }
+
+    @Override
+    public List<Issue> getIssues() {
+      return issues;
+    }
+  }
+
+  /**
+   * You can this benchmark with maven command-line (see run.sh) or by executing this method
+   * in IDE
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(TrackerBenchmark.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Metric;
+import org.sonar.server.computation.batch.BatchReportReaderRule;
+import org.sonar.server.computation.batch.TreeRootHolderRule;
+import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.formula.CoreFormulaRepositoryImpl;
+import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
+import org.sonar.server.computation.formula.coverage.CoverageFormulas;
+import org.sonar.server.computation.formula.coverage.NewCoverageFormulas;
+import org.sonar.server.computation.measure.MeasureRepositoryRule;
+import org.sonar.server.computation.metric.MetricRepositoryRule;
+import org.sonar.server.computation.period.Period;
+import org.sonar.server.computation.period.PeriodsHolderRule;
+import org.sonar.server.computation.step.CoreMetricFormulaExecutorStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.measure.Measure.newMeasureBuilder;
+
+/**
+ * Compares the execution of the Core and coverage formulas in a single traversal of a deep component tree with
+ * their execution in one traversal per group of formulas.
+ */
+public class FormulaExecutorBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("perfTestFormulaExecutor");
+
+  private static final int MODULES = 10;
+  private static final int SUB_MODULES = 10;
+  private static final int DIRECTORIES = 10;
+  private static final int FILES = 100;
+  private static final int FILE_COUNT = MODULES * SUB_MODULES * DIRECTORIES * FILES;
+
+  @Rule
+  public Benchmark benchmark = new Benchmark();
+
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  @Rule
+  public PeriodsHolderRule periodsHolder = new PeriodsHolderRule();
+
+  @Rule
+  public BatchReportReaderRule reportReader = new BatchReportReaderRule();
+
+  @Rule
+  public MetricRepositoryRule metricRepository = new MetricRepositoryRule();
+
+  @Test
+  public void benchmark() {
+    for (Metric<?> metric : CoreMetrics.getMetrics()) {
+      metricRepository.add(metric);
+    }
+    periodsHolder.setPeriods(new Period(1, "previous_analysis", null, 1234567890L, 1L));
+    treeRootHolder.setRoot(createTree());
+    LOGGER.info("Tree of {} files created", FILE_COUNT);
+
+    long separateDuration = executeInSeparateTraversals(createMeasureRepository());
+    long fusedDuration = executeInSingleTraversal(createMeasureRepository());
+
+    LOGGER.info(String.format("Formulas executed in %d ms with one traversal per group of formulas, in %d ms with a single traversal",
+      separateDuration, fusedDuration));
+    benchmark.expectBetween("Duration of formula execution in a single traversal", fusedDuration, 0, separateDuration);
+  }
+
+  private long executeInSeparateTraversals(MeasureRepositoryRule measureRepository) {
+    long start = System.currentTimeMillis();
+    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .buildFor(new CoreFormulaRepositoryImpl().getFormulas())
+      .visit(treeRootHolder.getRoot());
+    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .withVariationSupport(periodsHolder)
+      .buildFor(NewCoverageFormulas.formulas(reportReader))
+      .visit(treeRootHolder.getRoot());
+    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .withVariationSupport(periodsHolder)
+      .buildFor(CoverageFormulas.formulas())
+      .visit(treeRootHolder.getRoot());
+    long duration = System.currentTimeMillis() - start;
+
+    assertThat(measureRepository.getRawMeasure(treeRootHolder.getRoot(), metricRepository.getByKey(CoreMetrics.COVERAGE_KEY)).isPresent()).isTrue();
+    return duration;
+  }
+
+  private long executeInSingleTraversal(MeasureRepositoryRule measureRepository) {
+    long start = System.currentTimeMillis();
+    new CoreMetricFormulaExecutorStep(treeRootHolder, periodsHolder, reportReader, metricRepository, measureRepository, new CoreFormulaRepositoryImpl())
+      .execute();
+    long duration = System.currentTimeMillis() - start;
+
+    assertThat(measureRepository.getRawMeasure(treeRootHolder.getRoot(), metricRepository.getByKey(CoreMetrics.COVERAGE_KEY)).isPresent()).isTrue();
+    return duration;
+  }
+
+  private static Component createTree() {
+    int ref = 1;
+    List<Component> modules = new ArrayList<>();
+    for (int m = 0; m < MODULES; m++) {
+      List<Component> subModules = new ArrayList<>();
+      for (int s = 0; s < SUB_MODULES; s++) {
+        List<Component> directories = new ArrayList<>();
+        for (int d = 0; d < DIRECTORIES; d++) {
+          List<Component> files = new ArrayList<>();
+          for (int f = 0; f < FILES; f++) {
+            files.add(DumbComponent.builder(Component.Type.FILE, ++ref).build());
+          }
+          directories.add(DumbComponent.builder(Component.Type.DIRECTORY, ++ref).addChildren(toArray(files)).build());
+        }
+        subModules.add(DumbComponent.builder(Component.Type.MODULE, ++ref).addChildren(toArray(directories)).build());
+      }
+      modules.add(DumbComponent.builder(Component.Type.MODULE, ++ref).addChildren(toArray(subModules)).build());
+    }
+    return DumbComponent.builder(Component.Type.PROJECT, 1).addChildren(toArray(modules)).build();
+  }
+
+  private MeasureRepositoryRule createMeasureRepository() {
+    MeasureRepositoryRule measureRepository = MeasureRepositoryRule.create(treeRootHolder, metricRepository);
+    addFileMeasures(measureRepository, treeRootHolder.getRoot());
+    return measureRepository;
+  }
+
+  private static void addFileMeasures(MeasureRepositoryRule measureRepository, Component component) {
+    if (component.getType() == Component.Type.FILE) {
+      int ref = component.getRef();
+      measureRepository
+        .addRawMeasure(ref, CoreMetrics.CLASSES_KEY, newMeasureBuilder().create(1))
+        .addRawMeasure(ref, CoreMetrics.FUNCTIONS_KEY, newMeasureBuilder().create(10))
+        .addRawMeasure(ref, CoreMetrics.STATEMENTS_KEY, newMeasureBuilder().create(50))
+        .addRawMeasure(ref, CoreMetrics.COMPLEXITY_KEY, newMeasureBuilder().create(20))
+        .addRawMeasure(ref, CoreMetrics.LINES_TO_COVER_KEY, newMeasureBuilder().create(100))
+        .addRawMeasure(ref, CoreMetrics.UNCOVERED_LINES_KEY, newMeasureBuilder().create(30))
+        .addRawMeasure(ref, CoreMetrics.CONDITIONS_TO_COVER_KEY, newMeasureBuilder().create(40))
+        .addRawMeasure(ref, CoreMetrics.UNCOVERED_CONDITIONS_KEY, newMeasureBuilder().create(10));
+      return;
+    }
+    for (Component child : component.getChildren()) {
+      addFileMeasures(measureRepository, child);
+    }
+  }
+
+  private static Component[] toArray(List<Component> components) {
+    return components.toArray(new Component[components.size()]);
+  }
+}
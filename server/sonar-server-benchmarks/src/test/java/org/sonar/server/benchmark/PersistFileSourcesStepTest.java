@@ -117,6 +117,7 @@ public class PersistFileSourcesStepTest {
       .build());
 
     writer.writeComponent(project.build());
+    writer.close();
 
     return reportDir;
   }
@@ -33,6 +33,7 @@ public class BatchWsModule extends Module {
       SubmitReportAction.class,
       IssuesAction.class,
       UsersAction.class,
+      DuplicationsAction.class,
       BatchWs.class);
   }
 }
@@ -0,0 +1,130 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import com.google.common.base.Optional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.batch.protocol.input.BatchInput;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.MyBatis;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.duplication.DuplicationUnitDto;
+import org.sonar.server.plugins.MimeTypes;
+import org.sonar.server.user.UserSession;
+
+/**
+ * Lookup in the index of cross-project duplications, so that the batch downloads only the blocks
+ * whose hashes are computed on the analyzed project.
+ */
+public class DuplicationsAction implements BatchWsAction {
+
+  private static final String PARAM_KEY = "key";
+  private static final String PARAM_LANGUAGE = "language";
+  private static final String PARAM_HASHES = "hashes";
+
+  private final DbClient dbClient;
+  private final UserSession userSession;
+
+  public DuplicationsAction(DbClient dbClient, UserSession userSession) {
+    this.dbClient = dbClient;
+    this.userSession = userSession;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction("duplications")
+      .setDescription("Return the blocks of the last analysis of other modules which have the given hashes")
+      .setSince("5.2")
+      .setInternal(true)
+      .setPost(true)
+      .setHandler(this);
+
+    action
+      .createParam(PARAM_KEY)
+      .setDescription("Key of the analyzed module, whose blocks are ignored")
+      .setExampleValue("org.codehaus.sonar:sonar");
+
+    action
+      .createParam(PARAM_LANGUAGE)
+      .setRequired(true)
+      .setDescription("Language of the blocks")
+      .setExampleValue("java");
+
+    action
+      .createParam(PARAM_HASHES)
+      .setRequired(true)
+      .setDescription("A comma separated list of block hashes")
+      .setExampleValue("a8998353e96320ec,bbbc1d8c4e4da2d1");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    userSession.checkGlobalPermission(GlobalPermissions.SCAN_EXECUTION);
+    String moduleKey = request.param(PARAM_KEY);
+    String language = request.mandatoryParam(PARAM_LANGUAGE);
+    List<String> hashes = request.mandatoryParamAsStrings(PARAM_HASHES);
+
+    response.stream().setMediaType(MimeTypes.PROTOBUF);
+    DbSession session = dbClient.openSession(false);
+    try {
+      List<DuplicationUnitDto> blocks = dbClient.duplicationDao().selectByHashes(session, hashes, language, moduleUuid(session, moduleKey));
+      writeBlocks(blocks, response.stream().output());
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+  }
+
+  @CheckForNull
+  private String moduleUuid(DbSession session, @Nullable String moduleKey) {
+    if (moduleKey == null) {
+      return null;
+    }
+    Optional<ComponentDto> module = dbClient.componentDao().selectByKey(session, moduleKey);
+    return module.isPresent() ? module.get().uuid() : null;
+  }
+
+  private static void writeBlocks(List<DuplicationUnitDto> blocks, OutputStream output) {
+    BatchInput.DuplicationBlock.Builder builder = BatchInput.DuplicationBlock.newBuilder();
+    try {
+      for (DuplicationUnitDto block : blocks) {
+        builder
+          .setResourceKey(block.getResourceKey())
+          .setHash(block.getHash())
+          .setIndexInFile(block.getIndexInFile())
+          .setStartLine(block.getStartLine())
+          .setEndLine(block.getEndLine())
+          .build()
+          .writeDelimitedTo(output);
+        builder.clear();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize duplication blocks", e);
+    }
+  }
+}
@@ -20,6 +20,14 @@
 package org.sonar.server.computation;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
@@ -37,6 +45,11 @@ public class ComputationService {
 
   private static final Logger LOG = Loggers.get(ComputationService.class);
 
+  /**
+   * Maximum number of steps executed concurrently, see {@link ComputationSteps#concurrentStepClasses()}
+   */
+  static final int MAX_CONCURRENT_STEPS = 4;
+
   private final ReportQueue.Item item;
   private final ComputationSteps steps;
   private final ActivityManager activityManager;
@@ -55,20 +68,73 @@ public class ComputationService {
       String.format("Analysis of project %s (report %d)", projectKey, item.dto.getId())
       );
 
+    ExecutorService executorService = null;
     try {
-      for (ComputationStep step : steps.instances()) {
-        Profiler stepProfiler = Profiler.createIfDebug(LOG).startDebug(step.getDescription());
-        step.execute();
-        stepProfiler.stopDebug();
+      for (List<ComputationStep> group : steps.instanceGroups()) {
+        if (group.size() == 1) {
+          executeStep(group.get(0));
+        } else {
+          if (executorService == null) {
+            executorService = Executors.newFixedThreadPool(MAX_CONCURRENT_STEPS, new ThreadFactoryBuilder()
+              .setNameFormat(Thread.currentThread().getName() + "-step-%d").build());
+          }
+          executeConcurrently(executorService, group);
+        }
       }
       item.dto.setStatus(SUCCESS);
     } catch (Throwable e) {
       item.dto.setStatus(FAILED);
       throw Throwables.propagate(e);
     } finally {
+      if (executorService != null) {
+        executorService.shutdownNow();
+      }
       item.dto.setFinishedAt(system.now());
       activityManager.saveActivity(item.dto);
+      profiler.addContext("usedHeapMb", usedHeapMb());
       profiler.stopInfo();
     }
   }
+
+  private static long usedHeapMb() {
+    Runtime runtime = Runtime.getRuntime();
+    return (runtime.totalMemory() - runtime.freeMemory()) / (1024L * 1024L);
+  }
+
+  /**
+   * Waits for all the steps to be executed, even if some of them fail, so that no step
+   * is still running when the next group of steps starts.
+   */
+  private static void executeConcurrently(ExecutorService executorService, List<ComputationStep> group) throws InterruptedException {
+    List<Future<Void>> futures = new ArrayList<>();
+    for (final ComputationStep step : group) {
+      futures.add(executorService.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          executeStep(step);
+          return null;
+        }
+      }));
+    }
+
+    Throwable failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure != null) {
+      throw Throwables.propagate(failure);
+    }
+  }
+
+  private static void executeStep(ComputationStep step) {
+    Profiler stepProfiler = Profiler.createIfDebug(LOG).startDebug(step.getDescription());
+    step.execute();
+    stepProfiler.stopDebug();
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.computation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonar.api.server.ServerSide;
+
+/**
+ * Counters of the analysis reports processed by the workers of {@link ComputationThreadLauncher}.
+ * Values are reset when server restarts.
+ */
+@ServerSide
+public class ComputationStatistics {
+
+  private final AtomicLong processedReports = new AtomicLong();
+  private final AtomicLong failedReports = new AtomicLong();
+  private final AtomicLong waitTimeMs = new AtomicLong();
+  private final AtomicLong processingTimeMs = new AtomicLong();
+  private final ConcurrentMap<String, AtomicLong> processedReportsByWorker = new ConcurrentHashMap<>();
+
+  /**
+   * @param workerName name of the thread which processed the report
+   * @param waitTimeMs time spent by the report in the queue before being processed
+   * @param processingTimeMs time spent to process the report
+   * @param success false if the processing of the report failed
+   */
+  public void onReportProcessed(String workerName, long waitTimeMs, long processingTimeMs, boolean success) {
+    processedReports.incrementAndGet();
+    if (!success) {
+      failedReports.incrementAndGet();
+    }
+    this.waitTimeMs.addAndGet(waitTimeMs);
+    this.processingTimeMs.addAndGet(processingTimeMs);
+    AtomicLong workerCounter = processedReportsByWorker.get(workerName);
+    if (workerCounter == null) {
+      AtomicLong newCounter = new AtomicLong();
+      workerCounter = processedReportsByWorker.putIfAbsent(workerName, newCounter);
+      if (workerCounter == null) {
+        workerCounter = newCounter;
+      }
+    }
+    workerCounter.incrementAndGet();
+  }
+
+  public long getProcessedReports() {
+    return processedReports.get();
+  }
+
+  public long getFailedReports() {
+    return failedReports.get();
+  }
+
+  public long getAverageWaitTimeMs() {
+    return average(waitTimeMs.get());
+  }
+
+  public long getAverageProcessingTimeMs() {
+    return average(processingTimeMs.get());
+  }
+
+  /**
+   * Number of processed reports by worker, sorted by worker name
+   */
+  public Map<String, Long> getProcessedReportsByWorker() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, AtomicLong> entry : processedReportsByWorker.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().get());
+    }
+    return result;
+  }
+
+  private long average(long total) {
+    long count = processedReports.get();
+    return count == 0 ? 0 : (total / count);
+  }
+}
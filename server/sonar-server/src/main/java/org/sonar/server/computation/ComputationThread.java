@@ -20,6 +20,7 @@
 
 package org.sonar.server.computation;
 
+import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.platform.ComponentContainer;
@@ -36,15 +37,30 @@ public class ComputationThread implements Runnable {
   private final ReportQueue queue;
   private final ComponentContainer sqContainer;
   private final ContainerFactory containerFactory;
+  private final ComputationStatistics statistics;
 
   public ComputationThread(ReportQueue queue, ComponentContainer sqContainer, ContainerFactory containerFactory) {
+    this(queue, sqContainer, containerFactory, new ComputationStatistics());
+  }
+
+  public ComputationThread(ReportQueue queue, ComponentContainer sqContainer, ContainerFactory containerFactory, ComputationStatistics statistics) {
     this.queue = queue;
     this.sqContainer = sqContainer;
     this.containerFactory = containerFactory;
+    this.statistics = statistics;
   }
 
   @Override
   public void run() {
+    processNext();
+  }
+
+  /**
+   * Pops a report from the queue and integrates it.
+   *
+   * @return false if the queue had no report available, else true, even if the integration failed
+   */
+  public boolean processNext() {
     ReportQueue.Item item = null;
     try {
       item = queue.pop();
@@ -52,12 +68,15 @@ public class ComputationThread implements Runnable {
       LOG.error("Failed to pop the queue of analysis reports", e);
     }
     if (item == null) {
-      return;
+      return false;
     }
 
+    long start = System2.INSTANCE.now();
+    boolean success = false;
     ComputeEngineContainer computeEngineContainer = containerFactory.create(sqContainer, item);
     try {
       computeEngineContainer.process();
+      success = true;
     } catch (Throwable e) {
       LOG.error(String.format(
         "Failed to process analysis report %d of project %s", item.dto.getId(), item.dto.getProjectKey()), e);
@@ -65,7 +84,18 @@ public class ComputationThread implements Runnable {
       computeEngineContainer.cleanup();
 
       removeSilentlyFromQueue(item);
+      statistics.onReportProcessed(Thread.currentThread().getName(), waitTime(item), System2.INSTANCE.now() - start, success);
+    }
+    return true;
+  }
+
+  private static long waitTime(ReportQueue.Item item) {
+    Long createdAt = item.dto.getCreatedAt();
+    Long startedAt = item.dto.getStartedAt();
+    if (createdAt == null || startedAt == null) {
+      return 0L;
     }
+    return Math.max(0L, startedAt - createdAt);
   }
 
   private void removeSilentlyFromQueue(ReportQueue.Item item) {
@@ -27,43 +27,62 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import org.picocontainer.Startable;
+import org.sonar.api.Properties;
+import org.sonar.api.Property;
+import org.sonar.api.config.Settings;
 import org.sonar.api.platform.Server;
 import org.sonar.api.platform.ServerStartHandler;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.platform.ComponentContainer;
 import org.sonar.server.computation.container.ContainerFactory;
 import org.sonar.server.computation.container.ContainerFactoryImpl;
 
+@Properties({
+  @Property(
+    key = ComputationThreadLauncher.PROPERTY_WORKER_COUNT,
+    defaultValue = "1",
+    name = "Number of analysis reports processed concurrently",
+    project = false,
+    global = false)
+})
 public class ComputationThreadLauncher implements Startable, ServerStartHandler {
 
+  private static final Logger LOG = Loggers.get(ComputationThreadLauncher.class);
+
   public static final String THREAD_NAME_PREFIX = "computation-";
+  public static final String PROPERTY_WORKER_COUNT = "sonar.ce.workerCount";
 
   private final ReportQueue queue;
   private final ComponentContainer sqContainer;
   private final ScheduledExecutorService executorService;
   private final ContainerFactory containerFactory;
+  private final ComputationStatistics statistics;
+  private final int workerCount;
 
   private final long delayBetweenTasks;
   private final long delayForFirstStart;
   private final TimeUnit timeUnit;
 
-  public ComputationThreadLauncher(ReportQueue queue, ComponentContainer sqContainer) {
-    this.queue = queue;
-    this.sqContainer = sqContainer;
-    this.executorService = Executors.newSingleThreadScheduledExecutor(newThreadFactory());
-    this.containerFactory = new ContainerFactoryImpl();
-
-    this.delayBetweenTasks = 10;
-    this.delayForFirstStart = 0;
-    this.timeUnit = TimeUnit.SECONDS;
+  public ComputationThreadLauncher(ReportQueue queue, ComponentContainer sqContainer, Settings settings, ComputationStatistics statistics) {
+    this(queue, sqContainer, new ContainerFactoryImpl(), statistics, settings.getInt(PROPERTY_WORKER_COUNT), 0, 10, TimeUnit.SECONDS);
   }
 
   @VisibleForTesting
   ComputationThreadLauncher(ReportQueue queue, ComponentContainer sqContainer, ContainerFactory containerFactory,
     long delayForFirstStart, long delayBetweenTasks, TimeUnit timeUnit) {
+    this(queue, sqContainer, containerFactory, new ComputationStatistics(), 1, delayForFirstStart, delayBetweenTasks, timeUnit);
+  }
+
+  @VisibleForTesting
+  ComputationThreadLauncher(ReportQueue queue, ComponentContainer sqContainer, ContainerFactory containerFactory, ComputationStatistics statistics,
+    int workerCount, long delayForFirstStart, long delayBetweenTasks, TimeUnit timeUnit) {
     this.queue = queue;
     this.sqContainer = sqContainer;
     this.containerFactory = containerFactory;
-    this.executorService = Executors.newSingleThreadScheduledExecutor(newThreadFactory());
+    this.statistics = statistics;
+    this.workerCount = Math.max(1, workerCount);
+    this.executorService = Executors.newScheduledThreadPool(this.workerCount, newThreadFactory());
 
     this.delayBetweenTasks = delayBetweenTasks;
     this.delayForFirstStart = delayForFirstStart;
@@ -80,13 +99,45 @@ public class ComputationThreadLauncher implements Startable, ServerStartHandler
     executorService.shutdown();
   }
 
+  /**
+   * Wakes up an idle worker, if any. Otherwise the new report is processed as soon as a worker is available.
+   */
   public void startAnalysisTaskNow() {
-    executorService.execute(new ComputationThread(queue, sqContainer, containerFactory));
+    executorService.execute(newWorker());
   }
 
   @Override
   public void onServerStart(Server server) {
-    executorService.scheduleAtFixedRate(new ComputationThread(queue, sqContainer, containerFactory), delayForFirstStart, delayBetweenTasks, timeUnit);
+    LOG.info("Compute engine started with {} worker(s)", workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      executorService.scheduleWithFixedDelay(newWorker(), delayForFirstStart, delayBetweenTasks, timeUnit);
+    }
+  }
+
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  /**
+   * A worker processes reports until the queue is empty. Reports of a same project are never
+   * processed concurrently, see {@link ReportQueue#pop()}.
+   */
+  private Runnable newWorker() {
+    final ComputationThread thread = new ComputationThread(queue, sqContainer, containerFactory, statistics);
+    return new Runnable() {
+      @Override
+      public void run() {
+        try {
+          boolean processed = true;
+          while (processed && !executorService.isShutdown()) {
+            processed = thread.processNext();
+          }
+        } catch (Exception e) {
+          // must not be propagated, else the recurrent task is cancelled
+          LOG.error("Failed to process the queue of analysis reports", e);
+        }
+      }
+    };
   }
 
   private static ThreadFactory newThreadFactory() {
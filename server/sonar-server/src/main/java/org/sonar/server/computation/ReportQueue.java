@@ -97,6 +97,10 @@ public class ReportQueue {
     }
   }
 
+  /**
+   * Books the oldest available report. A report is not available while another report
+   * of the same project is being processed, so this method can be safely called concurrently.
+   */
   @CheckForNull
   public Item pop() {
     DbSession session = dbClient.openSession(false);
@@ -147,6 +151,18 @@ public class ReportQueue {
     }
   }
 
+  /**
+   * Number of reports of the queue with the given status
+   */
+  public int count(AnalysisReportDto.Status status) {
+    DbSession session = dbClient.openSession(false);
+    try {
+      return dao().countByStatus(session, status);
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+  }
+
   /**
    * All the reports of the queue, whatever the status
    */
@@ -38,6 +38,8 @@ public interface BatchReportReader {
 
   List<BatchReport.Duplication> readComponentDuplications(int componentRef);
 
+  List<BatchReport.CpdTextBlock> readCpdTextBlocks(int componentRef);
+
   List<BatchReport.Symbols.Symbol> readComponentSymbols(int componentRef);
 
   CloseableIterator<BatchReport.SyntaxHighlighting> readComponentSyntaxHighlighting(int fileRef);
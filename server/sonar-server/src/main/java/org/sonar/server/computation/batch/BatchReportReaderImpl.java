@@ -78,6 +78,11 @@ public class BatchReportReaderImpl implements BatchReportReader {
     return delegate.readComponentDuplications(componentRef);
   }
 
+  @Override
+  public List<BatchReport.CpdTextBlock> readCpdTextBlocks(int componentRef) {
+    return delegate.readCpdTextBlocks(componentRef);
+  }
+
   @Override
   public List<BatchReport.Symbols.Symbol> readComponentSymbols(int componentRef) {
     return delegate.readComponentSymbols(componentRef);
@@ -61,7 +61,8 @@ public class ComponentImpl implements Component {
 
     return new FileAttributes(
       component.hasIsTest() && component.getIsTest(),
-      component.hasLanguage() ? component.getLanguage() : null);
+      component.hasLanguage() ? component.getLanguage() : null,
+      component.hasIsCarriedOver() && component.getIsCarriedOver());
   }
 
   public static Type convertType(Constants.ComponentType type) {
@@ -30,10 +30,16 @@ import javax.annotation.concurrent.Immutable;
 public class FileAttributes {
   private final boolean unitTest;
   private final String languageKey;
+  private final boolean carriedOver;
 
   public FileAttributes(boolean unitTest, @Nullable String languageKey) {
+    this(unitTest, languageKey, false);
+  }
+
+  public FileAttributes(boolean unitTest, @Nullable String languageKey, boolean carriedOver) {
     this.unitTest = unitTest;
     this.languageKey = languageKey;
+    this.carriedOver = carriedOver;
   }
 
   public boolean isUnitTest() {
@@ -44,4 +50,12 @@ public class FileAttributes {
   public String getLanguageKey() {
     return languageKey;
   }
+
+  /**
+   * The file is unchanged since the previous analysis, so the report has neither its sources nor its measures,
+   * issues and duplications. Its previous data must be kept.
+   */
+  public boolean isCarriedOver() {
+    return carriedOver;
+  }
 }
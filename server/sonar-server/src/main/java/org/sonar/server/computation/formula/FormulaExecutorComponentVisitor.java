@@ -21,9 +21,7 @@ package org.sonar.server.computation.formula;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.CheckForNull;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.PathAwareVisitor;
@@ -37,11 +35,16 @@ import org.sonar.server.computation.period.PeriodsHolder;
 import static java.util.Objects.requireNonNull;
 
 public class FormulaExecutorComponentVisitor extends PathAwareVisitor<FormulaExecutorComponentVisitor.Counters> {
-  private static final PathAwareVisitor.SimpleStackElementFactory<Counters> COUNTERS_FACTORY = new PathAwareVisitor.SimpleStackElementFactory<Counters>() {
+  private static final class CountersFactory extends PathAwareVisitor.SimpleStackElementFactory<Counters> {
+    private final int formulaCount;
+
+    private CountersFactory(int formulaCount) {
+      this.formulaCount = formulaCount;
+    }
 
     @Override
     public Counters createForAny(Component component) {
-      return new Counters();
+      return new Counters(formulaCount);
     }
 
     @Override
@@ -49,20 +52,24 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitor<FormulaExe
       // No need to create a counter on file levels
       return null;
     }
-  };
+  }
 
   @CheckForNull
   private final PeriodsHolder periodsHolder;
   private final MetricRepository metricRepository;
   private final MeasureRepository measureRepository;
   private final List<Formula> formulas;
+  private final Metric[][] outputMetrics;
+  private final FileAggregateContextImpl fileAggregateContext = new FileAggregateContextImpl();
+  private final CreateMeasureContextImpl createMeasureContext = new CreateMeasureContextImpl();
 
   private FormulaExecutorComponentVisitor(Builder builder, List<Formula> formulas) {
-    super(Component.Type.FILE, Order.POST_ORDER, COUNTERS_FACTORY);
+    super(Component.Type.FILE, Order.POST_ORDER, new CountersFactory(formulas.size()));
     this.periodsHolder = builder.periodsHolder;
     this.measureRepository = builder.measureRepository;
     this.metricRepository = builder.metricRepository;
     this.formulas = ImmutableList.copyOf(formulas);
+    this.outputMetrics = new Metric[formulas.size()][];
   }
 
   public static Builder newBuilder(MetricRepository metricRepository, MeasureRepository measureRepository) {
@@ -115,50 +122,63 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitor<FormulaExe
   }
 
   private void processNotFile(Component component, Path<FormulaExecutorComponentVisitor.Counters> path) {
-    for (Formula formula : formulas) {
-      Counter counter = path.current().getCounter(formula);
+    for (int i = 0; i < formulas.size(); i++) {
+      Counter counter = path.current().getCounter(i);
       // If there were no file under this node, the counter won't be initialized
       if (counter != null) {
-        for (String metricKey : formula.getOutputMetricKeys()) {
-          addNewMeasure(component, metricKey, formula, counter);
-        }
-        aggregateToParent(path, formula, counter);
+        addNewMeasures(component, i, counter);
+        aggregateToParent(path, i, counter);
       }
     }
   }
 
   private void processFile(Component file, Path<FormulaExecutorComponentVisitor.Counters> path) {
-    FileAggregateContext counterContext = new FileAggregateContextImpl(file);
-    for (Formula formula : formulas) {
-      Counter counter = formula.createNewCounter();
-      counter.aggregate(counterContext);
-      for (String metricKey : formula.getOutputMetricKeys()) {
-        addNewMeasure(file, metricKey, formula, counter);
+    fileAggregateContext.file = file;
+    for (int i = 0; i < formulas.size(); i++) {
+      Counter counter = formulas.get(i).createNewCounter();
+      counter.aggregate(fileAggregateContext);
+      addNewMeasures(file, i, counter);
+      aggregateToParent(path, i, counter);
+    }
+    fileAggregateContext.file = null;
+  }
+
+  private void addNewMeasures(Component component, int formulaIndex, Counter counter) {
+    Formula formula = formulas.get(formulaIndex);
+    createMeasureContext.component = component;
+    for (Metric metric : getOutputMetrics(formulaIndex)) {
+      createMeasureContext.metric = metric;
+      Optional<Measure> measure = formula.createMeasure(counter, createMeasureContext);
+      if (measure.isPresent()) {
+        measureRepository.add(component, metric, measure.get());
       }
-      aggregateToParent(path, formula, counter);
     }
   }
 
-  private void addNewMeasure(Component component, String metricKey, Formula formula, Counter counter) {
-    Metric metric = metricRepository.getByKey(metricKey);
-    Optional<Measure> measure = formula.createMeasure(counter, new CreateMeasureContextImpl(component, metric));
-    if (measure.isPresent()) {
-      measureRepository.add(component, metric, measure.get());
+  /**
+   * Output metrics are resolved once per formula rather than once per component.
+   */
+  private Metric[] getOutputMetrics(int formulaIndex) {
+    Metric[] metrics = outputMetrics[formulaIndex];
+    if (metrics == null) {
+      String[] metricKeys = formulas.get(formulaIndex).getOutputMetricKeys();
+      metrics = new Metric[metricKeys.length];
+      for (int i = 0; i < metricKeys.length; i++) {
+        metrics[i] = metricRepository.getByKey(metricKeys[i]);
+      }
+      outputMetrics[formulaIndex] = metrics;
     }
+    return metrics;
   }
 
-  private void aggregateToParent(Path<FormulaExecutorComponentVisitor.Counters> path, Formula formula, Counter currentCounter) {
+  private static void aggregateToParent(Path<FormulaExecutorComponentVisitor.Counters> path, int formulaIndex, Counter currentCounter) {
     if (!path.isRoot()) {
-      path.parent().aggregate(formula, currentCounter);
+      path.parent().aggregate(formulaIndex, currentCounter);
     }
   }
 
   private class FileAggregateContextImpl implements FileAggregateContext {
-    private final Component file;
-
-    public FileAggregateContextImpl(Component file) {
-      this.file = file;
-    }
+    private Component file;
 
     @Override
     public Component getFile() {
@@ -176,13 +196,20 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitor<FormulaExe
     }
   }
 
+  /**
+   * Counters of a component, one slot per formula (in the order of the formulas given to the visitor).
+   */
   public static class Counters {
-    Map<Formula, Counter> countersByFormula = new HashMap<>();
+    private final Counter[] counters;
+
+    Counters(int formulaCount) {
+      this.counters = new Counter[formulaCount];
+    }
 
-    public void aggregate(Formula formula, Counter childCounter) {
-      Counter counter = countersByFormula.get(formula);
+    public void aggregate(int formulaIndex, Counter childCounter) {
+      Counter counter = counters[formulaIndex];
       if (counter == null) {
-        countersByFormula.put(formula, childCounter);
+        counters[formulaIndex] = childCounter;
       } else {
         counter.aggregate(childCounter);
       }
@@ -192,19 +219,14 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitor<FormulaExe
      * Counter can be null on a level when it has not been fed by children levels
      */
     @CheckForNull
-    public Counter getCounter(Formula formula) {
-      return countersByFormula.get(formula);
+    public Counter getCounter(int formulaIndex) {
+      return counters[formulaIndex];
     }
   }
 
   private class CreateMeasureContextImpl implements CreateMeasureContext {
-    private final Component component;
-    private final Metric metric;
-
-    public CreateMeasureContextImpl(Component component, Metric metric) {
-      this.component = component;
-      this.metric = metric;
-    }
+    private Component component;
+    private Metric metric;
 
     @Override
     public Component getComponent() {
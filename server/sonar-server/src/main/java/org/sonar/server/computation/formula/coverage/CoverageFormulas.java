@@ -17,28 +17,18 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.server.computation.step;
+package org.sonar.server.computation.formula.coverage;
 
 import com.google.common.collect.ImmutableList;
+import java.util.List;
 import org.sonar.api.measures.CoreMetrics;
-import org.sonar.server.computation.component.TreeRootHolder;
 import org.sonar.server.computation.formula.Formula;
-import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
-import org.sonar.server.computation.formula.coverage.LinesAndConditionsWithUncoveredFormula;
-import org.sonar.server.computation.formula.coverage.LinesAndConditionsWithUncoveredMetricKeys;
-import org.sonar.server.computation.formula.coverage.LinesAndConditionsWithUncoveredVariationFormula;
-import org.sonar.server.computation.formula.coverage.SingleWithUncoveredFormula;
-import org.sonar.server.computation.formula.coverage.SingleWithUncoveredMetricKeys;
-import org.sonar.server.computation.formula.coverage.SingleWithUncoveredVariationFormula;
-import org.sonar.server.computation.measure.MeasureRepository;
-import org.sonar.server.computation.metric.MetricRepository;
-import org.sonar.server.computation.period.PeriodsHolder;
 
 /**
- * Computes coverage measures on files and then aggregates them on higher components.
+ * Formulas computing coverage measures on files and then aggregating them on higher components.
  */
-public class CoverageMeasuresStep implements ComputationStep {
-  private static final ImmutableList<Formula> COVERAGE_FORMULAS = ImmutableList.<Formula>of(
+public final class CoverageFormulas {
+  private static final List<Formula> FORMULAS = ImmutableList.<Formula>of(
       // code
       new CodeCoverageFormula(),
       new NewCodeCoverageFormula(),
@@ -62,25 +52,15 @@ public class CoverageMeasuresStep implements ComputationStep {
       new NewOverallLineCoverageFormula()
   );
 
-  private final TreeRootHolder treeRootHolder;
-  private final PeriodsHolder periodsHolder;
-  private final MetricRepository metricRepository;
-  private final MeasureRepository measureRepository;
-
-  public CoverageMeasuresStep(TreeRootHolder treeRootHolder,
-    PeriodsHolder periodsHolder, MetricRepository metricRepository, MeasureRepository measureRepository) {
-    this.treeRootHolder = treeRootHolder;
-    this.periodsHolder = periodsHolder;
-    this.metricRepository = metricRepository;
-    this.measureRepository = measureRepository;
+  private CoverageFormulas() {
+    // only static stuff
   }
 
-  @Override
-  public void execute() {
-    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
-      .withVariationSupport(periodsHolder)
-      .buildFor(COVERAGE_FORMULAS)
-      .visit(treeRootHolder.getRoot());
+  /**
+   * Formulas reading, on files, the measures of lines and conditions to cover, including the new ones.
+   */
+  public static List<Formula> formulas() {
+    return FORMULAS;
   }
 
   private static class CodeCoverageFormula extends LinesAndConditionsWithUncoveredFormula {
@@ -258,9 +238,4 @@ public class CoverageMeasuresStep implements ComputationStep {
         CoreMetrics.NEW_OVERALL_LINE_COVERAGE_KEY);
     }
   }
-
-  @Override
-  public String getDescription() {
-    return "Aggregation of coverage measures";
-  }
 }
@@ -17,7 +17,7 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.server.computation.step;
+package org.sonar.server.computation.formula.coverage;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
@@ -33,59 +33,35 @@ import org.sonar.api.utils.KeyValueFormat;
 import org.sonar.batch.protocol.output.BatchReport;
 import org.sonar.server.computation.batch.BatchReportReader;
 import org.sonar.server.computation.component.Component;
-import org.sonar.server.computation.component.TreeRootHolder;
 import org.sonar.server.computation.formula.CreateMeasureContext;
 import org.sonar.server.computation.formula.FileAggregateContext;
 import org.sonar.server.computation.formula.Formula;
-import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
 import org.sonar.server.computation.formula.counter.IntVariationValue;
 import org.sonar.server.computation.measure.Measure;
-import org.sonar.server.computation.measure.MeasureRepository;
 import org.sonar.server.computation.measure.MeasureVariations;
 import org.sonar.server.computation.metric.Metric;
-import org.sonar.server.computation.metric.MetricRepository;
 import org.sonar.server.computation.period.Period;
-import org.sonar.server.computation.period.PeriodsHolder;
 
 import static org.sonar.server.computation.measure.Measure.newMeasureBuilder;
 
 /**
- * Computes measures related to the New Coverage. These measures do not have values, only variations.
+ * Formulas computing measures related to the New Coverage. These measures do not have values, only variations.
  */
-public class NewCoverageMeasuresStep implements ComputationStep {
-  private final TreeRootHolder treeRootHolder;
-  private final PeriodsHolder periodsHolder;
-  private final BatchReportReader batchReportReader;
-  private final MetricRepository metricRepository;
-  private final MeasureRepository measureRepository;
-
-  public NewCoverageMeasuresStep(TreeRootHolder treeRootHolder, PeriodsHolder periodsHolder, BatchReportReader batchReportReader,
-    MeasureRepository measureRepository, final MetricRepository metricRepository) {
-    this.treeRootHolder = treeRootHolder;
-    this.periodsHolder = periodsHolder;
-    this.batchReportReader = batchReportReader;
-    this.metricRepository = metricRepository;
-    this.measureRepository = measureRepository;
-  }
+public final class NewCoverageFormulas {
 
-  @Override
-  public void execute() {
-    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
-      .withVariationSupport(periodsHolder)
-      .buildFor(ImmutableList.<Formula>of(
-        // File coverage
-        new NewCoverageOnFileFormula(batchReportReader),
-        // IT File coverage
-        new NewCoverageOnITFileFormula(batchReportReader),
-        // Overall coverage
-        new NewOverallCoverageFormula(batchReportReader)
-        ))
-      .visit(treeRootHolder.getRoot());
+  private NewCoverageFormulas() {
+    // only static stuff
   }
 
-  @Override
-  public String getDescription() {
-    return "Computation of New Coverage measures";
+  public static List<Formula> formulas(BatchReportReader batchReportReader) {
+    return ImmutableList.<Formula>of(
+      // File coverage
+      new NewCoverageOnFileFormula(batchReportReader),
+      // IT File coverage
+      new NewCoverageOnITFileFormula(batchReportReader),
+      // Overall coverage
+      new NewOverallCoverageFormula(batchReportReader)
+      );
   }
 
   private static class NewCoverageOnFileFormula extends NewCoverageFormula {
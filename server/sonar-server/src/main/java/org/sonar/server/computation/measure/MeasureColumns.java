@@ -0,0 +1,341 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.measure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.server.computation.metric.Metric;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Measures not associated to a rule nor a characteristic, stored in primitive columns rather than as {@link Measure}
+ * objects. A measure is identified by the ref of its component and the id of its metric, which are indexed by an open
+ * addressing hash table, and is stored in a slot of the columns. Strings are dictionary-encoded as the same data,
+ * descriptions and quality gate texts are repeated on many components.
+ * <p>
+ * A new {@link Measure} is created on each read. A measure can also be declared without being loaded, when its
+ * value is too expensive to be read before it is actually requested.
+ * </p>
+ * This class is not thread safe.
+ */
+final class MeasureColumns {
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int NO_SLOT = -1;
+  private static final int NULL_STRING = -1;
+  private static final byte NULL_BYTE = -1;
+  private static final int VARIATIONS = 5;
+  private static final Measure.ValueType[] VALUE_TYPES = Measure.ValueType.values();
+  private static final Measure.Level[] LEVELS = Measure.Level.values();
+
+  // slot + 1 of the measure by position in the hash table, 0 for free positions
+  private int[] index = new int[INITIAL_CAPACITY * 2];
+  private int size = 0;
+
+  // columns, by slot
+  private long[] keys = new long[INITIAL_CAPACITY];
+  private int[] metricKeys = new int[INITIAL_CAPACITY];
+  private byte[] valueTypes = new byte[INITIAL_CAPACITY];
+  // NaN when there is no value, as NaN is not allowed as the value of a measure
+  private double[] values = new double[INITIAL_CAPACITY];
+  private int[] data = new int[INITIAL_CAPACITY];
+  private byte[] levels = new byte[INITIAL_CAPACITY];
+  private int[] descriptions = new int[INITIAL_CAPACITY];
+  private byte[] qualityGateLevels = new byte[INITIAL_CAPACITY];
+  private int[] qualityGateTexts = new int[INITIAL_CAPACITY];
+  // VARIATIONS values by slot, NaN when there is no variation. Allocated by the first measure with variations.
+  @CheckForNull
+  private double[] variations;
+  private final BitSet withVariations = new BitSet();
+  private final BitSet unloaded = new BitSet();
+  // slots of a component are chained, from the slot of its last added measure
+  private int[] nextSlotOfComponent = new int[INITIAL_CAPACITY];
+  private int[] lastSlotByRef = new int[0];
+
+  private final List<String> dictionary = new ArrayList<>();
+  private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+  /**
+   * Adds the measure, or replaces the current measure of the component for the metric.
+   *
+   * @throws IllegalArgumentException if the ref is negative or if the measure is associated to a rule or a characteristic
+   */
+  void put(int ref, Metric metric, Measure measure) {
+    checkArgument(measure.getRuleId() == null && measure.getCharacteristicId() == null, "Measures on rules or characteristics are not supported");
+    int slot = slotForPut(ref, metric);
+    unloaded.clear(slot);
+    valueTypes[slot] = (byte) measure.getValueType().ordinal();
+    values[slot] = numericValue(measure);
+    data[slot] = encode(measure.getData());
+    levels[slot] = measure.getValueType() == Measure.ValueType.LEVEL ? (byte) measure.getLevelValue().ordinal() : NULL_BYTE;
+    descriptions[slot] = encode(measure.getDescription());
+    if (measure.hasQualityGateStatus()) {
+      qualityGateLevels[slot] = (byte) measure.getQualityGateStatus().getStatus().ordinal();
+      qualityGateTexts[slot] = encode(measure.getQualityGateStatus().getText());
+    } else {
+      qualityGateLevels[slot] = NULL_BYTE;
+      qualityGateTexts[slot] = NULL_STRING;
+    }
+    putVariations(slot, measure);
+  }
+
+  /**
+   * Declares that the component has a measure for the metric, which is not loaded.
+   *
+   * @throws IllegalArgumentException if the ref is negative
+   */
+  void putUnloaded(int ref, Metric metric) {
+    int slot = slotForPut(ref, metric);
+    unloaded.set(slot);
+    withVariations.clear(slot);
+  }
+
+  boolean contains(int ref, Metric metric) {
+    return slot(ref, metric.getId()) != NO_SLOT;
+  }
+
+  boolean isLoaded(int ref, Metric metric) {
+    int slot = slot(ref, metric.getId());
+    return slot != NO_SLOT && !unloaded.get(slot);
+  }
+
+  /**
+   * @return {@code null} if the component has no measure for the metric, or if this measure is not loaded
+   */
+  @CheckForNull
+  Measure get(int ref, Metric metric) {
+    int slot = slot(ref, metric.getId());
+    if (slot == NO_SLOT || unloaded.get(slot)) {
+      return null;
+    }
+    return toMeasure(slot);
+  }
+
+  /**
+   * Loaded measures of the component, by metric key
+   */
+  Map<String, Measure> getAll(int ref) {
+    Map<String, Measure> measures = new LinkedHashMap<>();
+    int slot = ref >= 0 && ref < lastSlotByRef.length ? lastSlotByRef[ref] : NO_SLOT;
+    while (slot != NO_SLOT) {
+      if (!unloaded.get(slot)) {
+        measures.put(dictionary.get(metricKeys[slot]), toMeasure(slot));
+      }
+      slot = nextSlotOfComponent[slot];
+    }
+    return measures;
+  }
+
+  /**
+   * Keys of the metrics of the measures of the component which are declared but not loaded
+   */
+  List<String> getUnloadedMetricKeys(int ref) {
+    List<String> metricKeysOfComponent = new ArrayList<>();
+    int slot = ref >= 0 && ref < lastSlotByRef.length ? lastSlotByRef[ref] : NO_SLOT;
+    while (slot != NO_SLOT) {
+      if (unloaded.get(slot)) {
+        metricKeysOfComponent.add(dictionary.get(metricKeys[slot]));
+      }
+      slot = nextSlotOfComponent[slot];
+    }
+    return metricKeysOfComponent;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int slotForPut(int ref, Metric metric) {
+    checkArgument(ref >= 0, "Component ref must be positive: %s", ref);
+    int slot = slot(ref, metric.getId());
+    if (slot == NO_SLOT) {
+      slot = addSlot(ref, metric);
+    }
+    return slot;
+  }
+
+  private int slot(int ref, int metricId) {
+    if (ref < 0) {
+      return NO_SLOT;
+    }
+    long key = key(ref, metricId);
+    int mask = index.length - 1;
+    for (int position = hash(key) & mask; index[position] != 0; position = (position + 1) & mask) {
+      int slot = index[position] - 1;
+      if (keys[slot] == key) {
+        return slot;
+      }
+    }
+    return NO_SLOT;
+  }
+
+  private int addSlot(int ref, Metric metric) {
+    if (size == keys.length) {
+      grow();
+    }
+    int slot = size;
+    size++;
+    keys[slot] = key(ref, metric.getId());
+    metricKeys[slot] = encode(metric.getKey());
+    index(slot);
+
+    if (ref >= lastSlotByRef.length) {
+      int previousLength = lastSlotByRef.length;
+      lastSlotByRef = Arrays.copyOf(lastSlotByRef, Math.max(ref + 1, previousLength * 2));
+      Arrays.fill(lastSlotByRef, previousLength, lastSlotByRef.length, NO_SLOT);
+    }
+    nextSlotOfComponent[slot] = lastSlotByRef[ref];
+    lastSlotByRef[ref] = slot;
+    return slot;
+  }
+
+  private void index(int slot) {
+    int mask = index.length - 1;
+    int position = hash(keys[slot]) & mask;
+    while (index[position] != 0) {
+      position = (position + 1) & mask;
+    }
+    index[position] = slot + 1;
+  }
+
+  private void grow() {
+    int capacity = keys.length * 2;
+    keys = Arrays.copyOf(keys, capacity);
+    metricKeys = Arrays.copyOf(metricKeys, capacity);
+    valueTypes = Arrays.copyOf(valueTypes, capacity);
+    values = Arrays.copyOf(values, capacity);
+    data = Arrays.copyOf(data, capacity);
+    levels = Arrays.copyOf(levels, capacity);
+    descriptions = Arrays.copyOf(descriptions, capacity);
+    qualityGateLevels = Arrays.copyOf(qualityGateLevels, capacity);
+    qualityGateTexts = Arrays.copyOf(qualityGateTexts, capacity);
+    if (variations != null) {
+      variations = Arrays.copyOf(variations, capacity * VARIATIONS);
+    }
+    nextSlotOfComponent = Arrays.copyOf(nextSlotOfComponent, capacity);
+
+    // the hash table is kept at most half full
+    index = new int[capacity * 2];
+    for (int slot = 0; slot < size; slot++) {
+      index(slot);
+    }
+  }
+
+  private void putVariations(int slot, Measure measure) {
+    if (!measure.hasVariations()) {
+      withVariations.clear(slot);
+      return;
+    }
+    if (variations == null) {
+      variations = new double[keys.length * VARIATIONS];
+    }
+    MeasureVariations measureVariations = measure.getVariations();
+    for (int i = 0; i < VARIATIONS; i++) {
+      variations[slot * VARIATIONS + i] = measureVariations.hasVariation(i + 1) ? measureVariations.getVariation(i + 1) : Double.NaN;
+    }
+    withVariations.set(slot);
+  }
+
+  private Measure toMeasure(int slot) {
+    Measure.NewMeasureBuilder builder = Measure.newMeasureBuilder();
+    if (descriptions[slot] != NULL_STRING) {
+      builder.setDescription(dictionary.get(descriptions[slot]));
+    }
+    if (qualityGateLevels[slot] != NULL_BYTE) {
+      builder.setQualityGateStatus(new QualityGateStatus(LEVELS[qualityGateLevels[slot]], decode(qualityGateTexts[slot])));
+    }
+    if (withVariations.get(slot)) {
+      Double[] measureVariations = new Double[VARIATIONS];
+      for (int i = 0; i < VARIATIONS; i++) {
+        double variation = variations[slot * VARIATIONS + i];
+        measureVariations[i] = Double.isNaN(variation) ? null : variation;
+      }
+      builder.setVariations(new MeasureVariations(measureVariations));
+    }
+
+    double value = values[slot];
+    String measureData = decode(data[slot]);
+    switch (VALUE_TYPES[valueTypes[slot]]) {
+      case BOOLEAN:
+        return builder.create(value == 1.0d, measureData);
+      case INT:
+        return builder.create((int) value, measureData);
+      case LONG:
+        return builder.create((long) value, measureData);
+      case DOUBLE:
+        return builder.create(value, measureData);
+      case STRING:
+        return builder.create(measureData);
+      case LEVEL:
+        return builder.create(LEVELS[levels[slot]]);
+      default:
+        return builder.createNoValue();
+    }
+  }
+
+  private static double numericValue(Measure measure) {
+    switch (measure.getValueType()) {
+      case BOOLEAN:
+        return measure.getBooleanValue() ? 1.0d : 0.0d;
+      case INT:
+        return measure.getIntValue();
+      case LONG:
+        return measure.getLongValue();
+      case DOUBLE:
+        return measure.getDoubleValue();
+      default:
+        return Double.NaN;
+    }
+  }
+
+  private int encode(@Nullable String s) {
+    if (s == null) {
+      return NULL_STRING;
+    }
+    Integer id = dictionaryIndex.get(s);
+    if (id == null) {
+      id = dictionary.size();
+      dictionary.add(s);
+      dictionaryIndex.put(s, id);
+    }
+    return id;
+  }
+
+  @CheckForNull
+  private String decode(int id) {
+    return id == NULL_STRING ? null : dictionary.get(id);
+  }
+
+  private static long key(int ref, int metricId) {
+    return ((long) ref << 32) | (metricId & 0xFFFFFFFFL);
+  }
+
+  private static int hash(long key) {
+    int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.measure;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.DbSession;
+import org.sonar.db.measure.MeasureDao;
+import org.sonar.db.measure.MeasureDto;
+
+/**
+ * Buffers {@link MeasureDto} to insert them in bulk with {@link MeasureDao#insert(DbSession, java.util.Collection)},
+ * which uses multi-row statements.
+ * {@link #close()} inserts the remaining measures and logs the insertion throughput.
+ */
+public class MeasureDtoInserter {
+
+  private static final Logger LOG = Loggers.get(MeasureDtoInserter.class);
+
+  static final int BUFFER_SIZE = 1000;
+
+  private final MeasureDao measureDao;
+  private final DbSession session;
+  private final String label;
+  private List<MeasureDto> buffer = new ArrayList<>(BUFFER_SIZE);
+  private final long start = System.currentTimeMillis();
+  private long count = 0;
+
+  /**
+   * @param label what is inserted, for instance "measures", used in the log
+   */
+  public MeasureDtoInserter(MeasureDao measureDao, DbSession session, String label) {
+    this.measureDao = measureDao;
+    this.session = session;
+    this.label = label;
+  }
+
+  public void insert(MeasureDto measureDto) {
+    buffer.add(measureDto);
+    if (buffer.size() >= BUFFER_SIZE) {
+      flush();
+    }
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void close() {
+    flush();
+    long duration = Math.max(1L, System.currentTimeMillis() - start);
+    LOG.info("{} {} inserted in {} ms ({} rows/s)", count, label, duration, count * 1000L / duration);
+  }
+
+  private void flush() {
+    if (!buffer.isEmpty()) {
+      measureDao.insert(session, buffer);
+      count += buffer.size();
+      buffer = new ArrayList<>(BUFFER_SIZE);
+    }
+  }
+}
@@ -21,12 +21,19 @@ package org.sonar.server.computation.measure;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.sonar.api.measures.CoreMetrics;
 import org.sonar.batch.protocol.output.BatchReport;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -34,6 +41,8 @@ import org.sonar.db.measure.MeasureDto;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.server.computation.batch.BatchReportReader;
 import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DepthTraversalTypeAwareVisitor;
+import org.sonar.server.computation.component.TreeRootHolder;
 import org.sonar.server.computation.debt.Characteristic;
 import org.sonar.server.computation.metric.Metric;
 import org.sonar.server.computation.metric.MetricRepository;
@@ -41,21 +50,44 @@ import org.sonar.server.computation.metric.MetricRepository;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.sonar.server.computation.component.ComponentVisitor.Order.PRE_ORDER;
 
+/**
+ * Measures which are not associated to a rule nor a characteristic, which are most of the measures of an analysis, are
+ * stored in the primitive columns of {@link MeasureColumns}. Measures on rules or characteristics are indexed by
+ * component ref, as refs generated by the batch are small positive integers.
+ * <p>
+ * Base measures of all the components of the project are loaded by the first call to
+ * {@link #getBaseMeasure(Component, Metric)}, in a single streaming query which does not read data blobs. The data
+ * blob of a measure is read when this measure is requested.
+ * </p>
+ * <p>
+ * The report has no measures on files which are carried over from the previous analysis (see
+ * {@link org.sonar.server.computation.component.FileAttributes#isCarriedOver()}): their base measures are used as
+ * raw measures, unless a raw measure is added by the Compute Engine for the same metric. Duplications data are
+ * not part of them, as they are persisted apart from the other measures.
+ * </p>
+ */
 public class MeasureRepositoryImpl implements MeasureRepository {
   private final DbClient dbClient;
   private final BatchReportReader reportReader;
   private final BatchMeasureToMeasure batchMeasureToMeasure;
   private final MetricRepository metricRepository;
+  private final TreeRootHolder treeRootHolder;
   private final MeasureDtoToMeasure measureDtoToMeasure = new MeasureDtoToMeasure();
-  private final Set<Integer> loadedComponents = new HashSet<>();
-  private final Map<Integer, Map<MeasureKey, Measure>> measures = new HashMap<>();
+  private final BitSet loadedComponents = new BitSet();
+  private final MeasureColumns rawMeasures = new MeasureColumns();
+  // raw measures on rules or characteristics, by component ref
+  private final List<Map<MeasureKey, Measure>> measuresOnRulesAndCharacteristics = new ArrayList<>();
+  @CheckForNull
+  private MeasureColumns baseMeasures;
 
-  public MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository) {
+  public MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository, TreeRootHolder treeRootHolder) {
     this.dbClient = dbClient;
     this.reportReader = reportReader;
     this.batchMeasureToMeasure = new BatchMeasureToMeasure();
     this.metricRepository = metricRepository;
+    this.treeRootHolder = treeRootHolder;
   }
 
   @Override
@@ -64,10 +96,64 @@ public class MeasureRepositoryImpl implements MeasureRepository {
     requireNonNull(component);
     requireNonNull(metric);
 
+    MeasureColumns measures = getBaseMeasures();
+    Measure measure = measures.get(component.getRef(), metric);
+    if (measure != null) {
+      return Optional.of(measure);
+    }
+    if (!measures.contains(component.getRef(), metric)) {
+      return Optional.absent();
+    }
+
+    // data of the measure is stored in a blob, which is not preloaded
+    Optional<Measure> loaded;
     try (DbSession dbSession = dbClient.openSession(false)) {
       MeasureDto measureDto = dbClient.measureDao().findByComponentKeyAndMetricKey(dbSession, component.getKey(), metric.getKey());
-      return measureDtoToMeasure.toMeasure(measureDto, metric);
+      loaded = measureDtoToMeasure.toMeasure(measureDto, metric);
+    }
+    if (loaded.isPresent()) {
+      measures.put(component.getRef(), metric, loaded.get());
+    }
+    return loaded;
+  }
+
+  private MeasureColumns getBaseMeasures() {
+    if (baseMeasures == null) {
+      baseMeasures = loadBaseMeasures();
+    }
+    return baseMeasures;
+  }
+
+  private MeasureColumns loadBaseMeasures() {
+    final Map<String, Integer> refsByKey = new HashMap<>();
+    new DepthTraversalTypeAwareVisitor(Component.Type.FILE, PRE_ORDER) {
+      @Override
+      public void visitAny(Component component) {
+        refsByKey.put(component.getKey(), component.getRef());
+      }
+    }.visit(treeRootHolder.getRoot());
+
+    final MeasureColumns measures = new MeasureColumns();
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.measureDao().selectLastMeasuresOfProjectWithoutDataBlobs(dbSession, treeRootHolder.getRoot().getUuid(), new ResultHandler() {
+        @Override
+        public void handleResult(ResultContext context) {
+          MeasureDto measureDto = (MeasureDto) context.getResultObject();
+          Integer ref = refsByKey.get(measureDto.getComponentKey());
+          if (ref == null || ref < 0) {
+            // component is not part of the analysis anymore
+            return;
+          }
+          Metric metric = metricRepository.getById(measureDto.getMetricId());
+          if (measureDto.isDataSkipped()) {
+            measures.putUnloaded(ref, metric);
+          } else {
+            measures.put(ref, metric, measureDtoToMeasure.toMeasure(measureDto, metric).get());
+          }
+        }
+      });
     }
+    return measures;
   }
 
   @Override
@@ -83,7 +169,11 @@ public class MeasureRepositoryImpl implements MeasureRepository {
 
     // look up in batch after loading (if not yet loaded) measures from batch
     loadBatchMeasuresForComponent(component);
-    return findLocal(component, metric, null, null);
+    local = findLocal(component, metric, null, null);
+    if (local.isPresent()) {
+      return local;
+    }
+    return findCarriedOver(component, metric);
   }
 
   @Override
@@ -130,6 +220,9 @@ public class MeasureRepositoryImpl implements MeasureRepository {
     checkValueTypeConsistency(metric, measure);
 
     Optional<Measure> existingMeasure = findLocal(component, metric, measure);
+    if (!existingMeasure.isPresent() && measure.getRuleId() == null && measure.getCharacteristicId() == null) {
+      existingMeasure = findCarriedOver(component, metric);
+    }
     if (!existingMeasure.isPresent()) {
       throw new UnsupportedOperationException(
         format(
@@ -163,52 +256,92 @@ public class MeasureRepositoryImpl implements MeasureRepository {
   @Override
   public SetMultimap<String, Measure> getRawMeasures(Component component) {
     loadBatchMeasuresForComponent(component);
-    Map<MeasureKey, Measure> rawMeasures = measures.get(component.getRef());
-    if (rawMeasures == null) {
-      return ImmutableSetMultimap.of();
-    }
-
+    Map<String, Measure> measures = getCarriedOverMeasures(component);
+    measures.putAll(rawMeasures.getAll(component.getRef()));
     ImmutableSetMultimap.Builder<String, Measure> builder = ImmutableSetMultimap.builder();
-    for (Map.Entry<MeasureKey, Measure> entry : rawMeasures.entrySet()) {
-      builder.put(entry.getKey().getMetricKey(), entry.getValue());
+    builder.putAll(Multimaps.forMap(measures));
+    Map<MeasureKey, Measure> measuresOnRulesOrCharacteristics = getByRef(measuresOnRulesAndCharacteristics, component.getRef());
+    if (measuresOnRulesOrCharacteristics != null) {
+      for (Map.Entry<MeasureKey, Measure> entry : measuresOnRulesOrCharacteristics.entrySet()) {
+        builder.put(entry.getKey().getMetricKey(), entry.getValue());
+      }
     }
     return builder.build();
   }
 
+  private static boolean isCarriedOver(Component component) {
+    return component.getType() == Component.Type.FILE && component.getFileAttributes().isCarriedOver();
+  }
+
+  private Optional<Measure> findCarriedOver(Component component, Metric metric) {
+    if (!isCarriedOver(component) || CoreMetrics.DUPLICATIONS_DATA_KEY.equals(metric.getKey())) {
+      return Optional.absent();
+    }
+    return getBaseMeasure(component, metric);
+  }
+
+  private Map<String, Measure> getCarriedOverMeasures(Component component) {
+    if (!isCarriedOver(component)) {
+      return new LinkedHashMap<>();
+    }
+    MeasureColumns measures = getBaseMeasures();
+    for (String metricKey : measures.getUnloadedMetricKeys(component.getRef())) {
+      if (!CoreMetrics.DUPLICATIONS_DATA_KEY.equals(metricKey)) {
+        // loads the blob of the measure
+        getBaseMeasure(component, metricRepository.getByKey(metricKey));
+      }
+    }
+    Map<String, Measure> carriedOverMeasures = measures.getAll(component.getRef());
+    carriedOverMeasures.remove(CoreMetrics.DUPLICATIONS_DATA_KEY);
+    return carriedOverMeasures;
+  }
+
   private void loadBatchMeasuresForComponent(Component component) {
-    if (loadedComponents.contains(component.getRef())) {
+    int ref = component.getRef();
+    // there are no measures in the report for components which are not from the batch
+    if (ref < 0 || loadedComponents.get(ref)) {
       return;
     }
 
-    for (BatchReport.Measure batchMeasure : reportReader.readComponentMeasures(component.getRef())) {
+    for (BatchReport.Measure batchMeasure : reportReader.readComponentMeasures(ref)) {
       Metric metric = metricRepository.getByKey(batchMeasure.getMetricKey());
       addLocal(component, metric, batchMeasureToMeasure.toMeasure(batchMeasure, metric).get(), OverridePolicy.DO_NOT_OVERRIDE);
     }
-    loadedComponents.add(component.getRef());
+    loadedComponents.set(ref);
   }
 
   private Optional<Measure> findLocal(Component component, Metric metric,
     @Nullable RuleDto rule, @Nullable Characteristic characteristic) {
-    Map<MeasureKey, Measure> measuresPerMetric = measures.get(component.getRef());
-    if (measuresPerMetric == null) {
-      return Optional.absent();
-    }
-    return Optional.fromNullable(measuresPerMetric.get(new MeasureKey(metric.getKey(), rule, characteristic)));
+    return findLocalByIds(component, metric, rule == null ? null : rule.getId(), characteristic == null ? null : characteristic.getId());
   }
 
   private Optional<Measure> findLocal(Component component, Metric metric, Measure measure) {
-    Map<MeasureKey, Measure> measuresPerMetric = measures.get(component.getRef());
+    return findLocalByIds(component, metric, measure.getRuleId(), measure.getCharacteristicId());
+  }
+
+  private Optional<Measure> findLocalByIds(Component component, Metric metric, @Nullable Integer ruleId, @Nullable Integer characteristicId) {
+    if (ruleId == null && characteristicId == null) {
+      return Optional.fromNullable(rawMeasures.get(component.getRef(), metric));
+    }
+    Map<MeasureKey, Measure> measuresPerMetric = getByRef(measuresOnRulesAndCharacteristics, component.getRef());
     if (measuresPerMetric == null) {
       return Optional.absent();
     }
-    return Optional.fromNullable(measuresPerMetric.get(new MeasureKey(metric.getKey(), measure.getRuleId(), measure.getCharacteristicId())));
+    return Optional.fromNullable(measuresPerMetric.get(new MeasureKey(metric.getKey(), ruleId, characteristicId)));
   }
 
   private void addLocal(Component component, Metric metric, Measure measure, OverridePolicy overridePolicy) {
-    Map<MeasureKey, Measure> measuresPerMetric = measures.get(component.getRef());
+    if (measure.getRuleId() == null && measure.getCharacteristicId() == null) {
+      if (overridePolicy == OverridePolicy.OVERRIDE || !rawMeasures.contains(component.getRef(), metric)) {
+        rawMeasures.put(component.getRef(), metric, measure);
+      }
+      return;
+    }
+
+    Map<MeasureKey, Measure> measuresPerMetric = getByRef(measuresOnRulesAndCharacteristics, component.getRef());
     if (measuresPerMetric == null) {
       measuresPerMetric = new HashMap<>();
-      measures.put(component.getRef(), measuresPerMetric);
+      setByRef(measuresOnRulesAndCharacteristics, component.getRef(), measuresPerMetric);
     }
     MeasureKey key = new MeasureKey(metric.getKey(), measure.getRuleId(), measure.getCharacteristicId());
     if (!measuresPerMetric.containsKey(key) || overridePolicy == OverridePolicy.OVERRIDE) {
@@ -216,6 +349,19 @@ public class MeasureRepositoryImpl implements MeasureRepository {
     }
   }
 
+  @CheckForNull
+  private static <T> T getByRef(List<T> valuesByRef, int ref) {
+    return ref >= 0 && ref < valuesByRef.size() ? valuesByRef.get(ref) : null;
+  }
+
+  private static <T> void setByRef(List<T> valuesByRef, int ref, T value) {
+    checkArgument(ref >= 0, "Component ref must be positive: %s", ref);
+    while (valuesByRef.size() <= ref) {
+      valuesByRef.add(null);
+    }
+    valuesByRef.set(ref, value);
+  }
+
   private enum OverridePolicy {
     OVERRIDE, DO_NOT_OVERRIDE
   }
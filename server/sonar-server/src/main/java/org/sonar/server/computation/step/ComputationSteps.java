@@ -20,13 +20,18 @@
 package org.sonar.server.computation.step;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import org.sonar.server.computation.container.ComputeEngineContainer;
 
 /**
- * Ordered list of steps to be executed
+ * Ordered list of steps to be executed. Some consecutive steps do not depend on each other
+ * and can be executed concurrently, see {@link #concurrentStepClasses()}.
  */
 public class ComputationSteps {
 
@@ -57,8 +62,6 @@ public class ComputationSteps {
 
       // SQALE measures depend on issues
       SqaleMeasuresStep.class,
-      NewCoverageMeasuresStep.class,
-      CoverageMeasuresStep.class,
 
       // Must be executed after computation of all measures
       FillMeasuresWithVariationsStep.class,
@@ -81,6 +84,7 @@ public class ComputationSteps {
       PersistProjectLinksStep.class,
       PersistEventsStep.class,
       PersistDuplicationsStep.class,
+      PersistCrossProjectDuplicationIndexStep.class,
       PersistFileSourcesStep.class,
       PersistTestsStep.class,
 
@@ -94,11 +98,45 @@ public class ComputationSteps {
       IndexIssuesStep.class,
       IndexSourceLinesStep.class,
       IndexTestsStep.class,
+      IndexProjectMeasuresStep.class,
 
       // notifications are sent at the end, so that webapp displays up-to-date information
       SendIssueNotificationsStep.class);
   }
 
+  /**
+   * Groups of steps which can be executed concurrently. Steps of a group must be consecutive in
+   * {@link #orderedStepClasses()}. They only read holders and repositories which are not modified anymore
+   * at this stage of the computation, and they write to distinct tables or indices.
+   * <p/>
+   * Note that {@link org.sonar.server.computation.measure.MeasureRepository} and
+   * {@link org.sonar.server.computation.issue.IssueCache} are not thread-safe, so a group must not contain
+   * more than one step using each of them.
+   */
+  public List<Set<Class<? extends ComputationStep>>> concurrentStepClasses() {
+    return Arrays.<Set<Class<? extends ComputationStep>>>asList(
+      // require the ids of components and snapshots
+      ImmutableSet.of(
+        PersistNumberOfDaysSinceLastCommitStep.class,
+        // the only step of the group which uses MeasureRepository
+        PersistMeasuresStep.class,
+        // the only step of the group which uses IssueCache
+        PersistIssuesStep.class,
+        PersistProjectLinksStep.class,
+        PersistEventsStep.class,
+        PersistDuplicationsStep.class,
+        PersistCrossProjectDuplicationIndexStep.class,
+        PersistFileSourcesStep.class,
+        PersistTestsStep.class),
+
+      // require the authorization of project to be indexed
+      ImmutableSet.of(
+        IndexIssuesStep.class,
+        IndexSourceLinesStep.class,
+        IndexTestsStep.class,
+        IndexProjectMeasuresStep.class));
+  }
+
   private final ComputeEngineContainer computeEngineContainer;
 
   public ComputationSteps(ComputeEngineContainer computeEngineContainer) {
@@ -109,13 +147,46 @@ public class ComputationSteps {
     return Iterables.transform(orderedStepClasses(), new Function<Class<? extends ComputationStep>, ComputationStep>() {
       @Override
       public ComputationStep apply(Class<? extends ComputationStep> input) {
-        ComputationStep computationStepType = computeEngineContainer.getStep(input);
-        if (computationStepType == null) {
-          throw new IllegalStateException(String.format("Component not found: %s", input));
-        }
-        return computationStepType;
+        return instance(input);
       }
     });
   }
 
+  /**
+   * Steps ordered by execution sequence, grouped by steps to be executed concurrently.
+   * Steps are all instantiated by this method, so that picocontainer is not called concurrently.
+   */
+  public List<List<ComputationStep>> instanceGroups() {
+    List<List<ComputationStep>> groups = new ArrayList<>();
+    Set<Class<? extends ComputationStep>> currentGroupClasses = null;
+    List<ComputationStep> currentGroup = null;
+    for (Class<? extends ComputationStep> stepClass : orderedStepClasses()) {
+      if (currentGroupClasses == null || !currentGroupClasses.contains(stepClass)) {
+        currentGroupClasses = concurrentGroupOf(stepClass);
+        currentGroup = new ArrayList<>();
+        groups.add(currentGroup);
+      }
+      currentGroup.add(instance(stepClass));
+    }
+    return groups;
+  }
+
+  @CheckForNull
+  private Set<Class<? extends ComputationStep>> concurrentGroupOf(Class<? extends ComputationStep> stepClass) {
+    for (Set<Class<? extends ComputationStep>> group : concurrentStepClasses()) {
+      if (group.contains(stepClass)) {
+        return group;
+      }
+    }
+    return null;
+  }
+
+  private ComputationStep instance(Class<? extends ComputationStep> stepClass) {
+    ComputationStep computationStepType = computeEngineContainer.getStep(stepClass);
+    if (computationStepType == null) {
+      throw new IllegalStateException(String.format("Component not found: %s", stepClass));
+    }
+    return computationStepType;
+  }
+
 }
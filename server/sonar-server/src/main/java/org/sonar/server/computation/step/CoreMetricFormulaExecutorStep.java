@@ -20,23 +20,41 @@
 
 package org.sonar.server.computation.step;
 
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.sonar.server.computation.batch.BatchReportReader;
 import org.sonar.server.computation.component.TreeRootHolder;
 import org.sonar.server.computation.formula.CoreFormulaRepository;
+import org.sonar.server.computation.formula.Formula;
 import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
+import org.sonar.server.computation.formula.coverage.CoverageFormulas;
+import org.sonar.server.computation.formula.coverage.NewCoverageFormulas;
 import org.sonar.server.computation.measure.MeasureRepository;
 import org.sonar.server.computation.metric.MetricRepository;
+import org.sonar.server.computation.period.PeriodsHolder;
 
+/**
+ * Executes, in a single post-order traversal of the component tree, the formulas of the Core metrics and those of the
+ * coverage and new coverage measures.
+ * <p>
+ * Order of formulas matters: on files, the new coverage formulas must be executed before the coverage ones, which read
+ * the new lines and conditions to cover.
+ * </p>
+ */
 public class CoreMetricFormulaExecutorStep implements ComputationStep {
 
   private final TreeRootHolder treeRootHolder;
+  private final PeriodsHolder periodsHolder;
+  private final BatchReportReader batchReportReader;
   private final MetricRepository metricRepository;
   private final MeasureRepository measureRepository;
   private final CoreFormulaRepository coreFormulaRepository;
 
-  public CoreMetricFormulaExecutorStep(TreeRootHolder treeRootHolder,
-    MetricRepository metricRepository, MeasureRepository measureRepository,
-    CoreFormulaRepository coreFormulaRepository) {
+  public CoreMetricFormulaExecutorStep(TreeRootHolder treeRootHolder, PeriodsHolder periodsHolder, BatchReportReader batchReportReader,
+    MetricRepository metricRepository, MeasureRepository measureRepository, CoreFormulaRepository coreFormulaRepository) {
     this.treeRootHolder = treeRootHolder;
+    this.periodsHolder = periodsHolder;
+    this.batchReportReader = batchReportReader;
     this.metricRepository = metricRepository;
     this.measureRepository = measureRepository;
     this.coreFormulaRepository = coreFormulaRepository;
@@ -44,14 +62,20 @@ public class CoreMetricFormulaExecutorStep implements ComputationStep {
 
   @Override
   public void execute() {
+    List<Formula> formulas = ImmutableList.<Formula>builder()
+      .addAll(coreFormulaRepository.getFormulas())
+      .addAll(NewCoverageFormulas.formulas(batchReportReader))
+      .addAll(CoverageFormulas.formulas())
+      .build();
     FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
-      .buildFor(coreFormulaRepository.getFormulas())
+      .withVariationSupport(periodsHolder)
+      .buildFor(formulas)
       .visit(treeRootHolder.getRoot());
   }
 
   @Override
   public String getDescription() {
-    return "Execute formula to compute measures of Core metrics";
+    return "Execute formulas to compute measures of Core metrics and coverage";
   }
 
 }
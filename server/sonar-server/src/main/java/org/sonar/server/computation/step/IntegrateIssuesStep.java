@@ -77,11 +77,16 @@ public class IntegrateIssuesStep implements ComputationStep {
   private void processIssues(Component component) {
     DiskCache<DefaultIssue>.DiskAppender cacheAppender = issueCache.newAppender();
     try {
-      Tracking<DefaultIssue, DefaultIssue> tracking = tracker.track(component);
-      issueVisitors.beforeComponent(component);
-      fillNewOpenIssues(component, tracking, cacheAppender);
-      fillExistingOpenIssues(component, tracking, cacheAppender);
-      closeUnmatchedBaseIssues(component, tracking, cacheAppender);
+      if (isCarriedOver(component)) {
+        issueVisitors.beforeComponent(component);
+        fillCarriedOverIssues(component, cacheAppender);
+      } else {
+        Tracking<DefaultIssue, DefaultIssue> tracking = tracker.track(component);
+        issueVisitors.beforeComponent(component);
+        fillNewOpenIssues(component, tracking, cacheAppender);
+        fillExistingOpenIssues(component, tracking, cacheAppender);
+        closeUnmatchedBaseIssues(component, tracking, cacheAppender);
+      }
       issueVisitors.afterComponent(component);
     } catch (Exception e) {
       Loggers.get(getClass()).error(String.format("Fail to process issues of %s", component.getKey()), e);
@@ -90,6 +95,20 @@ public class IntegrateIssuesStep implements ComputationStep {
     }
   }
 
+  private static boolean isCarriedOver(Component component) {
+    return component.getType() == Component.Type.FILE && component.getFileAttributes().isCarriedOver();
+  }
+
+  /**
+   * The report has no issues on a file carried over from the previous analysis, so there is nothing to track: its
+   * open issues are kept as they are, except the ones on rules which are not active anymore, which are closed.
+   */
+  private void fillCarriedOverIssues(Component component, DiskCache<DefaultIssue>.DiskAppender cacheAppender) {
+    for (DefaultIssue issue : baseIssuesLoader.loadForComponentUuid(component.getUuid())) {
+      process(component, issue, cacheAppender);
+    }
+  }
+
   private void fillNewOpenIssues(Component component, Tracking<DefaultIssue, DefaultIssue> tracking, DiskCache<DefaultIssue>.DiskAppender cacheAppender) {
     for (DefaultIssue issue : tracking.getUnmatchedRaws()) {
       issueLifecycle.initNewOpenIssue(issue);
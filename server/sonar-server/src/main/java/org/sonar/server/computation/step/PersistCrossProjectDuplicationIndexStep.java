@@ -0,0 +1,116 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.step;
+
+import java.util.List;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.db.DbSession;
+import org.sonar.db.MyBatis;
+import org.sonar.db.duplication.DuplicationUnitDto;
+import org.sonar.server.computation.batch.BatchReportReader;
+import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DbIdsRepository;
+import org.sonar.server.computation.component.DepthTraversalTypeAwareVisitor;
+import org.sonar.server.computation.component.TreeRootHolder;
+import org.sonar.server.db.DbClient;
+
+import static org.sonar.server.computation.component.ComponentVisitor.Order.PRE_ORDER;
+
+/**
+ * Persist the blocks hashed by the batch into the index of cross-project duplications (table DUPLICATIONS_INDEX).
+ * Blocks are attached to the new snapshots of files, so the index is updated incrementally : blocks of previous
+ * snapshots are ignored by lookups as soon as the new snapshots are the last ones, then they are purged.
+ * The report has no blocks on files carried over from the previous analysis, so the blocks of their previous
+ * snapshots are copied.
+ */
+public class PersistCrossProjectDuplicationIndexStep implements ComputationStep {
+
+  private final DbClient dbClient;
+  private final DbIdsRepository dbIdsRepository;
+  private final TreeRootHolder treeRootHolder;
+  private final BatchReportReader reportReader;
+
+  public PersistCrossProjectDuplicationIndexStep(DbClient dbClient, DbIdsRepository dbIdsRepository, TreeRootHolder treeRootHolder, BatchReportReader reportReader) {
+    this.dbClient = dbClient;
+    this.dbIdsRepository = dbIdsRepository;
+    this.treeRootHolder = treeRootHolder;
+    this.reportReader = reportReader;
+  }
+
+  @Override
+  public void execute() {
+    DbSession session = dbClient.openSession(true);
+    try {
+      Component project = treeRootHolder.getRoot();
+      new DuplicationIndexVisitor(session, dbIdsRepository.getSnapshotId(project)).visit(project);
+      session.commit();
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+  }
+
+  private class DuplicationIndexVisitor extends DepthTraversalTypeAwareVisitor {
+
+    private final DbSession session;
+    private final long projectSnapshotId;
+
+    private DuplicationIndexVisitor(DbSession session, long projectSnapshotId) {
+      super(Component.Type.FILE, PRE_ORDER);
+      this.session = session;
+      this.projectSnapshotId = projectSnapshotId;
+    }
+
+    @Override
+    public void visitFile(Component file) {
+      if (file.getFileAttributes().isCarriedOver()) {
+        copyPreviousBlocks(file);
+        return;
+      }
+      List<BatchReport.CpdTextBlock> blocks = reportReader.readCpdTextBlocks(file.getRef());
+      if (blocks.isEmpty()) {
+        return;
+      }
+      int snapshotId = (int) dbIdsRepository.getSnapshotId(file);
+      for (BatchReport.CpdTextBlock block : blocks) {
+        dbClient.duplicationDao().insert(session, new DuplicationUnitDto((int) projectSnapshotId, snapshotId, block.getHash(), block.getIndexInFile(),
+          block.getStartLine(), block.getEndLine()));
+      }
+    }
+
+    private void copyPreviousBlocks(Component file) {
+      // the previous snapshot of the file is still the last one, as snapshots are switched later
+      List<DuplicationUnitDto> previousBlocks = dbClient.duplicationDao().selectLastBlocksOfFile(session, file.getUuid());
+      if (previousBlocks.isEmpty()) {
+        return;
+      }
+      int snapshotId = (int) dbIdsRepository.getSnapshotId(file);
+      for (DuplicationUnitDto block : previousBlocks) {
+        dbClient.duplicationDao().insert(session, new DuplicationUnitDto((int) projectSnapshotId, snapshotId, block.getHash(), block.getIndexInFile(),
+          block.getStartLine(), block.getEndLine()));
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Persist cross project duplications index";
+  }
+
+}
@@ -34,6 +34,7 @@ import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DbIdsRepository;
 import org.sonar.server.computation.component.DepthTraversalTypeAwareVisitor;
 import org.sonar.server.computation.component.TreeRootHolder;
+import org.sonar.server.computation.measure.MeasureDtoInserter;
 import org.sonar.server.db.DbClient;
 
 import static org.sonar.server.computation.component.ComponentVisitor.Order.PRE_ORDER;
@@ -60,7 +61,9 @@ public class PersistDuplicationsStep implements ComputationStep {
     DbSession session = dbClient.openSession(true);
     try {
       MetricDto duplicationMetric = dbClient.metricDao().selectByKey(session, CoreMetrics.DUPLICATIONS_DATA_KEY);
-      new DuplicationVisitor(session, duplicationMetric).visit(treeRootHolder.getRoot());
+      MeasureDtoInserter inserter = new MeasureDtoInserter(dbClient.measureDao(), session, "duplication measures");
+      new DuplicationVisitor(session, inserter, duplicationMetric).visit(treeRootHolder.getRoot());
+      inserter.close();
       session.commit();
     } finally {
       MyBatis.closeQuietly(session);
@@ -70,11 +73,13 @@ public class PersistDuplicationsStep implements ComputationStep {
   private class DuplicationVisitor extends DepthTraversalTypeAwareVisitor {
 
     private final DbSession session;
+    private final MeasureDtoInserter inserter;
     private final MetricDto duplicationMetric;
 
-    private DuplicationVisitor(DbSession session, MetricDto duplicationMetric) {
+    private DuplicationVisitor(DbSession session, MeasureDtoInserter inserter, MetricDto duplicationMetric) {
       super(Component.Type.FILE, PRE_ORDER);
       this.session = session;
+      this.inserter = inserter;
       this.duplicationMetric = duplicationMetric;
     }
 
@@ -84,20 +89,38 @@ public class PersistDuplicationsStep implements ComputationStep {
     }
 
     private void visitComponent(Component component) {
+      if (component.getFileAttributes().isCarriedOver()) {
+        copyPreviousDuplications(component);
+        return;
+      }
       List<BatchReport.Duplication> duplications = reportReader.readComponentDuplications(component.getRef());
       if (!duplications.isEmpty()) {
         saveDuplications( component, duplications);
       }
     }
 
+    /**
+     * The report has no duplications on a file carried over from the previous analysis, the previous ones are kept.
+     * The measure of the previous snapshot is read from DB, as the snapshot is still the last one at this stage.
+     */
+    private void copyPreviousDuplications(Component file) {
+      MeasureDto previousDuplications = dbClient.measureDao().findByComponentKeyAndMetricKey(session, file.getKey(), CoreMetrics.DUPLICATIONS_DATA_KEY);
+      if (previousDuplications != null && previousDuplications.getData() != null) {
+        saveDuplications(file, previousDuplications.getData());
+      }
+    }
+
     private void saveDuplications(Component component, List<BatchReport.Duplication> duplications) {
-      String duplicationXml = createXmlDuplications(component.getKey(), duplications);
+      saveDuplications(component, createXmlDuplications(component.getKey(), duplications));
+    }
+
+    private void saveDuplications(Component component, String duplicationXml) {
       MeasureDto measureDto = new MeasureDto()
         .setMetricId(duplicationMetric.getId())
         .setData(duplicationXml)
         .setComponentId(dbIdsRepository.getComponentId(component))
         .setSnapshotId(dbIdsRepository.getSnapshotId(component));
-      dbClient.measureDao().insert(session, measureDto);
+      inserter.insert(measureDto);
     }
 
     private String createXmlDuplications(String componentKey, Iterable<BatchReport.Duplication> duplications) {
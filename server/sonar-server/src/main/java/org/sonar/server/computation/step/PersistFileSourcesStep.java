@@ -103,6 +103,10 @@ public class PersistFileSourcesStep implements ComputationStep {
 
     @Override
     public void visitFile(Component file) {
+      if (file.getFileAttributes().isCarriedOver()) {
+        // the report has no data on the file, its previous sources, highlighting and duplications are kept
+        return;
+      }
       int fileRef = file.getRef();
       BatchReport.Component component = reportReader.readComponent(fileRef);
       CloseableIterator<String> linesIterator = reportReader.readFileSource(fileRef);
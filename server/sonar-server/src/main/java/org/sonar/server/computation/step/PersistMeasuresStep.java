@@ -37,6 +37,7 @@ import org.sonar.server.computation.component.DepthTraversalTypeAwareVisitor;
 import org.sonar.server.computation.component.TreeRootHolder;
 import org.sonar.server.computation.measure.BestValueOptimization;
 import org.sonar.server.computation.measure.Measure;
+import org.sonar.server.computation.measure.MeasureDtoInserter;
 import org.sonar.server.computation.measure.MeasureRepository;
 import org.sonar.server.computation.measure.MeasureToMeasureDto;
 import org.sonar.server.computation.metric.Metric;
@@ -85,7 +86,9 @@ public class PersistMeasuresStep implements ComputationStep {
   public void execute() {
     DbSession dbSession = dbClient.openSession(true);
     try {
-      new MeasureVisitor(dbSession).visit(treeRootHolder.getRoot());
+      MeasureDtoInserter inserter = new MeasureDtoInserter(dbClient.measureDao(), dbSession, "measures");
+      new MeasureVisitor(inserter).visit(treeRootHolder.getRoot());
+      inserter.close();
       dbSession.commit();
     } finally {
       dbSession.close();
@@ -93,11 +96,11 @@ public class PersistMeasuresStep implements ComputationStep {
   }
 
   private class MeasureVisitor extends DepthTraversalTypeAwareVisitor {
-    private final DbSession session;
+    private final MeasureDtoInserter inserter;
 
-    private MeasureVisitor(DbSession session) {
+    private MeasureVisitor(MeasureDtoInserter inserter) {
       super(Component.Type.FILE, PRE_ORDER);
-      this.session = session;
+      this.inserter = inserter;
     }
 
     @Override
@@ -123,7 +126,7 @@ public class PersistMeasuresStep implements ComputationStep {
         Predicate<Measure> notBestValueOptimized = Predicates.not(BestValueOptimization.from(metric, component));
         for (Measure measure : from(measures.getValue()).filter(NonEmptyMeasure.INSTANCE).filter(notBestValueOptimized)) {
           MeasureDto measureDto = MeasureToMeasureDto.INSTANCE.toMeasureDto(measure, metric, componentId, snapshotId);
-          dbClient.measureDao().insert(session, measureDto);
+          inserter.insert(measureDto);
         }
       }
     }
@@ -101,6 +101,13 @@ public abstract class BaseIndexer implements Startable {
     return this;
   }
 
+  /**
+   * Whether the index is kept up-to-date with database, which is the case when server startup is completed
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
   @Override
   public void start() {
     // nothing to do at startup
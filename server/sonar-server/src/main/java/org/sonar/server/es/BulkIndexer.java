@@ -21,6 +21,7 @@ package org.sonar.server.es;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
@@ -31,10 +32,13 @@ import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.picocontainer.Startable;
 import org.sonar.api.utils.log.Logger;
@@ -42,6 +46,8 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.ProgressLogger;
 
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -49,10 +55,14 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Helper to bulk requests in an efficient way :
  * <ul>
- *   <li>bulk request is sent on the wire when its size is higher than 5Mb</li>
+ *   <li>bulk request is sent on the wire when its size is higher than 1Mb</li>
+ *   <li>bulk requests are sent asynchronously. {@link #add(ActionRequest)} blocks when the maximum number of
+ *   concurrent bulk requests is reached, so that the producer does not go faster than Elasticsearch</li>
+ *   <li>requests rejected by Elasticsearch because its bulk queue is full are sent again</li>
  *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled</li>
  *   <li>index refresh is optional (enabled by default)</li>
  * </ul>
+ * Counters are available in {@link EsClient#getBulkStatistics()}.
  */
 public class BulkIndexer implements Startable {
 
@@ -60,6 +70,8 @@ public class BulkIndexer implements Startable {
   private static final long FLUSH_BYTE_SIZE = new ByteSizeValue(1, ByteSizeUnit.MB).bytes();
   private static final String REFRESH_INTERVAL_SETTING = "index.refresh_interval";
   private static final String ALREADY_STARTED_MESSAGE = "Bulk indexing is already started";
+  private static final int MAX_RETRY_ROUNDS = 3;
+  private static final long RETRY_DELAY_MS = 500L;
 
   private final EsClient client;
   private final String indexName;
@@ -72,6 +84,10 @@ public class BulkIndexer implements Startable {
   private final int concurrentRequests;
   private final Semaphore semaphore;
   private final ProgressLogger progress;
+  private final Queue<ActionRequest> rejectedRequests = new ConcurrentLinkedQueue<>();
+  private final BulkIndexerStatistics statistics;
+  private long sentBytes = 0L;
+  private long startedAt = 0L;
 
   public BulkIndexer(EsClient client, String indexName) {
     this.client = client;
@@ -81,6 +97,7 @@ public class BulkIndexer implements Startable {
 
     this.concurrentRequests = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
     this.semaphore = new Semaphore(concurrentRequests);
+    this.statistics = client.getBulkStatistics();
   }
 
   /**
@@ -131,6 +148,8 @@ public class BulkIndexer implements Startable {
     }
     bulkRequest = client.prepareBulk().setRefresh(false);
     counter.set(0L);
+    sentBytes = 0L;
+    startedAt = System.currentTimeMillis();
     progress.start();
   }
 
@@ -149,23 +168,36 @@ public class BulkIndexer implements Startable {
       // load only doc ids, not _source fields
       .setFetchSource(false);
 
-    // this search is synchronous. An optimization would be to be non-blocking,
-    // but it requires to tracking pending requests in close().
-    // Same semaphore can't be reused because of potential deadlock (requires to acquire
-    // two locks)
     SearchResponse searchResponse = searchRequest.get();
-
+    PlainActionFuture<SearchResponse> nextPage = scroll(searchResponse.getScrollId());
     while (true) {
-      searchResponse = client.prepareSearchScroll(searchResponse.getScrollId())
-        .setScroll(TimeValue.timeValueMinutes(5))
-        .get();
+      searchResponse = getPage(nextPage);
       SearchHit[] hits = searchResponse.getHits().getHits();
-      for (SearchHit hit : hits) {
-        add(client.prepareDelete(hit.index(), hit.type(), hit.getId()).request());
-      }
       if (hits.length == 0) {
         break;
       }
+      // the next page is requested before adding the deletions of the current page, so that Elasticsearch
+      // scrolls while the deletions are buffered and sent. Only one page is loaded at a time.
+      nextPage = scroll(searchResponse.getScrollId());
+      for (SearchHit hit : hits) {
+        add(client.prepareDelete(hit.index(), hit.type(), hit.getId()).request());
+      }
+    }
+  }
+
+  private PlainActionFuture<SearchResponse> scroll(String scrollId) {
+    PlainActionFuture<SearchResponse> future = PlainActionFuture.newFuture();
+    client.prepareSearchScroll(scrollId)
+      .setScroll(TimeValue.timeValueMinutes(5))
+      .execute(future);
+    return future;
+  }
+
+  private static SearchResponse getPage(PlainActionFuture<SearchResponse> page) {
+    try {
+      return page.actionGet();
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to execute ES search scroll request", e);
     }
   }
 
@@ -185,14 +217,10 @@ public class BulkIndexer implements Startable {
     if (bulkRequest.numberOfActions() > 0) {
       executeBulk();
     }
-    try {
-      if (semaphore.tryAcquire(concurrentRequests, 10, TimeUnit.MINUTES)) {
-        semaphore.release(concurrentRequests);
-      }
-    } catch (InterruptedException e) {
-      throw new IllegalStateException("Elasticsearch bulk requests still being executed after 10 minutes", e);
-    }
+    waitForPendingBulks();
+    retryRejectedRequests();
     progress.stop();
+    statistics.indexerStopped(counter.get(), sentBytes, System.currentTimeMillis() - startedAt);
 
     if (!disableRefresh) {
       client.prepareRefresh(indexName).get();
@@ -208,6 +236,39 @@ public class BulkIndexer implements Startable {
     bulkRequest = null;
   }
 
+  private void waitForPendingBulks() {
+    try {
+      if (semaphore.tryAcquire(concurrentRequests, 10, TimeUnit.MINUTES)) {
+        semaphore.release(concurrentRequests);
+      }
+    } catch (InterruptedException e) {
+      throw new IllegalStateException("Elasticsearch bulk requests still being executed after 10 minutes", e);
+    }
+  }
+
+  /**
+   * Rejected requests are usually sent again with the next bulk request. The ones rejected by the last
+   * bulk requests are sent again after a delay which lets Elasticsearch empty its bulk queue.
+   */
+  private void retryRejectedRequests() {
+    for (int round = 1; !rejectedRequests.isEmpty() && round <= MAX_RETRY_ROUNDS; round++) {
+      try {
+        Thread.sleep(RETRY_DELAY_MS * round);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while retrying Elasticsearch bulk requests", e);
+      }
+      executeBulk();
+      waitForPendingBulks();
+    }
+    int remaining = rejectedRequests.size();
+    if (remaining > 0) {
+      LOGGER.error("{} requests rejected by Elasticsearch on index [{}] are dropped after {} retries", remaining, indexName, MAX_RETRY_ROUNDS);
+      statistics.failed(remaining);
+      rejectedRequests.clear();
+    }
+  }
+
   private void updateSettings(Map<String, Object> settings) {
     UpdateSettingsRequestBuilder req = client.nativeClient().admin().indices().prepareUpdateSettings(indexName);
     req.setSettings(settings);
@@ -217,7 +278,13 @@ public class BulkIndexer implements Startable {
   private void executeBulk() {
     final BulkRequestBuilder req = this.bulkRequest;
     this.bulkRequest = client.prepareBulk().setRefresh(false);
+    for (ActionRequest rejected = rejectedRequests.poll(); rejected != null; rejected = rejectedRequests.poll()) {
+      req.request().add(rejected);
+    }
     semaphore.acquireUninterruptibly();
+    long bytes = req.request().estimatedSizeInBytes();
+    sentBytes += bytes;
+    statistics.bulkSent(bytes);
     req.execute(new BulkResponseActionListener(req));
   }
 
@@ -230,24 +297,49 @@ public class BulkIndexer implements Startable {
 
     @Override
     public void onResponse(BulkResponse response) {
-      semaphore.release();
-      counter.addAndGet(response.getItems().length);
-
-      for (BulkItemResponse item : response.getItems()) {
-        if (item.isFailed()) {
-          StringBuilder sb = new StringBuilder();
-          String msg = sb
-            .append("index [").append(item.getIndex()).append("], type [").append(item.getType()).append("], id [").append(item.getId())
-            .append("], message [").append(item.getFailureMessage()).append("]").toString();
-          LOGGER.error(msg);
+      try {
+        int failed = 0;
+        int rejected = 0;
+        for (BulkItemResponse item : response.getItems()) {
+          if (!item.isFailed()) {
+            continue;
+          }
+          if (item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+            rejectedRequests.add(req.request().requests().get(item.getItemId()));
+            rejected++;
+          } else {
+            StringBuilder sb = new StringBuilder();
+            String msg = sb
+              .append("index [").append(item.getIndex()).append("], type [").append(item.getType()).append("], id [").append(item.getId())
+              .append("], message [").append(item.getFailureMessage()).append("]").toString();
+            LOGGER.error(msg);
+            failed++;
+          }
         }
+        int done = response.getItems().length - rejected;
+        counter.addAndGet(done);
+        statistics.retried(rejected);
+        statistics.bulkDone(done - failed, failed);
+      } finally {
+        semaphore.release();
       }
     }
 
     @Override
     public void onFailure(Throwable e) {
-      semaphore.release();
-      LOGGER.error("Fail to execute bulk index request: " + req, e);
+      try {
+        int size = req.request().numberOfActions();
+        if (ExceptionsHelper.unwrapCause(e) instanceof EsRejectedExecutionException) {
+          rejectedRequests.addAll(req.request().requests());
+          statistics.retried(size);
+          statistics.bulkDone(0L, 0L);
+        } else {
+          LOGGER.error("Fail to execute bulk index request: " + req, e);
+          statistics.bulkDone(0L, size);
+        }
+      } finally {
+        semaphore.release();
+      }
     }
   }
 }
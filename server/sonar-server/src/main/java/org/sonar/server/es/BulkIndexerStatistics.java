@@ -0,0 +1,103 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the bulk requests sent by all the {@link BulkIndexer}s of the server. Throughputs are
+ * the ones of the last stopped {@link BulkIndexer}.
+ */
+public class BulkIndexerStatistics {
+
+  private final AtomicLong indexedDocs = new AtomicLong(0L);
+  private final AtomicLong failedDocs = new AtomicLong(0L);
+  private final AtomicLong retriedDocs = new AtomicLong(0L);
+  private final AtomicLong sentBytes = new AtomicLong(0L);
+  private final AtomicInteger inFlightBulks = new AtomicInteger(0);
+  private volatile long lastDocsPerSecond = 0L;
+  private volatile long lastBytesPerSecond = 0L;
+
+  /**
+   * Number of documents successfully indexed or deleted
+   */
+  public long getIndexedDocs() {
+    return indexedDocs.get();
+  }
+
+  /**
+   * Number of documents which could not be indexed or deleted, even after retries
+   */
+  public long getFailedDocs() {
+    return failedDocs.get();
+  }
+
+  /**
+   * Number of documents sent again because Elasticsearch rejected them when its bulk queue was full
+   */
+  public long getRetriedDocs() {
+    return retriedDocs.get();
+  }
+
+  public long getSentBytes() {
+    return sentBytes.get();
+  }
+
+  /**
+   * Number of bulk requests sent and not answered yet
+   */
+  public int getInFlightBulks() {
+    return inFlightBulks.get();
+  }
+
+  public long getLastDocsPerSecond() {
+    return lastDocsPerSecond;
+  }
+
+  public long getLastBytesPerSecond() {
+    return lastBytesPerSecond;
+  }
+
+  void bulkSent(long bytes) {
+    sentBytes.addAndGet(bytes);
+    inFlightBulks.incrementAndGet();
+  }
+
+  void bulkDone(long indexed, long failed) {
+    inFlightBulks.decrementAndGet();
+    indexedDocs.addAndGet(indexed);
+    failedDocs.addAndGet(failed);
+  }
+
+  void retried(long docs) {
+    retriedDocs.addAndGet(docs);
+  }
+
+  void failed(long docs) {
+    failedDocs.addAndGet(docs);
+  }
+
+  void indexerStopped(long docs, long bytes, long durationMs) {
+    long duration = Math.max(1L, durationMs);
+    lastDocsPerSecond = docs * 1000L / duration;
+    lastBytesPerSecond = bytes * 1000L / duration;
+  }
+}
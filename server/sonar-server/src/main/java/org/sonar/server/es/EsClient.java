@@ -79,6 +79,7 @@ public class EsClient implements Startable {
 
   public static final Logger LOGGER = Loggers.get("es");
   private final Client client;
+  private final BulkIndexerStatistics bulkStatistics = new BulkIndexerStatistics();
 
   public EsClient(SearchClient deprecatedClient) {
     this.client = deprecatedClient;
@@ -194,6 +195,13 @@ public class EsClient implements Startable {
     return (long) max.getValue();
   }
 
+  /**
+   * Counters of the requests sent by {@link BulkIndexer}
+   */
+  public BulkIndexerStatistics getBulkStatistics() {
+    return bulkStatistics;
+  }
+
   @Override
   public void start() {
     // nothing to do
@@ -28,7 +28,6 @@ import com.google.common.collect.Lists;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +35,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.api.issue.Issue;
+import org.sonar.api.notifications.Notification;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rules.Rule;
 import org.sonar.api.utils.log.Logger;
@@ -94,7 +94,7 @@ public class IssueBulkChangeService {
 
     List<Action> bulkActions = getActionsToApply(issueBulkChangeQuery, issues, userSession);
     IssueChangeContext issueChangeContext = IssueChangeContext.createUser(new Date(), userSession.getLogin());
-    Set<String> concernedProjects = new HashSet<>();
+    List<DefaultIssue> changedIssues = newArrayList();
     for (Issue issue : issues) {
       ActionContext actionContext = new ActionContext(issue, issueChangeContext);
       for (Action action : bulkActions) {
@@ -105,26 +105,38 @@ public class IssueBulkChangeService {
         if (issueBulkChangeQuery.hasComment()) {
           applyAction(getAction(CommentAction.KEY), actionContext, issueBulkChangeQuery, result);
         }
-        issueStorage.save((DefaultIssue) issue);
-        if (issueBulkChangeQuery.sendNotifications()) {
-          String projectKey = issue.projectKey();
-          if (projectKey != null) {
-            Rule rule = repository.rule(issue.ruleKey());
-            notificationService.scheduleForSending(new IssueChangeNotification()
-              .setIssue((DefaultIssue) issue)
-              .setChangeAuthorLogin(issueChangeContext.login())
-              .setRuleName(rule != null ? rule.getName() : null)
-              .setProject(projectKey, repository.project(projectKey).name())
-              .setComponent(repository.component(issue.componentKey())));
-          }
-        }
-        concernedProjects.add(issue.projectKey());
+        changedIssues.add((DefaultIssue) issue);
+      }
+    }
+
+    if (!changedIssues.isEmpty()) {
+      // changed issues are persisted in the same session and indexed once
+      issueStorage.save(changedIssues);
+      if (issueBulkChangeQuery.sendNotifications()) {
+        notificationService.scheduleForSending(notifications(changedIssues, issueChangeContext, repository));
       }
     }
     LOG.debug("BulkChange execution time : {} ms", System.currentTimeMillis() - start);
     return result;
   }
 
+  private static List<Notification> notifications(List<DefaultIssue> changedIssues, IssueChangeContext issueChangeContext, Repository repository) {
+    List<Notification> notifications = newArrayList();
+    for (DefaultIssue issue : changedIssues) {
+      String projectKey = issue.projectKey();
+      if (projectKey != null) {
+        Rule rule = repository.rule(issue.ruleKey());
+        notifications.add(new IssueChangeNotification()
+          .setIssue(issue)
+          .setChangeAuthorLogin(issueChangeContext.login())
+          .setRuleName(rule != null ? rule.getName() : null)
+          .setProject(projectKey, repository.project(projectKey).name())
+          .setComponent(repository.component(issue.componentKey())));
+      }
+    }
+    return notifications;
+  }
+
   private Collection<Issue> getByKeysForUpdate(List<String> issueKeys) {
     // Load from index to check permission
     SearchOptions options = new SearchOptions().setLimit(SearchOptions.MAX_LIMIT);
@@ -141,12 +153,13 @@ public class IssueBulkChangeService {
       DbSession session = dbClient.openSession(false);
       try {
         List<IssueDto> dtos = dbClient.issueDao().selectByKeys(session, Lists.newArrayList(authorizedKeys));
-        return Collections2.transform(dtos, new Function<IssueDto, Issue>() {
+        // copied, so that the issues changed by actions are not converted again on each iteration
+        return newArrayList(Collections2.transform(dtos, new Function<IssueDto, Issue>() {
           @Override
           public Issue apply(@Nullable IssueDto input) {
             return input != null ? input.toDefaultIssue() : null;
           }
-        });
+        }));
       } finally {
         MyBatis.closeQuietly(session);
       }
@@ -82,6 +82,7 @@ public abstract class IssueStorage {
     long now = System.currentTimeMillis();
     List<DefaultIssue> toBeUpdated = batchInsertAndReturnIssuesToUpdate(session, issues, now);
     update(toBeUpdated, now);
+    batchInsertChanges(session, toBeUpdated);
     doAfterSave();
   }
 
@@ -115,10 +116,8 @@ public abstract class IssueStorage {
     if (!toBeUpdated.isEmpty()) {
       DbSession session = dbClient.openSession(false);
       try {
-        IssueChangeMapper issueChangeMapper = session.getMapper(IssueChangeMapper.class);
         for (DefaultIssue issue : toBeUpdated) {
           doUpdate(session, now, issue);
-          insertChanges(issueChangeMapper, issue);
         }
         session.commit();
       } finally {
@@ -127,9 +126,27 @@ public abstract class IssueStorage {
     }
   }
 
+  /**
+   * Changes of updated issues are only inserted, so unlike updates they can be sent by batches.
+   */
+  private static void batchInsertChanges(DbSession session, List<DefaultIssue> updatedIssues) {
+    if (!updatedIssues.isEmpty()) {
+      IssueChangeMapper issueChangeMapper = session.getMapper(IssueChangeMapper.class);
+      int count = 0;
+      for (DefaultIssue issue : updatedIssues) {
+        insertChanges(issueChangeMapper, issue);
+        count++;
+        if (count % BatchSession.MAX_BATCH_SIZE == 0) {
+          session.commit();
+        }
+      }
+      session.commit();
+    }
+  }
+
   protected abstract void doUpdate(DbSession batchSession, long now, DefaultIssue issue);
 
-  private void insertChanges(IssueChangeMapper mapper, DefaultIssue issue) {
+  private static void insertChanges(IssueChangeMapper mapper, DefaultIssue issue) {
     for (IssueComment comment : issue.comments()) {
       DefaultIssueComment c = (DefaultIssueComment) comment;
       if (c.isNew()) {
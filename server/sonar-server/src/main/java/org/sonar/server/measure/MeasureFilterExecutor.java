@@ -26,11 +26,15 @@ import org.sonar.api.server.ServerSide;
 import org.sonar.db.Database;
 import org.sonar.db.MyBatis;
 import org.sonar.db.component.ResourceDao;
+import org.sonar.server.es.EsClient;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 @ServerSide
 public class MeasureFilterExecutor {
@@ -38,11 +42,23 @@ public class MeasureFilterExecutor {
   private MyBatis mybatis;
   private Database database;
   private ResourceDao resourceDao;
+  private final EsClient esClient;
+  private final ProjectMeasuresIndexer projectMeasuresIndexer;
 
-  public MeasureFilterExecutor(MyBatis mybatis, Database database, ResourceDao resourceDao) {
+  public MeasureFilterExecutor(MyBatis mybatis, Database database, ResourceDao resourceDao,
+    @Nullable EsClient esClient, @Nullable ProjectMeasuresIndexer projectMeasuresIndexer) {
     this.mybatis = mybatis;
     this.database = database;
     this.resourceDao = resourceDao;
+    this.esClient = esClient;
+    this.projectMeasuresIndexer = projectMeasuresIndexer;
+  }
+
+  /**
+   * Filters are executed in database only
+   */
+  public MeasureFilterExecutor(MyBatis mybatis, Database database, ResourceDao resourceDao) {
+    this(mybatis, database, resourceDao, null, null);
   }
 
   public List<MeasureFilterRow> execute(MeasureFilter filter, MeasureFilterContext context) throws SQLException {
@@ -50,6 +66,14 @@ public class MeasureFilterExecutor {
       return Collections.emptyList();
     }
 
+    MeasureFilterIndexQuery indexQuery = indexQuery(filter, context);
+    if (indexQuery != null) {
+      if (!isValid(filter, context)) {
+        return Collections.emptyList();
+      }
+      return indexQuery.execute(esClient, context);
+    }
+
     List<MeasureFilterRow> rows;
     SqlSession session = null;
     Connection connection = null;
@@ -74,6 +98,18 @@ public class MeasureFilterExecutor {
     return rows;
   }
 
+  /**
+   * Filters on the last analysis of projects, without joins on other resources, are executed on
+   * the index "projectmeasures" as long as it is kept up-to-date.
+   */
+  @CheckForNull
+  private MeasureFilterIndexQuery indexQuery(MeasureFilter filter, MeasureFilterContext context) {
+    if (esClient != null && projectMeasuresIndexer != null && projectMeasuresIndexer.isEnabled() && MeasureFilterIndexQuery.supports(filter, context)) {
+      return new MeasureFilterIndexQuery(filter);
+    }
+    return null;
+  }
+
   private void prepareContext(MeasureFilterContext context, MeasureFilter filter, SqlSession session) {
     if (filter.getBaseResourceKey() != null) {
       context.setBaseSnapshot(resourceDao.getLastSnapshot(filter.getBaseResourceKey(), session));
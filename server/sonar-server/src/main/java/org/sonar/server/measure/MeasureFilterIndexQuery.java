@@ -0,0 +1,239 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure;
+
+import com.google.common.base.Function;
+import com.google.common.base.Strings;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.BoolFilterBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeFilterBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.api.resources.Scopes;
+import org.sonar.core.util.NonNullInputFunction;
+import org.sonar.server.es.EsClient;
+import org.sonar.server.es.EsUtils;
+import org.sonar.server.measure.index.ProjectMeasuresDoc;
+import org.sonar.server.search.IndexField;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_ANALYSED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_CREATED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_DESCRIPTION;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_KEY;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_NAME;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_PROJECT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_ROOT_PROJECT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_SHORT_NAME;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_SNAPSHOT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_VERSION;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.INDEX;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.TYPE_PROJECT_MEASURES;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.measureField;
+
+/**
+ * Executes on the index "projectmeasures" the measure filters on projects which do not require
+ * joins in database. See {@link #supports(MeasureFilter, MeasureFilterContext)}. The other filters are
+ * executed by {@link MeasureFilterSql}.
+ */
+class MeasureFilterIndexQuery {
+
+  static final int PAGE_SIZE = 500;
+
+  private static final Function<Map<String, Object>, ProjectMeasuresDoc> DOC_CONVERTER = new NonNullInputFunction<Map<String, Object>, ProjectMeasuresDoc>() {
+    @Override
+    protected ProjectMeasuresDoc doApply(Map<String, Object> input) {
+      return new ProjectMeasuresDoc(input);
+    }
+  };
+
+  private final MeasureFilter filter;
+  private final String sortField;
+
+  MeasureFilterIndexQuery(MeasureFilter filter) {
+    this.filter = filter;
+    this.sortField = sortField(filter.sort());
+  }
+
+  /**
+   * The index contains only the last analysis of root projects, with their numeric measures
+   */
+  static boolean supports(MeasureFilter filter, MeasureFilterContext context) {
+    boolean supported = context.getBaseSnapshot() == null && Strings.isNullOrEmpty(filter.getBaseResourceKey()) && !filter.isOnBaseResourceChildren();
+    supported &= !filter.isOnFavourites();
+    supported &= StringUtils.isBlank(filter.getResourceName()) && StringUtils.isBlank(filter.getResourceKey());
+    supported &= Collections.singletonList(Qualifiers.PROJECT).equals(filter.getResourceQualifiers());
+    supported &= filter.getResourceScopes().isEmpty() || Collections.singletonList(Scopes.PROJECT).equals(filter.getResourceScopes());
+    for (MeasureFilterCondition condition : filter.getMeasureConditions()) {
+      supported &= condition.metric() != null && condition.metric().isNumericType() && condition.textValue() == null
+        && condition.operator() != MeasureFilterCondition.Operator.IN;
+    }
+    supported &= !filter.sort().onMeasures() || filter.sort().isOnNumericMeasure();
+    return supported;
+  }
+
+  SearchRequestBuilder request(EsClient esClient) {
+    FieldSortBuilder sort = SortBuilders.fieldSort(sortField)
+      .order(filter.sort().isAsc() ? SortOrder.ASC : SortOrder.DESC)
+      .missing(missingValuesPosition());
+    if (filter.sort().onMeasures()) {
+      // metric may have never been indexed
+      sort.unmappedType("double");
+    }
+    BoolFilterBuilder esFilter = FilterBuilders.boolFilter();
+    for (MeasureFilterCondition condition : filter.getMeasureConditions()) {
+      esFilter.must(conditionFilter(condition));
+    }
+    appendDateConditions(esFilter);
+
+    return esClient.prepareSearch(INDEX)
+      .setTypes(TYPE_PROJECT_MEASURES)
+      .setQuery(esFilter.hasClauses() ? QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), esFilter) : QueryBuilders.matchAllQuery())
+      .addSort(sort)
+      .setFetchSource(new String[] {FIELD_SNAPSHOT_ID, FIELD_PROJECT_ID, FIELD_ROOT_PROJECT_ID, sourceField()}, null)
+      .setSize(PAGE_SIZE)
+      .setScroll(TimeValue.timeValueMinutes(EsUtils.SCROLL_TIME_IN_MINUTES));
+  }
+
+  List<MeasureFilterRow> execute(EsClient esClient, MeasureFilterContext context) {
+    SearchRequestBuilder request = request(esClient);
+    context.setSql(request.toString());
+    SearchResponse response = request.get();
+    List<MeasureFilterRow> rows = newArrayList();
+    for (SearchHit hit : response.getHits().getHits()) {
+      rows.add(toRow(DOC_CONVERTER.apply(hit.getSource())));
+    }
+    if (rows.size() < response.getHits().getTotalHits()) {
+      Iterator<ProjectMeasuresDoc> docs = EsUtils.scroll(esClient, response.getScrollId(), DOC_CONVERTER);
+      while (docs.hasNext()) {
+        rows.add(toRow(docs.next()));
+      }
+    }
+    return rows;
+  }
+
+  private MeasureFilterRow toRow(ProjectMeasuresDoc doc) {
+    MeasureFilterRow row = new MeasureFilterRow(doc.snapshotId(), doc.projectId(), doc.rootProjectId());
+    MeasureFilterSort sort = filter.sort();
+    if (sort.isOnNumericMeasure()) {
+      row.setSortDouble(doc.measureValue(sort.metric().getKey(), sort.period()));
+    } else if (sort.isOnDate() || sort.isOnTime()) {
+      Number date = doc.getNullableField(sortField);
+      row.setSortDate(date == null ? null : date.longValue());
+    } else {
+      row.setSortText(doc.<String>getNullableField(sourceField()));
+    }
+    return row;
+  }
+
+  private static FilterBuilder conditionFilter(MeasureFilterCondition condition) {
+    String field = measureField(condition.metric().getKey(), condition.period());
+    RangeFilterBuilder range = FilterBuilders.rangeFilter(field);
+    switch (condition.operator()) {
+      case EQUALS:
+        return FilterBuilders.termFilter(field, condition.value());
+      case GREATER:
+        return range.gt(condition.value());
+      case GREATER_OR_EQUALS:
+        return range.gte(condition.value());
+      case LESS:
+        return range.lt(condition.value());
+      case LESS_OR_EQUALS:
+        return range.lte(condition.value());
+      default:
+        throw new IllegalArgumentException("Unsupported operator: " + condition.operator());
+    }
+  }
+
+  private void appendDateConditions(BoolFilterBuilder esFilter) {
+    Date fromDate = filter.getFromDate();
+    Date toDate = filter.getToDate();
+    if (fromDate != null || toDate != null) {
+      RangeFilterBuilder range = FilterBuilders.rangeFilter(FIELD_ANALYSED_AT);
+      if (fromDate != null) {
+        range.gte(fromDate.getTime());
+      }
+      if (toDate != null) {
+        range.lte(toDate.getTime());
+      }
+      esFilter.must(range);
+    }
+  }
+
+  /**
+   * Same positions as {@link MeasureFilterSql}: empty texts are the lowest values, missing
+   * dates and measures are always last.
+   */
+  private String missingValuesPosition() {
+    MeasureFilterSort sort = filter.sort();
+    if (sort.onMeasures() || sort.isOnDate() || sort.isOnTime() || !sort.isAsc()) {
+      return "_last";
+    }
+    return "_first";
+  }
+
+  private String sourceField() {
+    return StringUtils.removeEnd(sortField, "." + IndexField.SORT_SUFFIX);
+  }
+
+  private static String sortField(MeasureFilterSort sort) {
+    String field;
+    switch (sort.field()) {
+      case KEY:
+        field = FIELD_KEY;
+        break;
+      case NAME:
+        field = FIELD_NAME;
+        break;
+      case SHORT_NAME:
+        field = FIELD_SHORT_NAME;
+        break;
+      case DESCRIPTION:
+        field = FIELD_DESCRIPTION;
+        break;
+      case VERSION:
+        field = FIELD_VERSION;
+        break;
+      case DATE:
+        return FIELD_ANALYSED_AT;
+      case PROJECT_CREATION_DATE:
+        return FIELD_CREATED_AT;
+      case METRIC:
+        return measureField(sort.metric().getKey(), sort.period());
+      default:
+        throw new IllegalArgumentException("Unsupported sorting: " + sort.field());
+    }
+    return field + "." + IndexField.SORT_SUFFIX;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.index;
+
+import com.google.common.collect.Maps;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.server.search.BaseDoc;
+
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_ANALYSED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_CREATED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_DESCRIPTION;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_KEY;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_MEASURES;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_MEASURE_VALUE;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_MEASURE_VARIATION_PREFIX;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_NAME;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_PROJECT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_ROOT_PROJECT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_SHORT_NAME;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_SNAPSHOT_ID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_UPDATED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_UUID;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_VERSION;
+
+public class ProjectMeasuresDoc extends BaseDoc {
+
+  public ProjectMeasuresDoc(Map<String, Object> fields) {
+    super(fields);
+  }
+
+  public ProjectMeasuresDoc() {
+    super(Maps.<String, Object>newHashMapWithExpectedSize(13));
+    setField(FIELD_MEASURES, Maps.<String, Object>newHashMap());
+  }
+
+  public String uuid() {
+    return getField(FIELD_UUID);
+  }
+
+  public ProjectMeasuresDoc setUuid(String s) {
+    setField(FIELD_UUID, s);
+    return this;
+  }
+
+  public String key() {
+    return getField(FIELD_KEY);
+  }
+
+  public ProjectMeasuresDoc setKey(String s) {
+    setField(FIELD_KEY, s);
+    return this;
+  }
+
+  @CheckForNull
+  public String name() {
+    return getNullableField(FIELD_NAME);
+  }
+
+  public ProjectMeasuresDoc setName(@Nullable String s) {
+    setField(FIELD_NAME, s);
+    return this;
+  }
+
+  @CheckForNull
+  public String shortName() {
+    return getNullableField(FIELD_SHORT_NAME);
+  }
+
+  public ProjectMeasuresDoc setShortName(@Nullable String s) {
+    setField(FIELD_SHORT_NAME, s);
+    return this;
+  }
+
+  @CheckForNull
+  public String description() {
+    return getNullableField(FIELD_DESCRIPTION);
+  }
+
+  public ProjectMeasuresDoc setDescription(@Nullable String s) {
+    setField(FIELD_DESCRIPTION, s);
+    return this;
+  }
+
+  @CheckForNull
+  public String version() {
+    return getNullableField(FIELD_VERSION);
+  }
+
+  public ProjectMeasuresDoc setVersion(@Nullable String s) {
+    setField(FIELD_VERSION, s);
+    return this;
+  }
+
+  public long snapshotId() {
+    return ((Number) getField(FIELD_SNAPSHOT_ID)).longValue();
+  }
+
+  public ProjectMeasuresDoc setSnapshotId(long l) {
+    setField(FIELD_SNAPSHOT_ID, l);
+    return this;
+  }
+
+  public long projectId() {
+    return ((Number) getField(FIELD_PROJECT_ID)).longValue();
+  }
+
+  public ProjectMeasuresDoc setProjectId(long l) {
+    setField(FIELD_PROJECT_ID, l);
+    return this;
+  }
+
+  public long rootProjectId() {
+    return ((Number) getField(FIELD_ROOT_PROJECT_ID)).longValue();
+  }
+
+  public ProjectMeasuresDoc setRootProjectId(long l) {
+    setField(FIELD_ROOT_PROJECT_ID, l);
+    return this;
+  }
+
+  @CheckForNull
+  public Long createdAt() {
+    Number n = getNullableField(FIELD_CREATED_AT);
+    return n == null ? null : n.longValue();
+  }
+
+  public ProjectMeasuresDoc setCreatedAt(@Nullable Long l) {
+    setField(FIELD_CREATED_AT, l);
+    return this;
+  }
+
+  public long analysedAt() {
+    return ((Number) getField(FIELD_ANALYSED_AT)).longValue();
+  }
+
+  public ProjectMeasuresDoc setAnalysedAt(long l) {
+    setField(FIELD_ANALYSED_AT, l);
+    return this;
+  }
+
+  public long updatedAt() {
+    return ((Number) getField(FIELD_UPDATED_AT)).longValue();
+  }
+
+  public ProjectMeasuresDoc setUpdatedAt(long l) {
+    setField(FIELD_UPDATED_AT, l);
+    return this;
+  }
+
+  public Map<String, Map<String, Double>> measures() {
+    return getField(FIELD_MEASURES);
+  }
+
+  /**
+   * @return the value of the measure, or its variation if a period is set, null if it does not exist
+   */
+  @CheckForNull
+  public Double measureValue(String metricKey, @Nullable Integer period) {
+    // the field is missing when source is filtered and when the measure does not exist
+    Map<String, Map<String, ? extends Number>> measures = (Map<String, Map<String, ? extends Number>>) getFields().get(FIELD_MEASURES);
+    Map<String, ? extends Number> measure = measures == null ? null : measures.get(metricKey);
+    if (measure == null) {
+      return null;
+    }
+    Number value = measure.get(period == null ? FIELD_MEASURE_VALUE : (FIELD_MEASURE_VARIATION_PREFIX + period));
+    return value == null ? null : value.doubleValue();
+  }
+
+  /**
+   * @param variations the variations on periods 1 to 5, null elements being ignored
+   */
+  public ProjectMeasuresDoc setMeasure(String metricKey, @Nullable Double value, Double... variations) {
+    Map<String, Double> measure = Maps.newHashMapWithExpectedSize(1 + variations.length);
+    if (value != null) {
+      measure.put(FIELD_MEASURE_VALUE, value);
+    }
+    for (int i = 0; i < variations.length; i++) {
+      if (variations[i] != null) {
+        measure.put(FIELD_MEASURE_VARIATION_PREFIX + (i + 1), variations[i]);
+      }
+    }
+    if (!measure.isEmpty()) {
+      measures().put(metricKey, measure);
+    }
+    return this;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.index;
+
+import com.google.common.collect.ImmutableMap;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Settings;
+import org.sonar.server.es.IndexDefinition;
+import org.sonar.server.es.NewIndex;
+
+/**
+ * Definition of ES index "projectmeasures", including settings and fields. It contains one document
+ * per project, with the numeric measures of its last analysis.
+ */
+public class ProjectMeasuresIndexDefinition implements IndexDefinition {
+
+  public static final String INDEX = "projectmeasures";
+  public static final String TYPE_PROJECT_MEASURES = "projectmeasure";
+
+  public static final String FIELD_UUID = "uuid";
+  public static final String FIELD_KEY = "key";
+  public static final String FIELD_NAME = "name";
+  public static final String FIELD_SHORT_NAME = "shortName";
+  public static final String FIELD_DESCRIPTION = "description";
+  public static final String FIELD_VERSION = "version";
+  public static final String FIELD_SNAPSHOT_ID = "snapshotId";
+  public static final String FIELD_PROJECT_ID = "projectId";
+  public static final String FIELD_ROOT_PROJECT_ID = "rootProjectId";
+  public static final String FIELD_CREATED_AT = "createdAt";
+  public static final String FIELD_ANALYSED_AT = "analysedAt";
+  public static final String FIELD_UPDATED_AT = "updatedAt";
+
+  /**
+   * Object containing one inner object per metric key, for example {"ncloc": {"value": 120.0, "variation_1": 10.0}}
+   */
+  public static final String FIELD_MEASURES = "measures";
+  public static final String FIELD_MEASURE_VALUE = "value";
+  public static final String FIELD_MEASURE_VARIATION_PREFIX = "variation_";
+
+  private final Settings settings;
+
+  public ProjectMeasuresIndexDefinition(Settings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Full path of the field containing the value, or the variation on the given period, of a measure
+   */
+  public static String measureField(String metricKey, @Nullable Integer period) {
+    String leaf = period == null ? FIELD_MEASURE_VALUE : (FIELD_MEASURE_VARIATION_PREFIX + period);
+    return FIELD_MEASURES + "." + metricKey + "." + leaf;
+  }
+
+  @Override
+  public void define(IndexDefinitionContext context) {
+    NewIndex index = context.create(INDEX);
+
+    index.refreshHandledByIndexer();
+    index.setShards(settings);
+
+    NewIndex.NewIndexType mapping = index.createType(TYPE_PROJECT_MEASURES);
+    mapping.setAttribute("_id", ImmutableMap.of("path", FIELD_UUID));
+    mapping.stringFieldBuilder(FIELD_UUID).build();
+    mapping.stringFieldBuilder(FIELD_KEY).enableSorting().build();
+    mapping.stringFieldBuilder(FIELD_NAME).enableSorting().build();
+    mapping.stringFieldBuilder(FIELD_SHORT_NAME).enableSorting().build();
+    mapping.stringFieldBuilder(FIELD_DESCRIPTION).enableSorting().build();
+    mapping.stringFieldBuilder(FIELD_VERSION).enableSorting().build();
+    mapping.createLongField(FIELD_SNAPSHOT_ID);
+    mapping.createLongField(FIELD_PROJECT_ID);
+    mapping.createLongField(FIELD_ROOT_PROJECT_ID);
+    mapping.createLongField(FIELD_CREATED_AT);
+    mapping.createLongField(FIELD_ANALYSED_AT);
+    mapping.createLongField(FIELD_UPDATED_AT);
+    // metric keys are not known in advance. Values are always indexed as doubles.
+    mapping.setProperty(FIELD_MEASURES, ImmutableMap.of("type", "object", "dynamic", "true"));
+  }
+}
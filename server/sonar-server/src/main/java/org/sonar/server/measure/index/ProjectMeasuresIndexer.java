@@ -0,0 +1,119 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.index;
+
+import java.util.Iterator;
+import javax.annotation.Nullable;
+import org.elasticsearch.action.index.IndexRequest;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.server.es.BaseIndexer;
+import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.EsClient;
+
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_UPDATED_AT;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.INDEX;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.TYPE_PROJECT_MEASURES;
+
+/**
+ * Add to Elasticsearch index {@link ProjectMeasuresIndexDefinition} the last analysis of projects,
+ * with their numeric measures.
+ */
+public class ProjectMeasuresIndexer extends BaseIndexer {
+
+  private final DbClient dbClient;
+
+  public ProjectMeasuresIndexer(DbClient dbClient, EsClient esClient) {
+    super(esClient, 300, INDEX, TYPE_PROJECT_MEASURES, FIELD_UPDATED_AT);
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * Replaces the document of the project by its last analysis, whatever the date of the last indexation
+   */
+  public void index(final String projectUuid) {
+    super.index(new IndexerTask() {
+      @Override
+      public long index(long lastUpdatedAt) {
+        return doIndex(0L, projectUuid);
+      }
+    });
+  }
+
+  @Override
+  protected long doIndex(long lastUpdatedAt) {
+    return doIndex(lastUpdatedAt, null);
+  }
+
+  private long doIndex(long lastUpdatedAt, @Nullable String projectUuid) {
+    final BulkIndexer bulk = new BulkIndexer(esClient, INDEX);
+    bulk.setLarge(lastUpdatedAt == 0L && projectUuid == null);
+
+    DbSession dbSession = dbClient.openSession(false);
+    try {
+      ProjectMeasuresResultSetIterator rowIt = ProjectMeasuresResultSetIterator.create(dbClient, dbSession, lastUpdatedAt, projectUuid);
+      long maxUpdatedAt = doIndex(bulk, rowIt);
+      rowIt.close();
+      return maxUpdatedAt;
+    } finally {
+      dbSession.close();
+    }
+  }
+
+  /**
+   * Rows are ordered by snapshot and contain at most one measure. Consecutive rows of the same project
+   * are merged into a single document.
+   */
+  private static long doIndex(BulkIndexer bulk, Iterator<ProjectMeasuresDoc> rows) {
+    long maxUpdatedAt = 0L;
+    bulk.start();
+    ProjectMeasuresDoc doc = null;
+    while (rows.hasNext()) {
+      ProjectMeasuresDoc row = rows.next();
+      if (doc != null && doc.uuid().equals(row.uuid())) {
+        doc.measures().putAll(row.measures());
+      } else {
+        if (doc != null) {
+          bulk.add(newIndexRequest(doc));
+        }
+        doc = row;
+        maxUpdatedAt = Math.max(maxUpdatedAt, doc.updatedAt());
+      }
+    }
+    if (doc != null) {
+      bulk.add(newIndexRequest(doc));
+    }
+    bulk.stop();
+    return maxUpdatedAt;
+  }
+
+  /**
+   * The whole document is replaced, so that the measures which do not exist anymore are removed
+   */
+  private static IndexRequest newIndexRequest(ProjectMeasuresDoc doc) {
+    return new IndexRequest(INDEX, TYPE_PROJECT_MEASURES, doc.uuid()).source(doc.getFields());
+  }
+
+  public void deleteProject(String projectUuid) {
+    esClient.prepareDelete(INDEX, TYPE_PROJECT_MEASURES, projectUuid)
+      .setRefresh(true)
+      .get();
+  }
+}
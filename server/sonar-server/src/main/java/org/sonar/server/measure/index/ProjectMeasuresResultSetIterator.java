@@ -0,0 +1,140 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.index;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ResultSetIterator;
+
+/**
+ * Scrolls over the last analyses of projects, joined with their numeric measures, to populate the index
+ * "projectmeasures". Rows are ordered by snapshot, each row contains at most one measure, so
+ * consecutive documents with the same uuid must be merged by the caller.
+ */
+class ProjectMeasuresResultSetIterator extends ResultSetIterator<ProjectMeasuresDoc> {
+
+  private static final String[] FIELDS = {
+    // column 1
+    "p.uuid",
+    "p.kee",
+    "p.long_name",
+    "p.name",
+    "p.description",
+    "p.created_at",
+    "s.id",
+    "s.project_id",
+    "s.root_project_id",
+    "s.version",
+    // column 11
+    "s.created_at",
+    "s.build_date",
+    "m.name",
+    "pm.value",
+    "pm.variation_value_1",
+    "pm.variation_value_2",
+    "pm.variation_value_3",
+    "pm.variation_value_4",
+    "pm.variation_value_5"
+  };
+
+  private static final String SQL_ALL = "select " + StringUtils.join(FIELDS, ",") + " from snapshots s " +
+    "inner join projects p on p.id=s.project_id " +
+    "left outer join project_measures pm on pm.snapshot_id=s.id and pm.rule_id is null and pm.rule_priority is null " +
+    "and pm.characteristic_id is null and pm.person_id is null " +
+    "left outer join metrics m on m.id=pm.metric_id " +
+    "where s.islast=? and s.status='P' and s.scope='PRJ' and s.qualifier='TRK' and p.copy_resource_id is null ";
+
+  private static final String SQL_AFTER_DATE = " and s.build_date>? ";
+
+  private static final String SQL_PROJECT = " and p.uuid=? ";
+
+  private static final String SQL_ORDER = " order by s.id";
+
+  static ProjectMeasuresResultSetIterator create(DbClient dbClient, DbSession session, long afterDate, @Nullable String projectUuid) {
+    try {
+      StringBuilder sql = new StringBuilder(SQL_ALL);
+      if (afterDate > 0L) {
+        sql.append(SQL_AFTER_DATE);
+      }
+      if (projectUuid != null) {
+        sql.append(SQL_PROJECT);
+      }
+      sql.append(SQL_ORDER);
+      PreparedStatement stmt = dbClient.getMyBatis().newScrollingSelectStatement(session, sql.toString());
+      int index = 1;
+      stmt.setBoolean(index, true);
+      index++;
+      if (afterDate > 0L) {
+        stmt.setLong(index, afterDate);
+        index++;
+      }
+      if (projectUuid != null) {
+        stmt.setString(index, projectUuid);
+      }
+      return new ProjectMeasuresResultSetIterator(stmt);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Fail to prepare SQL request to select measures of projects", e);
+    }
+  }
+
+  private ProjectMeasuresResultSetIterator(PreparedStatement stmt) throws SQLException {
+    super(stmt);
+  }
+
+  @Override
+  protected ProjectMeasuresDoc read(ResultSet rs) throws SQLException {
+    ProjectMeasuresDoc doc = new ProjectMeasuresDoc();
+
+    // all the keys must be present, even if value is null
+    doc.setUuid(rs.getString(1));
+    doc.setKey(rs.getString(2));
+    doc.setName(rs.getString(3));
+    doc.setShortName(rs.getString(4));
+    doc.setDescription(rs.getString(5));
+    Timestamp createdAt = rs.getTimestamp(6);
+    doc.setCreatedAt(createdAt == null ? null : createdAt.getTime());
+    doc.setSnapshotId(rs.getLong(7));
+    doc.setProjectId(rs.getLong(8));
+    doc.setRootProjectId(rs.getLong(9));
+    doc.setVersion(rs.getString(10));
+    doc.setAnalysedAt(rs.getLong(11));
+    doc.setUpdatedAt(rs.getLong(12));
+
+    String metricKey = rs.getString(13);
+    if (metricKey != null) {
+      doc.setMeasure(metricKey, getDouble(rs, 14),
+        getDouble(rs, 15), getDouble(rs, 16), getDouble(rs, 17), getDouble(rs, 18), getDouble(rs, 19));
+    }
+    return doc;
+  }
+
+  @CheckForNull
+  private static Double getDouble(ResultSet rs, int index) throws SQLException {
+    double d = rs.getDouble(index);
+    return rs.wasNull() ? null : d;
+  }
+}
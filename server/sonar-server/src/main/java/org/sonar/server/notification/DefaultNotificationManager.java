@@ -21,18 +21,27 @@ package org.sonar.server.notification;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.io.InvalidClassException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
-import org.sonar.api.utils.SonarException;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.notification.NotificationQueueDao;
@@ -45,10 +54,20 @@ public class DefaultNotificationManager implements NotificationManager {
 
   private static final String UNABLE_TO_READ_NOTIFICATION = "Unable to read notification";
 
+  /**
+   * Subscribers are cached by dispatcher, channel and project, so that dispatching a burst of notifications does not
+   * execute the same queries for each notification. The expiration is a safety net for the changes of subscriptions
+   * which are not followed by a call to {@link #clearSubscribersCache()}, for example the deactivation of a user.
+   */
+  private static final long SUBSCRIBERS_CACHE_EXPIRATION_MINUTES = 5;
+  private static final long SUBSCRIBERS_CACHE_MAX_SIZE = 10_000;
+
   private NotificationChannel[] notificationChannels;
   private NotificationQueueDao notificationQueueDao;
   private PropertiesDao propertiesDao;
 
+  private final LoadingCache<SubscribersKey, List<String>> subscribers;
+
   private boolean alreadyLoggedDeserializationIssue = false;
 
   /**
@@ -58,6 +77,10 @@ public class DefaultNotificationManager implements NotificationManager {
     this.notificationChannels = channels;
     this.notificationQueueDao = notificationQueueDao;
     this.propertiesDao = propertiesDao;
+    this.subscribers = CacheBuilder.newBuilder()
+      .expireAfterWrite(SUBSCRIBERS_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+      .maximumSize(SUBSCRIBERS_CACHE_MAX_SIZE)
+      .build(new SubscribersLoader());
   }
 
   /**
@@ -89,21 +112,67 @@ public class DefaultNotificationManager implements NotificationManager {
   /**
    * Give the notification queue so that it can be processed
    */
+  @CheckForNull
   public Notification getFromQueue() {
-    int batchSize = 1;
-    List<NotificationQueueDto> notificationDtos = notificationQueueDao.findOldest(batchSize);
+    List<NotificationQueueDto> notificationDtos = notificationQueueDao.findOldest(1);
     if (notificationDtos.isEmpty()) {
       return null;
     }
     notificationQueueDao.delete(notificationDtos);
+    return convertToNotification(notificationDtos.get(0));
+  }
 
-    return convertToNotification(notificationDtos);
+  /**
+   * Oldest notifications of the queue, at most {@code count}, read in a single query. They are kept in the queue until
+   * they are removed with {@link #removeFromQueue(Collection)}. Notifications which can't be deserialized are removed
+   * from the queue and ignored, so the returned list may be smaller than the number of read notifications.
+   */
+  public List<QueuedNotification> findOldestInQueue(int count) {
+    List<NotificationQueueDto> notificationDtos = notificationQueueDao.findOldest(count);
+    if (notificationDtos.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<QueuedNotification> notifications = new ArrayList<>(notificationDtos.size());
+    List<NotificationQueueDto> unreadableDtos = new ArrayList<>();
+    for (NotificationQueueDto notificationDto : notificationDtos) {
+      Notification notification = convertToNotification(notificationDto);
+      if (notification == null) {
+        unreadableDtos.add(notificationDto);
+      } else {
+        notifications.add(new QueuedNotification(notificationDto.getId(), notification));
+      }
+    }
+    if (!unreadableDtos.isEmpty()) {
+      notificationQueueDao.delete(unreadableDtos);
+    }
+    return notifications;
   }
 
-  private Notification convertToNotification(List<NotificationQueueDto> notifications) {
+  public void removeFromQueue(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    List<NotificationQueueDto> dtos = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      dtos.add(new NotificationQueueDto().setId(id));
+    }
+    notificationQueueDao.delete(dtos);
+  }
+
+  /**
+   * Date when the oldest notification of the queue was queued, or {@code null} if the queue is empty or if
+   * the date is unknown, for notifications queued before SonarQube 5.2.
+   */
+  @CheckForNull
+  public Long getOldestQueueDate() {
+    List<NotificationQueueDto> oldest = notificationQueueDao.findOldest(1);
+    return oldest.isEmpty() ? null : oldest.get(0).getCreatedAt();
+  }
+
+  @CheckForNull
+  private Notification convertToNotification(NotificationQueueDto notification) {
     try {
-      // If batchSize is increased then we should return a list instead of a single element
-      return notifications.get(0).toNotification();
+      return notification.toNotification();
     } catch (InvalidClassException e) {
       // SONAR-4739
       if (!alreadyLoggedDeserializationIssue) {
@@ -111,11 +180,10 @@ public class DefaultNotificationManager implements NotificationManager {
         alreadyLoggedDeserializationIssue = true;
       }
       return null;
-    } catch (IOException e) {
-      throw new SonarException(UNABLE_TO_READ_NOTIFICATION, e);
-
-    } catch (ClassNotFoundException e) {
-      throw new SonarException(UNABLE_TO_READ_NOTIFICATION, e);
+    } catch (IOException | ClassNotFoundException e) {
+      // the notification is ignored, otherwise it would stay forever at the head of the queue
+      LOG.error(UNABLE_TO_READ_NOTIFICATION + " " + notification.getId(), e);
+      return null;
     }
   }
 
@@ -141,11 +209,11 @@ public class DefaultNotificationManager implements NotificationManager {
       String channelKey = channel.getKey();
 
       // Find users subscribed globally to the dispatcher (i.e. not on a specific project)
-      addUsersToRecipientListForChannel(propertiesDao.findUsersForNotification(dispatcherKey, channelKey, null), recipients, channel);
+      addUsersToRecipientListForChannel(getSubscribers(SubscribersKey.Type.PROJECT_UUID, dispatcherKey, channelKey, null), recipients, channel);
 
       if (projectUuid != null) {
         // Find users subscribed to the dispatcher specifically for the project
-        addUsersToRecipientListForChannel(propertiesDao.findUsersForNotification(dispatcherKey, channelKey, projectUuid), recipients, channel);
+        addUsersToRecipientListForChannel(getSubscribers(SubscribersKey.Type.PROJECT_UUID, dispatcherKey, channelKey, projectUuid), recipients, channel);
       }
     }
 
@@ -158,12 +226,23 @@ public class DefaultNotificationManager implements NotificationManager {
 
     SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationChannel channel : notificationChannels) {
-      addUsersToRecipientListForChannel(propertiesDao.findNotificationSubscribers(dispatcherKey, channel.getKey(), componentKey), recipients, channel);
+      addUsersToRecipientListForChannel(getSubscribers(SubscribersKey.Type.COMPONENT_KEY, dispatcherKey, channel.getKey(), componentKey), recipients, channel);
     }
 
     return recipients;
   }
 
+  /**
+   * Forget the subscribers loaded from database. Must be called when users change their notification properties.
+   */
+  public void clearSubscribersCache() {
+    subscribers.invalidateAll();
+  }
+
+  private List<String> getSubscribers(SubscribersKey.Type type, String dispatcherKey, String channelKey, @Nullable String componentRef) {
+    return subscribers.getUnchecked(new SubscribersKey(type, dispatcherKey, channelKey, componentRef));
+  }
+
   @VisibleForTesting
   protected List<NotificationChannel> getChannels() {
     return Arrays.asList(notificationChannels);
@@ -175,4 +254,74 @@ public class DefaultNotificationManager implements NotificationManager {
     }
   }
 
+  private class SubscribersLoader extends CacheLoader<SubscribersKey, List<String>> {
+    @Override
+    public List<String> load(SubscribersKey key) {
+      List<String> logins;
+      if (key.type == SubscribersKey.Type.PROJECT_UUID) {
+        logins = propertiesDao.findUsersForNotification(key.dispatcherKey, key.channelKey, key.componentRef);
+      } else {
+        logins = propertiesDao.findNotificationSubscribers(key.dispatcherKey, key.channelKey, key.componentRef);
+      }
+      return ImmutableList.copyOf(logins);
+    }
+  }
+
+  private static final class SubscribersKey {
+    private enum Type {
+      PROJECT_UUID, COMPONENT_KEY
+    }
+
+    private final Type type;
+    private final String dispatcherKey;
+    private final String channelKey;
+    @Nullable
+    private final String componentRef;
+
+    private SubscribersKey(Type type, String dispatcherKey, String channelKey, @Nullable String componentRef) {
+      this.type = type;
+      this.dispatcherKey = dispatcherKey;
+      this.channelKey = channelKey;
+      this.componentRef = componentRef;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SubscribersKey that = (SubscribersKey) o;
+      return type == that.type && dispatcherKey.equals(that.dispatcherKey) && channelKey.equals(that.channelKey)
+        && Objects.equals(componentRef, that.componentRef);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, dispatcherKey, channelKey, componentRef);
+    }
+  }
+
+  /**
+   * Notification read from the queue, with the id of its row
+   */
+  public static final class QueuedNotification {
+    private final long id;
+    private final Notification notification;
+
+    public QueuedNotification(long id, Notification notification) {
+      this.id = id;
+      this.notification = notification;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public Notification getNotification() {
+      return notification;
+    }
+  }
 }
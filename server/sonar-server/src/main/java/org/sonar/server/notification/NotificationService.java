@@ -24,14 +24,24 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.picocontainer.Startable;
 import org.sonar.api.Properties;
@@ -43,6 +53,7 @@ import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.DbClient;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
 @Properties({
   @Property(
@@ -56,6 +67,12 @@ import org.sonar.db.DbClient;
     defaultValue = "600",
     name = "Delay before reporting notification status, in seconds",
     project = false,
+    global = false),
+  @Property(
+    key = NotificationService.PROPERTY_THREADS_PER_CHANNEL,
+    defaultValue = "2",
+    name = "Number of threads delivering notifications through each channel",
+    project = false,
     global = false)
 })
 @ServerSide
@@ -65,20 +82,37 @@ public class NotificationService implements Startable {
 
   public static final String PROPERTY_DELAY = "sonar.notifications.delay";
   public static final String PROPERTY_DELAY_BEFORE_REPORTING_STATUS = "sonar.notifications.runningDelayBeforeReportingStatus";
+  public static final String PROPERTY_THREADS_PER_CHANNEL = "sonar.notifications.threadsPerChannel";
+  static final int DEFAULT_THREADS_PER_CHANNEL = 2;
+
+  /**
+   * Number of notifications read from the queue in a single query
+   */
+  static final int BATCH_SIZE = 100;
+
+  /**
+   * Maximum number of deliveries waiting in the pool of a channel. When it is full, the delivery is executed by
+   * the thread processing the queue, which slows down the dequeuing.
+   */
+  private static final int CHANNEL_QUEUE_SIZE = 1000;
 
   private final long delayInSeconds;
   private final long delayBeforeReportingStatusInSeconds;
+  private final int threadsPerChannel;
   private final DefaultNotificationManager manager;
   private final List<NotificationDispatcher> dispatchers;
   private final DbClient dbClient;
 
+  private final ConcurrentMap<String, ThreadPoolExecutor> channelExecutors = new ConcurrentHashMap<>();
   private ScheduledExecutorService executorService;
-  private boolean stopping = false;
+  private volatile boolean stopping = false;
 
   public NotificationService(Settings settings, DefaultNotificationManager manager, DbClient dbClient,
     NotificationDispatcher[] dispatchers) {
     this.delayInSeconds = settings.getLong(PROPERTY_DELAY);
     this.delayBeforeReportingStatusInSeconds = settings.getLong(PROPERTY_DELAY_BEFORE_REPORTING_STATUS);
+    int threads = settings.getInt(PROPERTY_THREADS_PER_CHANNEL);
+    this.threadsPerChannel = threads > 0 ? threads : DEFAULT_THREADS_PER_CHANNEL;
     this.manager = manager;
     this.dbClient = dbClient;
     this.dispatchers = ImmutableList.copyOf(dispatchers);
@@ -107,46 +141,91 @@ public class NotificationService implements Startable {
     LOG.info("Notification service started (delay {} sec.)", delayInSeconds);
   }
 
+  /**
+   * The deliveries of the batch being processed are given 5 seconds to complete. The notifications which are not
+   * delivered by then are kept in the queue, so they are delivered again after restart.
+   */
   @Override
   public void stop() {
     try {
       stopping = true;
-      executorService.shutdown();
-      executorService.awaitTermination(5, TimeUnit.SECONDS);
+      boolean completed = true;
+      if (executorService != null) {
+        executorService.shutdown();
+        completed = executorService.awaitTermination(5, TimeUnit.SECONDS);
+        if (!completed) {
+          // interrupts the wait for the deliveries of the batch
+          executorService.shutdownNow();
+        }
+      }
+      for (ThreadPoolExecutor channelExecutor : channelExecutors.values()) {
+        if (completed) {
+          channelExecutor.shutdown();
+        } else {
+          channelExecutor.shutdownNow();
+        }
+      }
+      if (!completed) {
+        LOG.warn("Notifications not delivered during stop of notification service are kept in queue");
+      }
     } catch (InterruptedException e) {
       LOG.error("Error during stop of notification service", e);
     }
     LOG.info("Notification service stopped");
   }
 
+  /**
+   * Notifications are read from the queue by batches. A notification is removed from the queue only once all its
+   * deliveries are done, successfully or not, so the notifications of a batch which is interrupted, for example by
+   * a crash of the server, are delivered again.
+   */
   @VisibleForTesting
   synchronized void processQueue() {
     long start = now();
     long lastLog = start;
     long notifSentCount = 0;
 
-    Notification notifToSend = manager.getFromQueue();
-    while (notifToSend != null) {
-      deliver(notifToSend);
-      notifSentCount++;
-      if (stopping) {
-        break;
+    List<QueuedNotification> notifsToSend = manager.findOldestInQueue(BATCH_SIZE);
+    while (!notifsToSend.isEmpty()) {
+      Batch batch = new Batch();
+      for (QueuedNotification notifToSend : notifsToSend) {
+        deliver(notifToSend, batch);
+        notifSentCount++;
+        long now = now();
+        if (now - lastLog > delayBeforeReportingStatusInSeconds * 1000) {
+          long remainingNotifCount = manager.count();
+          lastLog = now;
+          long spentTimeInMinutes = (now - start) / (60 * 1000);
+          log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
+        }
       }
-      long now = now();
-      if (now - lastLog > delayBeforeReportingStatusInSeconds * 1000) {
-        long remainingNotifCount = manager.count();
-        lastLog = now;
-        long spentTimeInMinutes = (now - start) / (60 * 1000);
-        log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
+      boolean completed = batch.awaitDeliveries();
+      manager.removeFromQueue(batch.getDeliveredIds());
+      if (!completed || stopping) {
+        break;
       }
-      notifToSend = manager.getFromQueue();
+      notifsToSend = manager.findOldestInQueue(BATCH_SIZE);
+    }
+    if (notifSentCount > 0) {
+      LOG.debug("{} notifications dispatched in {} ms", notifSentCount, now() - start);
     }
   }
 
   @VisibleForTesting
   void log(long notifSentCount, long remainingNotifCount, long spentTimeInMinutes) {
-    LOG.info("{} notifications sent during the past {} minutes and {} still waiting to be sent",
-      new Object[] {notifSentCount, spentTimeInMinutes, remainingNotifCount});
+    LOG.info("{} notifications sent during the past {} minutes, {} still waiting to be sent and {} deliveries pending",
+      new Object[] {notifSentCount, spentTimeInMinutes, remainingNotifCount, getPendingDeliveries()});
+  }
+
+  /**
+   * Number of deliveries dispatched to the channels but not yet executed
+   */
+  public long getPendingDeliveries() {
+    long pending = 0;
+    for (ThreadPoolExecutor channelExecutor : channelExecutors.values()) {
+      pending += channelExecutor.getQueue().size() + channelExecutor.getActiveCount();
+    }
+    return pending;
   }
 
   @VisibleForTesting
@@ -155,7 +234,17 @@ public class NotificationService implements Startable {
   }
 
   public void deliver(Notification notification) {
-    final SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
+    dispatch(notification, findRecipients(notification), null);
+  }
+
+  private void deliver(QueuedNotification queued, Batch batch) {
+    Notification notification = queued.getNotification();
+    SetMultimap<String, NotificationChannel> recipients = findRecipients(notification);
+    dispatch(notification, recipients, batch.add(queued.getId(), recipients.size()));
+  }
+
+  private SetMultimap<String, NotificationChannel> findRecipients(Notification notification) {
+    SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationDispatcher dispatcher : dispatchers) {
       NotificationDispatcher.Context context = new ContextImpl(recipients);
       try {
@@ -165,23 +254,40 @@ public class NotificationService implements Startable {
         LOG.warn(String.format("Unable to dispatch notification %s using %s", notification, dispatcher), e);
       }
     }
-    dispatch(notification, recipients);
+    return recipients;
   }
 
-  private void dispatch(Notification notification, SetMultimap<String, NotificationChannel> recipients) {
+  private void dispatch(Notification notification, SetMultimap<String, NotificationChannel> recipients, @Nullable Batch.Entry batchEntry) {
     for (Map.Entry<String, Collection<NotificationChannel>> entry : recipients.asMap().entrySet()) {
       String username = entry.getKey();
       Collection<NotificationChannel> userChannels = entry.getValue();
       LOG.debug("For user {} via {}", username, userChannels);
       for (NotificationChannel channel : userChannels) {
-        try {
-          channel.deliver(notification, username);
-        } catch (Exception e) {
-          // catch all exceptions in order to deliver via other channels
-          LOG.warn("Unable to deliver notification " + notification + " for user " + username + " via " + channel, e);
-        }
+        getChannelExecutor(channel).execute(new Delivery(notification, username, channel, batchEntry));
+      }
+    }
+  }
+
+  /**
+   * Each channel has its own pool of threads, so that a slow channel (for example an unresponsive SMTP server)
+   * does not delay the deliveries through the other channels.
+   */
+  private ThreadPoolExecutor getChannelExecutor(NotificationChannel channel) {
+    String channelKey = channel.getKey();
+    ThreadPoolExecutor channelExecutor = channelExecutors.get(channelKey);
+    if (channelExecutor == null) {
+      ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(threadsPerChannel, threadsPerChannel, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(CHANNEL_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("Notifications-" + channelKey + "-%d").setDaemon(true).build(),
+        new CallerRunsPolicy());
+      channelExecutor = channelExecutors.putIfAbsent(channelKey, newExecutor);
+      if (channelExecutor == null) {
+        channelExecutor = newExecutor;
+      } else {
+        newExecutor.shutdown();
       }
     }
+    return channelExecutor;
   }
 
   @VisibleForTesting
@@ -204,6 +310,121 @@ public class NotificationService implements Startable {
     return dbClient.propertiesDao().hasProjectNotificationSubscribersForDispatchers(projectUuid, dispatcherKeys);
   }
 
+  private static class Delivery implements Runnable {
+    private final Notification notification;
+    private final String username;
+    private final NotificationChannel channel;
+    @Nullable
+    private final Batch.Entry batchEntry;
+
+    private Delivery(Notification notification, String username, NotificationChannel channel, @Nullable Batch.Entry batchEntry) {
+      this.notification = notification;
+      this.username = username;
+      this.channel = channel;
+      this.batchEntry = batchEntry;
+    }
+
+    @Override
+    public void run() {
+      try {
+        channel.deliver(notification, username);
+      } catch (Exception e) {
+        // catch all exceptions in order to deliver via other channels
+        LOG.warn("Unable to deliver notification " + notification + " for user " + username + " via " + channel, e);
+      } finally {
+        if (batchEntry != null) {
+          batchEntry.deliveryDone();
+        }
+      }
+    }
+
+    /**
+     * The delivery of a notification read from the queue is abandoned, as the notification is kept in the queue
+     */
+    private void runOrAbandon() {
+      if (batchEntry == null) {
+        run();
+      } else {
+        batchEntry.deliveryAbandoned();
+      }
+    }
+  }
+
+  /**
+   * Deliveries are executed by the calling thread when the pool of the channel is full. When the pool is shut down,
+   * the deliveries of the notifications read from the queue are abandoned, and the other ones are executed by the
+   * calling thread.
+   */
+  private static class CallerRunsPolicy implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable delivery, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        ((Delivery) delivery).runOrAbandon();
+      } else {
+        delivery.run();
+      }
+    }
+  }
+
+  /**
+   * Deliveries of the notifications of a batch read from the queue
+   */
+  private static class Batch {
+    private final Semaphore doneDeliveries = new Semaphore(0);
+    private final Queue<Long> deliveredIds = new ConcurrentLinkedQueue<>();
+    private int deliveries = 0;
+
+    private Entry add(long notificationId, int notificationDeliveries) {
+      deliveries += notificationDeliveries;
+      Entry entry = new Entry(notificationId, notificationDeliveries);
+      if (notificationDeliveries == 0) {
+        deliveredIds.add(notificationId);
+      }
+      return entry;
+    }
+
+    /**
+     * @return false if interrupted before all the deliveries are done
+     */
+    private boolean awaitDeliveries() {
+      try {
+        doneDeliveries.acquire(deliveries);
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    /**
+     * Notifications whose deliveries are all done
+     */
+    private List<Long> getDeliveredIds() {
+      return new ArrayList<>(deliveredIds);
+    }
+
+    private class Entry {
+      private final long notificationId;
+      private final AtomicInteger pendingDeliveries;
+
+      private Entry(long notificationId, int deliveries) {
+        this.notificationId = notificationId;
+        this.pendingDeliveries = new AtomicInteger(deliveries);
+      }
+
+      private void deliveryDone() {
+        if (pendingDeliveries.decrementAndGet() == 0) {
+          deliveredIds.add(notificationId);
+        }
+        doneDeliveries.release();
+      }
+
+      private void deliveryAbandoned() {
+        doneDeliveries.release();
+      }
+    }
+  }
+
   private static class ContextImpl implements NotificationDispatcher.Context {
     private final Multimap<String, NotificationChannel> recipients;
 
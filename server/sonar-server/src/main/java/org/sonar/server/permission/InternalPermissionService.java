@@ -39,6 +39,7 @@ import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.UserSession;
 
 /**
@@ -61,15 +62,18 @@ public class InternalPermissionService {
   private final IssueAuthorizationIndexer issueAuthorizationIndexer;
   private final UserSession userSession;
   private final ComponentFinder componentFinder;
+  private final AuthorizationCache authorizationCache;
 
   public InternalPermissionService(DbClient dbClient, PermissionFacade permissionFacade, PermissionFinder finder,
-                                   IssueAuthorizationIndexer issueAuthorizationIndexer, UserSession userSession, ComponentFinder componentFinder) {
+                                   IssueAuthorizationIndexer issueAuthorizationIndexer, UserSession userSession, ComponentFinder componentFinder,
+                                   AuthorizationCache authorizationCache) {
     this.dbClient = dbClient;
     this.permissionFacade = permissionFacade;
     this.finder = finder;
     this.issueAuthorizationIndexer = issueAuthorizationIndexer;
     this.userSession = userSession;
     this.componentFinder = componentFinder;
+    this.authorizationCache = authorizationCache;
   }
 
   public List<String> globalPermissions() {
@@ -280,6 +284,7 @@ public class InternalPermissionService {
   }
 
   private void indexProjectPermissions() {
+    authorizationCache.clear();
     issueAuthorizationIndexer.index();
   }
 }
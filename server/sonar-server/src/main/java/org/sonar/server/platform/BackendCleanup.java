@@ -31,6 +31,7 @@ import org.sonar.db.MyBatis;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.issue.index.IssueIndexDefinition;
 import org.sonar.server.search.IndexDefinition;
+import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
 import org.sonar.server.source.index.SourceLineIndexDefinition;
 import org.sonar.server.view.index.ViewIndexDefinition;
 
@@ -130,6 +131,7 @@ public class BackendCleanup {
       clearIndex(IssueIndexDefinition.INDEX);
       clearIndex(SourceLineIndexDefinition.INDEX);
       clearIndex(ViewIndexDefinition.INDEX);
+      clearIndex(ProjectMeasuresIndexDefinition.INDEX);
 
     } finally {
       dbSession.close();
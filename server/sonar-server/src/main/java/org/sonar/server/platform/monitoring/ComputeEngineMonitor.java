@@ -0,0 +1,99 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.server.computation.ComputationStatistics;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.computation.ReportQueue;
+
+import static org.sonar.db.compute.AnalysisReportDto.Status.PENDING;
+import static org.sonar.db.compute.AnalysisReportDto.Status.WORKING;
+
+public class ComputeEngineMonitor extends BaseMonitorMBean implements ComputeEngineMonitorMBean {
+
+  private final ReportQueue queue;
+  private final ComputationThreadLauncher launcher;
+  private final ComputationStatistics statistics;
+
+  public ComputeEngineMonitor(ReportQueue queue, ComputationThreadLauncher launcher, ComputationStatistics statistics) {
+    this.queue = queue;
+    this.launcher = launcher;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public String name() {
+    return "ComputeEngine";
+  }
+
+  @Override
+  public int getPendingReports() {
+    return queue.count(PENDING);
+  }
+
+  @Override
+  public int getInProgressReports() {
+    return queue.count(WORKING);
+  }
+
+  @Override
+  public int getWorkerCount() {
+    return launcher.getWorkerCount();
+  }
+
+  @Override
+  public long getProcessedReports() {
+    return statistics.getProcessedReports();
+  }
+
+  @Override
+  public long getFailedReports() {
+    return statistics.getFailedReports();
+  }
+
+  @Override
+  public long getAverageWaitTimeMs() {
+    return statistics.getAverageWaitTimeMs();
+  }
+
+  @Override
+  public long getAverageProcessingTimeMs() {
+    return statistics.getAverageProcessingTimeMs();
+  }
+
+  @Override
+  public LinkedHashMap<String, Object> attributes() {
+    LinkedHashMap<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("Pending Reports", getPendingReports());
+    attributes.put("In Progress Reports", getInProgressReports());
+    attributes.put("Workers", getWorkerCount());
+    attributes.put("Processed Reports", getProcessedReports());
+    attributes.put("Failed Reports", getFailedReports());
+    attributes.put("Average Wait Time (ms)", getAverageWaitTimeMs());
+    attributes.put("Average Processing Time (ms)", getAverageProcessingTimeMs());
+    for (Map.Entry<String, Long> entry : statistics.getProcessedReportsByWorker().entrySet()) {
+      attributes.put("Processed Reports by " + entry.getKey(), entry.getValue());
+    }
+    return attributes;
+  }
+}
@@ -26,6 +26,7 @@ import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
 import org.elasticsearch.action.admin.cluster.stats.ClusterStatsResponse;
 import org.elasticsearch.action.admin.indices.stats.IndexStats;
 import org.elasticsearch.action.admin.indices.stats.IndicesStatsResponse;
+import org.sonar.server.es.BulkIndexerStatistics;
 import org.sonar.server.es.EsClient;
 
 import java.util.LinkedHashMap;
@@ -64,6 +65,26 @@ public class EsMonitor extends BaseMonitorMBean implements EsMonitorMBean {
     return clusterStats().getNodesStats().getCounts().getTotal();
   }
 
+  @Override
+  public long getBulkIndexedDocs() {
+    return esClient.getBulkStatistics().getIndexedDocs();
+  }
+
+  @Override
+  public int getBulkInFlightRequests() {
+    return esClient.getBulkStatistics().getInFlightBulks();
+  }
+
+  @Override
+  public long getBulkDocsPerSecond() {
+    return esClient.getBulkStatistics().getLastDocsPerSecond();
+  }
+
+  @Override
+  public long getBulkBytesPerSecond() {
+    return esClient.getBulkStatistics().getLastBytesPerSecond();
+  }
+
   @Override
   public LinkedHashMap<String, Object> attributes() {
     LinkedHashMap<String, Object> attributes = new LinkedHashMap<>();
@@ -71,6 +92,20 @@ public class EsMonitor extends BaseMonitorMBean implements EsMonitorMBean {
     attributes.put("Indices", indexAttributes());
     attributes.put("Number of Nodes", getNumberOfNodes());
     attributes.put("Nodes", nodeAttributes());
+    attributes.put("Bulk Indexing", bulkAttributes());
+    return attributes;
+  }
+
+  private LinkedHashMap<String, Object> bulkAttributes() {
+    BulkIndexerStatistics statistics = esClient.getBulkStatistics();
+    LinkedHashMap<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("Indexed Docs", statistics.getIndexedDocs());
+    attributes.put("Failed Docs", statistics.getFailedDocs());
+    attributes.put("Retried Docs", statistics.getRetriedDocs());
+    attributes.put("Sent Size", byteCountToDisplaySize(statistics.getSentBytes()));
+    attributes.put("In-flight Requests", statistics.getInFlightBulks());
+    attributes.put("Last Docs per Second", statistics.getLastDocsPerSecond());
+    attributes.put("Last Throughput", byteCountToDisplaySize(statistics.getLastBytesPerSecond()) + "/s");
     return attributes;
   }
 
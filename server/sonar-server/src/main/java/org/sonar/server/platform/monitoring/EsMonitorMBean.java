@@ -27,4 +27,24 @@ package org.sonar.server.platform.monitoring;
 public interface EsMonitorMBean {
   String getState();
   int getNumberOfNodes();
+
+  /**
+   * Number of documents indexed or deleted by bulk requests since server startup
+   */
+  long getBulkIndexedDocs();
+
+  /**
+   * Number of bulk requests sent and not answered yet
+   */
+  int getBulkInFlightRequests();
+
+  /**
+   * Throughput of the last bulk indexing, in documents per second
+   */
+  long getBulkDocsPerSecond();
+
+  /**
+   * Throughput of the last bulk indexing, in bytes per second
+   */
+  long getBulkBytesPerSecond();
 }
@@ -0,0 +1,68 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import org.sonar.api.utils.System2;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationService;
+
+public class NotificationMonitor extends BaseMonitorMBean implements NotificationMonitorMBean {
+
+  private final DefaultNotificationManager manager;
+  private final NotificationService service;
+  private final System2 system;
+
+  public NotificationMonitor(DefaultNotificationManager manager, NotificationService service, System2 system) {
+    this.manager = manager;
+    this.service = service;
+    this.system = system;
+  }
+
+  @Override
+  public String name() {
+    return "Notifications";
+  }
+
+  @Override
+  public long getPendingNotifications() {
+    return manager.count();
+  }
+
+  @Override
+  public long getOldestNotificationAgeMs() {
+    Long oldestQueueDate = manager.getOldestQueueDate();
+    return oldestQueueDate == null ? 0L : Math.max(0L, system.now() - oldestQueueDate);
+  }
+
+  @Override
+  public long getPendingDeliveries() {
+    return service.getPendingDeliveries();
+  }
+
+  @Override
+  public LinkedHashMap<String, Object> attributes() {
+    LinkedHashMap<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("Pending Notifications", getPendingNotifications());
+    attributes.put("Oldest Notification Age (ms)", getOldestNotificationAgeMs());
+    attributes.put("Pending Deliveries", getPendingDeliveries());
+    return attributes;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+public interface NotificationMonitorMBean {
+
+  /**
+   * Number of notifications in the queue, including the ones being delivered
+   */
+  long getPendingNotifications();
+
+  /**
+   * Time spent in the queue by the oldest notification, or 0 if the queue is empty. It is also 0 when the
+   * oldest notification was queued before SonarQube 5.2, as its date is unknown.
+   */
+  long getOldestNotificationAgeMs();
+
+  /**
+   * Number of deliveries dispatched to the channels but not yet executed
+   */
+  long getPendingDeliveries();
+}
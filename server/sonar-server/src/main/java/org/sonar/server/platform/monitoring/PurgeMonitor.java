@@ -0,0 +1,83 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.db.purge.PurgeProfiler;
+
+/**
+ * Durations and numbers of committed chunks of the purge of each table. Values are reset
+ * at the beginning of each project purge, so they are those of the running or last purge.
+ */
+public class PurgeMonitor extends BaseMonitorMBean implements PurgeMonitorMBean {
+
+  private final PurgeProfiler profiler;
+
+  public PurgeMonitor(PurgeProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  @Override
+  public String name() {
+    return "Purge";
+  }
+
+  @Override
+  public long getDurationMs() {
+    return sum(profiler.getDurations());
+  }
+
+  @Override
+  public long getCommittedChunks() {
+    return sum(profiler.getChunkCounts());
+  }
+
+  @Override
+  public Map<String, Long> getDurationsMsByTable() {
+    return profiler.getDurations();
+  }
+
+  @Override
+  public Map<String, Long> getCommittedChunksByTable() {
+    return profiler.getChunkCounts();
+  }
+
+  @Override
+  public LinkedHashMap<String, Object> attributes() {
+    LinkedHashMap<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("Duration (ms)", getDurationMs());
+    attributes.put("Committed Chunks", getCommittedChunks());
+    Map<String, Long> chunks = profiler.getChunkCounts();
+    for (Map.Entry<String, Long> entry : profiler.getDurations().entrySet()) {
+      Long tableChunks = chunks.get(entry.getKey());
+      attributes.put(entry.getKey(), entry.getValue() + " ms, " + (tableChunks == null ? 0L : tableChunks) + " chunks");
+    }
+    return attributes;
+  }
+
+  private static long sum(Map<String, Long> valuesByTable) {
+    long sum = 0L;
+    for (Long value : valuesByTable.values()) {
+      sum += value;
+    }
+    return sum;
+  }
+}
@@ -53,6 +53,7 @@ import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.rule.index.RuleNormalizer;
 import org.sonar.server.search.EsSearchModule;
 import org.sonar.server.search.IndexQueue;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.ThreadLocalUserSession;
 import org.sonar.server.user.db.GroupDao;
 import org.sonar.server.user.db.UserDao;
@@ -97,6 +98,7 @@ public class PlatformLevel1 extends PlatformLevel {
 
       // user session
       ThreadLocalUserSession.class,
+      AuthorizationCache.class,
 
       // DB
       DbClient.class,
@@ -65,6 +65,7 @@ import org.sonar.server.component.ws.ComponentJsonWriter;
 import org.sonar.server.component.ws.ComponentsWs;
 import org.sonar.server.component.ws.EventsWs;
 import org.sonar.server.component.ws.ResourcesWs;
+import org.sonar.server.computation.ComputationStatistics;
 import org.sonar.server.computation.ComputationThreadLauncher;
 import org.sonar.server.computation.ReportQueue;
 import org.sonar.server.computation.ws.ComputationWs;
@@ -165,6 +166,8 @@ import org.sonar.server.measure.MeasureFilterEngine;
 import org.sonar.server.measure.MeasureFilterExecutor;
 import org.sonar.server.measure.MeasureFilterFactory;
 import org.sonar.server.measure.custom.ws.CustomMeasuresWsModule;
+import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
 import org.sonar.server.measure.template.MyFavouritesFilter;
 import org.sonar.server.measure.template.ProjectFilter;
 import org.sonar.server.measure.ws.TimeMachineWs;
@@ -182,10 +185,13 @@ import org.sonar.server.permission.PermissionFinder;
 import org.sonar.server.permission.ws.PermissionsWs;
 import org.sonar.server.platform.BackendCleanup;
 import org.sonar.server.platform.SettingsChangeNotifier;
+import org.sonar.server.platform.monitoring.ComputeEngineMonitor;
 import org.sonar.server.platform.monitoring.DatabaseMonitor;
 import org.sonar.server.platform.monitoring.EsMonitor;
 import org.sonar.server.platform.monitoring.JvmPropertiesMonitor;
+import org.sonar.server.platform.monitoring.NotificationMonitor;
 import org.sonar.server.platform.monitoring.PluginsMonitor;
+import org.sonar.server.platform.monitoring.PurgeMonitor;
 import org.sonar.server.platform.monitoring.SonarQubeMonitor;
 import org.sonar.server.platform.monitoring.SystemMonitor;
 import org.sonar.server.platform.ws.InfoAction;
@@ -486,6 +492,8 @@ public class PlatformLevel4 extends PlatformLevel {
       ActivityMapping.class,
 
       // measure
+      ProjectMeasuresIndexDefinition.class,
+      ProjectMeasuresIndexer.class,
       MeasureFilterFactory.class,
       MeasureFilterExecutor.class,
       MeasureFilterEngine.class,
@@ -724,6 +732,9 @@ public class PlatformLevel4 extends PlatformLevel {
       PluginsMonitor.class,
       JvmPropertiesMonitor.class,
       DatabaseMonitor.class,
+      ComputeEngineMonitor.class,
+      PurgeMonitor.class,
+      NotificationMonitor.class,
 
       // Plugins WS
       PluginWSCommons.class,
@@ -740,6 +751,7 @@ public class PlatformLevel4 extends PlatformLevel {
 
       // Compute engine
       ReportQueue.class,
+      ComputationStatistics.class,
       ComputationThreadLauncher.class,
       ComputationWs.class,
       IsQueueEmptyWs.class,
@@ -19,45 +19,71 @@
  */
 package org.sonar.server.search;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
-import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
-import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.picocontainer.Startable;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
-import org.sonar.db.deprecated.WorkQueue;
 import org.sonar.core.platform.ComponentContainer;
+import org.sonar.db.deprecated.WorkQueue;
 import org.sonar.server.search.action.IndexAction;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-
+/**
+ * Normalizes the actions in a pool of threads shared by all the calls to {@link #enqueue(List)}. The requests are
+ * sent by bulks of 1Mb, in the order of actions, while the next actions are still being normalized.
+ * Refreshes requested by concurrent calls are merged by {@link RefreshCoalescer}.
+ */
 @ServerSide
-public class IndexQueue implements WorkQueue<IndexAction<?>> {
-
-  private final SearchClient searchClient;
-  private final ComponentContainer container;
+public class IndexQueue implements WorkQueue<IndexAction<?>>, Startable {
 
   private static final Logger LOGGER = Loggers.get(IndexQueue.class);
 
-  private static final Integer CONCURRENT_NORMALIZATION_FACTOR = 1;
+  private static final int NORMALIZATION_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private static final long NORMALIZATION_TIMEOUT_MINUTES = 20L;
+  private static final long FLUSH_BYTE_SIZE = new ByteSizeValue(1, ByteSizeUnit.MB).bytes();
+
+  private final SearchClient searchClient;
+  private final ComponentContainer container;
+  private final RefreshCoalescer refreshCoalescer;
+  private final ExecutorService normalizationExecutor;
 
   public IndexQueue(SearchClient searchClient, ComponentContainer container) {
     this.searchClient = searchClient;
     this.container = container;
+    this.refreshCoalescer = new RefreshCoalescer(searchClient);
+    this.normalizationExecutor = Executors.newFixedThreadPool(NORMALIZATION_THREADS,
+      new ThreadFactoryBuilder().setNameFormat("IndexQueue-normalization-%d").setDaemon(true).build());
+  }
+
+  @Override
+  public void start() {
+    // nothing to do
+  }
+
+  @Override
+  public void stop() {
+    normalizationExecutor.shutdownNow();
   }
 
   @Override
@@ -65,77 +91,80 @@ public class IndexQueue implements WorkQueue<IndexAction<?>> {
     if (actions.isEmpty()) {
       return;
     }
-    boolean refreshRequired = false;
-
     Map<String, Index> indexes = getIndexMap();
     Set<String> indices = new HashSet<>();
     for (IndexAction action : actions) {
       Index index = indexes.get(action.getIndexType());
       action.setIndex(index);
       if (action.needsRefresh()) {
-        refreshRequired = true;
         indices.add(index.getIndexName());
       }
     }
 
-    BulkRequestBuilder bulkRequestBuilder = searchClient.prepareBulk();
-
-    processActionsIntoQueries(bulkRequestBuilder, actions);
-
-    if (bulkRequestBuilder.numberOfActions() > 0) {
-      // execute the request
-      BulkResponse response = bulkRequestBuilder.setRefresh(false).get();
+    processActionsIntoQueries(actions);
+    refreshCoalescer.refresh(indices);
+  }
 
-      if (refreshRequired) {
-        this.refreshRequiredIndex(indices);
+  private void processActionsIntoQueries(List<IndexAction<?>> actions) {
+    List<Future<List<? extends ActionRequest>>> futures = new ArrayList<>(actions.size());
+    boolean done = false;
+    try {
+      for (IndexAction<?> action : actions) {
+        futures.add(normalizationExecutor.submit((IndexAction) action));
       }
-
-      if (response.hasFailures()) {
-        throw new IllegalStateException("Errors while indexing stack: " + response.buildFailureMessage());
+      // requests are added in the order of actions, as several actions can change the same document
+      long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(NORMALIZATION_TIMEOUT_MINUTES);
+      BulkRequestBuilder bulkRequestBuilder = newBulk();
+      for (Future<List<? extends ActionRequest>> normalized : futures) {
+        long timeout = Math.max(0L, deadline - System.currentTimeMillis());
+        for (ActionRequest update : normalized.get(timeout, TimeUnit.MILLISECONDS)) {
+          addToBulk(bulkRequestBuilder, update);
+        }
+        if (bulkRequestBuilder.request().estimatedSizeInBytes() >= FLUSH_BYTE_SIZE) {
+          executeBulk(bulkRequestBuilder);
+          bulkRequestBuilder = newBulk();
+        }
+      }
+      executeBulk(bulkRequestBuilder);
+      done = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during normalization of stack", e);
+    } catch (ExecutionException | TimeoutException e) {
+      LOGGER.error("Could not execute normalization for stack", e);
+      throw new IllegalStateException("Could not execute normalization for stack", e);
+    } finally {
+      if (!done) {
+        for (Future<?> future : futures) {
+          future.cancel(true);
+        }
       }
     }
   }
 
-  private void refreshRequiredIndex(Set<String> indices) {
-    if (!indices.isEmpty()) {
-      RefreshRequestBuilder refreshRequest = searchClient.prepareRefresh(indices.toArray(new String[indices.size()]))
-        .setForce(false);
-
-      RefreshResponse refreshResponse = refreshRequest.get();
+  private BulkRequestBuilder newBulk() {
+    return searchClient.prepareBulk().setRefresh(false);
+  }
 
-      if (refreshResponse.getFailedShards() > 0) {
-        LOGGER.warn("{} Shard(s) did not refresh", refreshResponse.getFailedShards());
-      }
+  private static void addToBulk(BulkRequestBuilder bulkRequestBuilder, ActionRequest update) {
+    if (IndexRequest.class.isAssignableFrom(update.getClass())) {
+      bulkRequestBuilder.add((IndexRequest) update);
+    } else if (UpdateRequest.class.isAssignableFrom(update.getClass())) {
+      bulkRequestBuilder.add((UpdateRequest) update);
+    } else if (DeleteRequest.class.isAssignableFrom(update.getClass())) {
+      bulkRequestBuilder.add((DeleteRequest) update);
+    } else if (!RefreshRequest.class.isAssignableFrom(update.getClass())) {
+      // refreshes are executed by RefreshCoalescer
+      throw new IllegalStateException("Un-managed request type: " + update.getClass());
     }
   }
 
-  private void processActionsIntoQueries(BulkRequestBuilder bulkRequestBuilder, List<IndexAction<?>> actions) {
-    try {
-      boolean hasInlineRefreshRequest = false;
-      ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_NORMALIZATION_FACTOR);
-      // invokeAll() blocks until ALL tasks submitted to executor complete
-      List<Future<List<? extends ActionRequest>>> requests = (List) executorService.invokeAll(actions, 20, TimeUnit.MINUTES);
-      for (Future<List<? extends ActionRequest>> updates : requests) {
-        for (ActionRequest update : updates.get()) {
-
-          if (IndexRequest.class.isAssignableFrom(update.getClass())) {
-            bulkRequestBuilder.add((IndexRequest) update);
-          } else if (UpdateRequest.class.isAssignableFrom(update.getClass())) {
-            bulkRequestBuilder.add((UpdateRequest) update);
-          } else if (DeleteRequest.class.isAssignableFrom(update.getClass())) {
-            bulkRequestBuilder.add((DeleteRequest) update);
-          } else if (RefreshRequest.class.isAssignableFrom(update.getClass())) {
-            hasInlineRefreshRequest = true;
-          } else {
-            throw new IllegalStateException("Un-managed request type: " + update.getClass());
-          }
-        }
+  private static void executeBulk(BulkRequestBuilder bulkRequestBuilder) {
+    if (bulkRequestBuilder.numberOfActions() > 0) {
+      BulkResponse response = bulkRequestBuilder.get();
+      if (response.hasFailures()) {
+        throw new IllegalStateException("Errors while indexing stack: " + response.buildFailureMessage());
       }
-      executorService.shutdown();
-      bulkRequestBuilder.setRefresh(hasInlineRefreshRequest);
-    } catch (Exception e) {
-      LOGGER.error("Could not execute normalization for stack", e);
-      throw new IllegalStateException("Could not execute normalization for stack", e);
     }
   }
 
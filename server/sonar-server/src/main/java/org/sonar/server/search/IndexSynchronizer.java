@@ -32,6 +32,7 @@ import org.sonar.server.issue.index.IssueIndexer;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndex;
 import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.source.index.SourceLineIndexer;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
 import org.sonar.server.test.index.TestIndexer;
 import org.sonar.server.user.index.UserIndexer;
 import org.sonar.server.view.index.ViewIndexer;
@@ -49,6 +50,7 @@ public class IndexSynchronizer {
   private final UserIndexer userIndexer;
   private final ViewIndexer viewIndexer;
   private final ActivityIndexer activityIndexer;
+  private final ProjectMeasuresIndexer projectMeasuresIndexer;
   private final Settings settings;
 
   /**
@@ -58,7 +60,8 @@ public class IndexSynchronizer {
    */
   public IndexSynchronizer(DbClient db, IndexClient index, SourceLineIndexer sourceLineIndexer,
     TestIndexer testIndexer, IssueAuthorizationIndexer issueAuthorizationIndexer, IssueIndexer issueIndexer,
-    UserIndexer userIndexer, ViewIndexer viewIndexer, ActivityIndexer activityIndexer, Settings settings) {
+    UserIndexer userIndexer, ViewIndexer viewIndexer, ActivityIndexer activityIndexer,
+    ProjectMeasuresIndexer projectMeasuresIndexer, Settings settings) {
     this.db = db;
     this.index = index;
     this.sourceLineIndexer = sourceLineIndexer;
@@ -68,6 +71,7 @@ public class IndexSynchronizer {
     this.userIndexer = userIndexer;
     this.viewIndexer = viewIndexer;
     this.activityIndexer = activityIndexer;
+    this.projectMeasuresIndexer = projectMeasuresIndexer;
     this.settings = settings;
   }
 
@@ -102,6 +106,9 @@ public class IndexSynchronizer {
 
       LOG.info("Index views");
       viewIndexer.setEnabled(true).index();
+
+      LOG.info("Index project measures");
+      projectMeasuresIndexer.setEnabled(true).index();
     }
   }
 
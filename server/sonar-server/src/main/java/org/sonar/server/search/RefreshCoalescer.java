@@ -0,0 +1,112 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.search;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Merges the refreshes of indices requested concurrently. A caller waits for the first refresh started
+ * after its request, which may be executed by another caller. Only one refresh request is executed at a time,
+ * and it covers all the indices requested while the previous one was running.
+ */
+class RefreshCoalescer {
+
+  private static final Logger LOGGER = Loggers.get(RefreshCoalescer.class);
+
+  private final SearchClient searchClient;
+  private final Set<String> pendingIndices = new HashSet<>();
+  private long requestedGeneration = 0L;
+  private long refreshedGeneration = 0L;
+  private boolean refreshing = false;
+
+  RefreshCoalescer(SearchClient searchClient) {
+    this.searchClient = searchClient;
+  }
+
+  /**
+   * Returns when all the given indices have been refreshed since the call of this method.
+   */
+  void refresh(Set<String> indices) {
+    if (indices.isEmpty()) {
+      return;
+    }
+    long generation;
+    synchronized (this) {
+      pendingIndices.addAll(indices);
+      requestedGeneration++;
+      generation = requestedGeneration;
+    }
+    while (true) {
+      Set<String> indicesToRefresh;
+      long refreshGeneration;
+      synchronized (this) {
+        waitWhileRefreshing(generation);
+        if (refreshedGeneration >= generation) {
+          return;
+        }
+        refreshing = true;
+        indicesToRefresh = new HashSet<>(pendingIndices);
+        pendingIndices.clear();
+        refreshGeneration = requestedGeneration;
+      }
+      boolean refreshed = false;
+      try {
+        doRefresh(indicesToRefresh);
+        refreshed = true;
+      } finally {
+        synchronized (this) {
+          refreshing = false;
+          if (refreshed) {
+            refreshedGeneration = refreshGeneration;
+          } else {
+            // let the waiting callers try again
+            pendingIndices.addAll(indicesToRefresh);
+          }
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  private void waitWhileRefreshing(long generation) {
+    while (refreshing && refreshedGeneration < generation) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the refresh of indices", e);
+      }
+    }
+  }
+
+  private void doRefresh(Set<String> indices) {
+    RefreshResponse refreshResponse = searchClient.prepareRefresh(indices.toArray(new String[indices.size()]))
+      .setForce(false)
+      .get();
+
+    if (refreshResponse.getFailedShards() > 0) {
+      LOGGER.warn("{} Shard(s) did not refresh", refreshResponse.getFailedShards());
+    }
+  }
+}
@@ -21,7 +21,6 @@ package org.sonar.server.user;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Sets;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,7 +34,6 @@ import org.sonar.api.security.DefaultGroups;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.UnauthorizedException;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 
 public abstract class AbstractUserSession<T extends AbstractUserSession> implements UserSession {
@@ -45,11 +43,7 @@ public abstract class AbstractUserSession<T extends AbstractUserSession> impleme
   protected String login;
   protected Set<String> userGroups = Sets.newHashSet(DefaultGroups.ANYONE);
   protected List<String> globalPermissions = Collections.emptyList();
-  protected HashMultimap<String, String> projectKeyByPermission = HashMultimap.create();
-  protected HashMultimap<String, String> projectUuidByPermission = HashMultimap.create();
   protected Map<String, String> projectUuidByComponentUuid = newHashMap();
-  protected List<String> projectPermissionsCheckedByKey = newArrayList();
-  protected List<String> projectPermissionsCheckedByUuid = newArrayList();
   protected String name;
   protected Locale locale = Locale.ENGLISH;
 
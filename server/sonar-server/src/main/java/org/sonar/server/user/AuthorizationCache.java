@@ -0,0 +1,118 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.user.AuthorizationDao;
+
+/**
+ * Root projects on which users are granted project permissions, shared by the user sessions of all the HTTP requests.
+ * Authorized projects are cached by user and permission, so that pages checking the same permissions on each request
+ * do not execute the same queries again.
+ * <p/>
+ * {@link #clear()} must be called when permissions, permission templates or group memberships are changed. The expiration
+ * is a safety net for the changes which are not followed by a call to {@link #clear()}.
+ */
+@ServerSide
+public class AuthorizationCache {
+
+  private static final long EXPIRATION_MINUTES = 1;
+  private static final long MAX_SIZE = 10_000;
+
+  private final LoadingCache<Key, Set<String>> authorizedProjects;
+
+  public AuthorizationCache(final AuthorizationDao authorizationDao) {
+    this.authorizedProjects = CacheBuilder.newBuilder()
+      .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+      .maximumSize(MAX_SIZE)
+      .build(new CacheLoader<Key, Set<String>>() {
+        @Override
+        public Set<String> load(Key key) {
+          if (key.type == Key.Type.PROJECT_KEY) {
+            return ImmutableSet.copyOf(authorizationDao.selectAuthorizedRootProjectsKeys(key.userId, key.permission));
+          }
+          return ImmutableSet.copyOf(authorizationDao.selectAuthorizedRootProjectsUuids(key.userId, key.permission));
+        }
+      });
+  }
+
+  /**
+   * Keys of the root projects on which the user, or Anyone when {@code userId} is null, has the given permission
+   */
+  public Set<String> authorizedProjectKeys(@Nullable Integer userId, String permission) {
+    return authorizedProjects.getUnchecked(new Key(Key.Type.PROJECT_KEY, userId, permission));
+  }
+
+  /**
+   * Uuids of the root projects on which the user, or Anyone when {@code userId} is null, has the given permission
+   */
+  public Set<String> authorizedProjectUuids(@Nullable Integer userId, String permission) {
+    return authorizedProjects.getUnchecked(new Key(Key.Type.PROJECT_UUID, userId, permission));
+  }
+
+  /**
+   * Forget the permissions loaded from database
+   */
+  public void clear() {
+    authorizedProjects.invalidateAll();
+  }
+
+  private static final class Key {
+    private enum Type {
+      PROJECT_KEY, PROJECT_UUID
+    }
+
+    private final Type type;
+    @Nullable
+    private final Integer userId;
+    private final String permission;
+
+    private Key(Type type, @Nullable Integer userId, String permission) {
+      this.type = type;
+      this.userId = userId;
+      this.permission = permission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return type == that.type && Objects.equals(userId, that.userId) && permission.equals(that.permission);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, userId, permission);
+    }
+  }
+}
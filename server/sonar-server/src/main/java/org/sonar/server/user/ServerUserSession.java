@@ -20,7 +20,6 @@
 package org.sonar.server.user;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import org.sonar.api.security.DefaultGroups;
@@ -46,12 +45,14 @@ public class ServerUserSession extends AbstractUserSession<ServerUserSession>
 
   private final AuthorizationDao authorizationDao;
   private final ResourceDao resourceDao;
+  private final AuthorizationCache authorizationCache;
 
-  ServerUserSession(AuthorizationDao authorizationDao, ResourceDao resourceDao) {
+  ServerUserSession(AuthorizationDao authorizationDao, ResourceDao resourceDao, AuthorizationCache authorizationCache) {
     super(ServerUserSession.class);
     this.globalPermissions = null;
     this.authorizationDao = authorizationDao;
     this.resourceDao = resourceDao;
+    this.authorizationCache = authorizationCache;
     // Do not forget that when forceAuthentication is set to true, the Anyone group should not be set (but this will be check when
     // authentication will be done in Java)
     this.userGroups = newHashSet(DefaultGroups.ANYONE);
@@ -75,30 +76,12 @@ public class ServerUserSession extends AbstractUserSession<ServerUserSession>
 
   @Override
   public boolean hasProjectPermission(String permission, String projectKey) {
-    if (!projectPermissionsCheckedByKey.contains(permission)) {
-      Collection<String> projectKeys = authorizationDao.selectAuthorizedRootProjectsKeys(userId, permission);
-      for (String key : projectKeys) {
-        projectKeyByPermission.put(permission, key);
-      }
-      projectPermissionsCheckedByKey.add(permission);
-    }
-    return projectKeyByPermission.get(permission).contains(projectKey);
+    return authorizationCache.authorizedProjectKeys(userId, permission).contains(projectKey);
   }
 
   @Override
   public boolean hasProjectPermissionByUuid(String permission, String projectUuid) {
-    if (!projectPermissionsCheckedByUuid.contains(permission)) {
-      Collection<String> projectUuids = authorizationDao.selectAuthorizedRootProjectsUuids(userId, permission);
-      addProjectPermission(permission, projectUuids);
-    }
-    return projectUuidByPermission.get(permission).contains(projectUuid);
-  }
-
-  private void addProjectPermission(String permission, Collection<String> authorizedProjectUuids) {
-    for (String key : authorizedProjectUuids) {
-      projectUuidByPermission.put(permission, key);
-    }
-    projectPermissionsCheckedByUuid.add(permission);
+    return authorizationCache.authorizedProjectUuids(userId, permission).contains(projectUuid);
   }
 
   @Override
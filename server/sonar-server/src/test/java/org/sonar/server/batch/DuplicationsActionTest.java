@@ -0,0 +1,102 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import java.io.ByteArrayInputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.platform.Server;
+import org.sonar.api.utils.System2;
+import org.sonar.batch.protocol.input.BatchInput.DuplicationBlock;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.db.DbTester;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.WsTester;
+import org.sonar.test.DbTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@Category(DbTests.class)
+public class DuplicationsActionTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  @Rule
+  public UserSessionRule userSessionRule = UserSessionRule.standalone();
+
+  WsTester tester;
+
+  @Before
+  public void before() {
+    db.truncateTables();
+    tester = new WsTester(new BatchWs(new BatchIndex(mock(Server.class)), new DuplicationsAction(db.getDbClient(), userSessionRule)));
+  }
+
+  @Test
+  public void return_blocks_of_other_modules() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    userSessionRule.login("henry").setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+
+    WsTester.TestRequest request = tester.newPostRequest("batch", "duplications")
+      .setParam("key", "foo")
+      .setParam("language", "java")
+      .setParam("hashes", "aa,unknown");
+    ByteArrayInputStream input = new ByteArrayInputStream(request.execute().output());
+
+    DuplicationBlock block = DuplicationBlock.parseDelimitedFrom(input);
+    assertThat(block.getResourceKey()).isEqualTo("bar:src/Bar.java");
+    assertThat(block.getHash()).isEqualTo("aa");
+    assertThat(block.getIndexInFile()).isEqualTo(3);
+    assertThat(block.getStartLine()).isEqualTo(4);
+    assertThat(block.getEndLine()).isEqualTo(5);
+    assertThat(DuplicationBlock.parseDelimitedFrom(input)).isNull();
+  }
+
+  @Test
+  public void return_blocks_of_all_modules_on_first_analysis() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    userSessionRule.login("henry").setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+
+    WsTester.TestRequest request = tester.newPostRequest("batch", "duplications")
+      .setParam("key", "new-module")
+      .setParam("language", "java")
+      .setParam("hashes", "aa");
+    ByteArrayInputStream input = new ByteArrayInputStream(request.execute().output());
+
+    assertThat(DuplicationBlock.parseDelimitedFrom(input)).isNotNull();
+    assertThat(DuplicationBlock.parseDelimitedFrom(input)).isNotNull();
+    assertThat(DuplicationBlock.parseDelimitedFrom(input)).isNull();
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void fail_without_scan_permission() throws Exception {
+    userSessionRule.login("henry").setGlobalPermissions(GlobalPermissions.PREVIEW_EXECUTION);
+
+    tester.newPostRequest("batch", "duplications")
+      .setParam("language", "java")
+      .setParam("hashes", "aa")
+      .execute();
+  }
+}
@@ -19,11 +19,13 @@
  */
 package org.sonar.server.computation;
 
-import com.google.common.collect.ImmutableList;
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -37,6 +39,7 @@ import org.sonar.server.computation.activity.ActivityManager;
 import org.sonar.server.computation.step.ComputationStep;
 import org.sonar.server.computation.step.ComputationSteps;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doThrow;
@@ -66,7 +69,7 @@ public class ComputationServiceTest {
   public void process_new_project() {
     logTester.setLevel(LoggerLevel.INFO);
 
-    when(steps.instances()).thenReturn(Arrays.asList(projectStep1, projectStep2));
+    when(steps.instanceGroups()).thenReturn(groups(projectStep1, projectStep2));
 
     sut.process();
 
@@ -86,7 +89,7 @@ public class ComputationServiceTest {
 
   @Test
   public void debug_logs() {
-    when(steps.instances()).thenReturn(Collections.<ComputationStep>emptyList());
+    when(steps.instanceGroups()).thenReturn(Collections.<List<ComputationStep>>emptyList());
     logTester.setLevel(LoggerLevel.DEBUG);
 
     sut.process();
@@ -97,7 +100,7 @@ public class ComputationServiceTest {
   @Test
   public void fail_if_step_throws_error() {
     String errorMessage = "Failed to unzip";
-    when(steps.instances()).thenReturn(ImmutableList.of(projectStep1));
+    when(steps.instanceGroups()).thenReturn(groups(projectStep1));
     doThrow(new IllegalStateException(errorMessage)).when(projectStep1).execute();
 
     try {
@@ -112,7 +115,7 @@ public class ComputationServiceTest {
 
   @Test
   public void step_error() {
-    when(steps.instances()).thenReturn(Arrays.asList(projectStep1));
+    when(steps.instanceGroups()).thenReturn(groups(projectStep1));
     doThrow(new IllegalStateException("pb")).when(projectStep1).execute();
 
     try {
@@ -125,6 +128,72 @@ public class ComputationServiceTest {
     }
   }
 
+  @Test
+  public void execute_group_of_steps_concurrently() {
+    final CountDownLatch latch = new CountDownLatch(2);
+    ComputationStep concurrentStep1 = new BlockingStep(latch);
+    ComputationStep concurrentStep2 = new BlockingStep(latch);
+    when(steps.instanceGroups()).thenReturn(Arrays.asList(
+      singletonList(projectStep1),
+      Arrays.asList(concurrentStep1, concurrentStep2),
+      singletonList(projectStep2)));
+
+    sut.process();
+
+    assertThat(latch.getCount()).isZero();
+    verify(projectStep1).execute();
+    verify(projectStep2).execute();
+    assertThat(dto.getStatus()).isEqualTo(Status.SUCCESS);
+  }
+
+  @Test
+  public void fail_if_a_concurrent_step_throws_error() {
+    doThrow(new IllegalStateException("pb")).when(projectStep1).execute();
+    when(steps.instanceGroups()).thenReturn(Arrays.<List<ComputationStep>>asList(Arrays.asList(projectStep1, projectStep2)));
+
+    try {
+      sut.process();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("pb");
+      assertThat(dto.getStatus()).isEqualTo(Status.FAILED);
+      // other steps of the group are executed anyway
+      verify(projectStep2).execute();
+    }
+  }
+
+  private static List<List<ComputationStep>> groups(ComputationStep... steps) {
+    List<List<ComputationStep>> groups = new ArrayList<>();
+    for (ComputationStep step : steps) {
+      groups.add(singletonList(step));
+    }
+    return groups;
+  }
+
+  private static class BlockingStep implements ComputationStep {
+    private final CountDownLatch latch;
+
+    BlockingStep(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void execute() {
+      latch.countDown();
+      try {
+        // fails if steps are not executed concurrently
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public String getDescription() {
+      return "Blocking step";
+    }
+  }
+
   private ComputationStep mockStep() {
     ComputationStep step = mock(ComputationStep.class);
     when(step.getDescription()).thenReturn(RandomStringUtils.randomAscii(5));
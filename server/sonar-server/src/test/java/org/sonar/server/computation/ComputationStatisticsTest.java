@@ -0,0 +1,53 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.computation;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ComputationStatisticsTest {
+
+  ComputationStatistics sut = new ComputationStatistics();
+
+  @Test
+  public void no_processed_reports() {
+    assertThat(sut.getProcessedReports()).isZero();
+    assertThat(sut.getFailedReports()).isZero();
+    assertThat(sut.getAverageWaitTimeMs()).isZero();
+    assertThat(sut.getAverageProcessingTimeMs()).isZero();
+    assertThat(sut.getProcessedReportsByWorker()).isEmpty();
+  }
+
+  @Test
+  public void aggregate_processed_reports() {
+    sut.onReportProcessed("w1", 10L, 100L, true);
+    sut.onReportProcessed("w1", 20L, 200L, false);
+    sut.onReportProcessed("w2", 30L, 300L, true);
+
+    assertThat(sut.getProcessedReports()).isEqualTo(3);
+    assertThat(sut.getFailedReports()).isEqualTo(1);
+    assertThat(sut.getAverageWaitTimeMs()).isEqualTo(20L);
+    assertThat(sut.getAverageProcessingTimeMs()).isEqualTo(200L);
+    assertThat(sut.getProcessedReportsByWorker()).containsExactly(entry("w1", 2L), entry("w2", 1L));
+  }
+}
@@ -20,26 +20,40 @@
 
 package org.sonar.server.computation;
 
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.sonar.api.config.Settings;
 import org.sonar.api.platform.Server;
 import org.sonar.core.platform.ComponentContainer;
+import org.sonar.db.compute.AnalysisReportDto;
+import org.sonar.server.computation.container.ComputeEngineContainer;
 import org.sonar.server.computation.container.ContainerFactory;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ComputationThreadLauncherTest {
 
   @Rule
   public TestRule timeout = new DisableOnDebug(Timeout.seconds(60));
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
 
   ComputationThreadLauncher sut;
   ReportQueue queue;
@@ -83,8 +97,48 @@ public class ComputationThreadLauncherTest {
 
   @Test
   public void test_real_constructor() throws Exception {
-    sut = new ComputationThreadLauncher(queue, componentContainer);
+    sut = new ComputationThreadLauncher(queue, componentContainer, new Settings(), new ComputationStatistics());
     sut.start();
+
+    assertThat(sut.getWorkerCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void worker_count_is_configurable() throws Exception {
+    Settings settings = new Settings().setProperty(ComputationThreadLauncher.PROPERTY_WORKER_COUNT, 4);
+    sut = new ComputationThreadLauncher(queue, componentContainer, settings, new ComputationStatistics());
+
+    assertThat(sut.getWorkerCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void workers_process_reports_concurrently() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(2);
+    ComputeEngineContainer computeEngineContainer = mock(ComputeEngineContainer.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        // blocks until the two reports are processed at the same time
+        latch.countDown();
+        latch.await();
+        return null;
+      }
+    }).when(computeEngineContainer).process();
+    when(containerFactory.create(any(ComponentContainer.class), any(ReportQueue.Item.class))).thenReturn(computeEngineContainer);
+    when(queue.pop()).thenReturn(newItem(1L), newItem(2L), null);
+
+    ComputationStatistics statistics = new ComputationStatistics();
+    sut = new ComputationThreadLauncher(queue, componentContainer, containerFactory, statistics, 2, 0, 1, TimeUnit.HOURS);
+    sut.onServerStart(mock(Server.class));
+
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    sleep();
+    assertThat(statistics.getProcessedReports()).isEqualTo(2);
+    assertThat(statistics.getProcessedReportsByWorker()).hasSize(2);
+  }
+
+  private ReportQueue.Item newItem(long id) throws IOException {
+    return new ReportQueue.Item(AnalysisReportDto.newForTests(id).setProjectKey("P" + id), temp.newFile());
   }
 
   private void sleep() throws InterruptedException {
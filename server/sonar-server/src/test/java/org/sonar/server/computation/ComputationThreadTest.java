@@ -74,6 +74,31 @@ public class ComputationThreadTest {
     verify(containerFactory).create(componentContainer, item);
   }
 
+  @Test
+  public void processNext_returns_false_if_queue_empty() {
+    when(queue.pop()).thenReturn(null);
+
+    assertThat(sut.processNext()).isFalse();
+  }
+
+  @Test
+  public void record_statistics_of_processed_report() throws IOException {
+    ComputationStatistics statistics = new ComputationStatistics();
+    sut = new ComputationThread(queue, componentContainer, containerFactory, statistics);
+    AnalysisReportDto report = AnalysisReportDto.newForTests(1L).setCreatedAt(1_000L).setStartedAt(1_500L);
+    ReportQueue.Item item = new ReportQueue.Item(report, temp.newFile());
+    when(queue.pop()).thenReturn(item);
+    ComputeEngineContainer computeEngineContainer = mock(ComputeEngineContainer.class);
+    doThrow(new IllegalStateException("pb")).when(computeEngineContainer).process();
+    when(containerFactory.create(componentContainer, item)).thenReturn(computeEngineContainer);
+
+    assertThat(sut.processNext()).isTrue();
+
+    assertThat(statistics.getProcessedReports()).isEqualTo(1);
+    assertThat(statistics.getFailedReports()).isEqualTo(1);
+    assertThat(statistics.getAverageWaitTimeMs()).isEqualTo(500L);
+  }
+
   @Test
   public void handle_error_during_queue_pop() {
     when(queue.pop()).thenThrow(new IllegalStateException());
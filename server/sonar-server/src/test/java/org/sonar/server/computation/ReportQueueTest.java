@@ -102,6 +102,26 @@ public class ReportQueueTest {
     assertThat(FileUtils.listFiles(analysisDir(), new String[]{"zip"}, false)).hasSize(1);
   }
 
+  @Test
+  public void count_reports_by_status() {
+    sut.add("P1", "Project 1", generateData());
+    sut.add("P1", "Project 1", generateData());
+    sut.add("P2", "Project 2", generateData());
+    sut.pop();
+
+    assertThat(sut.count(PENDING)).isEqualTo(2);
+    assertThat(sut.count(WORKING)).isEqualTo(1);
+  }
+
+  @Test
+  public void do_not_pop_two_reports_of_the_same_project() {
+    sut.add("P1", "Project 1", generateData());
+    sut.add("P1", "Project 1", generateData());
+
+    assertThat(sut.pop().dto.getProjectKey()).isEqualTo("P1");
+    assertThat(sut.pop()).isNull();
+  }
+
   @Test
   public void pop_pending_items_in_fifo_order() {
     sut.add("P1", "Project 1", generateData());
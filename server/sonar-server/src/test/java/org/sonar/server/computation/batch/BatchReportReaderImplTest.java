@@ -44,6 +44,7 @@ public class BatchReportReaderImplTest {
   private static final BatchReport.Issue ISSUE = BatchReport.Issue.newBuilder().build();
   private static final BatchReport.Issues ISSUES = BatchReport.Issues.newBuilder().setComponentRef(COMPONENT_REF).addIssue(ISSUE).build();
   private static final BatchReport.Duplication DUPLICATION = BatchReport.Duplication.newBuilder().build();
+  private static final BatchReport.CpdTextBlock CPD_TEXT_BLOCK = BatchReport.CpdTextBlock.newBuilder().setHash("123456").build();
   private static final BatchReport.Symbols.Symbol SYMBOL = BatchReport.Symbols.Symbol.newBuilder().build();
   private static final BatchReport.SyntaxHighlighting SYNTAX_HIGHLIGHTING_1 = BatchReport.SyntaxHighlighting.newBuilder().build();
   private static final BatchReport.SyntaxHighlighting SYNTAX_HIGHLIGHTING_2 = BatchReport.SyntaxHighlighting.newBuilder().build();
@@ -93,6 +94,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readComponentMeasures_returns_measures() {
     writer.writeComponentMeasures(COMPONENT_REF, of(MEASURE));
+    writer.close();
 
     List<BatchReport.Measure> measures = underTest.readComponentMeasures(COMPONENT_REF);
     assertThat(measures).hasSize(1);
@@ -102,6 +104,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void readComponentMeasures_is_not_cached() {
     writer.writeComponentMeasures(COMPONENT_REF, of(MEASURE));
+    writer.close();
 
     assertThat(underTest.readComponentMeasures(COMPONENT_REF)).isNotSameAs(underTest.readComponentMeasures(COMPONENT_REF));
   }
@@ -114,6 +117,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readChangesets_returns_changesets() {
     writer.writeComponentChangesets(CHANGESETS);
+    writer.close();
 
     BatchReport.Changesets res = underTest.readChangesets(COMPONENT_REF);
     assertThat(res).isEqualTo(CHANGESETS);
@@ -122,6 +126,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void readChangesets_is_not_cached() {
     writer.writeComponentChangesets(CHANGESETS);
+    writer.close();
 
     assertThat(underTest.readChangesets(COMPONENT_REF)).isNotSameAs(underTest.readChangesets(COMPONENT_REF));
   }
@@ -134,6 +139,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readComponent_returns_Component() {
     writer.writeComponent(COMPONENT);
+    writer.close();
 
     assertThat(underTest.readComponent(COMPONENT_REF)).isEqualTo(COMPONENT);
   }
@@ -141,6 +147,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void readComponent_is_not_cached() {
     writer.writeComponent(COMPONENT);
+    writer.close();
 
     assertThat(underTest.readComponent(COMPONENT_REF)).isNotSameAs(underTest.readComponent(COMPONENT_REF));
   }
@@ -153,6 +160,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readComponentIssues_returns_Issues() {
     writer.writeComponentIssues(COMPONENT_REF, of(ISSUE));
+    writer.close();
 
     List<BatchReport.Issue> res = underTest.readComponentIssues(COMPONENT_REF);
     assertThat(res).hasSize(1);
@@ -162,6 +170,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void readComponentIssues_it_not_cached() {
     writer.writeComponentIssues(COMPONENT_REF, of(ISSUE));
+    writer.close();
 
     assertThat(underTest.readComponentIssues(COMPONENT_REF)).isNotSameAs(underTest.readComponentIssues(COMPONENT_REF));
   }
@@ -174,6 +183,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readComponentDuplications_returns_Issues() {
     writer.writeComponentDuplications(COMPONENT_REF, of(DUPLICATION));
+    writer.close();
 
     List<BatchReport.Duplication> res = underTest.readComponentDuplications(COMPONENT_REF);
     assertThat(res).hasSize(1);
@@ -183,10 +193,24 @@ public class BatchReportReaderImplTest {
   @Test
   public void readComponentDuplications_it_not_cached() {
     writer.writeComponentDuplications(COMPONENT_REF, of(DUPLICATION));
+    writer.close();
 
     assertThat(underTest.readComponentDuplications(COMPONENT_REF)).isNotSameAs(underTest.readComponentDuplications(COMPONENT_REF));
   }
 
+  @Test
+  public void readCpdTextBlocks_returns_empty_list_if_file_does_not_exist() {
+    assertThat(underTest.readCpdTextBlocks(COMPONENT_REF)).isEmpty();
+  }
+
+  @Test
+  public void verify_readCpdTextBlocks_returns_blocks() {
+    writer.writeCpdTextBlocks(COMPONENT_REF, of(CPD_TEXT_BLOCK));
+    writer.close();
+
+    assertThat(underTest.readCpdTextBlocks(COMPONENT_REF)).containsExactly(CPD_TEXT_BLOCK);
+  }
+
   @Test
   public void readComponentSymbols_returns_empty_list_if_file_does_not_exist() {
     assertThat(underTest.readComponentSymbols(COMPONENT_REF)).isEmpty();
@@ -195,6 +219,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void verify_readComponentSymbols_returns_Issues() {
     writer.writeComponentSymbols(COMPONENT_REF, of(SYMBOL));
+    writer.close();
 
     List<BatchReport.Symbols.Symbol> res = underTest.readComponentSymbols(COMPONENT_REF);
     assertThat(res).hasSize(1);
@@ -204,6 +229,7 @@ public class BatchReportReaderImplTest {
   @Test
   public void readComponentSymbols_it_not_cached() {
     writer.writeComponentSymbols(COMPONENT_REF, of(SYMBOL));
+    writer.close();
 
     assertThat(underTest.readComponentSymbols(COMPONENT_REF)).isNotSameAs(underTest.readComponentSymbols(COMPONENT_REF));
   }
@@ -40,6 +40,7 @@ public class BatchReportReaderRule implements TestRule, BatchReportReader {
   private Map<Integer, BatchReport.Component> components = new HashMap<>();
   private Map<Integer, List<BatchReport.Issue>> issues = new HashMap<>();
   private Map<Integer, List<BatchReport.Duplication>> duplications = new HashMap<>();
+  private Map<Integer, List<BatchReport.CpdTextBlock>> cpdTextBlocks = new HashMap<>();
   private Map<Integer, List<BatchReport.Symbols.Symbol>> symbols = new HashMap<>();
   private Map<Integer, List<BatchReport.SyntaxHighlighting>> syntaxHighlightings = new HashMap<>();
   private Map<Integer, List<BatchReport.Coverage>> coverages = new HashMap<>();
@@ -68,6 +69,7 @@ public class BatchReportReaderRule implements TestRule, BatchReportReader {
     this.components.clear();
     this.issues.clear();
     this.duplications.clear();
+    this.cpdTextBlocks.clear();
     this.symbols.clear();
     this.syntaxHighlightings.clear();
     this.coverages.clear();
@@ -138,6 +140,15 @@ public class BatchReportReaderRule implements TestRule, BatchReportReader {
     this.duplications.put(componentRef, duplications);
   }
 
+  @Override
+  public List<BatchReport.CpdTextBlock> readCpdTextBlocks(int componentRef) {
+    return nonNull(this.cpdTextBlocks.get(componentRef));
+  }
+
+  public void putCpdTextBlocks(int componentRef, List<BatchReport.CpdTextBlock> cpdTextBlocks) {
+    this.cpdTextBlocks.put(componentRef, cpdTextBlocks);
+  }
+
   @Override
   public List<BatchReport.Symbols.Symbol> readComponentSymbols(int componentRef) {
     return nonNull(this.symbols.get(componentRef));
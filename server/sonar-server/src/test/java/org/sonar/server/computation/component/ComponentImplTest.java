@@ -109,6 +109,15 @@ public class ComponentImplTest {
     assertThat(component.getFileAttributes().getLanguageKey()).isEqualTo(languageKey);
   }
 
+  @Test
+  public void isCarriedOver_returns_true_if_IsCarriedOver_is_set_in_BatchComponent() {
+    ComponentImpl component = new ComponentImpl(BatchReport.Component.newBuilder().setType(ComponentType.FILE).setIsCarriedOver(true).build(), EMPTY_CHILD_LIST);
+    assertThat(component.getFileAttributes().isCarriedOver()).isTrue();
+
+    component = new ComponentImpl(BatchReport.Component.newBuilder().setType(ComponentType.FILE).build(), EMPTY_CHILD_LIST);
+    assertThat(component.getFileAttributes().isCarriedOver()).isFalse();
+  }
+
   @Test
   public void convertType() {
     for (ComponentType componentType : ComponentType.values()) {
@@ -17,7 +17,7 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.server.computation.step;
+package org.sonar.server.computation.formula.coverage;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -25,7 +25,7 @@ import org.junit.Test;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.component.FileAttributes;
-import org.sonar.server.computation.formula.coverage.LinesAndConditionsWithUncoveredMetricKeys;
+import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
 import org.sonar.server.computation.measure.Measure;
 import org.sonar.server.computation.measure.MeasureRepoEntry;
 import org.sonar.server.computation.measure.MeasureRepositoryRule;
@@ -44,7 +44,7 @@ import static org.sonar.server.computation.measure.Measure.newMeasureBuilder;
 import static org.sonar.server.computation.measure.MeasureRepoEntry.entryOf;
 import static org.sonar.server.computation.measure.MeasureRepoEntry.toEntries;
 
-public class CoverageMeasuresStepTest {
+public class CoverageFormulasTest {
   private static final int ROOT_REF = 1;
   private static final int MODULE_REF = 12;
   private static final int SUB_MODULE_REF = 123;
@@ -108,7 +108,6 @@ public class CoverageMeasuresStepTest {
   @Rule
   public MeasureRepositoryRule measureRepository = MeasureRepositoryRule.create(treeRootHolder, metricRepository);
 
-  CoverageMeasuresStep underTest = new CoverageMeasuresStep(treeRootHolder, periodsHolder, metricRepository, measureRepository);
 
   @Before
   public void setUp() throws Exception {
@@ -186,7 +185,7 @@ public class CoverageMeasuresStepTest {
       .addRawMeasure(UNIT_TEST_FILE_REF, metricKeys.getUncoveredLines(), newMeasureBuilder().create(10L))
       .addRawMeasure(UNIT_TEST_FILE_REF, metricKeys.getUncoveredConditions(), newMeasureBuilder().create(3L));
 
-    underTest.execute();
+    execute();
 
     assertThat(toEntries(measureRepository.getNewRawMeasures(FILE_1_REF))).containsOnly(
       entryOf(codeCoverageKey, newMeasureBuilder().create(98.8d)),
@@ -268,7 +267,7 @@ public class CoverageMeasuresStepTest {
       .addRawMeasure(UNIT_TEST_FILE_REF, metricKeys.getUncoveredLines(), measureWithVariation(10L, 200L))
       .addRawMeasure(UNIT_TEST_FILE_REF, metricKeys.getUncoveredConditions(), measureWithVariation(3L, 16L));
 
-    underTest.execute();
+    execute();
 
     assertThat(toEntries(measureRepository.getNewRawMeasures(FILE_1_REF))).containsOnly(
       entryOf(codeCoverageKey, measureWithVariation(98.8d, 91d)),
@@ -297,4 +296,11 @@ public class CoverageMeasuresStepTest {
   private static Measure measureWithVariation(double variation2, double variation5) {
     return newMeasureBuilder().setVariations(new MeasureVariations(null, variation2, null, null, variation5)).createNoValue();
   }
+
+  private void execute() {
+    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .withVariationSupport(periodsHolder)
+      .buildFor(CoverageFormulas.formulas())
+      .visit(treeRootHolder.getRoot());
+  }
 }
@@ -17,7 +17,7 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.server.computation.step;
+package org.sonar.server.computation.formula.coverage;
 
 import javax.annotation.Nullable;
 import org.junit.Before;
@@ -30,6 +30,7 @@ import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DumbComponent;
 import org.sonar.server.computation.component.FileAttributes;
+import org.sonar.server.computation.formula.FormulaExecutorComponentVisitor;
 import org.sonar.server.computation.measure.Measure;
 import org.sonar.server.computation.measure.MeasureRepoEntry;
 import org.sonar.server.computation.measure.MeasureRepositoryRule;
@@ -59,7 +60,7 @@ import static org.sonar.server.computation.measure.MeasureRepoEntry.entryOf;
 import static org.sonar.server.computation.measure.MeasureRepoEntry.toEntries;
 import static org.sonar.server.computation.measure.MeasureVariations.newMeasureVariationsBuilder;
 
-public class NewCoverageMeasuresStepTest {
+public class NewCoverageFormulasTest {
   private static final DumbComponent MULTIPLE_FILES_TREE = builder(PROJECT, 1)
     .addChildren(
       builder(MODULE, 11)
@@ -114,8 +115,6 @@ public class NewCoverageMeasuresStepTest {
   @Rule
   public MeasureRepositoryRule measureRepository = MeasureRepositoryRule.create(treeRootHolder, metricRepository);
 
-  private NewCoverageMeasuresStep underTest = new NewCoverageMeasuresStep(treeRootHolder, periodsHolder, reportReader,
-    measureRepository, metricRepository);
   public static final DumbComponent FILE_COMPONENT = DumbComponent.builder(Component.Type.FILE, 1)
     .setFileAttributes(new FileAttributes(false, null)).build();
 
@@ -130,7 +129,7 @@ public class NewCoverageMeasuresStepTest {
   public void no_measure_for_PROJECT_component() {
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.PROJECT, 1).build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -139,7 +138,7 @@ public class NewCoverageMeasuresStepTest {
   public void no_measure_for_MODULE_component() {
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.MODULE, 1).build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -148,7 +147,7 @@ public class NewCoverageMeasuresStepTest {
   public void no_measure_for_DIRECTORY_component() {
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.DIRECTORY, 1).build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -157,7 +156,7 @@ public class NewCoverageMeasuresStepTest {
   public void no_measure_for_unit_test_FILE_component() {
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.FILE, 1).setFileAttributes(new FileAttributes(true, null)).build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -166,7 +165,7 @@ public class NewCoverageMeasuresStepTest {
   public void no_measures_for_FILE_component_without_code() {
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.FILE, 1).setFileAttributes(new FileAttributes(false, null)).build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -189,7 +188,7 @@ public class NewCoverageMeasuresStepTest {
             .build()
     );
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -211,7 +210,7 @@ public class NewCoverageMeasuresStepTest {
     measureRepository.addRawMeasure(FILE_COMPONENT.getRef(), CONDITIONS_BY_LINE_KEY, newMeasureBuilder().create("2=1"));
     measureRepository.addRawMeasure(FILE_COMPONENT.getRef(), COVERED_CONDITIONS_BY_LINE_KEY, newMeasureBuilder().create("2=1"));
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.getNewRawMeasures(FILE_COMPONENT.getRef())).isEmpty();
   }
@@ -229,7 +228,7 @@ public class NewCoverageMeasuresStepTest {
       .addChangesetIndexByLine(0)
       .build());
 
-    underTest.execute();
+    execute();
 
     assertThat(measureRepository.isEmpty()).isTrue();
   }
@@ -289,7 +288,7 @@ public class NewCoverageMeasuresStepTest {
       .build());
     measureRepository.addRawMeasure(FILE_COMPONENT.getRef(), coverageLineHitsData, newMeasureBuilder().create("2=0;3=2;4=3"));
 
-    underTest.execute();
+    execute();
 
     assertThat(toEntries(measureRepository.getNewRawMeasures(FILE_COMPONENT.getRef()))).containsOnly(
         entryOf(newLinesToCover, createMeasure(2d, null)),
@@ -359,7 +358,7 @@ public class NewCoverageMeasuresStepTest {
     defineChangeSetsAndMeasures(11121, metricKeys, new MeasureValues(0, 14, 6), new MeasureValues(0, 13, 7));
     defineChangeSetsAndMeasures(11122, metricKeys, new MeasureValues(3, 4, 1), new MeasureValues(1, 13, 7));
 
-    underTest.execute();
+    execute();
 
     // files
     assertThat(toEntries(measureRepository.getNewRawMeasures(11111))).containsOnly(
@@ -469,7 +468,7 @@ public class NewCoverageMeasuresStepTest {
     treeRootHolder.setRoot(FILE_COMPONENT);
     defineChangeSetsAndMeasures(FILE_COMPONENT.getRef(), metricKeys, new MeasureValues(3, 4, 1), new MeasureValues(0, 3, 2));
 
-    underTest.execute();
+    execute();
 
     assertThat(toEntries(measureRepository.getNewRawMeasures(FILE_COMPONENT.getRef()))).containsOnly(
       entryOf(metricKeys.newLinesToCover, createMeasure(5d, 3d)),
@@ -492,4 +491,10 @@ public class NewCoverageMeasuresStepTest {
       .createNoValue();
   }
 
+  private void execute() {
+    FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .withVariationSupport(periodsHolder)
+      .buildFor(NewCoverageFormulas.formulas(reportReader))
+      .visit(treeRootHolder.getRoot());
+  }
 }
@@ -110,7 +110,7 @@ public class IssueCounterTest {
   @Before
   public void setUp() {
     initMetrics();
-    measureRepository = new MeasureRepositoryImpl(null, reportReader, metricRepository);
+    measureRepository = new MeasureRepositoryImpl(null, reportReader, metricRepository, treeRootHolder);
 
     sut = new IssueCounter(periodsHolder, metricRepository, measureRepository);
   }
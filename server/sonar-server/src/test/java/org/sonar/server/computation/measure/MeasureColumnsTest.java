@@ -0,0 +1,161 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.measure;
+
+import java.util.Map;
+import org.junit.Test;
+import org.sonar.server.computation.metric.Metric;
+import org.sonar.server.computation.metric.MetricImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MeasureColumnsTest {
+
+  private static final Metric INT_METRIC = new MetricImpl(1, "int", "int", Metric.MetricType.INT);
+  private static final Metric LONG_METRIC = new MetricImpl(2, "long", "long", Metric.MetricType.WORK_DUR);
+  private static final Metric DOUBLE_METRIC = new MetricImpl(3, "double", "double", Metric.MetricType.FLOAT);
+  private static final Metric BOOLEAN_METRIC = new MetricImpl(4, "boolean", "boolean", Metric.MetricType.BOOL);
+  private static final Metric STRING_METRIC = new MetricImpl(5, "string", "string", Metric.MetricType.STRING);
+  private static final Metric LEVEL_METRIC = new MetricImpl(6, "level", "level", Metric.MetricType.LEVEL);
+
+  MeasureColumns underTest = new MeasureColumns();
+
+  @Test
+  public void read_values_of_all_types() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().create(12, "int data"));
+    underTest.put(1, LONG_METRIC, Measure.newMeasureBuilder().create(123456789012L));
+    underTest.put(1, DOUBLE_METRIC, Measure.newMeasureBuilder().create(5.5d));
+    underTest.put(1, BOOLEAN_METRIC, Measure.newMeasureBuilder().create(true));
+    underTest.put(1, STRING_METRIC, Measure.newMeasureBuilder().create("value"));
+    underTest.put(1, LEVEL_METRIC, Measure.newMeasureBuilder().create(Measure.Level.WARN));
+    underTest.put(2, INT_METRIC, Measure.newMeasureBuilder().createNoValue());
+
+    assertThat(underTest.get(1, INT_METRIC).getIntValue()).isEqualTo(12);
+    assertThat(underTest.get(1, INT_METRIC).getData()).isEqualTo("int data");
+    assertThat(underTest.get(1, LONG_METRIC).getLongValue()).isEqualTo(123456789012L);
+    assertThat(underTest.get(1, DOUBLE_METRIC).getDoubleValue()).isEqualTo(5.5d);
+    assertThat(underTest.get(1, BOOLEAN_METRIC).getBooleanValue()).isTrue();
+    assertThat(underTest.get(1, STRING_METRIC).getStringValue()).isEqualTo("value");
+    assertThat(underTest.get(1, LEVEL_METRIC).getLevelValue()).isEqualTo(Measure.Level.WARN);
+    assertThat(underTest.get(2, INT_METRIC).getValueType()).isEqualTo(Measure.ValueType.NO_VALUE);
+    assertThat(underTest.get(2, INT_METRIC).getData()).isNull();
+    assertThat(underTest.size()).isEqualTo(7);
+  }
+
+  @Test
+  public void read_description_quality_gate_status_and_variations() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder()
+      .setDescription("description")
+      .setQualityGateStatus(new QualityGateStatus(Measure.Level.ERROR, "text"))
+      .setVariations(new MeasureVariations(1d, null, 3d))
+      .create(10));
+    underTest.put(2, INT_METRIC, Measure.newMeasureBuilder().create(10));
+
+    Measure measure = underTest.get(1, INT_METRIC);
+    assertThat(measure.getDescription()).isEqualTo("description");
+    assertThat(measure.getQualityGateStatus().getStatus()).isEqualTo(Measure.Level.ERROR);
+    assertThat(measure.getQualityGateStatus().getText()).isEqualTo("text");
+    assertThat(measure.getVariations().getVariation1()).isEqualTo(1d);
+    assertThat(measure.getVariations().hasVariation2()).isFalse();
+    assertThat(measure.getVariations().getVariation3()).isEqualTo(3d);
+    assertThat(measure.getVariations().hasVariation5()).isFalse();
+
+    Measure other = underTest.get(2, INT_METRIC);
+    assertThat(other.getDescription()).isNull();
+    assertThat(other.hasQualityGateStatus()).isFalse();
+    assertThat(other.hasVariations()).isFalse();
+  }
+
+  @Test
+  public void put_replaces_measure() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().setVariations(new MeasureVariations(1d)).create(10));
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().create(20));
+
+    assertThat(underTest.get(1, INT_METRIC).getIntValue()).isEqualTo(20);
+    assertThat(underTest.get(1, INT_METRIC).hasVariations()).isFalse();
+    assertThat(underTest.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void unloaded_measure_is_contained_but_not_read() {
+    underTest.putUnloaded(1, STRING_METRIC);
+
+    assertThat(underTest.contains(1, STRING_METRIC)).isTrue();
+    assertThat(underTest.isLoaded(1, STRING_METRIC)).isFalse();
+    assertThat(underTest.get(1, STRING_METRIC)).isNull();
+    assertThat(underTest.getAll(1)).isEmpty();
+
+    underTest.put(1, STRING_METRIC, Measure.newMeasureBuilder().create("loaded"));
+    assertThat(underTest.isLoaded(1, STRING_METRIC)).isTrue();
+    assertThat(underTest.get(1, STRING_METRIC).getStringValue()).isEqualTo("loaded");
+  }
+
+  @Test
+  public void absent_measures() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().create(10));
+
+    assertThat(underTest.get(1, DOUBLE_METRIC)).isNull();
+    assertThat(underTest.get(2, INT_METRIC)).isNull();
+    assertThat(underTest.contains(2, INT_METRIC)).isFalse();
+    assertThat(underTest.get(-1, INT_METRIC)).isNull();
+    assertThat(underTest.contains(-1, INT_METRIC)).isFalse();
+    assertThat(underTest.getAll(-1)).isEmpty();
+    assertThat(underTest.getAll(1000)).isEmpty();
+  }
+
+  @Test
+  public void get_all_measures_of_component_by_metric_key() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().create(10));
+    underTest.put(2, INT_METRIC, Measure.newMeasureBuilder().create(20));
+    underTest.put(1, STRING_METRIC, Measure.newMeasureBuilder().create("value"));
+
+    Map<String, Measure> measures = underTest.getAll(1);
+
+    assertThat(measures).hasSize(2);
+    assertThat(measures.get("int").getIntValue()).isEqualTo(10);
+    assertThat(measures.get("string").getStringValue()).isEqualTo("value");
+  }
+
+  @Test
+  public void grow_with_number_of_measures() {
+    for (int ref = 0; ref < 1000; ref++) {
+      underTest.put(ref, INT_METRIC, Measure.newMeasureBuilder().create(ref));
+      underTest.put(ref, DOUBLE_METRIC, Measure.newMeasureBuilder().setVariations(new MeasureVariations((double) ref)).create(ref + 0.5d));
+    }
+
+    assertThat(underTest.size()).isEqualTo(2000);
+    for (int ref = 0; ref < 1000; ref++) {
+      assertThat(underTest.get(ref, INT_METRIC).getIntValue()).isEqualTo(ref);
+      assertThat(underTest.get(ref, DOUBLE_METRIC).getDoubleValue()).isEqualTo(ref + 0.5d);
+      assertThat(underTest.get(ref, DOUBLE_METRIC).getVariations().getVariation1()).isEqualTo(ref);
+      assertThat(underTest.getAll(ref)).hasSize(2);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fail_to_put_measure_on_negative_ref() {
+    underTest.put(-1, INT_METRIC, Measure.newMeasureBuilder().create(10));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fail_to_put_measure_on_rule() {
+    underTest.put(1, INT_METRIC, Measure.newMeasureBuilder().forRule(10).create(10));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.measure;
+
+import java.util.Collection;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.db.DbSession;
+import org.sonar.db.measure.MeasureDao;
+import org.sonar.db.measure.MeasureDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class MeasureDtoInserterTest {
+
+  MeasureDao measureDao = mock(MeasureDao.class);
+  DbSession session = mock(DbSession.class);
+
+  MeasureDtoInserter underTest = new MeasureDtoInserter(measureDao, session, "measures");
+
+  @Test
+  public void insert_measures_by_buffer() {
+    for (int i = 0; i < MeasureDtoInserter.BUFFER_SIZE * 2 + 1; i++) {
+      underTest.insert(new MeasureDto());
+    }
+    verify(measureDao, times(2)).insert(eq(session), anyCollectionOf(MeasureDto.class));
+
+    underTest.close();
+
+    ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(measureDao, times(3)).insert(eq(session), captor.capture());
+    assertThat(captor.getValue()).hasSize(1);
+    assertThat(underTest.getCount()).isEqualTo(MeasureDtoInserter.BUFFER_SIZE * 2 + 1);
+  }
+
+  @Test
+  public void do_not_insert_when_no_measure() {
+    underTest.close();
+
+    verifyZeroInteractions(measureDao);
+    assertThat(underTest.getCount()).isZero();
+  }
+}
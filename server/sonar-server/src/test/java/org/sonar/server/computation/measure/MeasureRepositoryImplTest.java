@@ -22,6 +22,7 @@ package org.sonar.server.computation.measure;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.SetMultimap;
 import com.tngtech.java.junit.dataprovider.DataProvider;
@@ -35,6 +36,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.System2;
 import org.sonar.batch.protocol.output.BatchReport;
@@ -49,6 +51,8 @@ import org.sonar.server.computation.batch.BatchReportReader;
 import org.sonar.server.computation.batch.BatchReportReaderRule;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.component.FileAttributes;
+import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.debt.Characteristic;
 import org.sonar.server.computation.metric.Metric;
 import org.sonar.server.computation.metric.MetricImpl;
@@ -72,10 +76,14 @@ public class MeasureRepositoryImplTest {
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
   @Rule
   public BatchReportReaderRule reportReader = new BatchReportReaderRule();
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
 
   private static final String FILE_COMPONENT_KEY = "file cpt key";
   private static final DumbComponent FILE_COMPONENT = DumbComponent.builder(Component.Type.FILE, 1).setKey(FILE_COMPONENT_KEY).build();
   private static final DumbComponent OTHER_COMPONENT = DumbComponent.builder(Component.Type.FILE, 2).setKey("some other key").build();
+  private static final DumbComponent PROJECT = DumbComponent.builder(Component.Type.PROJECT, 3).setKey("project key").setUuid("PROJECT_UUID")
+    .addChildren(FILE_COMPONENT, OTHER_COMPONENT).build();
   private static final String METRIC_KEY_1 = "metric 1";
   private static final int METRIC_ID_1 = 1;
   private static final String METRIC_KEY_2 = "metric 2";
@@ -92,25 +100,30 @@ public class MeasureRepositoryImplTest {
 
   private DbClient dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new MeasureDao(), new SnapshotDao(), new MetricDao(), new ComponentDao());
   private MetricRepository metricRepository = mock(MetricRepository.class);
-  private MeasureRepositoryImpl underTest = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository);
+  private MeasureRepositoryImpl underTest = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository, treeRootHolder);
 
   private DbClient mockedDbClient = mock(DbClient.class);
   private BatchReportReader mockBatchReportReader = mock(BatchReportReader.class);
-  private MeasureRepositoryImpl underTestWithMock = new MeasureRepositoryImpl(mockedDbClient, mockBatchReportReader, metricRepository);
+  private MeasureRepositoryImpl underTestWithMock = new MeasureRepositoryImpl(mockedDbClient, mockBatchReportReader, metricRepository, treeRootHolder);
 
   @CheckForNull
   private DbSession dbSession;
 
   @Before
   public void setUp() {
+    treeRootHolder.setRoot(PROJECT);
+    when(metric1.getId()).thenReturn(METRIC_ID_1);
     when(metric1.getKey()).thenReturn(METRIC_KEY_1);
     when(metric1.getType()).thenReturn(Metric.MetricType.STRING);
+    when(metric2.getId()).thenReturn(METRIC_ID_2);
     when(metric2.getKey()).thenReturn(METRIC_KEY_2);
     when(metric2.getType()).thenReturn(Metric.MetricType.STRING);
 
     // references to metrics are consistent with DB by design
     when(metricRepository.getByKey(METRIC_KEY_1)).thenReturn(metric1);
     when(metricRepository.getByKey(METRIC_KEY_2)).thenReturn(metric2);
+    when(metricRepository.getById(METRIC_ID_1)).thenReturn(metric1);
+    when(metricRepository.getById(METRIC_ID_2)).thenReturn(metric2);
   }
 
   @After
@@ -167,6 +180,42 @@ public class MeasureRepositoryImplTest {
     assertThat(res).isAbsent();
   }
 
+  @Test
+  public void getBaseMeasure_loads_measures_of_all_components_once() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbSession = dbClient.openSession(false);
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, LAST_SNAPSHOT_ID));
+    dbSession.commit();
+
+    assertThat(underTest.getBaseMeasure(OTHER_COMPONENT, metric1)).isAbsent();
+
+    // measures are not read again from DB
+    dbTester.executeUpdateSql("DELETE FROM project_measures");
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric1).get().getStringValue()).isEqualTo(SOME_DATA);
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric2)).isAbsent();
+  }
+
+  @Test
+  public void getBaseMeasure_reads_data_blob_of_measure_when_requested() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbSession = dbClient.openSession(false);
+    String longData = Strings.repeat("a", 5000);
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, LAST_SNAPSHOT_ID).setData(longData));
+    dbSession.commit();
+
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric1).get().getStringValue()).isEqualTo(longData);
+  }
+
+  @Test
+  public void measures_of_component_with_negative_ref_are_absent() {
+    DumbComponent component = DumbComponent.builder(Component.Type.FILE, -1).setKey("negative").build();
+
+    assertThat(underTestWithMock.getRawMeasure(component, metric1)).isAbsent();
+    assertThat(underTestWithMock.getRawMeasure(component, metric1, SOME_RULE)).isAbsent();
+    assertThat(underTestWithMock.getRawMeasures(component).isEmpty()).isTrue();
+    verifyZeroInteractions(mockBatchReportReader);
+  }
+
   @Test(expected = NullPointerException.class)
   public void add_throws_NPE_if_Component_argument_is_null() {
     underTest.add(null, metric1, SOME_MEASURE);
@@ -233,7 +282,7 @@ public class MeasureRepositoryImplTest {
   @Test
   public void add_accepts_NO_VALUE_as_measure_arg() {
     for (Metric.MetricType metricType : Metric.MetricType.values()) {
-      underTest.add(FILE_COMPONENT, new MetricImpl(1, "key" + metricType, "name" + metricType, metricType), Measure.newMeasureBuilder().createNoValue());
+      underTest.add(FILE_COMPONENT, new MetricImpl(metricType.ordinal() + 1, "key" + metricType, "name" + metricType, metricType), Measure.newMeasureBuilder().createNoValue());
     }
   }
 
@@ -246,7 +295,7 @@ public class MeasureRepositoryImplTest {
       }
 
       try {
-        final MetricImpl metric = new MetricImpl(1, "key" + metricType, "name" + metricType, metricType);
+        final MetricImpl metric = new MetricImpl(metricType.ordinal() + 1, "key" + metricType, "name" + metricType, metricType);
         underTest.add(FILE_COMPONENT, metric, getSomeMeasureByValueType(metricType));
         underTest.update(FILE_COMPONENT, metric, measure);
         fail("An IllegalArgumentException should have been raised");
@@ -261,7 +310,7 @@ public class MeasureRepositoryImplTest {
   @Test
   public void update_accepts_NO_VALUE_as_measure_arg() {
     for (Metric.MetricType metricType : Metric.MetricType.values()) {
-      MetricImpl metric = new MetricImpl(1, "key" + metricType, "name" + metricType, metricType);
+      MetricImpl metric = new MetricImpl(metricType.ordinal() + 1, "key" + metricType, "name" + metricType, metricType);
       underTest.add(FILE_COMPONENT, metric, getSomeMeasureByValueType(metricType));
       underTest.update(FILE_COMPONENT, metric, Measure.newMeasureBuilder().createNoValue());
     }
@@ -289,7 +338,7 @@ public class MeasureRepositoryImplTest {
     underTest.add(FILE_COMPONENT, metric1, SOME_MEASURE);
     underTest.update(FILE_COMPONENT, metric1, newMeasure);
 
-    assertThat(underTest.getRawMeasure(FILE_COMPONENT, metric1).get()).isSameAs(newMeasure);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, metric1).get()).isEqualToComparingFieldByField(newMeasure);
   }
 
   @Test
@@ -341,7 +390,7 @@ public class MeasureRepositoryImplTest {
     Optional<Measure> res = underTest.getRawMeasure(FILE_COMPONENT, metric1);
 
     assertThat(res).isPresent();
-    assertThat(res.get()).isSameAs(SOME_MEASURE);
+    assertThat(res.get()).isEqualToComparingFieldByField(SOME_MEASURE);
 
     // make sure we really match on the specified component and metric
     assertThat(underTest.getRawMeasure(OTHER_COMPONENT, metric1)).isAbsent();
@@ -378,7 +427,7 @@ public class MeasureRepositoryImplTest {
     Optional<Measure> res = underTest.getRawMeasure(FILE_COMPONENT, metric1);
 
     assertThat(res).isPresent();
-    assertThat(res.get()).isSameAs(addedMeasure);
+    assertThat(res.get()).isEqualToComparingFieldByField(addedMeasure);
   }
 
   @Test
@@ -467,9 +516,75 @@ public class MeasureRepositoryImplTest {
 
     assertThat(rawMeasures.keySet()).hasSize(2);
     assertThat(rawMeasures.get(METRIC_KEY_1)).containsOnly(addedMeasure, addedMeasure2);
+    assertThat(rawMeasures.get(METRIC_KEY_1)).extracting("data").containsOnly("some value", null);
     assertThat(rawMeasures.get(METRIC_KEY_2)).containsOnly(Measure.newMeasureBuilder().create("some value"));
   }
 
+  @Test
+  public void base_measures_of_carried_over_file_are_its_raw_measures() {
+    DumbComponent carriedOverFile = setRootWithCarriedOverFile();
+    Metric duplicationsDataMetric = mock(Metric.class);
+    when(duplicationsDataMetric.getId()).thenReturn(3);
+    when(duplicationsDataMetric.getKey()).thenReturn(CoreMetrics.DUPLICATIONS_DATA_KEY);
+    when(duplicationsDataMetric.getType()).thenReturn(Metric.MetricType.DATA);
+    when(metricRepository.getById(3)).thenReturn(duplicationsDataMetric);
+    when(metricRepository.getByKey(CoreMetrics.DUPLICATIONS_DATA_KEY)).thenReturn(duplicationsDataMetric);
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbSession = dbClient.openSession(false);
+    String longData = Strings.repeat("a", 5000);
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, LAST_SNAPSHOT_ID).setData(longData));
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_2, LAST_SNAPSHOT_ID));
+    dbClient.measureDao().insert(dbSession, createMeasureDto(3, LAST_SNAPSHOT_ID).setData("<duplications/>"));
+    dbSession.commit();
+
+    assertThat(underTest.getRawMeasure(carriedOverFile, metric2).get().getStringValue()).isEqualTo(SOME_DATA);
+    // duplications are persisted apart from the other measures
+    assertThat(underTest.getRawMeasure(carriedOverFile, duplicationsDataMetric)).isAbsent();
+
+    SetMultimap<String, Measure> rawMeasures = underTest.getRawMeasures(carriedOverFile);
+    assertThat(rawMeasures.keySet()).containsOnly(METRIC_KEY_1, METRIC_KEY_2);
+    assertThat(rawMeasures.get(METRIC_KEY_1).iterator().next().getStringValue()).isEqualTo(longData);
+  }
+
+  @Test
+  public void raw_measures_of_carried_over_file_replace_its_base_measures() {
+    DumbComponent carriedOverFile = setRootWithCarriedOverFile();
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbSession = dbClient.openSession(false);
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, LAST_SNAPSHOT_ID));
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_2, LAST_SNAPSHOT_ID));
+    dbSession.commit();
+
+    Measure addedMeasure = Measure.newMeasureBuilder().create("added value");
+    underTest.add(carriedOverFile, metric1, addedMeasure);
+    Measure updatedMeasure = Measure.newMeasureBuilder().create("updated value");
+    underTest.update(carriedOverFile, metric2, updatedMeasure);
+
+    assertThat(underTest.getRawMeasure(carriedOverFile, metric1).get().getStringValue()).isEqualTo("added value");
+    SetMultimap<String, Measure> rawMeasures = underTest.getRawMeasures(carriedOverFile);
+    assertThat(rawMeasures.get(METRIC_KEY_1)).containsOnly(addedMeasure);
+    assertThat(rawMeasures.get(METRIC_KEY_2)).containsOnly(updatedMeasure);
+  }
+
+  @Test
+  public void base_measures_are_not_raw_measures_of_files_which_are_not_carried_over() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbSession = dbClient.openSession(false);
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, LAST_SNAPSHOT_ID));
+    dbSession.commit();
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, metric1)).isAbsent();
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT).isEmpty()).isTrue();
+  }
+
+  private DumbComponent setRootWithCarriedOverFile() {
+    DumbComponent carriedOverFile = DumbComponent.builder(Component.Type.FILE, 1).setKey(FILE_COMPONENT_KEY)
+      .setFileAttributes(new FileAttributes(false, null, true)).build();
+    treeRootHolder.setRoot(DumbComponent.builder(Component.Type.PROJECT, 3).setKey("project key").setUuid("PROJECT_UUID")
+      .addChildren(carriedOverFile).build());
+    return carriedOverFile;
+  }
+
   private static MeasureDto createMeasureDto(int metricId, long snapshotId) {
     return new MeasureDto()
       .setComponentId(COMPONENT_ID)
@@ -47,9 +47,13 @@ import org.sonar.server.computation.component.DumbComponent;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
 import org.sonar.server.issue.index.IssueIndexDefinition;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.test.DbTests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 @Category(DbTests.class)
 public class ApplyPermissionsStepTest extends BaseStepTest {
@@ -75,6 +79,7 @@ public class ApplyPermissionsStepTest extends BaseStepTest {
   DbIdsRepository dbIdsRepository;
 
   IssueAuthorizationIndexer issueAuthorizationIndexer;
+  AuthorizationCache authorizationCache = mock(AuthorizationCache.class);
   ApplyPermissionsStep step;
 
   @Before
@@ -91,7 +96,7 @@ public class ApplyPermissionsStepTest extends BaseStepTest {
 
     dbIdsRepository = new DbIdsRepository();
 
-    step = new ApplyPermissionsStep(dbClient, dbIdsRepository, issueAuthorizationIndexer, new PermissionFacade(dbClient, settings), treeRootHolder);
+    step = new ApplyPermissionsStep(dbClient, dbIdsRepository, issueAuthorizationIndexer, new PermissionFacade(dbClient, settings), treeRootHolder, authorizationCache);
   }
 
   @After
@@ -125,6 +130,7 @@ public class ApplyPermissionsStepTest extends BaseStepTest {
     assertThat(issueAhutorization.get("project")).isEqualTo(PROJECT_UUID);
     assertThat((List<String>) issueAhutorization.get("groups")).containsOnly(DefaultGroups.ANYONE);
     assertThat((List<String>) issueAhutorization.get("users")).isEmpty();
+    verify(authorizationCache).clear();
   }
 
   @Test
@@ -147,6 +153,7 @@ public class ApplyPermissionsStepTest extends BaseStepTest {
 
     // Check that authorization updated at has not been changed -> Nothing has been done
     assertThat(projectDto.getAuthorizationUpdatedAt()).isEqualTo(authorizationUpdatedAt);
+    verifyZeroInteractions(authorizationCache);
   }
 
   @Override
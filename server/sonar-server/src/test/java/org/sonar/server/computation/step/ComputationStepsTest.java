@@ -23,18 +23,23 @@ package org.sonar.server.computation.step;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.Test;
 import org.picocontainer.ComponentAdapter;
 import org.sonar.core.platform.ComponentContainer;
 import org.sonar.server.computation.ReportQueue;
+import org.sonar.server.computation.container.ComputeEngineContainer;
 import org.sonar.server.computation.container.ComputeEngineContainerImpl;
 import org.sonar.server.computation.container.StepsExplorer;
 
 import static com.google.common.collect.FluentIterable.from;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class ComputationStepsTest {
 
@@ -63,6 +68,39 @@ public class ComputationStepsTest {
     assertThat(typesInContainer).isEqualTo(stepsCanonicalNames);
   }
 
+  @Test
+  public void steps_of_a_concurrent_group_are_consecutive() {
+    ComputationSteps computationSteps = new ComputationSteps(mock(ComputeEngineContainerImpl.class));
+    List<Class<? extends ComputationStep>> orderedStepClasses = computationSteps.orderedStepClasses();
+
+    for (Set<Class<? extends ComputationStep>> group : computationSteps.concurrentStepClasses()) {
+      int firstIndex = orderedStepClasses.indexOf(group.iterator().next());
+      assertThat(firstIndex).isGreaterThanOrEqualTo(0);
+      Set<Class<? extends ComputationStep>> consecutiveClasses = new HashSet<>(orderedStepClasses.subList(firstIndex, firstIndex + group.size()));
+      assertThat(consecutiveClasses).isEqualTo(group);
+    }
+  }
+
+  @Test
+  public void instanceGroups_groups_concurrent_steps() {
+    ComputeEngineContainer container = mock(ComputeEngineContainer.class);
+    when(container.getStep(any(Class.class))).thenReturn(mock(ComputationStep.class));
+    ComputationSteps computationSteps = new ComputationSteps(container);
+
+    List<List<ComputationStep>> groups = computationSteps.instanceGroups();
+
+    int stepCount = 0;
+    int concurrentGroupCount = 0;
+    for (List<ComputationStep> group : groups) {
+      stepCount += group.size();
+      if (group.size() > 1) {
+        concurrentGroupCount++;
+      }
+    }
+    assertThat(stepCount).isEqualTo(computationSteps.orderedStepClasses().size());
+    assertThat(concurrentGroupCount).isEqualTo(computationSteps.concurrentStepClasses().size());
+  }
+
   private enum ComponentAdapterToImplementationClass implements Function<ComponentAdapter<?>, Class<?>> {
     INSTANCE;
 
@@ -21,12 +21,14 @@ package org.sonar.server.computation.step;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.server.computation.batch.BatchReportReaderRule;
 import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DumbComponent;
 import org.sonar.server.computation.formula.CoreFormulaRepository;
 import org.sonar.server.computation.measure.MeasureRepository;
 import org.sonar.server.computation.metric.MetricRepository;
+import org.sonar.server.computation.period.PeriodsHolderRule;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -35,13 +37,17 @@ import static org.mockito.Mockito.verify;
 public class CoreMetricFormulaExecutorStepTest {
   @Rule
   public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+  @Rule
+  public PeriodsHolderRule periodsHolder = new PeriodsHolderRule();
+  @Rule
+  public BatchReportReaderRule reportReader = new BatchReportReaderRule();
 
   @Test
   public void verify_execute_formulas_from_CoreFormulaRepository() {
     CoreFormulaRepository coreFormulaRepository = mock(CoreFormulaRepository.class);
     treeRootHolder.setRoot(DumbComponent.builder(Component.Type.PROJECT, 1).build());
 
-    CoreMetricFormulaExecutorStep underTest = new CoreMetricFormulaExecutorStep(treeRootHolder,
+    CoreMetricFormulaExecutorStep underTest = new CoreMetricFormulaExecutorStep(treeRootHolder, periodsHolder, reportReader,
       mock(MetricRepository.class), mock(MeasureRepository.class), coreFormulaRepository);
 
     underTest.execute();
@@ -112,7 +112,7 @@ public class FillMeasuresWithVariationsStepTest {
 
     metricRepository = new MetricRepositoryImpl(dbClient);
     metricRepository.start();
-    measureRepository = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository);
+    measureRepository = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository, treeRootHolder);
 
     sut = new FillMeasuresWithVariationsStep(dbClient, treeRootHolder, periodsHolder, metricRepository, measureRepository);
   }
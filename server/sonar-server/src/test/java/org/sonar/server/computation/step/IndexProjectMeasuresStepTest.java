@@ -0,0 +1,72 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.step;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.server.computation.batch.TreeRootHolderRule;
+import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.measure.MeasureFilterExecutorTest;
+import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexProjectMeasuresStepTest extends BaseStepTest {
+
+  @Rule
+  public DbTester dbTester = DbTester.create(System2.INSTANCE);
+
+  @ClassRule
+  public static EsTester esTester = new EsTester().addDefinitions(new ProjectMeasuresIndexDefinition(new Settings()));
+
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  @Before
+  public void setUp() {
+    esTester.truncateIndices();
+  }
+
+  @Override
+  protected ComputationStep step() {
+    ProjectMeasuresIndexer indexer = new ProjectMeasuresIndexer(dbTester.getDbClient(), esTester.client());
+    indexer.setEnabled(true);
+    return new IndexProjectMeasuresStep(indexer, treeRootHolder);
+  }
+
+  @Test
+  public void index_project_measures() {
+    dbTester.prepareDbUnit(MeasureFilterExecutorTest.class, "shared.xml");
+    treeRootHolder.setRoot(DumbComponent.builder(Component.Type.PROJECT, 1).setUuid("ABCD").setKey("java_project").build());
+
+    step().execute();
+
+    assertThat(esTester.getDocumentFieldValues(ProjectMeasuresIndexDefinition.INDEX, ProjectMeasuresIndexDefinition.TYPE_PROJECT_MEASURES,
+      ProjectMeasuresIndexDefinition.FIELD_UUID)).containsOnly("ABCD");
+  }
+}
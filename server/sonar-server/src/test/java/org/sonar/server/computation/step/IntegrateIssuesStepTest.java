@@ -0,0 +1,114 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.step;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.System2;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.tracking.Input;
+import org.sonar.core.issue.tracking.Tracking;
+import org.sonar.server.computation.batch.TreeRootHolderRule;
+import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.component.FileAttributes;
+import org.sonar.server.computation.issue.BaseIssuesLoader;
+import org.sonar.server.computation.issue.IssueCache;
+import org.sonar.server.computation.issue.IssueLifecycle;
+import org.sonar.server.computation.issue.IssueVisitor;
+import org.sonar.server.computation.issue.IssueVisitors;
+import org.sonar.server.computation.issue.TrackerExecution;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IntegrateIssuesStepTest extends BaseStepTest {
+
+  private static final String PROJECT_UUID = "PROJECT_UUID";
+  private static final String FILE_UUID = "FILE_UUID";
+
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  TrackerExecution tracker = mock(TrackerExecution.class);
+  BaseIssuesLoader baseIssuesLoader = mock(BaseIssuesLoader.class);
+  IssueLifecycle issueLifecycle = mock(IssueLifecycle.class);
+  IssueVisitor issueVisitor = mock(IssueVisitor.class);
+  IssueCache issueCache;
+  IntegrateIssuesStep sut;
+
+  @Before
+  public void setUp() throws Exception {
+    issueCache = new IssueCache(temp.newFile(), System2.INSTANCE);
+    sut = new IntegrateIssuesStep(treeRootHolder, tracker, issueCache, baseIssuesLoader, issueLifecycle, new IssueVisitors(new IssueVisitor[] {issueVisitor}));
+  }
+
+  @Override
+  protected ComputationStep step() {
+    return sut;
+  }
+
+  @Test
+  public void keep_open_issues_of_carried_over_file_without_tracking() {
+    Component file = DumbComponent.builder(Component.Type.FILE, 2).setUuid(FILE_UUID).setKey("PROJECT_KEY:file")
+      .setFileAttributes(new FileAttributes(false, "java", true)).build();
+    Component project = DumbComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey("PROJECT_KEY").addChildren(file).build();
+    treeRootHolder.setRoot(project);
+    Tracking<DefaultIssue, DefaultIssue> projectTracking = emptyTracking();
+    when(tracker.track(project)).thenReturn(projectTracking);
+
+    DefaultIssue issue = new DefaultIssue().setKey("ISSUE").setRuleKey(RuleKey.of("xoo", "x1")).setComponentUuid(FILE_UUID)
+      .setComponentKey("PROJECT_KEY:file").setStatus(Issue.STATUS_OPEN).setNew(false);
+    when(baseIssuesLoader.loadUuidsOfComponentsWithOpenIssues()).thenReturn(ImmutableSet.of(FILE_UUID));
+    when(baseIssuesLoader.loadForComponentUuid(FILE_UUID)).thenReturn(newArrayList(issue));
+
+    sut.execute();
+
+    verify(tracker, never()).track(file);
+    verify(issueLifecycle).doAutomaticTransition(issue);
+    verify(issueVisitor).beforeComponent(file);
+    verify(issueVisitor).onIssue(file, issue);
+    verify(issueVisitor).afterComponent(file);
+    DefaultIssue cachedIssue = issueCache.traverse().next();
+    assertThat(cachedIssue.key()).isEqualTo("ISSUE");
+    assertThat(cachedIssue.status()).isEqualTo(Issue.STATUS_OPEN);
+    assertThat(cachedIssue.isNew()).isFalse();
+    assertThat(cachedIssue.isChanged()).isFalse();
+  }
+
+  private static Tracking<DefaultIssue, DefaultIssue> emptyTracking() {
+    Input<DefaultIssue> input = mock(Input.class);
+    when(input.getIssues()).thenReturn(Collections.<DefaultIssue>emptyList());
+    return new Tracking<>(input, input);
+  }
+}
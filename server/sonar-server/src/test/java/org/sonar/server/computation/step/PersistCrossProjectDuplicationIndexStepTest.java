@@ -0,0 +1,131 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.step;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.utils.System2;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.db.DbTester;
+import org.sonar.db.duplication.DuplicationDao;
+import org.sonar.server.computation.batch.BatchReportReaderRule;
+import org.sonar.server.computation.batch.TreeRootHolderRule;
+import org.sonar.server.computation.component.Component;
+import org.sonar.server.computation.component.DbIdsRepository;
+import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.component.FileAttributes;
+import org.sonar.server.db.DbClient;
+import org.sonar.test.DbTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Category(DbTests.class)
+public class PersistCrossProjectDuplicationIndexStepTest extends BaseStepTest {
+
+  private static final int FILE_REF = 2;
+
+  @Rule
+  public DbTester dbTester = DbTester.create(System2.INSTANCE);
+
+  @Rule
+  public BatchReportReaderRule reportReader = new BatchReportReaderRule();
+
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  DbIdsRepository dbIdsRepository = new DbIdsRepository();
+
+  PersistCrossProjectDuplicationIndexStep underTest;
+
+  @Before
+  public void setUp() {
+    dbTester.truncateTables();
+    DbClient dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new DuplicationDao(dbTester.myBatis()));
+
+    underTest = new PersistCrossProjectDuplicationIndexStep(dbClient, dbIdsRepository, treeRootHolder, reportReader);
+  }
+
+  @Override
+  protected ComputationStep step() {
+    return underTest;
+  }
+
+  @Test
+  public void persist_cpd_text_blocks_of_files() {
+    initTreeWithFile(new FileAttributes(false, null));
+    reportReader.putCpdTextBlocks(FILE_REF, Arrays.asList(
+      BatchReport.CpdTextBlock.newBuilder().setHash("a8998353e96320ec").setIndexInFile(0).setStartLine(30).setEndLine(45).build()));
+
+    underTest.execute();
+
+    assertThat(dbTester.countRowsOfTable("duplications_index")).isEqualTo(1);
+    Map<String, Object> dto = dbTester.selectFirst("select snapshot_id as \"snapshotId\", project_snapshot_id as \"projectSnapshotId\", hash as \"hash\", " +
+      "index_in_file as \"indexInFile\", start_line as \"startLine\", end_line as \"endLine\" from duplications_index");
+    assertThat(dto.get("snapshotId")).isEqualTo(11L);
+    assertThat(dto.get("projectSnapshotId")).isEqualTo(10L);
+    assertThat(dto.get("hash")).isEqualTo("a8998353e96320ec");
+    assertThat(dto.get("indexInFile")).isEqualTo(0L);
+    assertThat(dto.get("startLine")).isEqualTo(30L);
+    assertThat(dto.get("endLine")).isEqualTo(45L);
+  }
+
+  @Test
+  public void nothing_to_do_when_no_cpd_text_blocks() {
+    initTreeWithFile(new FileAttributes(false, null));
+
+    underTest.execute();
+
+    assertThat(dbTester.countRowsOfTable("duplications_index")).isEqualTo(0);
+  }
+
+  @Test
+  public void copy_previous_cpd_text_blocks_of_carried_over_files() {
+    initTreeWithFile(new FileAttributes(false, "java", true));
+    // block of the previous analysis, whose snapshot is still the last one
+    dbTester.executeUpdateSql("insert into projects (id, kee, uuid, enabled) values (2, 'PROJECT_KEY:file', 'BCDE', true)");
+    dbTester.executeUpdateSql("insert into snapshots (id, project_id, islast) values (5, 2, true)");
+    dbTester.executeUpdateSql("insert into duplications_index (project_snapshot_id, snapshot_id, hash, index_in_file, start_line, end_line) "
+      + "values (4, 5, 'a8998353e96320ec', 0, 30, 45)");
+
+    underTest.execute();
+
+    assertThat(dbTester.countRowsOfTable("duplications_index")).isEqualTo(2);
+    Map<String, Object> dto = dbTester.selectFirst("select project_snapshot_id as \"projectSnapshotId\", hash as \"hash\", " +
+      "index_in_file as \"indexInFile\", start_line as \"startLine\", end_line as \"endLine\" from duplications_index where snapshot_id=11");
+    assertThat(dto.get("projectSnapshotId")).isEqualTo(10L);
+    assertThat(dto.get("hash")).isEqualTo("a8998353e96320ec");
+    assertThat(dto.get("indexInFile")).isEqualTo(0L);
+    assertThat(dto.get("startLine")).isEqualTo(30L);
+    assertThat(dto.get("endLine")).isEqualTo(45L);
+  }
+
+  private void initTreeWithFile(FileAttributes fileAttributes) {
+    Component file = DumbComponent.builder(Component.Type.FILE, FILE_REF).setUuid("BCDE").setKey("PROJECT_KEY:file").setFileAttributes(fileAttributes).build();
+    Component project = DumbComponent.builder(Component.Type.PROJECT, 1).setUuid("ABCD").setKey("PROJECT_KEY").addChildren(file).build();
+    treeRootHolder.setRoot(project);
+    dbIdsRepository.setSnapshotId(project, 10);
+    dbIdsRepository.setSnapshotId(file, 11);
+  }
+
+}
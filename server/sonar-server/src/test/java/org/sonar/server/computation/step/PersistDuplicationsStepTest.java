@@ -39,6 +39,7 @@ import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DbIdsRepository;
 import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.component.FileAttributes;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.metric.persistence.MetricDao;
 import org.sonar.test.DbTests;
@@ -330,6 +331,32 @@ public class PersistDuplicationsStepTest extends BaseStepTest {
     dbIdsRepository.setSnapshotId(file, 11);
   }
 
+  @Test
+  public void keep_previous_duplications_of_carried_over_file() {
+    Component file = DumbComponent.builder(Component.Type.FILE, 2).setUuid("BCDE").setKey("PROJECT_KEY:file")
+      .setFileAttributes(new FileAttributes(false, "java", true)).build();
+    Component project = DumbComponent.builder(Component.Type.PROJECT, 1).setUuid("ABCD").setKey(PROJECT_KEY).addChildren(file).build();
+    treeRootHolder.setRoot(project);
+    dbIdsRepository.setComponentId(project, 1);
+    dbIdsRepository.setSnapshotId(project, 10);
+    dbIdsRepository.setComponentId(file, 2);
+    dbIdsRepository.setSnapshotId(file, 11);
+    MetricDto duplicationMetric = saveDuplicationMetric();
+
+    // measure of the previous analysis, whose snapshot is still the last one
+    String previousDuplications = "<duplications><g><b s=\"1\" l=\"5\" r=\"PROJECT_KEY:file\"/><b s=\"6\" l=\"5\" r=\"PROJECT_KEY:file\"/></g></duplications>";
+    dbTester.executeUpdateSql("insert into projects (id, kee, uuid, enabled) values (2, 'PROJECT_KEY:file', 'BCDE', true)");
+    dbTester.executeUpdateSql("insert into snapshots (id, project_id, islast) values (5, 2, true)");
+    dbTester.executeUpdateSql("insert into project_measures (snapshot_id, metric_id, text_value) values (5, " + duplicationMetric.getId() + ", '" + previousDuplications + "')");
+
+    sut.execute();
+
+    assertThat(dbTester.countRowsOfTable("project_measures")).isEqualTo(2);
+    Map<String, Object> dto = dbTester.selectFirst("select snapshot_id as \"snapshotId\", text_value as \"textValue\" from project_measures where snapshot_id=11");
+    assertThat(dto.get("snapshotId")).isEqualTo(11L);
+    assertThat(dto.get("textValue")).isEqualTo(previousDuplications);
+  }
+
   private MetricDto saveDuplicationMetric() {
     MetricDto duplicationMetric = new MetricDto().setKey(CoreMetrics.DUPLICATIONS_DATA_KEY)
       .setOptimizedBestValue(false)
@@ -39,6 +39,7 @@ import org.sonar.server.computation.batch.BatchReportReaderRule;
 import org.sonar.server.computation.batch.TreeRootHolderRule;
 import org.sonar.server.computation.component.Component;
 import org.sonar.server.computation.component.DumbComponent;
+import org.sonar.server.computation.component.FileAttributes;
 import org.sonar.server.computation.language.LanguageRepository;
 import org.sonar.server.source.db.FileSourceDb;
 import org.sonar.test.DbTests;
@@ -398,6 +399,43 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getSrcHash()).isEqualTo("137f72c3708c6bd0de00a0e5a69c699b");
   }
 
+  @Test
+  public void keep_sources_of_carried_over_file() {
+    // Existing sources
+    long past = 150000L;
+    dbClient.fileSourceDao().insert(dbTester.getSession(), new FileSourceDto()
+      .setProjectUuid(PROJECT_UUID)
+      .setFileUuid(FILE_UUID)
+      .setDataType(Type.SOURCE)
+      .setSrcHash("5b4bd9815cdb17b8ceae19eb1810c34c")
+      .setLineHashes("137f72c3708c6bd0de00a0e5a69c699b")
+      .setDataHash("29f25900140c94db38035128cb6de6a2")
+      .setSourceData(FileSourceDb.Data.newBuilder()
+        .addLines(FileSourceDb.Line.newBuilder()
+          .setLine(1)
+          .setSource("line")
+          .setHighlighting("0,4,a")
+          .build())
+        .build())
+      .setCreatedAt(past)
+      .setUpdatedAt(past));
+    dbTester.getSession().commit();
+
+    // the report has neither the source nor the highlighting of the file
+    treeRootHolder.setRoot(DumbComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).addChildren(
+      DumbComponent.builder(Component.Type.FILE, FILE_REF).setUuid(FILE_UUID).setKey("PROJECT_KEY:file")
+        .setFileAttributes(new FileAttributes(false, "java", true)).build())
+      .build());
+
+    sut.execute();
+
+    assertThat(dbTester.countRowsOfTable("file_sources")).isEqualTo(1);
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSource(FILE_UUID);
+    assertThat(fileSourceDto.getDataHash()).isEqualTo("29f25900140c94db38035128cb6de6a2");
+    assertThat(fileSourceDto.getUpdatedAt()).isEqualTo(past);
+    assertThat(FileSourceDto.decodeSourceData(fileSourceDto.getBinaryData()).getLines(0).getHighlighting()).isEqualTo("0,4,a");
+  }
+
   @Test
   public void display_file_path_when_exception_is_generated() {
     initBasicReport(1);
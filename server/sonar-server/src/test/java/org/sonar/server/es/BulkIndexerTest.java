@@ -109,6 +109,27 @@ public class BulkIndexerTest {
     assertThat(count()).isEqualTo(removeFrom);
   }
 
+  @Test
+  public void update_statistics() {
+    BulkIndexerStatistics statistics = esTester.client().getBulkStatistics();
+    long indexedDocs = statistics.getIndexedDocs();
+    long sentBytes = statistics.getSentBytes();
+
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), FakeIndexDefinition.INDEX)
+      .setFlushByteSize(500);
+    indexer.start();
+    for (int i = 0; i < 10; i++) {
+      indexer.add(newIndexRequest(i));
+    }
+    indexer.stop();
+
+    assertThat(statistics.getIndexedDocs()).isEqualTo(indexedDocs + 10);
+    assertThat(statistics.getSentBytes()).isGreaterThan(sentBytes);
+    assertThat(statistics.getInFlightBulks()).isEqualTo(0);
+    assertThat(statistics.getFailedDocs()).isEqualTo(0);
+    assertThat(statistics.getRetriedDocs()).isEqualTo(0);
+  }
+
   @Test
   public void disable_refresh() {
     BulkIndexer indexer = new BulkIndexer(esTester.client(), FakeIndexDefinition.INDEX)
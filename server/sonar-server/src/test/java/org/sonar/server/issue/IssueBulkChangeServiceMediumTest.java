@@ -131,6 +131,37 @@ public class IssueBulkChangeServiceMediumTest {
     assertThat(result.issuesNotChanged()).isEmpty();
   }
 
+  @Test
+  public void bulk_change_persists_changes_and_schedules_notifications_of_all_issues() {
+    UserDto user = new UserDto().setLogin("fred").setName("Fred");
+    db.userDao().insert(session, user);
+
+    List<String> issueKeys = newArrayList();
+    for (int i = 0; i < 3; i++) {
+      IssueDto issue = IssueTesting.newDto(rule, file, project).setAssignee("simon");
+      tester.get(IssueDao.class).insert(session, issue);
+      issueKeys.add(issue.getKey());
+    }
+    session.commit();
+    tester.get(IssueIndexer.class).indexAll();
+    long queuedNotifications = db.notificationQueueDao().count();
+
+    Map<String, Object> properties = newHashMap();
+    properties.put("issues", Joiner.on(",").join(issueKeys));
+    properties.put("actions", "assign");
+    properties.put("assign.assignee", user.getLogin());
+
+    IssueBulkChangeResult result = service.execute(new IssueBulkChangeQuery(properties, "Assigned to Fred", true), userSession);
+
+    assertThat(result.issuesChanged()).hasSize(3);
+    for (String issueKey : issueKeys) {
+      assertThat(db.issueDao().selectByKey(session, issueKey).getAssignee()).isEqualTo("fred");
+      assertThat(db.issueChangeDao().selectChangelogByIssue(issueKey)).hasSize(1);
+      assertThat(db.issueChangeDao().selectCommentsByIssues(session, newArrayList(issueKey))).hasSize(1);
+    }
+    assertThat(db.notificationQueueDao().count()).isEqualTo(queuedNotifications + 3);
+  }
+
   @Test
   public void bulk_change_on_500_issues() {
     List<String> issueKeys = newArrayList();
@@ -0,0 +1,199 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.utils.DateUtils;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ResourceDao;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
+import org.sonar.test.DbTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.extractProperty;
+
+@Category(DbTests.class)
+public class MeasureFilterIndexQueryTest {
+
+  private static final long JAVA_PROJECT_SNAPSHOT_ID = 101L;
+  private static final long PHP_SNAPSHOT_ID = 110L;
+  private static final Metric METRIC_LINES = new Metric.Builder("lines", "Lines", Metric.ValueType.INT).create().setId(1);
+  private static final Metric METRIC_PROFILE = new Metric.Builder("profile", "Profile", Metric.ValueType.STRING).create().setId(2);
+  private static final Metric METRIC_COVERAGE = new Metric.Builder("coverage", "Coverage", Metric.ValueType.FLOAT).create().setId(3);
+  private static final Metric METRIC_UNKNOWN = new Metric.Builder("unknown", "Unknown", Metric.ValueType.FLOAT).create().setId(4);
+
+  @ClassRule
+  public static EsTester es = new EsTester().addDefinitions(new ProjectMeasuresIndexDefinition(new Settings()));
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  ProjectMeasuresIndexer indexer;
+  MeasureFilterExecutor sqlExecutor;
+  MeasureFilterExecutor indexExecutor;
+
+  @Before
+  public void setUp() {
+    es.truncateIndices();
+    db.prepareDbUnit(MeasureFilterExecutorTest.class, "shared.xml");
+    indexer = new ProjectMeasuresIndexer(db.getDbClient(), es.client());
+    indexer.setEnabled(true).index();
+    ResourceDao resourceDao = new ResourceDao(db.myBatis(), System2.INSTANCE);
+    sqlExecutor = new MeasureFilterExecutor(db.myBatis(), db.database(), resourceDao);
+    indexExecutor = new MeasureFilterExecutor(db.myBatis(), db.database(), resourceDao, es.client(), indexer);
+  }
+
+  @Test
+  public void supports_filters_on_last_analysis_of_projects() {
+    MeasureFilterContext context = new MeasureFilterContext();
+
+    assertThat(MeasureFilterIndexQuery.supports(projects(), context)).isTrue();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setResourceScopes(Arrays.asList("PRJ")), context)).isTrue();
+    assertThat(MeasureFilterIndexQuery.supports(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.GREATER, 10.0)),
+      context)).isTrue();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setSortOnMetric(METRIC_COVERAGE), context)).isTrue();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setFromDate(DateUtils.parseDate("2012-01-01")), context)).isTrue();
+  }
+
+  @Test
+  public void does_not_support_filters_requiring_joins_or_text_measures() {
+    MeasureFilterContext context = new MeasureFilterContext();
+
+    assertThat(MeasureFilterIndexQuery.supports(new MeasureFilter().setResourceQualifiers(Arrays.asList("CLA")), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(new MeasureFilter().setResourceQualifiers(Arrays.asList("TRK", "CLA")), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setResourceScopes(Arrays.asList("FIL")), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setBaseResourceKey("java_project"), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setUserFavourites(true), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setResourceName("php"), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setResourceKey("php"), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().setSortOnMetric(METRIC_PROFILE), context)).isFalse();
+    assertThat(MeasureFilterIndexQuery.supports(projects().addCondition(new MeasureFilterCondition(METRIC_PROFILE, MeasureFilterCondition.Operator.EQUALS, "'Sonar way'")),
+      context)).isFalse();
+  }
+
+  @Test
+  public void return_same_results_as_database() throws SQLException {
+    assertSameResults(projects());
+    assertSameResults(projects().setSortAsc(false));
+    assertSameResults(projects().setResourceScopes(Arrays.asList("PRJ")));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.KEY).setSortAsc(false));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.SHORT_NAME));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.VERSION).setSortAsc(false));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.DATE));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.DATE).setSortAsc(false));
+    assertSameResults(projects().setSortOn(MeasureFilterSort.Field.PROJECT_CREATION_DATE).setSortAsc(false));
+    assertSameResults(projects().setSortOnMetric(METRIC_LINES));
+    assertSameResults(projects().setSortOnMetric(METRIC_LINES).setSortAsc(false));
+    assertSameResults(projects().setSortOnMetric(METRIC_LINES).setSortOnPeriod(5));
+    // PHP project has no coverage
+    assertSameResults(projects().setSortOnMetric(METRIC_COVERAGE));
+    assertSameResults(projects().setSortOnMetric(METRIC_COVERAGE).setSortAsc(false));
+    assertSameResults(projects().setSortOnMetric(METRIC_UNKNOWN));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.GREATER, 1000.0)));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.LESS_OR_EQUALS, 510.0)));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.EQUALS, 510.0)));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.GREATER_OR_EQUALS, 400.0).setPeriod(5)));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.LESS, 1000.0).setPeriod(5)));
+    assertSameResults(projects()
+      .addCondition(new MeasureFilterCondition(METRIC_LINES, MeasureFilterCondition.Operator.GREATER, 10.0))
+      .addCondition(new MeasureFilterCondition(METRIC_COVERAGE, MeasureFilterCondition.Operator.GREATER, 10.0)));
+    assertSameResults(projects().addCondition(new MeasureFilterCondition(METRIC_UNKNOWN, MeasureFilterCondition.Operator.GREATER, 10.0)));
+    assertSameResults(projects().setFromDate(DateUtils.parseDate("2012-01-01")));
+    assertSameResults(projects().setToDate(DateUtils.parseDate("2012-01-01")));
+  }
+
+  @Test
+  public void set_sort_values() throws SQLException {
+    List<MeasureFilterRow> rows = indexExecutor.execute(projects().setSortOnMetric(METRIC_COVERAGE), new MeasureFilterContext());
+    assertThat(rows).extracting("sortDouble").containsExactly(12.3, null);
+
+    rows = indexExecutor.execute(projects().setSortOn(MeasureFilterSort.Field.DATE), new MeasureFilterContext());
+    assertThat(rows).extracting("sortDate").containsExactly(1229727600000L, 1355367960000L);
+
+    rows = indexExecutor.execute(projects().setSortOn(MeasureFilterSort.Field.DESCRIPTION), new MeasureFilterContext());
+    assertThat(rows).extracting("sortText").containsExactly("", "");
+  }
+
+  @Test
+  public void execute_query_on_index() throws SQLException {
+    List<MeasureFilterRow> rows = new MeasureFilterIndexQuery(projects()).execute(es.client(), new MeasureFilterContext());
+
+    assertThat(rows).extracting("snapshotId").containsExactly(JAVA_PROJECT_SNAPSHOT_ID, PHP_SNAPSHOT_ID);
+  }
+
+  @Test
+  public void use_database_if_filter_is_not_supported() throws SQLException {
+    MeasureFilterContext context = new MeasureFilterContext();
+    List<MeasureFilterRow> rows = indexExecutor.execute(projects().setSortOnMetric(METRIC_PROFILE), context);
+
+    assertThat(rows).hasSize(2);
+    assertThat(context.getSql()).startsWith("SELECT");
+  }
+
+  @Test
+  public void use_database_if_index_is_not_up_to_date() throws SQLException {
+    indexer.setEnabled(false);
+    MeasureFilterContext context = new MeasureFilterContext();
+    List<MeasureFilterRow> rows = indexExecutor.execute(projects(), context);
+
+    assertThat(rows).extracting("snapshotId").containsExactly(JAVA_PROJECT_SNAPSHOT_ID, PHP_SNAPSHOT_ID);
+    assertThat(context.getSql()).startsWith("SELECT");
+  }
+
+  @Test
+  public void use_index_if_filter_is_supported() throws SQLException {
+    MeasureFilterContext context = new MeasureFilterContext();
+    List<MeasureFilterRow> rows = indexExecutor.execute(projects().setSortOnMetric(METRIC_LINES).setSortAsc(false), context);
+
+    assertThat(rows).extracting("snapshotId").containsExactly(PHP_SNAPSHOT_ID, JAVA_PROJECT_SNAPSHOT_ID);
+    assertThat(context.getSql()).startsWith("ES search request").contains(ProjectMeasuresIndexDefinition.FIELD_MEASURES);
+  }
+
+  private void assertSameResults(MeasureFilter filter) throws SQLException {
+    MeasureFilterContext indexContext = new MeasureFilterContext();
+    List<MeasureFilterRow> indexRows = indexExecutor.execute(filter, indexContext);
+    assertThat(indexContext.getSql()).startsWith("ES search request");
+
+    List<MeasureFilterRow> sqlRows = sqlExecutor.execute(filter, new MeasureFilterContext());
+    assertThat(indexRows).extracting("snapshotId").containsExactlyElementsOf(extract(sqlRows, "snapshotId"));
+    assertThat(indexRows).extracting("resourceId").containsExactlyElementsOf(extract(sqlRows, "resourceId"));
+    assertThat(indexRows).extracting("resourceRootId").containsExactlyElementsOf(extract(sqlRows, "resourceRootId"));
+  }
+
+  private static List<Object> extract(List<MeasureFilterRow> rows, String property) {
+    return extractProperty(property).from(rows);
+  }
+
+  private static MeasureFilter projects() {
+    return new MeasureFilter().setResourceQualifiers(Arrays.asList("TRK"));
+  }
+}
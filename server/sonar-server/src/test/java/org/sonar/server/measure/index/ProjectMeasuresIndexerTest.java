@@ -0,0 +1,113 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.index;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.measure.MeasureFilterExecutorTest;
+import org.sonar.test.DbTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.INDEX;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.TYPE_PROJECT_MEASURES;
+
+@Category(DbTests.class)
+public class ProjectMeasuresIndexerTest {
+
+  @ClassRule
+  public static EsTester es = new EsTester().addDefinitions(new ProjectMeasuresIndexDefinition(new Settings()));
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  ProjectMeasuresIndexer indexer;
+
+  @Before
+  public void setUp() {
+    es.truncateIndices();
+    db.prepareDbUnit(MeasureFilterExecutorTest.class, "shared.xml");
+    indexer = new ProjectMeasuresIndexer(db.getDbClient(), es.client());
+    indexer.setEnabled(true);
+  }
+
+  @Test
+  public void index_nothing_if_disabled() {
+    indexer.setEnabled(false).index();
+
+    assertThat(es.countDocuments(INDEX, TYPE_PROJECT_MEASURES)).isZero();
+  }
+
+  @Test
+  public void index_last_analysis_of_projects() {
+    indexer.index();
+
+    assertThat(es.getDocumentFieldValues(INDEX, TYPE_PROJECT_MEASURES, ProjectMeasuresIndexDefinition.FIELD_UUID)).containsOnly("ABCD", "EFGH");
+    List<ProjectMeasuresDoc> docs = es.getDocuments(INDEX, TYPE_PROJECT_MEASURES, ProjectMeasuresDoc.class);
+
+    ProjectMeasuresDoc doc = docs.get(0).uuid().equals("ABCD") ? docs.get(0) : docs.get(1);
+    assertThat(doc.key()).isEqualTo("java_project");
+    assertThat(doc.name()).isEqualTo("Java project");
+    assertThat(doc.shortName()).isEqualTo("Java project");
+    assertThat(doc.description()).isNull();
+    assertThat(doc.version()).isEqualTo("1.0");
+    assertThat(doc.snapshotId()).isEqualTo(101L);
+    assertThat(doc.projectId()).isEqualTo(1L);
+    assertThat(doc.rootProjectId()).isEqualTo(1L);
+    assertThat(doc.analysedAt()).isEqualTo(1229727600000L);
+    assertThat(doc.createdAt()).isNotNull();
+
+    // text measures are not indexed
+    assertThat(doc.measures()).containsOnlyKeys("lines", "coverage");
+    assertThat(doc.measures().get("lines")).containsOnly(entry("value", 510.0), entry("variation_5", 400.0));
+    assertThat(doc.measureValue("lines", null)).isEqualTo(510.0);
+    assertThat(doc.measureValue("lines", 5)).isEqualTo(400.0);
+    assertThat(doc.measureValue("lines", 1)).isNull();
+    assertThat(doc.measureValue("coverage", null)).isEqualTo(12.3);
+    assertThat(doc.measureValue("unknown", null)).isNull();
+  }
+
+  @Test
+  public void index_project_whatever_the_date_of_last_indexation() {
+    indexer.index();
+    es.truncateIndices();
+
+    indexer.index("EFGH");
+
+    assertThat(es.getDocumentFieldValues(INDEX, TYPE_PROJECT_MEASURES, ProjectMeasuresIndexDefinition.FIELD_UUID)).containsOnly("EFGH");
+  }
+
+  @Test
+  public void delete_project() {
+    indexer.index();
+
+    indexer.deleteProject("ABCD");
+
+    assertThat(es.getDocumentFieldValues(INDEX, TYPE_PROJECT_MEASURES, ProjectMeasuresIndexDefinition.FIELD_UUID)).containsOnly("EFGH");
+  }
+}
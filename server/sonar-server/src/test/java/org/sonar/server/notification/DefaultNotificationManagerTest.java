@@ -24,10 +24,12 @@ import com.google.common.collect.Multimap;
 import java.io.InvalidClassException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -36,11 +38,13 @@ import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.notification.NotificationQueueDto;
 import org.sonar.db.property.PropertiesDao;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -106,6 +110,57 @@ public class DefaultNotificationManagerTest {
     inOrder.verify(notificationQueueDao).delete(dtos);
   }
 
+  @Test
+  public void shouldFindOldestInQueueAndRemoveOnlyNotificationsWhichCantBeRead() throws Exception {
+    NotificationQueueDto unreadable = mock(NotificationQueueDto.class);
+    when(unreadable.toNotification()).thenThrow(new InvalidClassException("Pouet"));
+    List<NotificationQueueDto> dtos = Arrays.asList(
+      NotificationQueueDto.toNotificationQueueDto(new Notification("first")).setId(1L),
+      unreadable,
+      NotificationQueueDto.toNotificationQueueDto(new Notification("second")).setId(3L));
+    when(notificationQueueDao.findOldest(10)).thenReturn(dtos);
+
+    List<QueuedNotification> notifications = manager.findOldestInQueue(10);
+
+    assertThat(notifications).extracting("id").containsExactly(1L, 3L);
+    assertThat(notifications).extracting("notification.type").containsExactly("first", "second");
+    verify(notificationQueueDao).delete(Arrays.asList(unreadable));
+  }
+
+  @Test
+  public void shouldReturnEmptyBatchWhenQueueIsEmpty() {
+    when(notificationQueueDao.findOldest(10)).thenReturn(Collections.<NotificationQueueDto>emptyList());
+
+    assertThat(manager.findOldestInQueue(10)).isEmpty();
+    verify(notificationQueueDao, never()).delete(any(List.class));
+  }
+
+  @Test
+  public void removeFromQueue() {
+    manager.removeFromQueue(Arrays.asList(1L, 3L));
+
+    ArgumentCaptor<List> dtos = ArgumentCaptor.forClass(List.class);
+    verify(notificationQueueDao).delete(dtos.capture());
+    assertThat(dtos.getValue()).extracting("id").containsExactly(1L, 3L);
+  }
+
+  @Test
+  public void removeFromQueue_does_nothing_when_no_ids() {
+    manager.removeFromQueue(Collections.<Long>emptyList());
+
+    verify(notificationQueueDao, never()).delete(any(List.class));
+  }
+
+  @Test
+  public void getOldestQueueDate() {
+    when(notificationQueueDao.findOldest(1)).thenReturn(Collections.<NotificationQueueDto>emptyList());
+    assertThat(manager.getOldestQueueDate()).isNull();
+
+    NotificationQueueDto dto = NotificationQueueDto.toNotificationQueueDto(new Notification("test"), 1_500_000_000_000L);
+    when(notificationQueueDao.findOldest(1)).thenReturn(Arrays.asList(dto));
+    assertThat(manager.getOldestQueueDate()).isEqualTo(1_500_000_000_000L);
+  }
+
   // SONAR-4739
   @Test
   public void shouldNotFailWhenUnableToDeserialize() throws Exception {
@@ -121,6 +176,25 @@ public class DefaultNotificationManagerTest {
     verify(manager, times(1)).logDeserializationIssue();
   }
 
+  @Test
+  public void shouldLoadSubscribersOnceUntilCacheIsCleared() {
+    when(propertiesDao.findUsersForNotification("NewViolations", "Email", "uuid_45")).thenReturn(Lists.newArrayList("user1"));
+    when(propertiesDao.findNotificationSubscribers("NewViolations", "Email", "struts")).thenReturn(Lists.newArrayList("user2"));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(manager.findSubscribedRecipientsForDispatcher(dispatcher, "uuid_45").keySet()).containsOnly("user1");
+      assertThat(manager.findNotificationSubscribers(dispatcher, "struts").keySet()).containsOnly("user2");
+    }
+    verify(propertiesDao, times(1)).findUsersForNotification("NewViolations", "Email", "uuid_45");
+    verify(propertiesDao, times(1)).findNotificationSubscribers("NewViolations", "Email", "struts");
+
+    when(propertiesDao.findUsersForNotification("NewViolations", "Email", "uuid_45")).thenReturn(Lists.newArrayList("user1", "user3"));
+    manager.clearSubscribersCache();
+
+    assertThat(manager.findSubscribedRecipientsForDispatcher(dispatcher, "uuid_45").keySet()).containsOnly("user1", "user3");
+    verify(propertiesDao, times(2)).findUsersForNotification("NewViolations", "Email", "uuid_45");
+  }
+
   @Test
   public void shouldFindNoRecipient() {
     assertThat(manager.findSubscribedRecipientsForDispatcher(dispatcher, "uuid_45").asMap().entrySet()).hasSize(0);
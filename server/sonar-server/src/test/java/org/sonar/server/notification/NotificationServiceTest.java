@@ -20,8 +20,15 @@
 package org.sonar.server.notification;
 
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.sonar.api.config.Settings;
@@ -29,16 +36,20 @@ import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.db.DbClient;
 import org.sonar.db.property.PropertiesDao;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.same;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -67,7 +78,7 @@ public class NotificationServiceTest {
     when(commentOnIssueCreatedByMe.getType()).thenReturn("issue-changes");
     when(qualityGateChange.getKey()).thenReturn("QGateChange");
     when(qualityGateChange.getType()).thenReturn("qgate-changes");
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(null);
+    when(manager.findOldestInQueue(anyInt())).thenReturn(queued(notification)).thenReturn(Collections.<QueuedNotification>emptyList());
 
     Settings settings = new Settings().setProperty("sonar.notifications.delay", 1L);
 
@@ -175,7 +186,8 @@ public class NotificationServiceTest {
   @Test
   public void shouldNotStopWhenException() {
     setUpMocks();
-    when(manager.getFromQueue()).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(notification).thenReturn(null);
+    when(manager.findOldestInQueue(anyInt())).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(queued(notification))
+      .thenReturn(Collections.<QueuedNotification>emptyList());
     doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
     doAnswer(addUser(CREATOR_SIMON, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
 
@@ -186,6 +198,110 @@ public class NotificationServiceTest {
     verify(gtalkChannel, never()).deliver(notification, ASSIGNEE_SIMON);
   }
 
+  @Test
+  public void slow_channel_does_not_block_other_channels() throws Exception {
+    setUpMocks();
+    final CountDownLatch emailReleased = new CountDownLatch(1);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        emailReleased.await(5, TimeUnit.SECONDS);
+        return true;
+      }
+    }).when(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(CREATOR_EVGENY, gtalkChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+
+    service.deliver(notification);
+
+    verify(gtalkChannel, timeout(2000)).deliver(notification, CREATOR_EVGENY);
+    assertThat(service.getPendingDeliveries()).isPositive();
+    emailReleased.countDown();
+    verify(emailChannel, timeout(2000)).deliver(notification, ASSIGNEE_SIMON);
+  }
+
+  @Test
+  public void remove_notifications_from_queue_once_delivered() {
+    setUpMocks();
+    Notification failing = mock(Notification.class);
+    Notification withoutRecipient = mock(Notification.class);
+    when(manager.findOldestInQueue(anyInt())).thenReturn(queued(notification, failing, withoutRecipient)).thenReturn(Collections.<QueuedNotification>emptyList());
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(ASSIGNEE_SIMON, gtalkChannel)).when(commentOnIssueAssignedToMe).dispatch(same(failing), any(NotificationDispatcher.Context.class));
+    doThrow(new IllegalStateException("Unreachable server")).when(gtalkChannel).deliver(failing, ASSIGNEE_SIMON);
+
+    service.processQueue();
+
+    verify(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    verify(gtalkChannel).deliver(failing, ASSIGNEE_SIMON);
+    assertThat(removedFromQueue()).containsOnly(1L, 2L, 3L);
+  }
+
+  @Test
+  public void keep_notifications_in_queue_if_deliveries_are_interrupted() throws Exception {
+    setUpMocks();
+    Notification other = mock(Notification.class);
+    when(manager.findOldestInQueue(anyInt())).thenReturn(queued(notification, other));
+    final CountDownLatch otherReleased = new CountDownLatch(1);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        otherReleased.await(5, TimeUnit.SECONDS);
+        return null;
+      }
+    }).when(gtalkChannel).deliver(other, ASSIGNEE_SIMON);
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(ASSIGNEE_SIMON, gtalkChannel)).when(commentOnIssueAssignedToMe).dispatch(same(other), any(NotificationDispatcher.Context.class));
+
+    Thread processing = new Thread() {
+      @Override
+      public void run() {
+        service.processQueue();
+      }
+    };
+    processing.start();
+    verify(emailChannel, timeout(2000)).deliver(notification, ASSIGNEE_SIMON);
+    verify(gtalkChannel, timeout(2000)).deliver(other, ASSIGNEE_SIMON);
+    processing.interrupt();
+    processing.join(2000);
+    otherReleased.countDown();
+
+    // the notification which is not delivered is kept in queue to be delivered again after restart
+    assertThat(removedFromQueue()).doesNotContain(2L);
+    verify(manager).findOldestInQueue(anyInt());
+  }
+
+  @Test
+  public void deliver_whole_batch_of_notifications_when_stopping() {
+    setUpMocks();
+    Notification other = mock(Notification.class);
+    Notification notRead = mock(Notification.class);
+    when(manager.findOldestInQueue(anyInt())).thenReturn(queued(notification, other)).thenReturn(queued(notRead));
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+
+    service.stop();
+    service.processQueue();
+
+    verify(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    verify(emailChannel).deliver(other, ASSIGNEE_SIMON);
+    assertThat(removedFromQueue()).containsOnly(1L, 2L);
+    verify(manager).findOldestInQueue(anyInt());
+    verify(emailChannel, never()).deliver(notRead, ASSIGNEE_SIMON);
+  }
+
+  @Test
+  public void deliver_in_caller_thread_once_channels_are_shut_down() {
+    setUpMocks();
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    service.deliver(notification);
+    verify(emailChannel, timeout(2000)).deliver(notification, ASSIGNEE_SIMON);
+
+    service.stop();
+    service.deliver(notification);
+
+    verify(emailChannel, times(2)).deliver(notification, ASSIGNEE_SIMON);
+  }
+
   @Test
   public void shouldNotAddNullAsUser() {
     setUpMocks();
@@ -217,7 +333,7 @@ public class NotificationServiceTest {
   public void shouldLogEvery10Minutes() {
     setUpMocks();
     // Emulate 2 notifications in DB
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(notification).thenReturn(null);
+    when(manager.findOldestInQueue(anyInt())).thenReturn(queued(notification, notification)).thenReturn(Collections.<QueuedNotification>emptyList());
     when(manager.count()).thenReturn(1L).thenReturn(0L);
     service = spy(service);
     // Emulate processing of each notification take 10 min to have a log each time
@@ -244,6 +360,23 @@ public class NotificationServiceTest {
     assertThat(service.hasProjectSubscribersForTypes("PROJECT_UUID", Sets.newHashSet("issue-changes"))).isTrue();
   }
 
+  private Collection<Long> removedFromQueue() {
+    ArgumentCaptor<Collection> ids = ArgumentCaptor.forClass(Collection.class);
+    verify(manager).removeFromQueue(ids.capture());
+    return ids.getValue();
+  }
+
+  /**
+   * Ids of queued notifications start at 1
+   */
+  private static List<QueuedNotification> queued(Notification... notifications) {
+    List<QueuedNotification> queued = new ArrayList<>();
+    for (Notification notification : notifications) {
+      queued.add(new QueuedNotification(queued.size() + 1L, notification));
+    }
+    return queued;
+  }
+
   private static Answer<Object> addUser(final String user, final NotificationChannel channel) {
     return addUser(user, new NotificationChannel[]{channel});
   }
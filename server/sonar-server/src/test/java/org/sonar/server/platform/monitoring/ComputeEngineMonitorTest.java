@@ -0,0 +1,67 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import org.junit.Test;
+import org.sonar.server.computation.ComputationStatistics;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.computation.ReportQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.db.compute.AnalysisReportDto.Status.PENDING;
+import static org.sonar.db.compute.AnalysisReportDto.Status.WORKING;
+
+public class ComputeEngineMonitorTest {
+
+  ReportQueue queue = mock(ReportQueue.class);
+  ComputationThreadLauncher launcher = mock(ComputationThreadLauncher.class);
+  ComputationStatistics statistics = new ComputationStatistics();
+  ComputeEngineMonitor sut = new ComputeEngineMonitor(queue, launcher, statistics);
+
+  @Test
+  public void name() {
+    assertThat(sut.name()).isEqualTo("ComputeEngine");
+  }
+
+  @Test
+  public void attributes() {
+    when(queue.count(PENDING)).thenReturn(12);
+    when(queue.count(WORKING)).thenReturn(3);
+    when(launcher.getWorkerCount()).thenReturn(4);
+    statistics.onReportProcessed("computation-0", 100L, 1000L, true);
+    statistics.onReportProcessed("computation-1", 300L, 3000L, false);
+
+    LinkedHashMap<String, Object> attributes = sut.attributes();
+
+    assertThat(attributes).containsEntry("Pending Reports", 12);
+    assertThat(attributes).containsEntry("In Progress Reports", 3);
+    assertThat(attributes).containsEntry("Workers", 4);
+    assertThat(attributes).containsEntry("Processed Reports", 2L);
+    assertThat(attributes).containsEntry("Failed Reports", 1L);
+    assertThat(attributes).containsEntry("Average Wait Time (ms)", 200L);
+    assertThat(attributes).containsEntry("Average Processing Time (ms)", 2000L);
+    assertThat(attributes).containsEntry("Processed Reports by computation-0", 1L);
+    assertThat(attributes).containsEntry("Processed Reports by computation-1", 1L);
+  }
+}
@@ -78,4 +78,17 @@ public class EsMonitorTest {
     assertThat(indexAttributes.get("Shards")).isEqualTo(1);
     assertThat(indexAttributes.get("Store Size")).isNotNull();
   }
+
+  @Test
+  public void bulk_attributes() {
+    EsMonitor monitor = new EsMonitor(esTester.client());
+    LinkedHashMap<String, Object> attributes = monitor.attributes();
+    Map bulkAttributes = (Map) attributes.get("Bulk Indexing");
+
+    assertThat(bulkAttributes.get("Indexed Docs")).isEqualTo(monitor.getBulkIndexedDocs());
+    assertThat(bulkAttributes.get("In-flight Requests")).isEqualTo(0);
+    assertThat(monitor.getBulkInFlightRequests()).isEqualTo(0);
+    assertThat(monitor.getBulkDocsPerSecond()).isGreaterThanOrEqualTo(0L);
+    assertThat(monitor.getBulkBytesPerSecond()).isGreaterThanOrEqualTo(0L);
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NotificationMonitorTest {
+
+  DefaultNotificationManager manager = mock(DefaultNotificationManager.class);
+  NotificationService service = mock(NotificationService.class);
+  System2 system = mock(System2.class);
+  NotificationMonitor sut = new NotificationMonitor(manager, service, system);
+
+  @Test
+  public void name() {
+    assertThat(sut.name()).isEqualTo("Notifications");
+  }
+
+  @Test
+  public void attributes() {
+    when(manager.count()).thenReturn(12L);
+    when(manager.getOldestQueueDate()).thenReturn(1_500_000_000_000L);
+    when(system.now()).thenReturn(1_500_000_060_000L);
+    when(service.getPendingDeliveries()).thenReturn(3L);
+
+    assertThat(sut.attributes())
+      .containsEntry("Pending Notifications", 12L)
+      .containsEntry("Oldest Notification Age (ms)", 60_000L)
+      .containsEntry("Pending Deliveries", 3L);
+  }
+
+  @Test
+  public void age_is_zero_when_queue_is_empty_or_date_is_unknown() {
+    when(manager.getOldestQueueDate()).thenReturn(null);
+
+    assertThat(sut.getOldestNotificationAgeMs()).isEqualTo(0L);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import org.junit.Test;
+import org.sonar.db.purge.PurgeProfiler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PurgeMonitorTest {
+
+  PurgeProfiler profiler = mock(PurgeProfiler.class);
+  PurgeMonitor sut = new PurgeMonitor(profiler);
+
+  @Test
+  public void name() {
+    assertThat(sut.name()).isEqualTo("Purge");
+  }
+
+  @Test
+  public void sum_values_of_tables() {
+    when(profiler.getDurations()).thenReturn(ImmutableMap.of("deleteSnapshot (snapshots)", 100L, "deleteFileSources (file_sources)", 250L));
+    when(profiler.getChunkCounts()).thenReturn(ImmutableMap.of("deleteSnapshot (snapshots)", 2L, "deleteFileSources (file_sources)", 3L));
+
+    assertThat(sut.getDurationMs()).isEqualTo(350L);
+    assertThat(sut.getCommittedChunks()).isEqualTo(5L);
+    assertThat(sut.getDurationsMsByTable()).containsEntry("deleteFileSources (file_sources)", 250L);
+    assertThat(sut.getCommittedChunksByTable()).containsEntry("deleteSnapshot (snapshots)", 2L);
+  }
+
+  @Test
+  public void attributes() {
+    when(profiler.getDurations()).thenReturn(ImmutableMap.of("deleteSnapshot (snapshots)", 100L, "deleteResource (projects)", 10L));
+    when(profiler.getChunkCounts()).thenReturn(ImmutableMap.of("deleteSnapshot (snapshots)", 2L));
+
+    LinkedHashMap<String, Object> attributes = sut.attributes();
+
+    assertThat(attributes).containsEntry("Duration (ms)", 110L);
+    assertThat(attributes).containsEntry("Committed Chunks", 2L);
+    assertThat(attributes).containsEntry("deleteSnapshot (snapshots)", "100 ms, 2 chunks");
+    assertThat(attributes).containsEntry("deleteResource (projects)", "10 ms, 0 chunks");
+  }
+
+  @Test
+  public void no_purge_yet() {
+    when(profiler.getDurations()).thenReturn(ImmutableMap.<String, Long>of());
+    when(profiler.getChunkCounts()).thenReturn(ImmutableMap.<String, Long>of());
+
+    assertThat(sut.getDurationMs()).isEqualTo(0L);
+    assertThat(sut.attributes()).hasSize(2);
+  }
+}
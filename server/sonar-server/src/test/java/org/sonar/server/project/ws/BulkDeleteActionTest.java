@@ -60,6 +60,8 @@ import org.sonar.server.issue.IssueTesting;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
 import org.sonar.server.issue.index.IssueIndexDefinition;
 import org.sonar.server.issue.index.IssueIndexer;
+import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
+import org.sonar.server.measure.index.ProjectMeasuresIndexer;
 import org.sonar.server.rule.db.RuleDao;
 import org.sonar.server.source.index.SourceLineDoc;
 import org.sonar.server.source.index.SourceLineIndexDefinition;
@@ -87,7 +89,7 @@ public class BulkDeleteActionTest {
 
   @ClassRule
   public static EsTester es = new EsTester().addDefinitions(new IssueIndexDefinition(new Settings()), new SourceLineIndexDefinition(new Settings()),
-    new TestIndexDefinition(new Settings()));
+    new TestIndexDefinition(new Settings()), new ProjectMeasuresIndexDefinition(new Settings()));
 
   @Rule
   public UserSessionRule userSessionRule = UserSessionRule.standalone();
@@ -117,7 +119,8 @@ public class BulkDeleteActionTest {
           new IssueAuthorizationIndexer(dbClient, es.client()),
           new IssueIndexer(dbClient, es.client()),
           new SourceLineIndexer(dbClient, es.client()),
-          new TestIndexer(dbClient, es.client()), mockResourceTypes, new ComponentFinder(dbClient)
+          new TestIndexer(dbClient, es.client()),
+          new ProjectMeasuresIndexer(dbClient, es.client()), mockResourceTypes, new ComponentFinder(dbClient)
         ),
         dbClient,
         userSessionRule
@@ -0,0 +1,127 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.search;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
+import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RefreshCoalescerTest {
+
+  SearchClient searchClient = mock(SearchClient.class);
+  List<List<String>> refreshedIndices = Collections.synchronizedList(new ArrayList<List<String>>());
+
+  @Test
+  public void refresh_requested_indices() {
+    mockRefresh(null, null);
+    RefreshCoalescer underTest = new RefreshCoalescer(searchClient);
+
+    underTest.refresh(ImmutableSet.of("rules"));
+    underTest.refresh(ImmutableSet.of("rules", "activeRules"));
+
+    assertThat(refreshedIndices).hasSize(2);
+    assertThat(refreshedIndices.get(0)).containsOnly("rules");
+    assertThat(refreshedIndices.get(1)).containsOnly("rules", "activeRules");
+  }
+
+  @Test
+  public void do_nothing_when_no_indices() {
+    RefreshCoalescer underTest = new RefreshCoalescer(searchClient);
+
+    underTest.refresh(Collections.<String>emptySet());
+
+    assertThat(refreshedIndices).isEmpty();
+  }
+
+  @Test
+  public void merge_refreshes_requested_during_a_refresh() throws Exception {
+    CountDownLatch firstRefreshStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstRefresh = new CountDownLatch(1);
+    mockRefresh(firstRefreshStarted, releaseFirstRefresh);
+    final RefreshCoalescer underTest = new RefreshCoalescer(searchClient);
+
+    Thread first = refreshInThread(underTest, "rules");
+    assertThat(firstRefreshStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    Thread second = refreshInThread(underTest, "activeRules");
+    Thread third = refreshInThread(underTest, "rules");
+    // let the second and third callers wait for the end of the first refresh
+    Thread.sleep(200L);
+    releaseFirstRefresh.countDown();
+    first.join(10_000L);
+    second.join(10_000L);
+    third.join(10_000L);
+
+    assertThat(refreshedIndices).hasSize(2);
+    assertThat(refreshedIndices.get(0)).containsOnly("rules");
+    assertThat(refreshedIndices.get(1)).containsOnly("rules", "activeRules");
+  }
+
+  private Thread refreshInThread(final RefreshCoalescer underTest, final String index) {
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        underTest.refresh(ImmutableSet.of(index));
+      }
+    };
+    thread.start();
+    return thread;
+  }
+
+  private void mockRefresh(final CountDownLatch firstRefreshStarted, final CountDownLatch releaseFirstRefresh) {
+    when(searchClient.prepareRefresh(Matchers.<String>anyVararg())).thenAnswer(new Answer<RefreshRequestBuilder>() {
+      @Override
+      public RefreshRequestBuilder answer(InvocationOnMock invocation) throws Throwable {
+        final List<String> indices = new ArrayList<>();
+        for (Object index : invocation.getArguments()) {
+          indices.add((String) index);
+        }
+        RefreshRequestBuilder builder = mock(RefreshRequestBuilder.class);
+        when(builder.setForce(anyBoolean())).thenReturn(builder);
+        when(builder.get()).thenAnswer(new Answer<RefreshResponse>() {
+          @Override
+          public RefreshResponse answer(InvocationOnMock invocation) throws Throwable {
+            boolean first = refreshedIndices.isEmpty();
+            refreshedIndices.add(indices);
+            if (first && firstRefreshStarted != null) {
+              firstRefreshStarted.countDown();
+              releaseFirstRefresh.await(10, TimeUnit.SECONDS);
+            }
+            return mock(RefreshResponse.class);
+          }
+        });
+        return builder;
+      }
+    });
+  }
+}
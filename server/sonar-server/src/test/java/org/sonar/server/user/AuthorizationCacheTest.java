@@ -0,0 +1,78 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import org.junit.Test;
+import org.sonar.api.web.UserRole;
+import org.sonar.db.user.AuthorizationDao;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthorizationCacheTest {
+
+  AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
+  AuthorizationCache underTest = new AuthorizationCache(authorizationDao);
+
+  @Test
+  public void load_authorized_projects_once_by_user_and_permission() {
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("struts"));
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(2, UserRole.USER)).thenReturn(newArrayList("sonar"));
+    when(authorizationDao.selectAuthorizedRootProjectsUuids(1, UserRole.USER)).thenReturn(newArrayList("ABCD"));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(underTest.authorizedProjectKeys(1, UserRole.USER)).containsOnly("struts");
+      assertThat(underTest.authorizedProjectKeys(2, UserRole.USER)).containsOnly("sonar");
+      assertThat(underTest.authorizedProjectUuids(1, UserRole.USER)).containsOnly("ABCD");
+      assertThat(underTest.authorizedProjectKeys(1, UserRole.ADMIN)).isEmpty();
+    }
+
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsKeys(1, UserRole.USER);
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsKeys(2, UserRole.USER);
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsUuids(1, UserRole.USER);
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsKeys(1, UserRole.ADMIN);
+  }
+
+  @Test
+  public void cache_authorized_projects_of_anonymous() {
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(null, UserRole.USER)).thenReturn(newArrayList("struts"));
+
+    assertThat(underTest.authorizedProjectKeys(null, UserRole.USER)).containsOnly("struts");
+    assertThat(underTest.authorizedProjectKeys(null, UserRole.USER)).containsOnly("struts");
+
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsKeys(null, UserRole.USER);
+  }
+
+  @Test
+  public void reload_authorized_projects_when_cache_is_cleared() {
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("struts"));
+    assertThat(underTest.authorizedProjectKeys(1, UserRole.USER)).containsOnly("struts");
+
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("struts", "sonar"));
+    underTest.clear();
+
+    assertThat(underTest.authorizedProjectKeys(1, UserRole.USER)).containsOnly("struts", "sonar");
+    verify(authorizationDao, times(2)).selectAuthorizedRootProjectsKeys(1, UserRole.USER);
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.server.user;
 
 import java.util.Arrays;
+import java.util.Collections;
 import org.junit.Test;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.component.ComponentDto;
@@ -33,11 +34,14 @@ import org.sonar.server.exceptions.ForbiddenException;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ServerUserSessionTest {
   AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
   ResourceDao resourceDao = mock(ResourceDao.class);
+  AuthorizationCache authorizationCache = new AuthorizationCache(authorizationDao);
 
   @Test
   public void login_should_not_be_empty() {
@@ -207,8 +211,23 @@ public class ServerUserSessionTest {
     session.checkComponentPermission(UserRole.USER, "another");
   }
 
+  @Test
+  public void project_permissions_are_shared_by_sessions_until_cache_is_cleared() {
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar"));
+
+    assertThat(newServerUserSession().setLogin("marius").setUserId(1).hasProjectPermission(UserRole.USER, "com.foo:Bar")).isTrue();
+    assertThat(newServerUserSession().setLogin("marius").setUserId(1).hasProjectPermission(UserRole.USER, "com.foo:Bar")).isTrue();
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjectsKeys(1, UserRole.USER);
+
+    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(Collections.<String>emptyList());
+    authorizationCache.clear();
+
+    assertThat(newServerUserSession().setLogin("marius").setUserId(1).hasProjectPermission(UserRole.USER, "com.foo:Bar")).isFalse();
+    verify(authorizationDao, times(2)).selectAuthorizedRootProjectsKeys(1, UserRole.USER);
+  }
+
   private ServerUserSession newServerUserSession() {
-    return new ServerUserSession(authorizationDao, resourceDao);
+    return new ServerUserSession(authorizationDao, resourceDao, authorizationCache);
   }
 
 }
@@ -41,12 +41,15 @@ import org.sonar.db.user.UserGroupDto;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.db.GroupDao;
 import org.sonar.server.user.db.UserDao;
 import org.sonar.server.ws.WsTester;
 import org.sonar.test.DbTests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @Category(DbTests.class)
 public class AddUserActionTest {
@@ -60,6 +63,7 @@ public class AddUserActionTest {
   @Rule
   public final ExpectedException expectedException = ExpectedException.none();
 
+  private AuthorizationCache authorizationCache = mock(AuthorizationCache.class);
   private WsTester tester;
   private GroupDao groupDao;
   private UserDao userDao;
@@ -78,7 +82,7 @@ public class AddUserActionTest {
 
     DbClient dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), groupDao, userDao, userGroupDao, groupMembershipDao);
 
-    tester = new WsTester(new UserGroupsWs(new AddUserAction(dbClient, userSession)));
+    tester = new WsTester(new UserGroupsWs(new AddUserAction(dbClient, userSession, authorizationCache)));
 
     session = dbClient.openSession(false);
   }
@@ -103,6 +107,7 @@ public class AddUserActionTest {
 
     assertThat(groupMembershipDao.selectGroupsByLogins(session, Arrays.asList(user.getLogin())).get(user.getLogin()))
       .containsOnly(group.getName());
+    verify(authorizationCache).clear();
   }
 
   @Test
@@ -41,11 +41,14 @@ import org.sonar.db.user.UserGroupDto;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.db.GroupDao;
 import org.sonar.server.ws.WsTester;
 import org.sonar.test.DbTests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @Category(DbTests.class)
 public class DeleteActionTest {
@@ -56,6 +59,8 @@ public class DeleteActionTest {
   @Rule
   public UserSessionRule userSession = UserSessionRule.standalone();
 
+  private AuthorizationCache authorizationCache = mock(AuthorizationCache.class);
+
   private WsTester tester;
 
   private GroupDao groupDao;
@@ -89,7 +94,7 @@ public class DeleteActionTest {
     defaultGroupId = defaultGroup.getId();
     session.commit();
 
-    tester = new WsTester(new UserGroupsWs(new DeleteAction(dbClient, userSession, settings)));
+    tester = new WsTester(new UserGroupsWs(new DeleteAction(dbClient, userSession, settings, authorizationCache)));
   }
 
   @After
@@ -106,6 +111,8 @@ public class DeleteActionTest {
     tester.newPostRequest("api/usergroups", "delete")
       .setParam("id", group.getId().toString())
       .execute().assertNoContent();
+
+    verify(authorizationCache).clear();
   }
 
   @Test
@@ -79,6 +79,7 @@ class AccountController < ApplicationController
         end
       end
     end
+    java_facade.getCoreComponentByClassname('org.sonar.server.notification.DefaultNotificationManager').clearSubscribersCache()
     
     # New project added
     new_params = {}
@@ -66,6 +66,7 @@ class RolesController < ApplicationController
     check_project_admin
     bad_request('Missing role') if params[:role].blank?
     UserRole.grant_users(params[:users], params[:role], params[:resource])
+    java_facade.getCoreComponentByClassname('org.sonar.server.user.AuthorizationCache').clear()
     render :text => '', :status => 200
   end
 
@@ -83,6 +84,7 @@ class RolesController < ApplicationController
     check_project_admin
     bad_request('Missing role') if params[:role].blank?
     GroupRole.grant_groups(params[:groups], params[:role], params[:resource])
+    java_facade.getCoreComponentByClassname('org.sonar.server.user.AuthorizationCache').clear()
     render :text => '', :status => 200
   end
 
@@ -2851,6 +2851,883 @@ public final class BatchInput {
     // @@protoc_insertion_point(class_scope:User)
   }
 
+  public interface DuplicationBlockOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:DuplicationBlock)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    boolean hasResourceKey();
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    java.lang.String getResourceKey();
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    com.google.protobuf.ByteString
+        getResourceKeyBytes();
+
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    boolean hasHash();
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    java.lang.String getHash();
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    com.google.protobuf.ByteString
+        getHashBytes();
+
+    /**
+     * <code>optional int32 index_in_file = 3;</code>
+     */
+    boolean hasIndexInFile();
+    /**
+     * <code>optional int32 index_in_file = 3;</code>
+     */
+    int getIndexInFile();
+
+    /**
+     * <code>optional int32 start_line = 4;</code>
+     */
+    boolean hasStartLine();
+    /**
+     * <code>optional int32 start_line = 4;</code>
+     */
+    int getStartLine();
+
+    /**
+     * <code>optional int32 end_line = 5;</code>
+     */
+    boolean hasEndLine();
+    /**
+     * <code>optional int32 end_line = 5;</code>
+     */
+    int getEndLine();
+  }
+  /**
+   * Protobuf type {@code DuplicationBlock}
+   *
+   * <pre>
+   * Block of the index of cross-project duplications whose hash is also computed
+   * on the analyzed project
+   * </pre>
+   */
+  public static final class DuplicationBlock extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:DuplicationBlock)
+      DuplicationBlockOrBuilder {
+    // Use DuplicationBlock.newBuilder() to construct.
+    private DuplicationBlock(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private DuplicationBlock(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final DuplicationBlock defaultInstance;
+    public static DuplicationBlock getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public DuplicationBlock getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private DuplicationBlock(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000001;
+              resourceKey_ = bs;
+              break;
+            }
+            case 18: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000002;
+              hash_ = bs;
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              indexInFile_ = input.readInt32();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              startLine_ = input.readInt32();
+              break;
+            }
+            case 40: {
+              bitField0_ |= 0x00000010;
+              endLine_ = input.readInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.sonar.batch.protocol.input.BatchInput.internal_static_DuplicationBlock_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.sonar.batch.protocol.input.BatchInput.internal_static_DuplicationBlock_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.class, org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<DuplicationBlock> PARSER =
+        new com.google.protobuf.AbstractParser<DuplicationBlock>() {
+      public DuplicationBlock parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new DuplicationBlock(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<DuplicationBlock> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int RESOURCE_KEY_FIELD_NUMBER = 1;
+    private java.lang.Object resourceKey_;
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    public boolean hasResourceKey() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    public java.lang.String getResourceKey() {
+      java.lang.Object ref = resourceKey_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          resourceKey_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>optional string resource_key = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getResourceKeyBytes() {
+      java.lang.Object ref = resourceKey_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        resourceKey_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int HASH_FIELD_NUMBER = 2;
+    private java.lang.Object hash_;
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    public boolean hasHash() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    public java.lang.String getHash() {
+      java.lang.Object ref = hash_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          hash_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>optional string hash = 2;</code>
+     */
+    public com.google.protobuf.ByteString
+        getHashBytes() {
+      java.lang.Object ref = hash_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        hash_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int INDEX_IN_FILE_FIELD_NUMBER = 3;
+    private int indexInFile_;
+    /**
+     * <code>optional int32 index_in_file = 3;</code>
+     */
+    public boolean hasIndexInFile() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional int32 index_in_file = 3;</code>
+     */
+    public int getIndexInFile() {
+      return indexInFile_;
+    }
+
+    public static final int START_LINE_FIELD_NUMBER = 4;
+    private int startLine_;
+    /**
+     * <code>optional int32 start_line = 4;</code>
+     */
+    public boolean hasStartLine() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional int32 start_line = 4;</code>
+     */
+    public int getStartLine() {
+      return startLine_;
+    }
+
+    public static final int END_LINE_FIELD_NUMBER = 5;
+    private int endLine_;
+    /**
+     * <code>optional int32 end_line = 5;</code>
+     */
+    public boolean hasEndLine() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional int32 end_line = 5;</code>
+     */
+    public int getEndLine() {
+      return endLine_;
+    }
+
+    private void initFields() {
+      resourceKey_ = "";
+      hash_ = "";
+      indexInFile_ = 0;
+      startLine_ = 0;
+      endLine_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBytes(1, getResourceKeyBytes());
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, getHashBytes());
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt32(3, indexInFile_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeInt32(4, startLine_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeInt32(5, endLine_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(1, getResourceKeyBytes());
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, getHashBytes());
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, indexInFile_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, startLine_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(5, endLine_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.sonar.batch.protocol.input.BatchInput.DuplicationBlock prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code DuplicationBlock}
+     *
+     * <pre>
+     * Block of the index of cross-project duplications whose hash is also computed
+     * on the analyzed project
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:DuplicationBlock)
+        org.sonar.batch.protocol.input.BatchInput.DuplicationBlockOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return org.sonar.batch.protocol.input.BatchInput.internal_static_DuplicationBlock_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.sonar.batch.protocol.input.BatchInput.internal_static_DuplicationBlock_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.class, org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.Builder.class);
+      }
+
+      // Construct using org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        resourceKey_ = "";
+        bitField0_ = (bitField0_ & ~0x00000001);
+        hash_ = "";
+        bitField0_ = (bitField0_ & ~0x00000002);
+        indexInFile_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        startLine_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        endLine_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000010);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.sonar.batch.protocol.input.BatchInput.internal_static_DuplicationBlock_descriptor;
+      }
+
+      public org.sonar.batch.protocol.input.BatchInput.DuplicationBlock getDefaultInstanceForType() {
+        return org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.getDefaultInstance();
+      }
+
+      public org.sonar.batch.protocol.input.BatchInput.DuplicationBlock build() {
+        org.sonar.batch.protocol.input.BatchInput.DuplicationBlock result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public org.sonar.batch.protocol.input.BatchInput.DuplicationBlock buildPartial() {
+        org.sonar.batch.protocol.input.BatchInput.DuplicationBlock result = new org.sonar.batch.protocol.input.BatchInput.DuplicationBlock(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.resourceKey_ = resourceKey_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.hash_ = hash_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.indexInFile_ = indexInFile_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.startLine_ = startLine_;
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        result.endLine_ = endLine_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.sonar.batch.protocol.input.BatchInput.DuplicationBlock) {
+          return mergeFrom((org.sonar.batch.protocol.input.BatchInput.DuplicationBlock)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.sonar.batch.protocol.input.BatchInput.DuplicationBlock other) {
+        if (other == org.sonar.batch.protocol.input.BatchInput.DuplicationBlock.getDefaultInstance()) return this;
+        if (other.hasResourceKey()) {
+          bitField0_ |= 0x00000001;
+          resourceKey_ = other.resourceKey_;
+          onChanged();
+        }
+        if (other.hasHash()) {
+          bitField0_ |= 0x00000002;
+          hash_ = other.hash_;
+          onChanged();
+        }
+        if (other.hasIndexInFile()) {
+          setIndexInFile(other.getIndexInFile());
+        }
+        if (other.hasStartLine()) {
+          setStartLine(other.getStartLine());
+        }
+        if (other.hasEndLine()) {
+          setEndLine(other.getEndLine());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.sonar.batch.protocol.input.BatchInput.DuplicationBlock parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (org.sonar.batch.protocol.input.BatchInput.DuplicationBlock) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.lang.Object resourceKey_ = "";
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public boolean hasResourceKey() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public java.lang.String getResourceKey() {
+        java.lang.Object ref = resourceKey_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            resourceKey_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getResourceKeyBytes() {
+        java.lang.Object ref = resourceKey_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          resourceKey_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public Builder setResourceKey(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        resourceKey_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public Builder clearResourceKey() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        resourceKey_ = getDefaultInstance().getResourceKey();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string resource_key = 1;</code>
+       */
+      public Builder setResourceKeyBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        resourceKey_ = value;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object hash_ = "";
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public boolean hasHash() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public java.lang.String getHash() {
+        java.lang.Object ref = hash_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            hash_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public com.google.protobuf.ByteString
+          getHashBytes() {
+        java.lang.Object ref = hash_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          hash_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public Builder setHash(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        hash_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public Builder clearHash() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        hash_ = getDefaultInstance().getHash();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string hash = 2;</code>
+       */
+      public Builder setHashBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        hash_ = value;
+        onChanged();
+        return this;
+      }
+
+      private int indexInFile_ ;
+      /**
+       * <code>optional int32 index_in_file = 3;</code>
+       */
+      public boolean hasIndexInFile() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int32 index_in_file = 3;</code>
+       */
+      public int getIndexInFile() {
+        return indexInFile_;
+      }
+      /**
+       * <code>optional int32 index_in_file = 3;</code>
+       */
+      public Builder setIndexInFile(int value) {
+        bitField0_ |= 0x00000004;
+        indexInFile_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 index_in_file = 3;</code>
+       */
+      public Builder clearIndexInFile() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        indexInFile_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int startLine_ ;
+      /**
+       * <code>optional int32 start_line = 4;</code>
+       */
+      public boolean hasStartLine() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional int32 start_line = 4;</code>
+       */
+      public int getStartLine() {
+        return startLine_;
+      }
+      /**
+       * <code>optional int32 start_line = 4;</code>
+       */
+      public Builder setStartLine(int value) {
+        bitField0_ |= 0x00000008;
+        startLine_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 start_line = 4;</code>
+       */
+      public Builder clearStartLine() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        startLine_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int endLine_ ;
+      /**
+       * <code>optional int32 end_line = 5;</code>
+       */
+      public boolean hasEndLine() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional int32 end_line = 5;</code>
+       */
+      public int getEndLine() {
+        return endLine_;
+      }
+      /**
+       * <code>optional int32 end_line = 5;</code>
+       */
+      public Builder setEndLine(int value) {
+        bitField0_ |= 0x00000010;
+        endLine_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 end_line = 5;</code>
+       */
+      public Builder clearEndLine() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        endLine_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:DuplicationBlock)
+    }
+
+    static {
+      defaultInstance = new DuplicationBlock(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:DuplicationBlock)
+  }
+
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_ServerIssue_descriptor;
   private static
@@ -2861,6 +3738,11 @@ public final class BatchInput {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_User_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_DuplicationBlock_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_DuplicationBlock_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -2879,7 +3761,10 @@ public final class BatchInput {
       "\001(\t\022\016\n\006status\030\013 \001(\t\022\020\n\010checksum\030\014 \001(\t\022\026\n" +
       "\016assignee_login\030\r \001(\t\022\025\n\rcreation_date\030\016" +
       " \001(\003\"#\n\004User\022\r\n\005login\030\001 \001(\t\022\014\n\004name\030\002 \001(" +
-      "\tB\"\n\036org.sonar.batch.protocol.inputH\001"
+      "\t\"s\n\020DuplicationBlock\022\024\n\014resource_key\030\001 ",
+      "\001(\t\022\014\n\004hash\030\002 \001(\t\022\025\n\rindex_in_file\030\003 \001(\005" +
+      "\022\022\n\nstart_line\030\004 \001(\005\022\020\n\010end_line\030\005 \001(\005B\"" +
+      "\n\036org.sonar.batch.protocol.inputH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -2906,6 +3791,12 @@ public final class BatchInput {
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_User_descriptor,
         new java.lang.String[] { "Login", "Name", });
+    internal_static_DuplicationBlock_descriptor =
+      getDescriptor().getMessageTypes().get(2);
+    internal_static_DuplicationBlock_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_DuplicationBlock_descriptor,
+        new java.lang.String[] { "ResourceKey", "Hash", "IndexInFile", "StartLine", "EndLine", });
     org.sonar.batch.protocol.Constants.getDescriptor();
   }
 
@@ -1900,6 +1900,25 @@ public final class BatchReport {
      */
     com.google.protobuf.ByteString
         getDescriptionBytes();
+
+    /**
+     * <code>optional bool is_carried_over = 13;</code>
+     *
+     * <pre>
+     * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+     * on it and the previous sources, measures, issues and duplications of the file are kept
+     * </pre>
+     */
+    boolean hasIsCarriedOver();
+    /**
+     * <code>optional bool is_carried_over = 13;</code>
+     *
+     * <pre>
+     * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+     * on it and the previous sources, measures, issues and duplications of the file are kept
+     * </pre>
+     */
+    boolean getIsCarriedOver();
   }
   /**
    * Protobuf type {@code Component}
@@ -2044,6 +2063,11 @@ public final class BatchReport {
               description_ = bs;
               break;
             }
+            case 104: {
+              bitField0_ |= 0x00000400;
+              isCarriedOver_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -2507,6 +2531,31 @@ public final class BatchReport {
       }
     }
 
+    public static final int IS_CARRIED_OVER_FIELD_NUMBER = 13;
+    private boolean isCarriedOver_;
+    /**
+     * <code>optional bool is_carried_over = 13;</code>
+     *
+     * <pre>
+     * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+     * on it and the previous sources, measures, issues and duplications of the file are kept
+     * </pre>
+     */
+    public boolean hasIsCarriedOver() {
+      return ((bitField0_ & 0x00000400) == 0x00000400);
+    }
+    /**
+     * <code>optional bool is_carried_over = 13;</code>
+     *
+     * <pre>
+     * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+     * on it and the previous sources, measures, issues and duplications of the file are kept
+     * </pre>
+     */
+    public boolean getIsCarriedOver() {
+      return isCarriedOver_;
+    }
+
     private void initFields() {
       ref_ = 0;
       path_ = "";
@@ -2520,6 +2569,7 @@ public final class BatchReport {
       key_ = "";
       lines_ = 0;
       description_ = "";
+      isCarriedOver_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -2574,6 +2624,9 @@ public final class BatchReport {
       if (((bitField0_ & 0x00000200) == 0x00000200)) {
         output.writeBytes(12, getDescriptionBytes());
       }
+      if (((bitField0_ & 0x00000400) == 0x00000400)) {
+        output.writeBool(13, isCarriedOver_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -2641,6 +2694,10 @@ public final class BatchReport {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(12, getDescriptionBytes());
       }
+      if (((bitField0_ & 0x00000400) == 0x00000400)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(13, isCarriedOver_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -2787,6 +2844,8 @@ public final class BatchReport {
         bitField0_ = (bitField0_ & ~0x00000400);
         description_ = "";
         bitField0_ = (bitField0_ & ~0x00000800);
+        isCarriedOver_ = false;
+        bitField0_ = (bitField0_ & ~0x00001000);
         return this;
       }
 
@@ -2869,6 +2928,10 @@ public final class BatchReport {
           to_bitField0_ |= 0x00000200;
         }
         result.description_ = description_;
+        if (((from_bitField0_ & 0x00001000) == 0x00001000)) {
+          to_bitField0_ |= 0x00000400;
+        }
+        result.isCarriedOver_ = isCarriedOver_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -2963,6 +3026,9 @@ public final class BatchReport {
           description_ = other.description_;
           onChanged();
         }
+        if (other.hasIsCarriedOver()) {
+          setIsCarriedOver(other.getIsCarriedOver());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -3977,6 +4043,58 @@ public final class BatchReport {
         return this;
       }
 
+      private boolean isCarriedOver_ ;
+      /**
+       * <code>optional bool is_carried_over = 13;</code>
+       *
+       * <pre>
+       * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+       * on it and the previous sources, measures, issues and duplications of the file are kept
+       * </pre>
+       */
+      public boolean hasIsCarriedOver() {
+        return ((bitField0_ & 0x00001000) == 0x00001000);
+      }
+      /**
+       * <code>optional bool is_carried_over = 13;</code>
+       *
+       * <pre>
+       * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+       * on it and the previous sources, measures, issues and duplications of the file are kept
+       * </pre>
+       */
+      public boolean getIsCarriedOver() {
+        return isCarriedOver_;
+      }
+      /**
+       * <code>optional bool is_carried_over = 13;</code>
+       *
+       * <pre>
+       * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+       * on it and the previous sources, measures, issues and duplications of the file are kept
+       * </pre>
+       */
+      public Builder setIsCarriedOver(boolean value) {
+        bitField0_ |= 0x00001000;
+        isCarriedOver_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool is_carried_over = 13;</code>
+       *
+       * <pre>
+       * Only available on FILE type. The file is unchanged since the previous analysis, so the report has no data
+       * on it and the previous sources, measures, issues and duplications of the file are kept
+       * </pre>
+       */
+      public Builder clearIsCarriedOver() {
+        bitField0_ = (bitField0_ & ~0x00001000);
+        isCarriedOver_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:Component)
     }
 
@@ -12821,102 +12939,76 @@ public final class BatchReport {
     // @@protoc_insertion_point(class_scope:Duplications)
   }
 
-  public interface RangeOrBuilder extends
-      // @@protoc_insertion_point(interface_extends:Range)
+  public interface CpdTextBlockOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:CpdTextBlock)
       com.google.protobuf.MessageOrBuilder {
 
     /**
-     * <code>optional int32 start_line = 1;</code>
-     *
-     * <pre>
-     * Should never be null
-     * </pre>
+     * <code>optional string hash = 1;</code>
      */
-    boolean hasStartLine();
+    boolean hasHash();
     /**
-     * <code>optional int32 start_line = 1;</code>
-     *
-     * <pre>
-     * Should never be null
-     * </pre>
+     * <code>optional string hash = 1;</code>
      */
-    int getStartLine();
+    java.lang.String getHash();
+    /**
+     * <code>optional string hash = 1;</code>
+     */
+    com.google.protobuf.ByteString
+        getHashBytes();
 
     /**
-     * <code>optional int32 end_line = 2;</code>
-     *
-     * <pre>
-     * End line (inclusive). Null means it is same as start line
-     * </pre>
+     * <code>optional int32 start_line = 2;</code>
      */
-    boolean hasEndLine();
+    boolean hasStartLine();
     /**
-     * <code>optional int32 end_line = 2;</code>
-     *
-     * <pre>
-     * End line (inclusive). Null means it is same as start line
-     * </pre>
+     * <code>optional int32 start_line = 2;</code>
      */
-    int getEndLine();
+    int getStartLine();
 
     /**
-     * <code>optional int32 start_offset = 3;</code>
-     *
-     * <pre>
-     * If null it means range starts at the first offset of start line
-     * </pre>
+     * <code>optional int32 end_line = 3;</code>
      */
-    boolean hasStartOffset();
+    boolean hasEndLine();
     /**
-     * <code>optional int32 start_offset = 3;</code>
-     *
-     * <pre>
-     * If null it means range starts at the first offset of start line
-     * </pre>
+     * <code>optional int32 end_line = 3;</code>
      */
-    int getStartOffset();
+    int getEndLine();
 
     /**
-     * <code>optional int32 end_offset = 4;</code>
-     *
-     * <pre>
-     * If null it means range ends at the last offset of end line
-     * </pre>
+     * <code>optional int32 index_in_file = 4;</code>
      */
-    boolean hasEndOffset();
+    boolean hasIndexInFile();
     /**
-     * <code>optional int32 end_offset = 4;</code>
-     *
-     * <pre>
-     * If null it means range ends at the last offset of end line
-     * </pre>
+     * <code>optional int32 index_in_file = 4;</code>
      */
-    int getEndOffset();
+    int getIndexInFile();
   }
   /**
-   * Protobuf type {@code Range}
+   * Protobuf type {@code CpdTextBlock}
    *
    * <pre>
-   * Lines start at 1 and line offsets start at 0
+   * Blocks of statements hashed by the detection of duplications, used to feed
+   * the index of cross-project duplications on server side
    * </pre>
    */
-  public static final class Range extends
+  public static final class CpdTextBlock extends
       com.google.protobuf.GeneratedMessage implements
-      // @@protoc_insertion_point(message_implements:Range)
-      RangeOrBuilder {
-    // Use Range.newBuilder() to construct.
-    private Range(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      // @@protoc_insertion_point(message_implements:CpdTextBlock)
+      CpdTextBlockOrBuilder {
+    // Use CpdTextBlock.newBuilder() to construct.
+    private CpdTextBlock(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private Range(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private CpdTextBlock(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final Range defaultInstance;
-    public static Range getDefaultInstance() {
+    private static final CpdTextBlock defaultInstance;
+    public static CpdTextBlock getDefaultInstance() {
       return defaultInstance;
     }
 
-    public Range getDefaultInstanceForType() {
+    public CpdTextBlock getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -12926,7 +13018,7 @@ public final class BatchReport {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private Range(
+    private CpdTextBlock(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -12949,24 +13041,25 @@ public final class BatchReport {
               }
               break;
             }
-            case 8: {
+            case 10: {
+              com.google.protobuf.ByteString bs = input.readBytes();
               bitField0_ |= 0x00000001;
-              startLine_ = input.readInt32();
+              hash_ = bs;
               break;
             }
             case 16: {
               bitField0_ |= 0x00000002;
-              endLine_ = input.readInt32();
+              startLine_ = input.readInt32();
               break;
             }
             case 24: {
               bitField0_ |= 0x00000004;
-              startOffset_ = input.readInt32();
+              endLine_ = input.readInt32();
               break;
             }
             case 32: {
               bitField0_ |= 0x00000008;
-              endOffset_ = input.readInt32();
+              indexInFile_ = input.readInt32();
               break;
             }
           }
@@ -12983,129 +13076,124 @@ public final class BatchReport {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return org.sonar.batch.protocol.output.BatchReport.internal_static_Range_descriptor;
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlock_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return org.sonar.batch.protocol.output.BatchReport.internal_static_Range_fieldAccessorTable
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlock_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              org.sonar.batch.protocol.output.BatchReport.Range.class, org.sonar.batch.protocol.output.BatchReport.Range.Builder.class);
+              org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.class, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder.class);
     }
 
-    public static com.google.protobuf.Parser<Range> PARSER =
-        new com.google.protobuf.AbstractParser<Range>() {
-      public Range parsePartialFrom(
+    public static com.google.protobuf.Parser<CpdTextBlock> PARSER =
+        new com.google.protobuf.AbstractParser<CpdTextBlock>() {
+      public CpdTextBlock parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new Range(input, extensionRegistry);
+        return new CpdTextBlock(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<Range> getParserForType() {
+    public com.google.protobuf.Parser<CpdTextBlock> getParserForType() {
       return PARSER;
     }
 
     private int bitField0_;
-    public static final int START_LINE_FIELD_NUMBER = 1;
-    private int startLine_;
+    public static final int HASH_FIELD_NUMBER = 1;
+    private java.lang.Object hash_;
     /**
-     * <code>optional int32 start_line = 1;</code>
-     *
-     * <pre>
-     * Should never be null
-     * </pre>
+     * <code>optional string hash = 1;</code>
      */
-    public boolean hasStartLine() {
+    public boolean hasHash() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
     /**
-     * <code>optional int32 start_line = 1;</code>
-     *
-     * <pre>
-     * Should never be null
-     * </pre>
+     * <code>optional string hash = 1;</code>
      */
-    public int getStartLine() {
-      return startLine_;
+    public java.lang.String getHash() {
+      java.lang.Object ref = hash_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          hash_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>optional string hash = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getHashBytes() {
+      java.lang.Object ref = hash_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        hash_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
     }
 
-    public static final int END_LINE_FIELD_NUMBER = 2;
-    private int endLine_;
+    public static final int START_LINE_FIELD_NUMBER = 2;
+    private int startLine_;
     /**
-     * <code>optional int32 end_line = 2;</code>
-     *
-     * <pre>
-     * End line (inclusive). Null means it is same as start line
-     * </pre>
+     * <code>optional int32 start_line = 2;</code>
      */
-    public boolean hasEndLine() {
+    public boolean hasStartLine() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
     /**
-     * <code>optional int32 end_line = 2;</code>
-     *
-     * <pre>
-     * End line (inclusive). Null means it is same as start line
-     * </pre>
+     * <code>optional int32 start_line = 2;</code>
      */
-    public int getEndLine() {
-      return endLine_;
+    public int getStartLine() {
+      return startLine_;
     }
 
-    public static final int START_OFFSET_FIELD_NUMBER = 3;
-    private int startOffset_;
+    public static final int END_LINE_FIELD_NUMBER = 3;
+    private int endLine_;
     /**
-     * <code>optional int32 start_offset = 3;</code>
-     *
-     * <pre>
-     * If null it means range starts at the first offset of start line
-     * </pre>
+     * <code>optional int32 end_line = 3;</code>
      */
-    public boolean hasStartOffset() {
+    public boolean hasEndLine() {
       return ((bitField0_ & 0x00000004) == 0x00000004);
     }
     /**
-     * <code>optional int32 start_offset = 3;</code>
-     *
-     * <pre>
-     * If null it means range starts at the first offset of start line
-     * </pre>
+     * <code>optional int32 end_line = 3;</code>
      */
-    public int getStartOffset() {
-      return startOffset_;
+    public int getEndLine() {
+      return endLine_;
     }
 
-    public static final int END_OFFSET_FIELD_NUMBER = 4;
-    private int endOffset_;
+    public static final int INDEX_IN_FILE_FIELD_NUMBER = 4;
+    private int indexInFile_;
     /**
-     * <code>optional int32 end_offset = 4;</code>
-     *
-     * <pre>
-     * If null it means range ends at the last offset of end line
-     * </pre>
+     * <code>optional int32 index_in_file = 4;</code>
      */
-    public boolean hasEndOffset() {
+    public boolean hasIndexInFile() {
       return ((bitField0_ & 0x00000008) == 0x00000008);
     }
     /**
-     * <code>optional int32 end_offset = 4;</code>
-     *
-     * <pre>
-     * If null it means range ends at the last offset of end line
-     * </pre>
+     * <code>optional int32 index_in_file = 4;</code>
      */
-    public int getEndOffset() {
-      return endOffset_;
+    public int getIndexInFile() {
+      return indexInFile_;
     }
 
     private void initFields() {
+      hash_ = "";
       startLine_ = 0;
       endLine_ = 0;
-      startOffset_ = 0;
-      endOffset_ = 0;
+      indexInFile_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -13121,16 +13209,16 @@ public final class BatchReport {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeInt32(1, startLine_);
+        output.writeBytes(1, getHashBytes());
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        output.writeInt32(2, endLine_);
+        output.writeInt32(2, startLine_);
       }
       if (((bitField0_ & 0x00000004) == 0x00000004)) {
-        output.writeInt32(3, startOffset_);
+        output.writeInt32(3, endLine_);
       }
       if (((bitField0_ & 0x00000008) == 0x00000008)) {
-        output.writeInt32(4, endOffset_);
+        output.writeInt32(4, indexInFile_);
       }
       getUnknownFields().writeTo(output);
     }
@@ -13143,19 +13231,1526 @@ public final class BatchReport {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(1, startLine_);
+          .computeBytesSize(1, getHashBytes());
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(2, endLine_);
+          .computeInt32Size(2, startLine_);
       }
       if (((bitField0_ & 0x00000004) == 0x00000004)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(3, startOffset_);
+          .computeInt32Size(3, endLine_);
       }
       if (((bitField0_ & 0x00000008) == 0x00000008)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt32Size(4, endOffset_);
+          .computeInt32Size(4, indexInFile_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.sonar.batch.protocol.output.BatchReport.CpdTextBlock prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code CpdTextBlock}
+     *
+     * <pre>
+     * Blocks of statements hashed by the detection of duplications, used to feed
+     * the index of cross-project duplications on server side
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:CpdTextBlock)
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlock_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlock_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.class, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder.class);
+      }
+
+      // Construct using org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        hash_ = "";
+        bitField0_ = (bitField0_ & ~0x00000001);
+        startLine_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        endLine_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        indexInFile_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlock_descriptor;
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock getDefaultInstanceForType() {
+        return org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.getDefaultInstance();
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock build() {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlock result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock buildPartial() {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlock result = new org.sonar.batch.protocol.output.BatchReport.CpdTextBlock(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.hash_ = hash_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.startLine_ = startLine_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.endLine_ = endLine_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.indexInFile_ = indexInFile_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.sonar.batch.protocol.output.BatchReport.CpdTextBlock) {
+          return mergeFrom((org.sonar.batch.protocol.output.BatchReport.CpdTextBlock)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.sonar.batch.protocol.output.BatchReport.CpdTextBlock other) {
+        if (other == org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.getDefaultInstance()) return this;
+        if (other.hasHash()) {
+          bitField0_ |= 0x00000001;
+          hash_ = other.hash_;
+          onChanged();
+        }
+        if (other.hasStartLine()) {
+          setStartLine(other.getStartLine());
+        }
+        if (other.hasEndLine()) {
+          setEndLine(other.getEndLine());
+        }
+        if (other.hasIndexInFile()) {
+          setIndexInFile(other.getIndexInFile());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlock parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (org.sonar.batch.protocol.output.BatchReport.CpdTextBlock) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.lang.Object hash_ = "";
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public boolean hasHash() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public java.lang.String getHash() {
+        java.lang.Object ref = hash_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            hash_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getHashBytes() {
+        java.lang.Object ref = hash_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          hash_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public Builder setHash(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        hash_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public Builder clearHash() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        hash_ = getDefaultInstance().getHash();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string hash = 1;</code>
+       */
+      public Builder setHashBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        hash_ = value;
+        onChanged();
+        return this;
+      }
+
+      private int startLine_ ;
+      /**
+       * <code>optional int32 start_line = 2;</code>
+       */
+      public boolean hasStartLine() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional int32 start_line = 2;</code>
+       */
+      public int getStartLine() {
+        return startLine_;
+      }
+      /**
+       * <code>optional int32 start_line = 2;</code>
+       */
+      public Builder setStartLine(int value) {
+        bitField0_ |= 0x00000002;
+        startLine_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 start_line = 2;</code>
+       */
+      public Builder clearStartLine() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        startLine_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int endLine_ ;
+      /**
+       * <code>optional int32 end_line = 3;</code>
+       */
+      public boolean hasEndLine() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int32 end_line = 3;</code>
+       */
+      public int getEndLine() {
+        return endLine_;
+      }
+      /**
+       * <code>optional int32 end_line = 3;</code>
+       */
+      public Builder setEndLine(int value) {
+        bitField0_ |= 0x00000004;
+        endLine_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 end_line = 3;</code>
+       */
+      public Builder clearEndLine() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        endLine_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int indexInFile_ ;
+      /**
+       * <code>optional int32 index_in_file = 4;</code>
+       */
+      public boolean hasIndexInFile() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional int32 index_in_file = 4;</code>
+       */
+      public int getIndexInFile() {
+        return indexInFile_;
+      }
+      /**
+       * <code>optional int32 index_in_file = 4;</code>
+       */
+      public Builder setIndexInFile(int value) {
+        bitField0_ |= 0x00000008;
+        indexInFile_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 index_in_file = 4;</code>
+       */
+      public Builder clearIndexInFile() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        indexInFile_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:CpdTextBlock)
+    }
+
+    static {
+      defaultInstance = new CpdTextBlock(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:CpdTextBlock)
+  }
+
+  public interface CpdTextBlocksOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:CpdTextBlocks)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional int32 component_ref = 1;</code>
+     */
+    boolean hasComponentRef();
+    /**
+     * <code>optional int32 component_ref = 1;</code>
+     */
+    int getComponentRef();
+
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> 
+        getBlockList();
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    org.sonar.batch.protocol.output.BatchReport.CpdTextBlock getBlock(int index);
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    int getBlockCount();
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    java.util.List<? extends org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder> 
+        getBlockOrBuilderList();
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder getBlockOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code CpdTextBlocks}
+   */
+  public static final class CpdTextBlocks extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:CpdTextBlocks)
+      CpdTextBlocksOrBuilder {
+    // Use CpdTextBlocks.newBuilder() to construct.
+    private CpdTextBlocks(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private CpdTextBlocks(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final CpdTextBlocks defaultInstance;
+    public static CpdTextBlocks getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public CpdTextBlocks getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private CpdTextBlocks(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              componentRef_ = input.readInt32();
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                block_ = new java.util.ArrayList<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              block_.add(input.readMessage(org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.PARSER, extensionRegistry));
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+          block_ = java.util.Collections.unmodifiableList(block_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlocks_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlocks_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.class, org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<CpdTextBlocks> PARSER =
+        new com.google.protobuf.AbstractParser<CpdTextBlocks>() {
+      public CpdTextBlocks parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new CpdTextBlocks(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<CpdTextBlocks> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int COMPONENT_REF_FIELD_NUMBER = 1;
+    private int componentRef_;
+    /**
+     * <code>optional int32 component_ref = 1;</code>
+     */
+    public boolean hasComponentRef() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int32 component_ref = 1;</code>
+     */
+    public int getComponentRef() {
+      return componentRef_;
+    }
+
+    public static final int BLOCK_FIELD_NUMBER = 2;
+    private java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> block_;
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    public java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> getBlockList() {
+      return block_;
+    }
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    public java.util.List<? extends org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder> 
+        getBlockOrBuilderList() {
+      return block_;
+    }
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    public int getBlockCount() {
+      return block_.size();
+    }
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock getBlock(int index) {
+      return block_.get(index);
+    }
+    /**
+     * <code>repeated .CpdTextBlock block = 2;</code>
+     */
+    public org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder getBlockOrBuilder(
+        int index) {
+      return block_.get(index);
+    }
+
+    private void initFields() {
+      componentRef_ = 0;
+      block_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt32(1, componentRef_);
+      }
+      for (int i = 0; i < block_.size(); i++) {
+        output.writeMessage(2, block_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(1, componentRef_);
+      }
+      for (int i = 0; i < block_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, block_.get(i));
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code CpdTextBlocks}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:CpdTextBlocks)
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlocksOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlocks_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlocks_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.class, org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.Builder.class);
+      }
+
+      // Construct using org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getBlockFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        componentRef_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (blockBuilder_ == null) {
+          block_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          blockBuilder_.clear();
+        }
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.sonar.batch.protocol.output.BatchReport.internal_static_CpdTextBlocks_descriptor;
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks getDefaultInstanceForType() {
+        return org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.getDefaultInstance();
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks build() {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks buildPartial() {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks result = new org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.componentRef_ = componentRef_;
+        if (blockBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002)) {
+            block_ = java.util.Collections.unmodifiableList(block_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.block_ = block_;
+        } else {
+          result.block_ = blockBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks) {
+          return mergeFrom((org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks other) {
+        if (other == org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks.getDefaultInstance()) return this;
+        if (other.hasComponentRef()) {
+          setComponentRef(other.getComponentRef());
+        }
+        if (blockBuilder_ == null) {
+          if (!other.block_.isEmpty()) {
+            if (block_.isEmpty()) {
+              block_ = other.block_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensureBlockIsMutable();
+              block_.addAll(other.block_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.block_.isEmpty()) {
+            if (blockBuilder_.isEmpty()) {
+              blockBuilder_.dispose();
+              blockBuilder_ = null;
+              block_ = other.block_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              blockBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getBlockFieldBuilder() : null;
+            } else {
+              blockBuilder_.addAllMessages(other.block_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (org.sonar.batch.protocol.output.BatchReport.CpdTextBlocks) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private int componentRef_ ;
+      /**
+       * <code>optional int32 component_ref = 1;</code>
+       */
+      public boolean hasComponentRef() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional int32 component_ref = 1;</code>
+       */
+      public int getComponentRef() {
+        return componentRef_;
+      }
+      /**
+       * <code>optional int32 component_ref = 1;</code>
+       */
+      public Builder setComponentRef(int value) {
+        bitField0_ |= 0x00000001;
+        componentRef_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 component_ref = 1;</code>
+       */
+      public Builder clearComponentRef() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        componentRef_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> block_ =
+        java.util.Collections.emptyList();
+      private void ensureBlockIsMutable() {
+        if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+          block_ = new java.util.ArrayList<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock>(block_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          org.sonar.batch.protocol.output.BatchReport.CpdTextBlock, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder, org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder> blockBuilder_;
+
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> getBlockList() {
+        if (blockBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(block_);
+        } else {
+          return blockBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public int getBlockCount() {
+        if (blockBuilder_ == null) {
+          return block_.size();
+        } else {
+          return blockBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock getBlock(int index) {
+        if (blockBuilder_ == null) {
+          return block_.get(index);
+        } else {
+          return blockBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder setBlock(
+          int index, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock value) {
+        if (blockBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlockIsMutable();
+          block_.set(index, value);
+          onChanged();
+        } else {
+          blockBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder setBlock(
+          int index, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder builderForValue) {
+        if (blockBuilder_ == null) {
+          ensureBlockIsMutable();
+          block_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          blockBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder addBlock(org.sonar.batch.protocol.output.BatchReport.CpdTextBlock value) {
+        if (blockBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlockIsMutable();
+          block_.add(value);
+          onChanged();
+        } else {
+          blockBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder addBlock(
+          int index, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock value) {
+        if (blockBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureBlockIsMutable();
+          block_.add(index, value);
+          onChanged();
+        } else {
+          blockBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder addBlock(
+          org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder builderForValue) {
+        if (blockBuilder_ == null) {
+          ensureBlockIsMutable();
+          block_.add(builderForValue.build());
+          onChanged();
+        } else {
+          blockBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder addBlock(
+          int index, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder builderForValue) {
+        if (blockBuilder_ == null) {
+          ensureBlockIsMutable();
+          block_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          blockBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder addAllBlock(
+          java.lang.Iterable<? extends org.sonar.batch.protocol.output.BatchReport.CpdTextBlock> values) {
+        if (blockBuilder_ == null) {
+          ensureBlockIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, block_);
+          onChanged();
+        } else {
+          blockBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder clearBlock() {
+        if (blockBuilder_ == null) {
+          block_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          blockBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public Builder removeBlock(int index) {
+        if (blockBuilder_ == null) {
+          ensureBlockIsMutable();
+          block_.remove(index);
+          onChanged();
+        } else {
+          blockBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder getBlockBuilder(
+          int index) {
+        return getBlockFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder getBlockOrBuilder(
+          int index) {
+        if (blockBuilder_ == null) {
+          return block_.get(index);  } else {
+          return blockBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public java.util.List<? extends org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder> 
+           getBlockOrBuilderList() {
+        if (blockBuilder_ != null) {
+          return blockBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(block_);
+        }
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder addBlockBuilder() {
+        return getBlockFieldBuilder().addBuilder(
+            org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder addBlockBuilder(
+          int index) {
+        return getBlockFieldBuilder().addBuilder(
+            index, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .CpdTextBlock block = 2;</code>
+       */
+      public java.util.List<org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder> 
+           getBlockBuilderList() {
+        return getBlockFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          org.sonar.batch.protocol.output.BatchReport.CpdTextBlock, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder, org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder> 
+          getBlockFieldBuilder() {
+        if (blockBuilder_ == null) {
+          blockBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              org.sonar.batch.protocol.output.BatchReport.CpdTextBlock, org.sonar.batch.protocol.output.BatchReport.CpdTextBlock.Builder, org.sonar.batch.protocol.output.BatchReport.CpdTextBlockOrBuilder>(
+                  block_,
+                  ((bitField0_ & 0x00000002) == 0x00000002),
+                  getParentForChildren(),
+                  isClean());
+          block_ = null;
+        }
+        return blockBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:CpdTextBlocks)
+    }
+
+    static {
+      defaultInstance = new CpdTextBlocks(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:CpdTextBlocks)
+  }
+
+  public interface RangeOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:Range)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional int32 start_line = 1;</code>
+     *
+     * <pre>
+     * Should never be null
+     * </pre>
+     */
+    boolean hasStartLine();
+    /**
+     * <code>optional int32 start_line = 1;</code>
+     *
+     * <pre>
+     * Should never be null
+     * </pre>
+     */
+    int getStartLine();
+
+    /**
+     * <code>optional int32 end_line = 2;</code>
+     *
+     * <pre>
+     * End line (inclusive). Null means it is same as start line
+     * </pre>
+     */
+    boolean hasEndLine();
+    /**
+     * <code>optional int32 end_line = 2;</code>
+     *
+     * <pre>
+     * End line (inclusive). Null means it is same as start line
+     * </pre>
+     */
+    int getEndLine();
+
+    /**
+     * <code>optional int32 start_offset = 3;</code>
+     *
+     * <pre>
+     * If null it means range starts at the first offset of start line
+     * </pre>
+     */
+    boolean hasStartOffset();
+    /**
+     * <code>optional int32 start_offset = 3;</code>
+     *
+     * <pre>
+     * If null it means range starts at the first offset of start line
+     * </pre>
+     */
+    int getStartOffset();
+
+    /**
+     * <code>optional int32 end_offset = 4;</code>
+     *
+     * <pre>
+     * If null it means range ends at the last offset of end line
+     * </pre>
+     */
+    boolean hasEndOffset();
+    /**
+     * <code>optional int32 end_offset = 4;</code>
+     *
+     * <pre>
+     * If null it means range ends at the last offset of end line
+     * </pre>
+     */
+    int getEndOffset();
+  }
+  /**
+   * Protobuf type {@code Range}
+   *
+   * <pre>
+   * Lines start at 1 and line offsets start at 0
+   * </pre>
+   */
+  public static final class Range extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:Range)
+      RangeOrBuilder {
+    // Use Range.newBuilder() to construct.
+    private Range(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private Range(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final Range defaultInstance;
+    public static Range getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public Range getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Range(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              startLine_ = input.readInt32();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              endLine_ = input.readInt32();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              startOffset_ = input.readInt32();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              endOffset_ = input.readInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_Range_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.sonar.batch.protocol.output.BatchReport.internal_static_Range_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.sonar.batch.protocol.output.BatchReport.Range.class, org.sonar.batch.protocol.output.BatchReport.Range.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<Range> PARSER =
+        new com.google.protobuf.AbstractParser<Range>() {
+      public Range parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Range(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Range> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int START_LINE_FIELD_NUMBER = 1;
+    private int startLine_;
+    /**
+     * <code>optional int32 start_line = 1;</code>
+     *
+     * <pre>
+     * Should never be null
+     * </pre>
+     */
+    public boolean hasStartLine() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int32 start_line = 1;</code>
+     *
+     * <pre>
+     * Should never be null
+     * </pre>
+     */
+    public int getStartLine() {
+      return startLine_;
+    }
+
+    public static final int END_LINE_FIELD_NUMBER = 2;
+    private int endLine_;
+    /**
+     * <code>optional int32 end_line = 2;</code>
+     *
+     * <pre>
+     * End line (inclusive). Null means it is same as start line
+     * </pre>
+     */
+    public boolean hasEndLine() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional int32 end_line = 2;</code>
+     *
+     * <pre>
+     * End line (inclusive). Null means it is same as start line
+     * </pre>
+     */
+    public int getEndLine() {
+      return endLine_;
+    }
+
+    public static final int START_OFFSET_FIELD_NUMBER = 3;
+    private int startOffset_;
+    /**
+     * <code>optional int32 start_offset = 3;</code>
+     *
+     * <pre>
+     * If null it means range starts at the first offset of start line
+     * </pre>
+     */
+    public boolean hasStartOffset() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional int32 start_offset = 3;</code>
+     *
+     * <pre>
+     * If null it means range starts at the first offset of start line
+     * </pre>
+     */
+    public int getStartOffset() {
+      return startOffset_;
+    }
+
+    public static final int END_OFFSET_FIELD_NUMBER = 4;
+    private int endOffset_;
+    /**
+     * <code>optional int32 end_offset = 4;</code>
+     *
+     * <pre>
+     * If null it means range ends at the last offset of end line
+     * </pre>
+     */
+    public boolean hasEndOffset() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional int32 end_offset = 4;</code>
+     *
+     * <pre>
+     * If null it means range ends at the last offset of end line
+     * </pre>
+     */
+    public int getEndOffset() {
+      return endOffset_;
+    }
+
+    private void initFields() {
+      startLine_ = 0;
+      endLine_ = 0;
+      startOffset_ = 0;
+      endOffset_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt32(1, startLine_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt32(2, endLine_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt32(3, startOffset_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeInt32(4, endOffset_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(1, startLine_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, endLine_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, startOffset_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, endOffset_);
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -19298,6 +20893,16 @@ public final class BatchReport {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_Duplications_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_CpdTextBlock_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_CpdTextBlock_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_CpdTextBlocks_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_CpdTextBlocks_fieldAccessorTable;
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_Range_descriptor;
   private static
@@ -19352,58 +20957,63 @@ public final class BatchReport {
       "ect_key\030\002 \001(\t\022\016\n\006branch\030\003 \001(\t\022\032\n\022root_co" +
       "mponent_ref\030\004 \001(\005\022\027\n\017active_rule_key\030\005 \003" +
       "(\t\"?\n\rComponentLink\022 \n\004type\030\001 \001(\0162\022.Comp" +
-      "onentLinkType\022\014\n\004href\030\002 \001(\t\"\354\001\n\tComponen" +
+      "onentLinkType\022\014\n\004href\030\002 \001(\t\"\205\002\n\tComponen" +
       "t\022\013\n\003ref\030\001 \001(\005\022\014\n\004path\030\002 \001(\t\022\014\n\004name\030\003 \001" +
       "(\t\022\034\n\004type\030\004 \001(\0162\016.ComponentType\022\017\n\007is_t" +
       "est\030\005 \001(\010\022\020\n\010language\030\006 \001(\t\022\025\n\tchild_ref" +
       "\030\007 \003(\005B\002\020\001\022\034\n\004link\030\010 \003(\0132\016.ComponentLink",
       "\022\017\n\007version\030\t \001(\t\022\013\n\003key\030\n \001(\t\022\r\n\005lines\030" +
-      "\013 \001(\005\022\023\n\013description\030\014 \001(\t\"\335\002\n\007Measure\022%" +
-      "\n\nvalue_type\030\001 \001(\0162\021.MeasureValueType\022\025\n" +
-      "\rboolean_value\030\002 \001(\010\022\021\n\tint_value\030\003 \001(\005\022" +
-      "\022\n\nlong_value\030\004 \001(\003\022\024\n\014double_value\030\005 \001(" +
-      "\001\022\024\n\014string_value\030\006 \001(\t\022\022\n\nmetric_key\030\007 " +
-      "\001(\t\022\023\n\013description\030\t \001(\t\022\031\n\021variation_va" +
-      "lue_1\030\016 \001(\001\022\031\n\021variation_value_2\030\017 \001(\001\022\031" +
-      "\n\021variation_value_3\030\020 \001(\001\022\031\n\021variation_v" +
-      "alue_4\030\021 \001(\001\022\031\n\021variation_value_5\030\022 \001(\001\022",
-      "\021\n\tperson_id\030\024 \001(\005\"<\n\010Measures\022\025\n\rcompon" +
-      "ent_ref\030\001 \001(\005\022\031\n\007measure\030\002 \003(\0132\010.Measure" +
-      "\"\242\001\n\005Issue\022\027\n\017rule_repository\030\001 \001(\t\022\020\n\010r" +
-      "ule_key\030\002 \001(\t\022\014\n\004line\030\003 \001(\005\022\013\n\003msg\030\004 \001(\t" +
-      "\022\033\n\010severity\030\005 \001(\0162\t.Severity\022\013\n\003tag\030\006 \003" +
-      "(\t\022\025\n\reffort_to_fix\030\007 \001(\001\022\022\n\nattributes\030" +
-      "\010 \001(\t\"6\n\006Issues\022\025\n\rcomponent_ref\030\001 \001(\005\022\025" +
-      "\n\005issue\030\002 \003(\0132\006.Issue\"\254\001\n\nChangesets\022\025\n\r" +
-      "component_ref\030\001 \001(\005\022(\n\tchangeset\030\002 \003(\0132\025" +
-      ".Changesets.Changeset\022 \n\024changesetIndexB",
-      "yLine\030\003 \003(\005B\002\020\001\032;\n\tChangeset\022\020\n\010revision" +
-      "\030\001 \001(\t\022\016\n\006author\030\002 \001(\t\022\014\n\004date\030\003 \001(\003\"R\n\t" +
-      "Duplicate\022\026\n\016other_file_ref\030\001 \001(\005\022\025\n\005ran" +
-      "ge\030\002 \001(\0132\006.Range\022\026\n\016other_file_key\030\003 \001(\t" +
-      "\"M\n\013Duplication\022\037\n\017origin_position\030\001 \001(\013" +
-      "2\006.Range\022\035\n\tduplicate\030\002 \003(\0132\n.Duplicate\"" +
-      "H\n\014Duplications\022\025\n\rcomponent_ref\030\001 \001(\005\022!" +
-      "\n\013duplication\030\002 \003(\0132\014.Duplication\"W\n\005Ran" +
-      "ge\022\022\n\nstart_line\030\001 \001(\005\022\020\n\010end_line\030\002 \001(\005" +
-      "\022\024\n\014start_offset\030\003 \001(\005\022\022\n\nend_offset\030\004 \001",
-      "(\005\"~\n\007Symbols\022\020\n\010file_ref\030\001 \001(\005\022\037\n\006symbo" +
-      "l\030\002 \003(\0132\017.Symbols.Symbol\032@\n\006Symbol\022\033\n\013de" +
-      "claration\030\001 \001(\0132\006.Range\022\031\n\treference\030\002 \003" +
-      "(\0132\006.Range\"\260\001\n\010Coverage\022\014\n\004line\030\001 \001(\005\022\022\n" +
-      "\nconditions\030\002 \001(\005\022\017\n\007ut_hits\030\003 \001(\010\022\017\n\007it" +
-      "_hits\030\004 \001(\010\022\035\n\025ut_covered_conditions\030\005 \001" +
-      "(\005\022\035\n\025it_covered_conditions\030\006 \001(\005\022\"\n\032ove" +
-      "rall_covered_conditions\030\007 \001(\005\"L\n\022SyntaxH" +
-      "ighlighting\022\025\n\005range\030\001 \001(\0132\006.Range\022\037\n\004ty" +
-      "pe\030\002 \001(\0162\021.HighlightingType\"j\n\004Test\022\014\n\004n",
-      "ame\030\001 \001(\t\022\033\n\006status\030\002 \001(\0162\013.TestStatus\022\026" +
-      "\n\016duration_in_ms\030\003 \001(\003\022\022\n\nstacktrace\030\004 \001" +
-      "(\t\022\013\n\003msg\030\005 \001(\t\"\221\001\n\016CoverageDetail\022\021\n\tte" +
-      "st_name\030\001 \001(\t\0221\n\014covered_file\030\002 \003(\0132\033.Co" +
-      "verageDetail.CoveredFile\0329\n\013CoveredFile\022" +
-      "\020\n\010file_ref\030\001 \001(\005\022\030\n\014covered_line\030\002 \003(\005B" +
-      "\002\020\001B#\n\037org.sonar.batch.protocol.outputH\001"
+      "\013 \001(\005\022\023\n\013description\030\014 \001(\t\022\027\n\017is_carried" +
+      "_over\030\r \001(\010\"\335\002\n\007Measure\022%\n\nvalue_type\030\001 " +
+      "\001(\0162\021.MeasureValueType\022\025\n\rboolean_value\030" +
+      "\002 \001(\010\022\021\n\tint_value\030\003 \001(\005\022\022\n\nlong_value\030\004" +
+      " \001(\003\022\024\n\014double_value\030\005 \001(\001\022\024\n\014string_val" +
+      "ue\030\006 \001(\t\022\022\n\nmetric_key\030\007 \001(\t\022\023\n\013descript" +
+      "ion\030\t \001(\t\022\031\n\021variation_value_1\030\016 \001(\001\022\031\n\021" +
+      "variation_value_2\030\017 \001(\001\022\031\n\021variation_val" +
+      "ue_3\030\020 \001(\001\022\031\n\021variation_value_4\030\021 \001(\001\022\031\n",
+      "\021variation_value_5\030\022 \001(\001\022\021\n\tperson_id\030\024 " +
+      "\001(\005\"<\n\010Measures\022\025\n\rcomponent_ref\030\001 \001(\005\022\031" +
+      "\n\007measure\030\002 \003(\0132\010.Measure\"\242\001\n\005Issue\022\027\n\017r" +
+      "ule_repository\030\001 \001(\t\022\020\n\010rule_key\030\002 \001(\t\022\014" +
+      "\n\004line\030\003 \001(\005\022\013\n\003msg\030\004 \001(\t\022\033\n\010severity\030\005 " +
+      "\001(\0162\t.Severity\022\013\n\003tag\030\006 \003(\t\022\025\n\reffort_to" +
+      "_fix\030\007 \001(\001\022\022\n\nattributes\030\010 \001(\t\"6\n\006Issues" +
+      "\022\025\n\rcomponent_ref\030\001 \001(\005\022\025\n\005issue\030\002 \003(\0132\006" +
+      ".Issue\"\254\001\n\nChangesets\022\025\n\rcomponent_ref\030\001" +
+      " \001(\005\022(\n\tchangeset\030\002 \003(\0132\025.Changesets.Cha",
+      "ngeset\022 \n\024changesetIndexByLine\030\003 \003(\005B\002\020\001" +
+      "\032;\n\tChangeset\022\020\n\010revision\030\001 \001(\t\022\016\n\006autho" +
+      "r\030\002 \001(\t\022\014\n\004date\030\003 \001(\003\"R\n\tDuplicate\022\026\n\016ot" +
+      "her_file_ref\030\001 \001(\005\022\025\n\005range\030\002 \001(\0132\006.Rang" +
+      "e\022\026\n\016other_file_key\030\003 \001(\t\"M\n\013Duplication" +
+      "\022\037\n\017origin_position\030\001 \001(\0132\006.Range\022\035\n\tdup" +
+      "licate\030\002 \003(\0132\n.Duplicate\"H\n\014Duplications" +
+      "\022\025\n\rcomponent_ref\030\001 \001(\005\022!\n\013duplication\030\002" +
+      " \003(\0132\014.Duplication\"Y\n\014CpdTextBlock\022\014\n\004ha" +
+      "sh\030\001 \001(\t\022\022\n\nstart_line\030\002 \001(\005\022\020\n\010end_line",
+      "\030\003 \001(\005\022\025\n\rindex_in_file\030\004 \001(\005\"D\n\rCpdText" +
+      "Blocks\022\025\n\rcomponent_ref\030\001 \001(\005\022\034\n\005block\030\002" +
+      " \003(\0132\r.CpdTextBlock\"W\n\005Range\022\022\n\nstart_li" +
+      "ne\030\001 \001(\005\022\020\n\010end_line\030\002 \001(\005\022\024\n\014start_offs" +
+      "et\030\003 \001(\005\022\022\n\nend_offset\030\004 \001(\005\"~\n\007Symbols\022" +
+      "\020\n\010file_ref\030\001 \001(\005\022\037\n\006symbol\030\002 \003(\0132\017.Symb" +
+      "ols.Symbol\032@\n\006Symbol\022\033\n\013declaration\030\001 \001(" +
+      "\0132\006.Range\022\031\n\treference\030\002 \003(\0132\006.Range\"\260\001\n" +
+      "\010Coverage\022\014\n\004line\030\001 \001(\005\022\022\n\nconditions\030\002 " +
+      "\001(\005\022\017\n\007ut_hits\030\003 \001(\010\022\017\n\007it_hits\030\004 \001(\010\022\035\n",
+      "\025ut_covered_conditions\030\005 \001(\005\022\035\n\025it_cover" +
+      "ed_conditions\030\006 \001(\005\022\"\n\032overall_covered_c" +
+      "onditions\030\007 \001(\005\"L\n\022SyntaxHighlighting\022\025\n" +
+      "\005range\030\001 \001(\0132\006.Range\022\037\n\004type\030\002 \001(\0162\021.Hig" +
+      "hlightingType\"j\n\004Test\022\014\n\004name\030\001 \001(\t\022\033\n\006s" +
+      "tatus\030\002 \001(\0162\013.TestStatus\022\026\n\016duration_in_" +
+      "ms\030\003 \001(\003\022\022\n\nstacktrace\030\004 \001(\t\022\013\n\003msg\030\005 \001(" +
+      "\t\"\221\001\n\016CoverageDetail\022\021\n\ttest_name\030\001 \001(\t\022" +
+      "1\n\014covered_file\030\002 \003(\0132\033.CoverageDetail.C" +
+      "overedFile\0329\n\013CoveredFile\022\020\n\010file_ref\030\001 ",
+      "\001(\005\022\030\n\014covered_line\030\002 \003(\005B\002\020\001B#\n\037org.son" +
+      "ar.batch.protocol.outputH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -19435,7 +21045,7 @@ public final class BatchReport {
     internal_static_Component_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Component_descriptor,
-        new java.lang.String[] { "Ref", "Path", "Name", "Type", "IsTest", "Language", "ChildRef", "Link", "Version", "Key", "Lines", "Description", });
+        new java.lang.String[] { "Ref", "Path", "Name", "Type", "IsTest", "Language", "ChildRef", "Link", "Version", "Key", "Lines", "Description", "IsCarriedOver", });
     internal_static_Measure_descriptor =
       getDescriptor().getMessageTypes().get(3);
     internal_static_Measure_fieldAccessorTable = new
@@ -19490,14 +21100,26 @@ public final class BatchReport {
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Duplications_descriptor,
         new java.lang.String[] { "ComponentRef", "Duplication", });
-    internal_static_Range_descriptor =
+    internal_static_CpdTextBlock_descriptor =
       getDescriptor().getMessageTypes().get(11);
+    internal_static_CpdTextBlock_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_CpdTextBlock_descriptor,
+        new java.lang.String[] { "Hash", "StartLine", "EndLine", "IndexInFile", });
+    internal_static_CpdTextBlocks_descriptor =
+      getDescriptor().getMessageTypes().get(12);
+    internal_static_CpdTextBlocks_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_CpdTextBlocks_descriptor,
+        new java.lang.String[] { "ComponentRef", "Block", });
+    internal_static_Range_descriptor =
+      getDescriptor().getMessageTypes().get(13);
     internal_static_Range_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Range_descriptor,
         new java.lang.String[] { "StartLine", "EndLine", "StartOffset", "EndOffset", });
     internal_static_Symbols_descriptor =
-      getDescriptor().getMessageTypes().get(12);
+      getDescriptor().getMessageTypes().get(14);
     internal_static_Symbols_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Symbols_descriptor,
@@ -19509,25 +21131,25 @@ public final class BatchReport {
         internal_static_Symbols_Symbol_descriptor,
         new java.lang.String[] { "Declaration", "Reference", });
     internal_static_Coverage_descriptor =
-      getDescriptor().getMessageTypes().get(13);
+      getDescriptor().getMessageTypes().get(15);
     internal_static_Coverage_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Coverage_descriptor,
         new java.lang.String[] { "Line", "Conditions", "UtHits", "ItHits", "UtCoveredConditions", "ItCoveredConditions", "OverallCoveredConditions", });
     internal_static_SyntaxHighlighting_descriptor =
-      getDescriptor().getMessageTypes().get(14);
+      getDescriptor().getMessageTypes().get(16);
     internal_static_SyntaxHighlighting_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_SyntaxHighlighting_descriptor,
         new java.lang.String[] { "Range", "Type", });
     internal_static_Test_descriptor =
-      getDescriptor().getMessageTypes().get(15);
+      getDescriptor().getMessageTypes().get(17);
     internal_static_Test_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Test_descriptor,
         new java.lang.String[] { "Name", "Status", "DurationInMs", "Stacktrace", "Msg", });
     internal_static_CoverageDetail_descriptor =
-      getDescriptor().getMessageTypes().get(16);
+      getDescriptor().getMessageTypes().get(18);
     internal_static_CoverageDetail_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_CoverageDetail_descriptor,
@@ -19,15 +19,24 @@
  */
 package org.sonar.batch.protocol.output;
 
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
 import java.io.File;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.CheckForNull;
 import org.sonar.batch.protocol.ProtobufUtil;
 
+/**
+ * Reads the report written by {@link BatchReportWriter}. The files of packed domains are memory-mapped
+ * when read for the first time, see {@link FileStructure.Domain#isPacked()}. This class is thread-safe.
+ */
 public class BatchReportReader {
 
   private final FileStructure fileStructure;
+  private final Map<FileStructure.Domain, SegmentFile> segments = new EnumMap<>(FileStructure.Domain.class);
 
   public BatchReportReader(File dir) {
     this.fileStructure = new FileStructure(dir);
@@ -42,10 +51,9 @@ public class BatchReportReader {
   }
 
   public List<BatchReport.Measure> readComponentMeasures(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.MEASURES, componentRef);
-    if (doesFileExists(file)) {
-      // all the measures are loaded in memory
-      BatchReport.Measures measures = ProtobufUtil.readFile(file, BatchReport.Measures.PARSER);
+    // only the measures of the component are loaded in memory
+    BatchReport.Measures measures = readFromSegment(FileStructure.Domain.MEASURES, componentRef, BatchReport.Measures.PARSER);
+    if (measures != null) {
       return measures.getMeasureList();
     }
     return Collections.emptyList();
@@ -53,46 +61,47 @@ public class BatchReportReader {
 
   @CheckForNull
   public BatchReport.Changesets readChangesets(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.CHANGESETS, componentRef);
-    if (doesFileExists(file)) {
-      return ProtobufUtil.readFile(file, BatchReport.Changesets.PARSER);
-    }
-    return null;
+    return readFromSegment(FileStructure.Domain.CHANGESETS, componentRef, BatchReport.Changesets.PARSER);
   }
 
   public BatchReport.Component readComponent(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COMPONENT, componentRef);
-    if (!doesFileExists(file)) {
-      throw new IllegalStateException("Unable to find report for component #" + componentRef + ". File does not exist: " + file);
+    BatchReport.Component component = readFromSegment(FileStructure.Domain.COMPONENT, componentRef, BatchReport.Component.PARSER);
+    if (component == null) {
+      throw new IllegalStateException("Unable to find report for component #" + componentRef + " in file: " + fileStructure.segmentFor(FileStructure.Domain.COMPONENT));
     }
-    return ProtobufUtil.readFile(file, BatchReport.Component.PARSER);
+    return component;
   }
 
   public List<BatchReport.Issue> readComponentIssues(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef);
-    if (doesFileExists(file)) {
-      // all the issues are loaded in memory
-      BatchReport.Issues issues = ProtobufUtil.readFile(file, BatchReport.Issues.PARSER);
+    // only the issues of the component are loaded in memory
+    BatchReport.Issues issues = readFromSegment(FileStructure.Domain.ISSUES, componentRef, BatchReport.Issues.PARSER);
+    if (issues != null) {
       return issues.getIssueList();
     }
     return Collections.emptyList();
   }
 
   public List<BatchReport.Duplication> readComponentDuplications(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.DUPLICATIONS, componentRef);
-    if (doesFileExists(file)) {
-      // all the duplications are loaded in memory
-      BatchReport.Duplications duplications = ProtobufUtil.readFile(file, BatchReport.Duplications.PARSER);
+    // only the duplications of the component are loaded in memory
+    BatchReport.Duplications duplications = readFromSegment(FileStructure.Domain.DUPLICATIONS, componentRef, BatchReport.Duplications.PARSER);
+    if (duplications != null) {
       return duplications.getDuplicationList();
     }
     return Collections.emptyList();
   }
 
+  public List<BatchReport.CpdTextBlock> readCpdTextBlocks(int componentRef) {
+    BatchReport.CpdTextBlocks blocks = readFromSegment(FileStructure.Domain.CPD_TEXT_BLOCKS, componentRef, BatchReport.CpdTextBlocks.PARSER);
+    if (blocks != null) {
+      return blocks.getBlockList();
+    }
+    return Collections.emptyList();
+  }
+
   public List<BatchReport.Symbols.Symbol> readComponentSymbols(int componentRef) {
-    File file = fileStructure.fileFor(FileStructure.Domain.SYMBOLS, componentRef);
-    if (doesFileExists(file)) {
-      // all the symbols are loaded in memory
-      BatchReport.Symbols symbols = ProtobufUtil.readFile(file, BatchReport.Symbols.PARSER);
+    // only the symbols of the component are loaded in memory
+    BatchReport.Symbols symbols = readFromSegment(FileStructure.Domain.SYMBOLS, componentRef, BatchReport.Symbols.PARSER);
+    if (symbols != null) {
       return symbols.getSymbolList();
     }
     return Collections.emptyList();
@@ -149,6 +158,26 @@ public class BatchReportReader {
     return null;
   }
 
+  @CheckForNull
+  private <T extends Message> T readFromSegment(FileStructure.Domain domain, int componentRef, Parser<T> parser) {
+    SegmentFile segment = segment(domain);
+    return segment == null ? null : segment.read(componentRef, parser);
+  }
+
+  @CheckForNull
+  private synchronized SegmentFile segment(FileStructure.Domain domain) {
+    SegmentFile segment = segments.get(domain);
+    if (segment == null) {
+      File file = fileStructure.segmentFor(domain);
+      if (!doesFileExists(file)) {
+        return null;
+      }
+      segment = SegmentFile.open(file);
+      segments.put(domain, segment);
+    }
+    return segment;
+  }
+
   private static boolean doesFileExists(File file) {
     return file.exists() && file.isFile();
   }
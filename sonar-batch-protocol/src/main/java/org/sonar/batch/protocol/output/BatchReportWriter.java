@@ -19,12 +19,24 @@
  */
 package org.sonar.batch.protocol.output;
 
+import com.google.protobuf.Message;
+import java.io.Closeable;
 import java.io.File;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import org.sonar.batch.protocol.ProtobufUtil;
 
-public class BatchReportWriter {
+/**
+ * Writes the report of an analysis. Data of the packed domains is appended to streams that are kept open
+ * until {@link #close()}, which must be called before the report is read.
+ */
+public class BatchReportWriter implements Closeable {
 
   private final FileStructure fileStructure;
+  private final Map<FileStructure.Domain, Set<Integer>> packedComponentRefs = new EnumMap<>(FileStructure.Domain.class);
+  private final Map<FileStructure.Domain, SegmentFile.Appender> appenders = new EnumMap<>(FileStructure.Domain.class);
 
   public BatchReportWriter(File dir) {
     if (!dir.exists() && !dir.mkdirs()) {
@@ -38,6 +50,10 @@ public class BatchReportWriter {
   }
 
   public boolean hasComponentData(FileStructure.Domain domain, int componentRef) {
+    if (domain.isPacked()) {
+      Set<Integer> componentRefs = packedComponentRefs.get(domain);
+      return componentRefs != null && componentRefs.contains(componentRef);
+    }
     File file = fileStructure.fileFor(domain, componentRef);
     return file.exists() && file.isFile();
   }
@@ -51,51 +67,46 @@ public class BatchReportWriter {
   }
 
   public File writeComponent(BatchReport.Component component) {
-    File file = fileStructure.fileFor(FileStructure.Domain.COMPONENT, component.getRef());
-    ProtobufUtil.writeToFile(component, file);
-    return file;
+    return writeToSegment(FileStructure.Domain.COMPONENT, component.getRef(), component);
   }
 
   public File writeComponentIssues(int componentRef, Iterable<BatchReport.Issue> issues) {
     BatchReport.Issues.Builder issuesBuilder = BatchReport.Issues.newBuilder();
     issuesBuilder.setComponentRef(componentRef);
     issuesBuilder.addAllIssue(issues);
-    File file = fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef);
-    ProtobufUtil.writeToFile(issuesBuilder.build(), file);
-    return file;
+    return writeToSegment(FileStructure.Domain.ISSUES, componentRef, issuesBuilder.build());
   }
 
   public File writeComponentMeasures(int componentRef, Iterable<BatchReport.Measure> measures) {
     BatchReport.Measures.Builder measuresBuilder = BatchReport.Measures.newBuilder();
     measuresBuilder.setComponentRef(componentRef);
     measuresBuilder.addAllMeasure(measures);
-    File file = fileStructure.fileFor(FileStructure.Domain.MEASURES, componentRef);
-    ProtobufUtil.writeToFile(measuresBuilder.build(), file);
-    return file;
+    return writeToSegment(FileStructure.Domain.MEASURES, componentRef, measuresBuilder.build());
   }
 
   public File writeComponentChangesets(BatchReport.Changesets changesets) {
-    File file = fileStructure.fileFor(FileStructure.Domain.CHANGESETS, changesets.getComponentRef());
-    ProtobufUtil.writeToFile(changesets, file);
-    return file;
+    return writeToSegment(FileStructure.Domain.CHANGESETS, changesets.getComponentRef(), changesets);
   }
 
   public File writeComponentDuplications(int componentRef, Iterable<BatchReport.Duplication> duplications) {
     BatchReport.Duplications.Builder builder = BatchReport.Duplications.newBuilder();
     builder.setComponentRef(componentRef);
     builder.addAllDuplication(duplications);
-    File file = fileStructure.fileFor(FileStructure.Domain.DUPLICATIONS, componentRef);
-    ProtobufUtil.writeToFile(builder.build(), file);
-    return file;
+    return writeToSegment(FileStructure.Domain.DUPLICATIONS, componentRef, builder.build());
+  }
+
+  public File writeCpdTextBlocks(int componentRef, Iterable<BatchReport.CpdTextBlock> blocks) {
+    BatchReport.CpdTextBlocks.Builder builder = BatchReport.CpdTextBlocks.newBuilder();
+    builder.setComponentRef(componentRef);
+    builder.addAllBlock(blocks);
+    return writeToSegment(FileStructure.Domain.CPD_TEXT_BLOCKS, componentRef, builder.build());
   }
 
   public File writeComponentSymbols(int componentRef, Iterable<BatchReport.Symbols.Symbol> symbols) {
     BatchReport.Symbols.Builder builder = BatchReport.Symbols.newBuilder();
     builder.setFileRef(componentRef);
     builder.addAllSymbol(symbols);
-    File file = fileStructure.fileFor(FileStructure.Domain.SYMBOLS, componentRef);
-    ProtobufUtil.writeToFile(builder.build(), file);
-    return file;
+    return writeToSegment(FileStructure.Domain.SYMBOLS, componentRef, builder.build());
   }
 
   public File writeComponentSyntaxHighlighting(int componentRef, Iterable<BatchReport.SyntaxHighlighting> syntaxHighlightingRules) {
@@ -126,4 +137,38 @@ public class BatchReportWriter {
     return fileStructure.fileFor(FileStructure.Domain.SOURCE, componentRef);
   }
 
+  /**
+   * @return the segment file of the domain, which contains the data of all the components
+   */
+  private File writeToSegment(FileStructure.Domain domain, int componentRef, Message message) {
+    File file = fileStructure.segmentFor(domain);
+    SegmentFile.Appender appender = appenders.get(domain);
+    if (appender == null) {
+      appender = SegmentFile.appender(file);
+      appenders.put(domain, appender);
+    }
+    appender.append(componentRef, message);
+    Set<Integer> componentRefs = packedComponentRefs.get(domain);
+    if (componentRefs == null) {
+      componentRefs = new HashSet<>();
+      packedComponentRefs.put(domain, componentRefs);
+    }
+    componentRefs.add(componentRef);
+    return file;
+  }
+
+  /**
+   * Flushes and closes the segment files. Data written afterwards is appended to the same files.
+   */
+  @Override
+  public void close() {
+    try {
+      for (SegmentFile.Appender appender : appenders.values()) {
+        appender.close();
+      }
+    } finally {
+      appenders.clear();
+    }
+  }
+
 }
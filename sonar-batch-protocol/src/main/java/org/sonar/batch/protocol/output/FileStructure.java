@@ -27,28 +27,39 @@ import java.io.File;
 public class FileStructure {
 
   public enum Domain {
-    ISSUES("issues-", Domain.PB),
-    ISSUES_ON_DELETED("issues-deleted-", Domain.PB),
-    COMPONENT("component-", Domain.PB),
-    MEASURES("measures-", Domain.PB),
-    DUPLICATIONS("duplications-", Domain.PB),
-    SYNTAX_HIGHLIGHTINGS("syntax-highlightings-", Domain.PB),
-    CHANGESETS("changesets-", Domain.PB),
-    SYMBOLS("symbols-", Domain.PB),
-    COVERAGES("coverages-", Domain.PB),
-    TESTS("tests-", Domain.PB),
-    COVERAGE_DETAILS("coverage-details-", Domain.PB),
-    FILE_DEPENDENCIES("file-dependencies-", Domain.PB),
-    MODULE_DEPENDENCIES("module-dependencies-", Domain.PB),
-    SOURCE("source-", ".txt");
+    ISSUES("issues-", Domain.PB, true),
+    ISSUES_ON_DELETED("issues-deleted-", Domain.PB, false),
+    COMPONENT("component-", Domain.PB, true),
+    MEASURES("measures-", Domain.PB, true),
+    DUPLICATIONS("duplications-", Domain.PB, true),
+    CPD_TEXT_BLOCKS("cpd-text-blocks-", Domain.PB, true),
+    SYNTAX_HIGHLIGHTINGS("syntax-highlightings-", Domain.PB, false),
+    CHANGESETS("changesets-", Domain.PB, true),
+    SYMBOLS("symbols-", Domain.PB, true),
+    COVERAGES("coverages-", Domain.PB, false),
+    TESTS("tests-", Domain.PB, false),
+    COVERAGE_DETAILS("coverage-details-", Domain.PB, false),
+    FILE_DEPENDENCIES("file-dependencies-", Domain.PB, false),
+    MODULE_DEPENDENCIES("module-dependencies-", Domain.PB, false),
+    SOURCE("source-", ".txt", false);
 
     private static final String PB = ".pb";
     private final String filePrefix;
     private final String fileSuffix;
+    private final boolean packed;
 
-    Domain(String filePrefix, String fileSuffix) {
+    Domain(String filePrefix, String fileSuffix, boolean packed) {
       this.filePrefix = filePrefix;
       this.fileSuffix = fileSuffix;
+      this.packed = packed;
+    }
+
+    /**
+     * Data of all components are packed in a single file, see {@link #segmentFor(Domain)}, instead
+     * of one file per component, see {@link #fileFor(Domain, int)}.
+     */
+    public boolean isPacked() {
+      return packed;
     }
   }
 
@@ -69,4 +80,8 @@ public class FileStructure {
     return new File(dir, domain.filePrefix + componentRef + domain.fileSuffix);
   }
 
+  public File segmentFor(Domain domain) {
+    return new File(dir, domain.filePrefix + "segment" + domain.fileSuffix);
+  }
+
 }
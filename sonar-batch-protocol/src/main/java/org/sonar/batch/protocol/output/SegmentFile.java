@@ -0,0 +1,177 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.protocol.output;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * File containing the data of all the components for a given domain. It is a sequence of records
+ * made of the component reference, the size of the message and the message itself. Only the last record
+ * of a component is taken into account.
+ * <p/>
+ * When reading, the file is memory-mapped and indexed once by scanning the record headers. Messages are
+ * parsed on demand, so the data of the whole domain is never loaded in heap.
+ */
+class SegmentFile {
+
+  private final File file;
+  private final ByteBuffer buffer;
+  private final Map<Integer, Integer> offsetsByComponentRef = new HashMap<>();
+
+  private SegmentFile(File file, ByteBuffer buffer) {
+    this.file = file;
+    this.buffer = buffer;
+    index();
+  }
+
+  /**
+   * Opens the file for appending records. The returned stream must be closed to flush the records to disk.
+   */
+  static Appender appender(File file) {
+    try {
+      return new Appender(file, new BufferedOutputStream(new FileOutputStream(file, true)));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to open file " + file, e);
+    }
+  }
+
+  /**
+   * Maps the file in memory. The file must exist.
+   */
+  static SegmentFile open(File file) {
+    RandomAccessFile randomAccessFile = null;
+    try {
+      randomAccessFile = new RandomAccessFile(file, "r");
+      FileChannel channel = randomAccessFile.getChannel();
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalStateException("File is too big to be read: " + file);
+      }
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new SegmentFile(file, buffer);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read file: " + file, e);
+    } finally {
+      IOUtils.closeQuietly(randomAccessFile);
+    }
+  }
+
+  boolean contains(int componentRef) {
+    return offsetsByComponentRef.containsKey(componentRef);
+  }
+
+  /**
+   * This method is thread-safe.
+   */
+  @CheckForNull
+  <T extends Message> T read(int componentRef, Parser<T> parser) {
+    Integer offset = offsetsByComponentRef.get(componentRef);
+    if (offset == null) {
+      return null;
+    }
+    ByteBuffer record = buffer.duplicate();
+    record.position(offset);
+    int size = readRawVarint32(record);
+    record.limit(record.position() + size);
+    try {
+      return parser.parseFrom(CodedInputStream.newInstance(record.slice()));
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException("Failed to read data of component #" + componentRef + " in file: " + file, e);
+    }
+  }
+
+  private void index() {
+    ByteBuffer headers = buffer.duplicate();
+    while (headers.hasRemaining()) {
+      int componentRef = readRawVarint32(headers);
+      int offset = headers.position();
+      int size = readRawVarint32(headers);
+      headers.position(headers.position() + size);
+      offsetsByComponentRef.put(componentRef, offset);
+    }
+  }
+
+  private int readRawVarint32(ByteBuffer input) {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      if (!input.hasRemaining()) {
+        throw new IllegalStateException("File is corrupted: " + file);
+      }
+      byte b = input.get();
+      result |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("File is corrupted: " + file);
+  }
+
+  static class Appender implements Closeable {
+    private final File file;
+    private final OutputStream out;
+    private final CodedOutputStream codedOutput;
+
+    private Appender(File file, OutputStream out) {
+      this.file = file;
+      this.out = out;
+      this.codedOutput = CodedOutputStream.newInstance(out);
+    }
+
+    void append(int componentRef, Message message) {
+      try {
+        codedOutput.writeRawVarint32(componentRef);
+        codedOutput.writeRawVarint32(message.getSerializedSize());
+        message.writeTo(codedOutput);
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to append protocol buffer data to file " + file, e);
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        codedOutput.flush();
+        out.close();
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to close file " + file, e);
+      } finally {
+        IOUtils.closeQuietly(out);
+      }
+    }
+  }
+}
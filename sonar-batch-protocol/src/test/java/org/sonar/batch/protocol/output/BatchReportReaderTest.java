@@ -77,6 +77,7 @@ public class BatchReportReaderTest {
       .setRef(1)
       .setPath("src/main/java/Foo.java");
     writer.writeComponent(component.build());
+    writer.close();
 
     assertThat(sut.readComponent(1).getPath()).isEqualTo("src/main/java/Foo.java");
   }
@@ -93,6 +94,7 @@ public class BatchReportReaderTest {
       .setLine(50)
       .build();
     writer.writeComponentIssues(1, Arrays.asList(issue));
+    writer.close();
 
     assertThat(sut.readComponentIssues(1)).hasSize(1);
     assertThat(sut.readComponentIssues(200)).isEmpty();
@@ -109,11 +111,26 @@ public class BatchReportReaderTest {
     BatchReport.Measure.Builder measure = BatchReport.Measure.newBuilder()
       .setStringValue("value_a");
     writer.writeComponentMeasures(1, Arrays.asList(measure.build()));
+    writer.close();
 
     assertThat(sut.readComponentMeasures(1)).hasSize(1);
     assertThat(sut.readComponentMeasures(1).get(0).getStringValue()).isEqualTo("value_a");
   }
 
+  @Test
+  public void read_measures_of_many_components() {
+    BatchReportWriter writer = new BatchReportWriter(dir);
+    for (int ref = 1; ref <= 100; ref++) {
+      writer.writeComponentMeasures(ref, Arrays.asList(BatchReport.Measure.newBuilder().setStringValue("value_" + ref).build()));
+    }
+    writer.close();
+
+    assertThat(sut.readComponentMeasures(1).get(0).getStringValue()).isEqualTo("value_1");
+    assertThat(sut.readComponentMeasures(42).get(0).getStringValue()).isEqualTo("value_42");
+    assertThat(sut.readComponentMeasures(100).get(0).getStringValue()).isEqualTo("value_100");
+    assertThat(sut.readComponentMeasures(101)).isEmpty();
+  }
+
   @Test
   public void empty_list_if_no_measure_found() {
     assertThat(sut.readComponentMeasures(UNKNOWN_COMPONENT_REF)).isEmpty();
@@ -126,6 +143,7 @@ public class BatchReportReaderTest {
       .setComponentRef(1)
       .addChangeset(BatchReport.Changesets.Changeset.newBuilder().setDate(123_456_789).setAuthor("jack.daniels").setRevision("123-456-789"));
     writer.writeComponentChangesets(scm.build());
+    writer.close();
 
     assertThat(sut.readChangesets(1).getChangesetList()).hasSize(1);
     assertThat(sut.readChangesets(1).getChangeset(0).getDate()).isEqualTo(123_456_789L);
@@ -159,6 +177,7 @@ public class BatchReportReaderTest {
         .build())
       .build();
     writer.writeComponentDuplications(1, Arrays.asList(duplication));
+    writer.close();
 
     BatchReportReader sut = new BatchReportReader(dir);
     assertThat(sut.readComponentDuplications(1)).hasSize(1);
@@ -171,6 +190,32 @@ public class BatchReportReaderTest {
     assertThat(sut.readComponentDuplications(UNKNOWN_COMPONENT_REF)).isEmpty();
   }
 
+  @Test
+  public void read_cpd_text_blocks() {
+    BatchReportWriter writer = new BatchReportWriter(dir);
+    writer.writeMetadata(BatchReport.Metadata.newBuilder()
+      .setRootComponentRef(1).build());
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(1).build());
+
+    BatchReport.CpdTextBlock block = BatchReport.CpdTextBlock.newBuilder()
+      .setHash("123456")
+      .setStartLine(1)
+      .setEndLine(10)
+      .setIndexInFile(0)
+      .build();
+    writer.writeCpdTextBlocks(1, Arrays.asList(block));
+    writer.close();
+
+    BatchReportReader sut = new BatchReportReader(dir);
+    assertThat(sut.readCpdTextBlocks(1)).containsExactly(block);
+  }
+
+  @Test
+  public void empty_list_if_no_cpd_text_block_found() {
+    assertThat(sut.readCpdTextBlocks(UNKNOWN_COMPONENT_REF)).isEmpty();
+  }
+
   @Test
   public void read_syntax_highlighting() throws Exception {
     BatchReportWriter writer = new BatchReportWriter(dir);
@@ -227,6 +272,7 @@ public class BatchReportReaderTest {
         .setEndOffset(2)
         .build())
       .build()));
+    writer.close();
 
     sut = new BatchReportReader(dir);
     assertThat(sut.readComponentSymbols(1)).hasSize(1);
@@ -83,11 +83,12 @@ public class BatchReportWriterTest {
       .addChildRef(5)
       .addChildRef(42);
     sut.writeComponent(component.build());
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.COMPONENT, 1)).isTrue();
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.COMPONENT, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.COMPONENT);
     assertThat(file).exists().isFile();
-    BatchReport.Component read = ProtobufUtil.readFile(file, BatchReport.Component.PARSER);
+    BatchReport.Component read = SegmentFile.open(file).read(1, BatchReport.Component.PARSER);
     assertThat(read.getRef()).isEqualTo(1);
     assertThat(read.getChildRefList()).containsOnly(5, 42);
     assertThat(read.hasName()).isFalse();
@@ -106,11 +107,12 @@ public class BatchReportWriterTest {
       .build();
 
     sut.writeComponentIssues(1, Arrays.asList(issue));
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.ISSUES, 1)).isTrue();
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.ISSUES, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.ISSUES);
     assertThat(file).exists().isFile();
-    BatchReport.Issues read = ProtobufUtil.readFile(file, BatchReport.Issues.PARSER);
+    BatchReport.Issues read = SegmentFile.open(file).read(1, BatchReport.Issues.PARSER);
     assertThat(read.getComponentRef()).isEqualTo(1);
     assertThat(read.getIssueCount()).isEqualTo(1);
   }
@@ -127,11 +129,12 @@ public class BatchReportWriterTest {
       .build();
 
     sut.writeComponentMeasures(1, Arrays.asList(measure));
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.MEASURES, 1)).isTrue();
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.MEASURES, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.MEASURES);
     assertThat(file).exists().isFile();
-    BatchReport.Measures measures = ProtobufUtil.readFile(file, BatchReport.Measures.PARSER);
+    BatchReport.Measures measures = SegmentFile.open(file).read(1, BatchReport.Measures.PARSER);
     assertThat(measures.getComponentRef()).isEqualTo(1);
     assertThat(measures.getMeasureCount()).isEqualTo(1);
     assertThat(measures.getMeasure(0).getStringValue()).isEqualTo("text-value");
@@ -154,11 +157,12 @@ public class BatchReportWriterTest {
       .build();
 
     sut.writeComponentChangesets(scm);
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.CHANGESETS, 1)).isTrue();
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.CHANGESETS, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.CHANGESETS);
     assertThat(file).exists().isFile();
-    BatchReport.Changesets read = ProtobufUtil.readFile(file, BatchReport.Changesets.PARSER);
+    BatchReport.Changesets read = SegmentFile.open(file).read(1, BatchReport.Changesets.PARSER);
     assertThat(read.getComponentRef()).isEqualTo(1);
     assertThat(read.getChangesetCount()).isEqualTo(1);
     assertThat(read.getChangesetList()).hasSize(1);
@@ -184,17 +188,53 @@ public class BatchReportWriterTest {
         .build())
       .build();
     sut.writeComponentDuplications(1, Arrays.asList(duplication));
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.DUPLICATIONS, 1)).isTrue();
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.DUPLICATIONS, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.DUPLICATIONS);
     assertThat(file).exists().isFile();
-    BatchReport.Duplications duplications = ProtobufUtil.readFile(file, BatchReport.Duplications.PARSER);
+    BatchReport.Duplications duplications = SegmentFile.open(file).read(1, BatchReport.Duplications.PARSER);
     assertThat(duplications.getComponentRef()).isEqualTo(1);
     assertThat(duplications.getDuplicationList()).hasSize(1);
     assertThat(duplications.getDuplication(0).getOriginPosition()).isNotNull();
     assertThat(duplications.getDuplication(0).getDuplicateList()).hasSize(1);
   }
 
+  @Test
+  public void write_cpd_text_blocks() {
+    assertThat(sut.hasComponentData(FileStructure.Domain.CPD_TEXT_BLOCKS, 1)).isFalse();
+
+    BatchReport.CpdTextBlock block = BatchReport.CpdTextBlock.newBuilder()
+      .setHash("123456")
+      .setStartLine(1)
+      .setEndLine(10)
+      .setIndexInFile(0)
+      .build();
+    sut.writeCpdTextBlocks(1, Arrays.asList(block));
+    sut.close();
+
+    assertThat(sut.hasComponentData(FileStructure.Domain.CPD_TEXT_BLOCKS, 1)).isTrue();
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.CPD_TEXT_BLOCKS);
+    BatchReport.CpdTextBlocks blocks = SegmentFile.open(file).read(1, BatchReport.CpdTextBlocks.PARSER);
+    assertThat(blocks.getComponentRef()).isEqualTo(1);
+    assertThat(blocks.getBlockList()).containsExactly(block);
+  }
+
+  @Test
+  public void keep_segment_open_until_closed() {
+    sut.writeComponentMeasures(1, Arrays.asList(BatchReport.Measure.newBuilder().setStringValue("first").build()));
+    sut.writeComponentMeasures(2, Arrays.asList(BatchReport.Measure.newBuilder().setStringValue("second").build()));
+    sut.close();
+    // data written after close is appended to the same segment
+    sut.writeComponentMeasures(3, Arrays.asList(BatchReport.Measure.newBuilder().setStringValue("third").build()));
+    sut.close();
+
+    SegmentFile segment = SegmentFile.open(sut.getFileStructure().segmentFor(FileStructure.Domain.MEASURES));
+    assertThat(segment.read(1, BatchReport.Measures.PARSER).getMeasure(0).getStringValue()).isEqualTo("first");
+    assertThat(segment.read(2, BatchReport.Measures.PARSER).getMeasure(0).getStringValue()).isEqualTo("second");
+    assertThat(segment.read(3, BatchReport.Measures.PARSER).getMeasure(0).getStringValue()).isEqualTo("third");
+  }
+
   @Test
   public void write_symbols() {
     // no data yet
@@ -217,12 +257,13 @@ public class BatchReportWriterTest {
       .build();
 
     sut.writeComponentSymbols(1, Arrays.asList(symbol));
+    sut.close();
 
     assertThat(sut.hasComponentData(FileStructure.Domain.SYMBOLS, 1)).isTrue();
 
-    File file = sut.getFileStructure().fileFor(FileStructure.Domain.SYMBOLS, 1);
+    File file = sut.getFileStructure().segmentFor(FileStructure.Domain.SYMBOLS);
     assertThat(file).exists().isFile();
-    BatchReport.Symbols read = ProtobufUtil.readFile(file, BatchReport.Symbols.PARSER);
+    BatchReport.Symbols read = SegmentFile.open(file).read(1, BatchReport.Symbols.PARSER);
     assertThat(read.getFileRef()).isEqualTo(1);
     assertThat(read.getSymbolList()).hasSize(1);
     assertThat(read.getSymbol(0).getDeclaration().getStartLine()).isEqualTo(1);
@@ -71,4 +71,14 @@ public class FileStructureTest {
     assertThat(structure.fileFor(FileStructure.Domain.ISSUES, 3)).exists().isFile();
     assertThat(structure.fileFor(FileStructure.Domain.ISSUES, 42)).doesNotExist();
   }
+
+  @Test
+  public void locate_segment_files() throws Exception {
+    File dir = temp.newFolder();
+    FileStructure structure = new FileStructure(dir);
+
+    assertThat(structure.segmentFor(FileStructure.Domain.MEASURES)).isEqualTo(new File(dir, "measures-segment.pb"));
+    assertThat(FileStructure.Domain.MEASURES.isPacked()).isTrue();
+    assertThat(FileStructure.Domain.COVERAGES.isPacked()).isFalse();
+  }
 }
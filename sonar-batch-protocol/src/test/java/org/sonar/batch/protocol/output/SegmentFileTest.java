@@ -0,0 +1,107 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.protocol.output;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class SegmentFileTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void read_records_of_components() throws Exception {
+    File file = temp.newFile();
+    SegmentFile.Appender appender = SegmentFile.appender(file);
+    for (int ref = 1; ref <= 1000; ref++) {
+      appender.append(ref * 1000, component(ref * 1000, "path" + ref));
+    }
+    appender.close();
+
+    SegmentFile segment = SegmentFile.open(file);
+
+    assertThat(segment.contains(1000)).isTrue();
+    assertThat(segment.read(1000, BatchReport.Component.PARSER).getPath()).isEqualTo("path1");
+    assertThat(segment.read(500_000, BatchReport.Component.PARSER).getPath()).isEqualTo("path500");
+    assertThat(segment.read(1_000_000, BatchReport.Component.PARSER).getPath()).isEqualTo("path1000");
+  }
+
+  @Test
+  public void return_null_if_component_has_no_record() throws Exception {
+    File file = temp.newFile();
+    SegmentFile.Appender appender = SegmentFile.appender(file);
+    appender.append(1, component(1, "path"));
+    appender.close();
+
+    SegmentFile segment = SegmentFile.open(file);
+
+    assertThat(segment.contains(2)).isFalse();
+    assertThat(segment.read(2, BatchReport.Component.PARSER)).isNull();
+  }
+
+  @Test
+  public void last_record_of_component_overrides_previous_ones() throws Exception {
+    File file = temp.newFile();
+    SegmentFile.Appender appender = SegmentFile.appender(file);
+    appender.append(1, component(1, "old"));
+    appender.append(2, component(2, "other"));
+    appender.close();
+    // reopening appends to the existing records
+    appender = SegmentFile.appender(file);
+    appender.append(1, component(1, "new"));
+    appender.close();
+
+    SegmentFile segment = SegmentFile.open(file);
+
+    assertThat(segment.read(1, BatchReport.Component.PARSER).getPath()).isEqualTo("new");
+    assertThat(segment.read(2, BatchReport.Component.PARSER).getPath()).isEqualTo("other");
+  }
+
+  @Test
+  public void read_empty_file() throws Exception {
+    SegmentFile segment = SegmentFile.open(temp.newFile());
+
+    assertThat(segment.contains(1)).isFalse();
+  }
+
+  @Test
+  public void fail_if_file_is_truncated() throws Exception {
+    File file = temp.newFile();
+    FileUtils.writeByteArrayToFile(file, new byte[] {1, (byte) 0x80});
+
+    try {
+      SegmentFile.open(file);
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageContaining("File is corrupted");
+    }
+  }
+
+  private static BatchReport.Component component(int ref, String path) {
+    return BatchReport.Component.newBuilder().setRef(ref).setPath(path).build();
+  }
+}
@@ -78,7 +78,7 @@ public class BatchExtensionDictionnary {
     return result;
   }
 
-  private Phase.Name evaluatePhase(Object extension) {
+  public Phase.Name evaluatePhase(Object extension) {
     Object extensionToEvaluate;
     if (extension instanceof SensorWrapper) {
       extensionToEvaluate = ((SensorWrapper) extension).wrappedSensor();
@@ -157,7 +157,7 @@ public class BatchExtensionDictionnary {
   /**
    * Extension dependencies
    */
-  private <T> List<Object> getDependencies(T extension) {
+  public <T> List<Object> getDependencies(T extension) {
     List<Object> result = new ArrayList<>();
     result.addAll(evaluateAnnotatedClasses(extension, DependsUpon.class));
     return result;
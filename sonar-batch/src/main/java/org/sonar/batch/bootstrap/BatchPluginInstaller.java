@@ -20,13 +20,21 @@
 package org.sonar.batch.bootstrap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.lang.CharUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.Plugin;
@@ -40,21 +48,25 @@ import org.sonar.home.cache.FileCache;
 
 /**
  * Downloads the plugins installed on server and stores them in a local user cache
- * (see {@link FileCacheProvider}).
+ * (see {@link FileCacheProvider}). Only the plugins missing from the cache are downloaded, concurrently,
+ * and they are exploded as soon as downloaded.
  */
 public class BatchPluginInstaller implements PluginInstaller {
 
   private static final Logger LOG = Loggers.get(BatchPluginInstaller.class);
   private static final String PLUGINS_INDEX_URL = "/deploy/plugins/index.txt";
+  private static final int MAX_DOWNLOAD_THREADS = 4;
 
   private final ServerClient server;
   private final FileCache fileCache;
   private final BatchPluginPredicate pluginPredicate;
+  private final BatchPluginJarExploder jarExploder;
 
-  public BatchPluginInstaller(ServerClient server, FileCache fileCache, BatchPluginPredicate pluginPredicate) {
+  public BatchPluginInstaller(ServerClient server, FileCache fileCache, BatchPluginPredicate pluginPredicate, BatchPluginJarExploder jarExploder) {
     this.server = server;
     this.fileCache = fileCache;
     this.pluginPredicate = pluginPredicate;
+    this.jarExploder = jarExploder;
   }
 
   @Override
@@ -62,17 +74,66 @@ public class BatchPluginInstaller implements PluginInstaller {
     Map<String, PluginInfo> infosByKey = new HashMap<>();
     List<RemotePlugin> remotePlugins = listRemotePlugins();
     Profiler profiler = Profiler.create(LOG).startDebug("Load plugins");
+    List<RemotePlugin> missingPlugins = new ArrayList<>();
     for (RemotePlugin remotePlugin : remotePlugins) {
       if (pluginPredicate.apply(remotePlugin.getKey())) {
-        File jarFile = download(remotePlugin);
-        PluginInfo info = PluginInfo.create(jarFile);
-        infosByKey.put(info.getKey(), info);
+        RemotePluginFile file = remotePlugin.file();
+        File jarFile = fileCache.get(file.getFilename(), file.getHash());
+        if (jarFile == null) {
+          missingPlugins.add(remotePlugin);
+        } else {
+          PluginInfo info = PluginInfo.create(jarFile);
+          infosByKey.put(info.getKey(), info);
+        }
       }
     }
+    for (PluginInfo info : downloadConcurrently(missingPlugins)) {
+      infosByKey.put(info.getKey(), info);
+    }
     profiler.stopDebug();
     return infosByKey;
   }
 
+  private List<PluginInfo> downloadConcurrently(List<RemotePlugin> remotePlugins) {
+    if (remotePlugins.isEmpty()) {
+      return Collections.emptyList();
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.min(MAX_DOWNLOAD_THREADS, remotePlugins.size()), new ThreadFactoryBuilder()
+      .setNameFormat(Thread.currentThread().getName() + "-plugin-download-%d").setDaemon(true).build());
+    try {
+      List<Future<PluginInfo>> futures = new ArrayList<>();
+      for (final RemotePlugin remotePlugin : remotePlugins) {
+        futures.add(executorService.submit(new Callable<PluginInfo>() {
+          @Override
+          public PluginInfo call() {
+            PluginInfo info = PluginInfo.create(download(remotePlugin));
+            // the exploded plugin is kept in cache, besides the jar
+            jarExploder.explode(info);
+            return info;
+          }
+        }));
+      }
+      List<PluginInfo> infos = new ArrayList<>();
+      for (Future<PluginInfo> future : futures) {
+        infos.add(getUninterruptibly(future));
+      }
+      return infos;
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static <T> T getUninterruptibly(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while downloading plugins", e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
   /**
    * Returns empty on purpose. This method is used only by tests.
    * @see org.sonar.batch.mediumtest.BatchMediumTester
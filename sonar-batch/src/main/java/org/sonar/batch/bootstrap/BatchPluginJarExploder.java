@@ -31,6 +31,10 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
+/**
+ * Libraries of plugins are extracted besides the jar, in the directory of the user cache named after the hash of the jar,
+ * so that they are extracted only once.
+ */
 @BatchSide
 public class BatchPluginJarExploder extends PluginJarExploder {
 
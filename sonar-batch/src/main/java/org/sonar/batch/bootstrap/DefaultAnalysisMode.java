@@ -33,10 +33,17 @@ import java.util.Map;
  */
 public class DefaultAnalysisMode implements AnalysisMode {
 
+  /**
+   * When set on an analysis which is published, files unchanged since the previous analysis are not analyzed
+   * and only referenced by the report, so that the server keeps their previous data.
+   */
+  public static final String CARRY_OVER_UNCHANGED_FILES_PROP_KEY = "sonar.batch.carryOverUnchangedFiles";
+
   private static final Logger LOG = LoggerFactory.getLogger(DefaultAnalysisMode.class);
 
   private boolean preview;
   private boolean incremental;
+  private boolean carryOverUnchangedFiles;
   private boolean mediumTestMode;
 
   public DefaultAnalysisMode(Map<String, String> props) {
@@ -53,6 +60,15 @@ public class DefaultAnalysisMode implements AnalysisMode {
     return incremental;
   }
 
+  /**
+   * Files which are unchanged since the previous analysis are carried over: they are not analyzed
+   * and the server reuses their previous sources, measures, issues and duplications. Only available
+   * when the analysis is published.
+   */
+  public boolean isCarryOverUnchangedFiles() {
+    return carryOverUnchangedFiles;
+  }
+
   public boolean isMediumTest() {
     return mediumTestMode;
   }
@@ -67,11 +83,14 @@ public class DefaultAnalysisMode implements AnalysisMode {
       preview = CoreProperties.ANALYSIS_MODE_PREVIEW.equals(mode);
       incremental = CoreProperties.ANALYSIS_MODE_INCREMENTAL.equals(mode);
     }
+    carryOverUnchangedFiles = !preview && !incremental && "true".equals(props.get(CARRY_OVER_UNCHANGED_FILES_PROP_KEY));
     mediumTestMode = "true".equals(props.get(BatchMediumTester.MEDIUM_TEST_ENABLED));
     if (incremental) {
       LOG.info("Incremental mode");
     } else if (preview) {
       LOG.info("Preview mode");
+    } else if (carryOverUnchangedFiles) {
+      LOG.info("Unchanged files are carried over from the previous analysis");
     }
     if (mediumTestMode) {
       LOG.info("Medium test mode");
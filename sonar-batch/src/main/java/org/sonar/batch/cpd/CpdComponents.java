@@ -22,6 +22,7 @@ package org.sonar.batch.cpd;
 import com.google.common.collect.ImmutableList;
 import org.sonar.batch.cpd.decorators.DuplicationDensityDecorator;
 import org.sonar.batch.cpd.decorators.SumDuplicationsDecorator;
+import org.sonar.batch.cpd.index.DuplicationBlocksLoader;
 import org.sonar.batch.cpd.index.IndexFactory;
 
 import java.util.List;
@@ -38,6 +39,7 @@ public final class CpdComponents {
       SumDuplicationsDecorator.class,
       DuplicationDensityDecorator.class,
       IndexFactory.class,
+      DuplicationBlocksLoader.class,
       JavaCpdEngine.class,
       DefaultCpdEngine.class);
   }
@@ -19,13 +19,22 @@
  */
 package org.sonar.batch.cpd;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.sonar.api.batch.BatchSide;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.config.Settings;
 
 @BatchSide
 public abstract class CpdEngine {
 
+  /**
+   * Number of threads used to populate the index and to detect duplications. Default is the number of processors.
+   */
+  public static final String THREADS_PROPERTY = "sonar.cpd.threads";
+
   abstract boolean isLanguageSupported(String language);
 
   abstract void analyse(String language, SensorContext context);
@@ -42,6 +51,15 @@ public abstract class CpdEngine {
     }
   }
 
+  protected static ExecutorService newExecutorService(Settings settings) {
+    int threads = settings.getInt(THREADS_PROPERTY);
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    return Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat(Thread.currentThread().getName() + "-cpd-%d").setDaemon(true).build());
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
@@ -20,6 +20,8 @@
 
 package org.sonar.batch.cpd;
 
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.apache.commons.io.IOUtils;
@@ -40,6 +42,7 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.utils.SonarException;
 import org.sonar.batch.cpd.index.IndexFactory;
 import org.sonar.batch.cpd.index.SonarDuplicationsIndex;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.BlockChunker;
 import org.sonar.duplications.detector.suffixtree.SuffixTreeCloneDetectionAlgorithm;
@@ -54,10 +57,8 @@ import org.sonar.duplications.token.TokenChunker;
 
 import javax.annotation.Nullable;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -65,7 +66,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -83,20 +84,29 @@ public class JavaCpdEngine extends CpdEngine {
   private static final int MAX_CLONE_GROUP_PER_FILE = 100;
   private static final int MAX_CLONE_PART_PER_GROUP = 100;
 
+  private static final ThreadLocal<JavaChunkers> CHUNKERS = new ThreadLocal<JavaChunkers>() {
+    @Override
+    protected JavaChunkers initialValue() {
+      return new JavaChunkers();
+    }
+  };
+
   private final IndexFactory indexFactory;
   private final FileSystem fs;
   private final Settings settings;
   private final Project project;
+  private final FileContentCache contentCache;
 
-  public JavaCpdEngine(@Nullable Project project, IndexFactory indexFactory, FileSystem fs, Settings settings) {
+  public JavaCpdEngine(@Nullable Project project, IndexFactory indexFactory, FileSystem fs, Settings settings, FileContentCache contentCache) {
     this.project = project;
     this.indexFactory = indexFactory;
     this.fs = fs;
     this.settings = settings;
+    this.contentCache = contentCache;
   }
 
-  public JavaCpdEngine(IndexFactory indexFactory, FileSystem fs, Settings settings) {
-    this(null, indexFactory, fs, settings);
+  public JavaCpdEngine(IndexFactory indexFactory, FileSystem fs, Settings settings, FileContentCache contentCache) {
+    this(null, indexFactory, fs, settings, contentCache);
   }
 
   @Override
@@ -121,64 +131,108 @@ public class JavaCpdEngine extends CpdEngine {
     detect(index, context, sourceFiles);
   }
 
-  private SonarDuplicationsIndex createIndex(@Nullable Project project, String language, Iterable<InputFile> sourceFiles) {
+  private SonarDuplicationsIndex createIndex(@Nullable Project project, String language, List<InputFile> sourceFiles) {
     final SonarDuplicationsIndex index = indexFactory.create(project, language);
 
-    TokenChunker tokenChunker = JavaTokenProducer.build();
-    StatementChunker statementChunker = JavaStatementBuilder.build();
-    BlockChunker blockChunker = new BlockChunker(BLOCK_SIZE);
-
-    for (InputFile inputFile : sourceFiles) {
-      LOG.debug("Populating index from {}", inputFile);
-      String resourceEffectiveKey = ((DefaultInputFile) inputFile).key();
+    ExecutorService executorService = newExecutorService(settings);
+    try {
+      List<Future<List<Block>>> futures = new ArrayList<>();
+      for (final InputFile inputFile : sourceFiles) {
+        futures.add(executorService.submit(new Callable<List<Block>>() {
+          @Override
+          public List<Block> call() {
+            return chunk(inputFile);
+          }
+        }));
+      }
+      // blocks are inserted in the order of files, so that the index does not depend on scheduling
+      for (int i = 0; i < sourceFiles.size(); i++) {
+        index.insert(sourceFiles.get(i), getUninterruptibly(futures.get(i), sourceFiles.get(i)));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    index.loadCrossProjectBlocks();
 
-      List<Statement> statements;
+    return index;
+  }
 
-      Reader reader = null;
-      try {
-        reader = new InputStreamReader(new FileInputStream(inputFile.file()), fs.encoding());
-        statements = statementChunker.chunk(tokenChunker.chunk(reader));
-      } catch (FileNotFoundException e) {
-        throw new SonarException("Cannot find file " + inputFile.file(), e);
-      } finally {
-        IOUtils.closeQuietly(reader);
-      }
+  private List<Block> chunk(InputFile inputFile) {
+    LOG.debug("Populating index from {}", inputFile);
+    String resourceEffectiveKey = ((DefaultInputFile) inputFile).key();
+    JavaChunkers chunkers = CHUNKERS.get();
 
-      List<Block> blocks = blockChunker.chunk(resourceEffectiveKey, statements);
-      index.insert(inputFile, blocks);
+    List<Statement> statements;
+    Reader reader = null;
+    try {
+      reader = contentCache.reader(inputFile.file(), fs.encoding());
+      statements = chunkers.statementChunker.chunk(chunkers.tokenChunker.chunk(reader));
+    } finally {
+      IOUtils.closeQuietly(reader);
     }
 
-    return index;
+    return chunkers.blockChunker.chunk(resourceEffectiveKey, statements);
+  }
+
+  private static <T> T getUninterruptibly(Future<T> future, InputFile inputFile) {
+    try {
+      return future.get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new SonarException("Fail to populate index from " + inputFile, e);
+    }
   }
 
   private void detect(SonarDuplicationsIndex index, org.sonar.api.batch.sensor.SensorContext context, List<InputFile> sourceFiles) {
-    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    detect(newExecutorService(settings), index, context, sourceFiles, Predicates.<CloneGroup>alwaysTrue());
+  }
+
+  /**
+   * Detects the duplications of files concurrently, then saves them in the order of files so that results
+   * are reproducible. Each file is given at least {@link #TIMEOUT} seconds.
+   * The executor service is shut down and the index is closed.
+   */
+  static void detect(ExecutorService executorService, SonarDuplicationsIndex index, org.sonar.api.batch.sensor.SensorContext context, List<InputFile> sourceFiles,
+    Predicate<CloneGroup> filter) {
     try {
+      List<Future<List<CloneGroup>>> futures = new ArrayList<>();
       for (InputFile inputFile : sourceFiles) {
         LOG.debug("Detection of duplications for {}", inputFile);
         String resourceEffectiveKey = ((DefaultInputFile) inputFile).key();
-
         Collection<Block> fileBlocks = index.getByInputFile(inputFile, resourceEffectiveKey);
+        futures.add(executorService.submit(new Task(index, fileBlocks)));
+      }
 
-        List<CloneGroup> clones;
+      for (int i = 0; i < sourceFiles.size(); i++) {
+        InputFile inputFile = sourceFiles.get(i);
+        Future<List<CloneGroup>> future = futures.get(i);
+        Iterable<CloneGroup> clones;
         try {
-          clones = executorService.submit(new Task(index, fileBlocks)).get(TIMEOUT, TimeUnit.SECONDS);
+          clones = Iterables.filter(future.get(TIMEOUT, TimeUnit.SECONDS), filter);
         } catch (TimeoutException e) {
+          future.cancel(true);
           clones = null;
           LOG.warn("Timeout during detection of duplications for " + inputFile, e);
-        } catch (InterruptedException e) {
-          throw new SonarException("Fail during detection of duplication for " + inputFile, e);
-        } catch (ExecutionException e) {
+        } catch (InterruptedException | ExecutionException e) {
           throw new SonarException("Fail during detection of duplication for " + inputFile, e);
         }
 
         save(context, inputFile, clones);
       }
     } finally {
-      executorService.shutdown();
+      executorService.shutdownNow();
+      IOUtils.closeQuietly(index);
     }
   }
 
+  /**
+   * Chunkers are not thread-safe
+   */
+  private static class JavaChunkers {
+    private final TokenChunker tokenChunker = JavaTokenProducer.build();
+    private final StatementChunker statementChunker = JavaStatementBuilder.build();
+    private final BlockChunker blockChunker = new BlockChunker(BLOCK_SIZE);
+  }
+
   static class Task implements Callable<List<CloneGroup>> {
     private final CloneIndex index;
     private final Collection<Block> fileBlocks;
@@ -0,0 +1,86 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.cpd.index;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import com.google.common.io.InputSupplier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.sonar.api.batch.BatchSide;
+import org.sonar.api.utils.HttpDownloader;
+import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.batch.protocol.input.BatchInput;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+/**
+ * Downloads from the server index of cross-project duplications only the blocks whose hashes
+ * are computed on the analyzed module.
+ */
+@BatchSide
+public class DuplicationBlocksLoader {
+
+  /**
+   * Hashes are sent in the URL, so they are sent by groups to keep URLs short
+   */
+  static final int HASHES_PER_REQUEST = 100;
+
+  private final ServerClient serverClient;
+
+  public DuplicationBlocksLoader(ServerClient serverClient) {
+    this.serverClient = serverClient;
+  }
+
+  public List<Block> load(String moduleKey, String languageKey, Collection<String> hashes) {
+    List<Block> blocks = new ArrayList<>();
+    for (List<String> partition : Iterables.partition(hashes, HASHES_PER_REQUEST)) {
+      String url = "/batch/duplications?key=" + ServerClient.encodeForUrl(moduleKey)
+        + "&language=" + ServerClient.encodeForUrl(languageKey)
+        + "&hashes=" + Joiner.on(',').join(partition);
+      try {
+        parseBlocks(serverClient.doRequest(url, "POST", null), blocks);
+      } catch (HttpDownloader.HttpException e) {
+        throw serverClient.handleHttpException(e);
+      }
+    }
+    return blocks;
+  }
+
+  private static void parseBlocks(InputSupplier<InputStream> input, List<Block> blocks) {
+    try (InputStream is = input.getInput()) {
+      BatchInput.DuplicationBlock block = BatchInput.DuplicationBlock.parseDelimitedFrom(is);
+      while (block != null) {
+        blocks.add(Block.builder()
+          .setResourceId(block.getResourceKey())
+          .setBlockHash(new ByteArray(block.getHash()))
+          .setIndexInFile(block.getIndexInFile())
+          .setLines(block.getStartLine(), block.getEndLine())
+          .build());
+        block = BatchInput.DuplicationBlock.parseDelimitedFrom(is);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to get duplication blocks from server", e);
+    }
+  }
+}
@@ -23,24 +23,39 @@ import com.google.common.annotations.VisibleForTesting;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.BatchSide;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.batch.bootstrap.DefaultAnalysisMode;
+import org.sonar.batch.index.BatchComponentCache;
+import org.sonar.batch.report.ReportPublisher;
 
 @BatchSide
 public class IndexFactory {
 
+  private static final Logger LOG = LoggerFactory.getLogger(IndexFactory.class);
+
   private final Settings settings;
   private final DefaultAnalysisMode mode;
+  private final ReportPublisher reportPublisher;
+  private final BatchComponentCache componentCache;
+  private final DuplicationBlocksLoader blocksLoader;
 
-  public IndexFactory(DefaultAnalysisMode mode, Settings settings) {
+  public IndexFactory(DefaultAnalysisMode mode, Settings settings, ReportPublisher reportPublisher, BatchComponentCache componentCache,
+    DuplicationBlocksLoader blocksLoader) {
     this.mode = mode;
     this.settings = settings;
+    this.reportPublisher = reportPublisher;
+    this.componentCache = componentCache;
+    this.blocksLoader = blocksLoader;
   }
 
   public SonarDuplicationsIndex create(@Nullable Project project, String languageKey) {
+    if (verifyCrossProject(project, LOG)) {
+      return new SonarDuplicationsIndex(project.getEffectiveKey(), languageKey, blocksLoader, reportPublisher.getWriter(), componentCache);
+    }
     return new SonarDuplicationsIndex();
   }
 
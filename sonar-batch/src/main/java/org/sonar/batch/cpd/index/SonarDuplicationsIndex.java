@@ -19,22 +19,97 @@
  */
 package org.sonar.batch.cpd.index;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.batch.index.BatchComponentCache;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportWriter;
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.AbstractCloneIndex;
-import org.sonar.duplications.index.CloneIndex;
-import org.sonar.duplications.index.PackedMemoryCloneIndex;
+import org.sonar.duplications.index.SortedPackedCloneIndex;
 
-public class SonarDuplicationsIndex extends AbstractCloneIndex {
+/**
+ * Blocks are inserted by a single thread, then the index is read concurrently by the detection
+ * of duplications, which is supported by {@link SortedPackedCloneIndex}. The index must be closed
+ * once the detection is finished.
+ * <p/>
+ * When cross-project detection is enabled, the blocks of files are also written to the report, so that
+ * the server index of cross-project duplications is updated, and {@link #loadCrossProjectBlocks()} must be
+ * called before detection in order to add the blocks of other modules which have the same hashes.
+ */
+public class SonarDuplicationsIndex extends AbstractCloneIndex implements Closeable {
+
+  private final SortedPackedCloneIndex mem = new SortedPackedCloneIndex();
+
+  private final String moduleKey;
+  private final String languageKey;
+  private final DuplicationBlocksLoader blocksLoader;
+  private final BatchReportWriter reportWriter;
+  private final BatchComponentCache componentCache;
+  private final Set<String> hashes = new HashSet<>();
 
-  private final CloneIndex mem = new PackedMemoryCloneIndex();
+  public SonarDuplicationsIndex() {
+    this(null, null, null, null, null);
+  }
+
+  public SonarDuplicationsIndex(@Nullable String moduleKey, @Nullable String languageKey, @Nullable DuplicationBlocksLoader blocksLoader,
+    @Nullable BatchReportWriter reportWriter, @Nullable BatchComponentCache componentCache) {
+    this.moduleKey = moduleKey;
+    this.languageKey = languageKey;
+    this.blocksLoader = blocksLoader;
+    this.reportWriter = reportWriter;
+    this.componentCache = componentCache;
+  }
+
+  private boolean isCrossProject() {
+    return blocksLoader != null;
+  }
 
   public void insert(InputFile inputFile, Collection<Block> blocks) {
     for (Block block : blocks) {
       mem.insert(block);
     }
+    if (isCrossProject() && !blocks.isEmpty()) {
+      writeCpdTextBlocks(inputFile, blocks);
+    }
+  }
+
+  private void writeCpdTextBlocks(InputFile inputFile, Collection<Block> blocks) {
+    List<BatchReport.CpdTextBlock> textBlocks = new ArrayList<>(blocks.size());
+    BatchReport.CpdTextBlock.Builder builder = BatchReport.CpdTextBlock.newBuilder();
+    for (Block block : blocks) {
+      String hash = block.getBlockHash().toString();
+      hashes.add(hash);
+      textBlocks.add(builder
+        .setHash(hash)
+        .setIndexInFile(block.getIndexInFile())
+        .setStartLine(block.getStartLine())
+        .setEndLine(block.getEndLine())
+        .build());
+      builder.clear();
+    }
+    reportWriter.writeCpdTextBlocks(componentCache.get(inputFile).batchId(), textBlocks);
+  }
+
+  /**
+   * Adds the blocks of other modules whose hashes are the ones of the inserted blocks. Does nothing
+   * if cross-project detection is disabled.
+   */
+  public void loadCrossProjectBlocks() {
+    if (!isCrossProject() || hashes.isEmpty()) {
+      return;
+    }
+    for (Block block : blocksLoader.load(moduleKey, languageKey, hashes)) {
+      mem.insert(block);
+    }
   }
 
   public Collection<Block> getByInputFile(InputFile inputFile, String resourceKey) {
@@ -56,4 +131,9 @@ public class SonarDuplicationsIndex extends AbstractCloneIndex {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void close() throws IOException {
+    mem.close();
+  }
+
 }
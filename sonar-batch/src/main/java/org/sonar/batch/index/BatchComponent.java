@@ -38,6 +38,7 @@ public class BatchComponent {
   private final BatchComponent parent;
   private final Collection<BatchComponent> children = new ArrayList<>();
   private InputPath inputPath;
+  private boolean carriedOver;
 
   public BatchComponent(int batchId, Resource r, @Nullable BatchComponent parent) {
     this.batchId = batchId;
@@ -104,6 +105,19 @@ public class BatchComponent {
     return inputPath;
   }
 
+  /**
+   * The file is unchanged since the previous analysis and is not analyzed, see
+   * {@link org.sonar.batch.bootstrap.DefaultAnalysisMode#isCarryOverUnchangedFiles()}
+   */
+  public boolean isCarriedOver() {
+    return carriedOver;
+  }
+
+  public BatchComponent setCarriedOver(boolean carriedOver) {
+    this.carriedOver = carriedOver;
+    return this;
+  }
+
   public boolean isProjectOrModule() {
     return ResourceUtils.isProject(r);
   }
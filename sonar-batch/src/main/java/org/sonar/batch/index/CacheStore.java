@@ -0,0 +1,80 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.index;
+
+import java.util.Iterator;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+
+/**
+ * Storage backing a {@link Cache}. Keys are arrays of key parts, which are
+ * sorted part by part. Implementations must be thread-safe.
+ * <p>
+ * Implementations may either keep a copy of the values or the references given to {@link #put(Object[], Object)}.
+ * Callers must not rely on one or the other: a value must not be modified after being put, unless it is put again,
+ * and a value returned by {@link #get(Object[])} must be put again for its changes to be stored.
+ * </p>
+ *
+ * @since 5.2
+ */
+public interface CacheStore<V> {
+
+  void put(Object[] key, V value);
+
+  @CheckForNull
+  V get(Object[] key);
+
+  boolean containsKey(Object[] key);
+
+  /**
+   * Removes the value associated with the exact key. Sub-keys are kept.
+   */
+  boolean remove(Object[] key);
+
+  /**
+   * Removes the value associated with the key and all its sub-keys.
+   */
+  void clear(Object[] key);
+
+  /**
+   * Removes all the values.
+   */
+  void clear();
+
+  /**
+   * Distinct key parts following the given key prefix, in key order.
+   */
+  Set<Object> keySet(Object[] keyPrefix);
+
+  /**
+   * Values of the sub-keys of the given key prefix, in key order.
+   */
+  Iterator<V> values(Object[] keyPrefix);
+
+  /**
+   * Entries of the sub-keys of the given key prefix, in key order.
+   */
+  Iterator<Cache.Entry<V>> entries(Object[] keyPrefix);
+
+  /**
+   * Releases the resources. The store can't be used anymore.
+   */
+  void close();
+}
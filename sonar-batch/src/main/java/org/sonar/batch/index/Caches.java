@@ -22,7 +22,6 @@ package org.sonar.batch.index;
 import com.google.common.collect.Maps;
 
 import java.util.Map;
-import java.util.Map.Entry;
 
 import com.google.common.base.Preconditions;
 import com.persistit.Exchange;
@@ -37,12 +36,14 @@ import org.sonar.api.batch.BatchSide;
 
 @BatchSide
 public class Caches implements Startable {
-  private final Map<String, Exchange> cacheMap = Maps.newHashMap();
+  private final Map<String, CacheStore<?>> cacheMap = Maps.newHashMap();
+  private final CachesManager.StoreType storeType;
   private Persistit persistit;
   private Volume volume;
 
   public Caches(CachesManager caches) {
     persistit = caches.persistit();
+    storeType = caches.storeType();
     doStart();
   }
 
@@ -65,24 +66,33 @@ public class Caches implements Startable {
     cm.registerValueCoder(clazz, coder);
   }
 
-  public <V> Cache<V> createCache(String cacheName) {
+  public synchronized <V> Cache<V> createCache(String cacheName) {
     Preconditions.checkState(volume != null && volume.isOpened(), "Caches are not initialized");
     Preconditions.checkState(!cacheMap.containsKey(cacheName), "Cache is already created: " + cacheName);
-    try {
-      Exchange exchange = persistit.getExchange(volume, cacheName, true);
-      exchange.setMaximumValueSize(Value.MAXIMUM_SIZE);
-      Cache<V> cache = new Cache<>(cacheName, exchange);
-      cacheMap.put(cacheName, exchange);
-      return cache;
-    } catch (Exception e) {
-      throw new IllegalStateException("Fail to create cache: " + cacheName, e);
+    CacheStore<V> store = createStore(cacheName);
+    cacheMap.put(cacheName, store);
+    return new Cache<>(store);
+  }
+
+  private <V> CacheStore<V> createStore(String cacheName) {
+    switch (storeType) {
+      case MEMORY:
+        return new MemoryCacheStore<>();
+      default:
+        try {
+          Exchange exchange = persistit.getExchange(volume, cacheName, true);
+          exchange.setMaximumValueSize(Value.MAXIMUM_SIZE);
+          return new PersistitCacheStore<>(cacheName, persistit, exchange);
+        } catch (Exception e) {
+          throw new IllegalStateException("Fail to create cache: " + cacheName, e);
+        }
     }
   }
 
   @Override
-  public void stop() {
-    for (Entry<String, Exchange> e : cacheMap.entrySet()) {
-      persistit.releaseExchange(e.getValue());
+  public synchronized void stop() {
+    for (CacheStore<?> store : cacheMap.values()) {
+      store.close();
     }
 
     cacheMap.clear();
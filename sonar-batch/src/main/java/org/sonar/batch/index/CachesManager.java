@@ -19,6 +19,9 @@
  */
 package org.sonar.batch.index;
 
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.TempFolder;
 
 import com.persistit.Persistit;
@@ -28,26 +31,81 @@ import org.apache.commons.io.FileUtils;
 import org.picocontainer.Startable;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.BatchSide;
+import org.sonar.batch.bootstrap.BootstrapProperties;
 
 import java.io.File;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
- * Factory of caches
+ * Factory of caches. The store of the caches is selected with the property {@value #STORE_PROPERTY}:
+ * <ul>
+ *   <li>"disk" (default): Persistit trees, flushed on disk when the buffer pool is full</li>
+ *   <li>"memory": concurrent map on the heap, keeping the references of the values instead of serialized copies</li>
+ * </ul>
  *
  * @since 3.6
  */
 @BatchSide
 public class CachesManager implements Startable {
+
+  public static final String STORE_PROPERTY = "sonar.batch.cache.store";
+  public static final String BUFFER_COUNT_PROPERTY = "sonar.batch.cache.bufferCount";
+  public static final String MAX_PAGES_PROPERTY = "sonar.batch.cache.maxPages";
+
+  static final int DEFAULT_BUFFER_COUNT = 10;
+  static final int DEFAULT_MAX_PAGES = 25000;
+
+  enum StoreType {
+    DISK, MEMORY
+  }
+
   private File tempDir;
   private Persistit persistit;
   private final TempFolder tempFolder;
+  private final StoreType storeType;
+  private final int bufferCount;
+  private final int maxPages;
 
   public CachesManager(TempFolder tempFolder) {
+    this(tempFolder, new BootstrapProperties(ImmutableMap.<String, String>of()));
+  }
+
+  public CachesManager(TempFolder tempFolder, BootstrapProperties bootstrapProps) {
     this.tempFolder = tempFolder;
+    this.storeType = storeType(bootstrapProps.property(STORE_PROPERTY));
+    this.bufferCount = intProperty(bootstrapProps, BUFFER_COUNT_PROPERTY, DEFAULT_BUFFER_COUNT);
+    this.maxPages = intProperty(bootstrapProps, MAX_PAGES_PROPERTY, DEFAULT_MAX_PAGES);
     initPersistit();
   }
 
+  private static StoreType storeType(String value) {
+    if (StringUtils.isBlank(value)) {
+      return StoreType.DISK;
+    }
+    try {
+      return StoreType.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      throw MessageException.of(String.format("Invalid value of property '%s': %s. Supported values are disk and memory.", STORE_PROPERTY, value));
+    }
+  }
+
+  private static int intProperty(BootstrapProperties bootstrapProps, String key, int defaultValue) {
+    String value = bootstrapProps.property(key);
+    if (StringUtils.isBlank(value)) {
+      return defaultValue;
+    }
+    try {
+      int i = Integer.parseInt(value.trim());
+      if (i > 0) {
+        return i;
+      }
+    } catch (NumberFormatException e) {
+      // fail below
+    }
+    throw MessageException.of(String.format("Value of property '%s' must be a positive integer: %s", key, value));
+  }
+
   private void initPersistit() {
     try {
       tempDir = tempFolder.newDir("caches");
@@ -57,10 +115,10 @@ public class CachesManager implements Startable {
       props.setProperty("datapath", tempDir.getAbsolutePath());
       props.setProperty("logpath", "${datapath}/log");
       props.setProperty("logfile", "${logpath}/persistit_${timestamp}.log");
-      props.setProperty("buffer.count.8192", "10");
+      props.setProperty("buffer.count.8192", String.valueOf(bufferCount));
       props.setProperty("journalpath", "${datapath}/journal");
       props.setProperty("tmpvoldir", "${datapath}");
-      props.setProperty("volume.1", "${datapath}/persistit,create,pageSize:8192,initialPages:10,extensionPages:100,maximumPages:25000");
+      props.setProperty("volume.1", "${datapath}/persistit,create,pageSize:8192,initialPages:10,extensionPages:100,maximumPages:" + maxPages);
       persistit.setProperties(props);
       persistit.initialize();
 
@@ -95,4 +153,8 @@ public class CachesManager implements Startable {
   Persistit persistit() {
     return persistit;
   }
+
+  StoreType storeType() {
+    return storeType;
+  }
 }
@@ -0,0 +1,199 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.index;
+
+import com.persistit.Key;
+import com.persistit.Persistit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Lock-free store keeping all the values on the heap.
+ * <p>
+ * Key parts must be {@link Comparable}. Keys are iterated in the same order as in {@link PersistitCacheStore}:
+ * parts of the same type are compared with {@link Comparable#compareTo(Object)}, and parts of different
+ * types are compared as Persistit does, by type first.
+ * </p>
+ * <p>
+ * Unlike {@link PersistitCacheStore}, which serializes a copy of the values, this store keeps the references
+ * of the values. Changing a value after it was put is visible to the readers of the cache.
+ * </p>
+ */
+class MemoryCacheStore<V> implements CacheStore<V> {
+
+  private static final Object BEFORE = new Object();
+  private static final Object AFTER = new Object();
+
+  private final ConcurrentNavigableMap<Object[], V> map = new ConcurrentSkipListMap<>(KeyComparator.INSTANCE);
+
+  @Override
+  public void put(Object[] key, V value) {
+    map.put(key.clone(), value);
+  }
+
+  @Override
+  @CheckForNull
+  public V get(Object[] key) {
+    return map.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object[] key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public boolean remove(Object[] key) {
+    return map.remove(key) != null;
+  }
+
+  @Override
+  public void clear(Object[] key) {
+    map.subMap(key, true, append(key, AFTER), true).clear();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public Set<Object> keySet(Object[] keyPrefix) {
+    Set<Object> keys = new LinkedHashSet<>();
+    for (Object[] key : subKeys(keyPrefix).keySet()) {
+      keys.add(key[keyPrefix.length]);
+    }
+    return keys;
+  }
+
+  @Override
+  public Iterator<V> values(Object[] keyPrefix) {
+    final Iterator<V> it = subKeys(keyPrefix).values().iterator();
+    return new ReadOnlyIterator<V>() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public V next() {
+        return it.next();
+      }
+    };
+  }
+
+  @Override
+  public Iterator<Cache.Entry<V>> entries(Object[] keyPrefix) {
+    final Iterator<Map.Entry<Object[], V>> it = subKeys(keyPrefix).entrySet().iterator();
+    return new ReadOnlyIterator<Cache.Entry<V>>() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public Cache.Entry<V> next() {
+        Map.Entry<Object[], V> entry = it.next();
+        return new Cache.Entry<>(entry.getKey().clone(), entry.getValue());
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    map.clear();
+  }
+
+  private ConcurrentNavigableMap<Object[], V> subKeys(Object[] keyPrefix) {
+    return map.subMap(append(keyPrefix, BEFORE), false, append(keyPrefix, AFTER), false);
+  }
+
+  private static Object[] append(Object[] key, Object part) {
+    Object[] result = Arrays.copyOf(key, key.length + 1);
+    result[key.length] = part;
+    return result;
+  }
+
+  private abstract static class ReadOnlyIterator<T> implements Iterator<T> {
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Removing an item is not supported");
+    }
+  }
+
+  private enum KeyComparator implements Comparator<Object[]> {
+    INSTANCE;
+
+    @Override
+    public int compare(Object[] o1, Object[] o2) {
+      int length = Math.min(o1.length, o2.length);
+      for (int i = 0; i < length; i++) {
+        int c = comparePart(o1[i], o2[i]);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return Integer.compare(o1.length, o2.length);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int comparePart(@Nullable Object o1, @Nullable Object o2) {
+      if (o1 == o2) {
+        return 0;
+      }
+      if (o1 == BEFORE || o2 == AFTER) {
+        return -1;
+      }
+      if (o1 == AFTER || o2 == BEFORE) {
+        return 1;
+      }
+      if (o1 == null) {
+        return -1;
+      }
+      if (o2 == null) {
+        return 1;
+      }
+      if (o1.getClass() != o2.getClass()) {
+        return persistitKey(o1).compareTo(persistitKey(o2));
+      }
+      if (!(o1 instanceof Comparable)) {
+        throw new IllegalArgumentException("Key part is not comparable: " + o1.getClass().getName());
+      }
+      return ((Comparable) o1).compareTo(o2);
+    }
+
+    /**
+     * Key parts of types supported without coders don't need a Persistit instance to be encoded
+     */
+    private static Key persistitKey(Object part) {
+      Key key = new Key((Persistit) null);
+      key.append(part);
+      return key;
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.index;
+
+import com.google.common.collect.Sets;
+import com.persistit.Exchange;
+import com.persistit.Key;
+import com.persistit.KeyFilter;
+import com.persistit.Persistit;
+import com.persistit.exception.PersistitException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+
+/**
+ * Store backed by a Persistit tree, which is written on disk when it does not fit into
+ * the buffer pool.
+ * <p>
+ * {@link Exchange} is not thread-safe, so all operations are synchronized. Iterators use
+ * their own copy of the exchange and can be consumed concurrently.
+ * </p>
+ */
+class PersistitCacheStore<V> implements CacheStore<V> {
+
+  private final String name;
+  private final Persistit persistit;
+  private final Exchange exchange;
+
+  PersistitCacheStore(String name, Persistit persistit, Exchange exchange) {
+    this.name = name;
+    this.persistit = persistit;
+    this.exchange = exchange;
+  }
+
+  @Override
+  public synchronized void put(Object[] key, V value) {
+    resetKey(key);
+    try {
+      exchange.getValue().put(value);
+      exchange.store();
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to put element in the cache " + name, e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  @CheckForNull
+  public synchronized V get(Object[] key) {
+    resetKey(key);
+    try {
+      exchange.fetch();
+      if (!exchange.getValue().isDefined()) {
+        return null;
+      }
+      return (V) exchange.getValue().get();
+    } catch (Exception e) {
+      // TODO add parameters to message
+      throw new IllegalStateException("Fail to get element from cache " + name, e);
+    }
+  }
+
+  @Override
+  public synchronized boolean containsKey(Object[] key) {
+    resetKey(key);
+    try {
+      exchange.fetch();
+      return exchange.isValueDefined();
+    } catch (Exception e) {
+      // TODO add parameters to message
+      throw new IllegalStateException("Fail to check if element is in cache " + name, e);
+    }
+  }
+
+  @Override
+  public synchronized boolean remove(Object[] key) {
+    resetKey(key);
+    try {
+      return exchange.remove();
+    } catch (Exception e) {
+      // TODO add parameters to message
+      throw new IllegalStateException("Fail to get element from cache " + name, e);
+    }
+  }
+
+  @Override
+  public synchronized void clear(Object[] key) {
+    resetKey(key);
+    try {
+      Key to = new Key(exchange.getKey());
+      to.append(Key.AFTER);
+      exchange.removeKeyRange(exchange.getKey(), to);
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to clear values from cache " + name, e);
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    try {
+      exchange.clear();
+      exchange.removeAll();
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to clear cache", e);
+    }
+  }
+
+  @Override
+  public synchronized Set<Object> keySet(Object[] keyPrefix) {
+    try {
+      Set<Object> keys = Sets.newLinkedHashSet();
+      Exchange iteratorExchange = iteratorExchange(keyPrefix);
+      while (iteratorExchange.next(false)) {
+        keys.add(iteratorExchange.getKey().indexTo(-1).decode());
+      }
+      return keys;
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to get keys from cache " + name, e);
+    }
+  }
+
+  @Override
+  public synchronized Iterator<V> values(Object[] keyPrefix) {
+    return new ValueIterator<>(iteratorExchange(keyPrefix), keyFilter(keyPrefix));
+  }
+
+  @Override
+  public synchronized Iterator<Cache.Entry<V>> entries(Object[] keyPrefix) {
+    return new EntryIterator<>(iteratorExchange(keyPrefix), keyFilter(keyPrefix));
+  }
+
+  @Override
+  public synchronized void close() {
+    persistit.releaseExchange(exchange);
+  }
+
+  private void resetKey(Object[] keys) {
+    exchange.clear();
+    for (Object o : keys) {
+      exchange.append(o);
+    }
+  }
+
+  private Exchange iteratorExchange(Object[] keyPrefix) {
+    resetKey(keyPrefix);
+    exchange.append(Key.BEFORE);
+    return new Exchange(exchange);
+  }
+
+  private static KeyFilter keyFilter(Object[] keyPrefix) {
+    KeyFilter filter = new KeyFilter();
+    for (Object key : keyPrefix) {
+      filter = filter.append(KeyFilter.simpleTerm(key));
+    }
+    return filter;
+  }
+
+  //
+  // LAZY ITERATORS
+  //
+
+  private abstract static class ExchangeIterator<T> implements Iterator<T> {
+    protected final Exchange exchange;
+    private final KeyFilter keyFilter;
+
+    private ExchangeIterator(Exchange exchange, KeyFilter keyFilter) {
+      this.exchange = exchange;
+      this.keyFilter = keyFilter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return exchange.hasNext(keyFilter);
+      } catch (PersistitException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public T next() {
+      try {
+        exchange.next(keyFilter);
+      } catch (PersistitException e) {
+        throw new IllegalStateException(e);
+      }
+      if (exchange.getValue().isDefined()) {
+        return current();
+      }
+      throw new NoSuchElementException();
+    }
+
+    protected abstract T current();
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Removing an item is not supported");
+    }
+  }
+
+  private static class ValueIterator<T> extends ExchangeIterator<T> {
+    private ValueIterator(Exchange exchange, KeyFilter keyFilter) {
+      super(exchange, keyFilter);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected T current() {
+      return (T) exchange.getValue().get();
+    }
+  }
+
+  private static class EntryIterator<T> extends ExchangeIterator<Cache.Entry<T>> {
+    private EntryIterator(Exchange exchange, KeyFilter keyFilter) {
+      super(exchange, keyFilter);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Cache.Entry<T> current() {
+      T value = (T) exchange.getValue().get();
+      Key key = exchange.getKey();
+      Object[] array = new Object[key.getDepth()];
+      for (int i = 0; i < key.getDepth(); i++) {
+        array[i] = key.indexTo(i - key.getDepth()).decode();
+      }
+      return new Cache.Entry<>(array, value);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.utils.SonarException;
 import org.sonar.batch.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.batch.issue.ignore.pattern.IssueInclusionPatternInitializer;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import java.nio.charset.Charset;
 
@@ -36,14 +37,16 @@ public final class IssueExclusionsLoader {
   private final IssueExclusionPatternInitializer exclusionPatternInitializer;
   private final IssueInclusionPatternInitializer inclusionPatternInitializer;
   private final FileSystem fileSystem;
+  private final FileContentCache contentCache;
 
   public IssueExclusionsLoader(IssueExclusionsRegexpScanner regexpScanner, IssueExclusionPatternInitializer exclusionPatternInitializer,
     IssueInclusionPatternInitializer inclusionPatternInitializer,
-    FileSystem fileSystem) {
+    FileSystem fileSystem, FileContentCache contentCache) {
     this.regexpScanner = regexpScanner;
     this.exclusionPatternInitializer = exclusionPatternInitializer;
     this.inclusionPatternInitializer = inclusionPatternInitializer;
     this.fileSystem = fileSystem;
+    this.contentCache = contentCache;
   }
 
   public boolean shouldExecuteOnProject(Project project) {
@@ -65,7 +68,7 @@ public final class IssueExclusionsLoader {
           inclusionPatternInitializer.initializePatternsForPath(path, componentEffectiveKey);
           exclusionPatternInitializer.initializePatternsForPath(path, componentEffectiveKey);
           if (exclusionPatternInitializer.hasFileContentPattern()) {
-            regexpScanner.scan(componentEffectiveKey, inputFile.file(), sourcesEncoding);
+            regexpScanner.scan(componentEffectiveKey, contentCache.content(inputFile.file(), sourcesEncoding));
           }
         }
       } catch (Exception e) {
@@ -31,20 +31,29 @@ import org.sonar.batch.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.batch.issue.ignore.pattern.IssuePattern;
 import org.sonar.batch.issue.ignore.pattern.LineRange;
 
+import javax.annotation.CheckForNull;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @BatchSide
 public class IssueExclusionsRegexpScanner {
 
   private static final Logger LOG = LoggerFactory.getLogger(IssueExclusionsRegexpScanner.class);
+  private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
 
   private IssueExclusionPatternInitializer exclusionPatternInitializer;
-  private List<java.util.regex.Pattern> allFilePatterns;
+  private List<Pattern> allFilePatterns;
   private List<DoubleRegexpMatcher> blockMatchers;
+  // union of all patterns, used to skip lines which do not match any pattern without testing each of them
+  private Matcher allFilePatternsUnion;
+  private Matcher blockStartPatternsUnion;
 
   // fields to be reset at every new scan
   private DoubleRegexpMatcher currentMatcher;
@@ -60,13 +69,18 @@ public class IssueExclusionsRegexpScanner {
     blockMatchers = Lists.newArrayList();
 
     for (IssuePattern pattern : patternsInitializer.getAllFilePatterns()) {
-      allFilePatterns.add(java.util.regex.Pattern.compile(pattern.getAllFileRegexp()));
+      allFilePatterns.add(Pattern.compile(pattern.getAllFileRegexp()));
     }
+    List<Pattern> blockStartPatterns = Lists.newArrayList();
     for (IssuePattern pattern : patternsInitializer.getBlockPatterns()) {
-      blockMatchers.add(new DoubleRegexpMatcher(
-        java.util.regex.Pattern.compile(pattern.getBeginBlockRegexp()),
-        java.util.regex.Pattern.compile(pattern.getEndBlockRegexp())));
+      DoubleRegexpMatcher matcher = new DoubleRegexpMatcher(
+        Pattern.compile(pattern.getBeginBlockRegexp()),
+        Pattern.compile(pattern.getEndBlockRegexp()));
+      blockMatchers.add(matcher);
+      blockStartPatterns.add(matcher.firstPattern.pattern());
     }
+    allFilePatternsUnion = unionMatcher(allFilePatterns);
+    blockStartPatternsUnion = unionMatcher(blockStartPatterns);
 
     init();
   }
@@ -79,29 +93,36 @@ public class IssueExclusionsRegexpScanner {
   }
 
   public void scan(String resource, File file, Charset sourcesEncoding) throws IOException {
+    scan(resource, FileUtils.readFileToString(file, sourcesEncoding.name()));
+  }
+
+  /**
+   * Same as {@link #scan(String, File, Charset)} when the content of the file has already been read
+   */
+  public void scan(String resource, CharSequence content) {
     LOG.debug("Scanning {}", resource);
     init();
 
-    List<String> lines = FileUtils.readLines(file, sourcesEncoding.name());
+    // lines are matched in place, without being copied
     int lineIndex = 0;
-    for (String line : lines) {
+    int lineStart = 0;
+    while (lineStart < content.length()) {
+      int lineEnd = lineEnd(content, lineStart);
       lineIndex++;
-      if (line.trim().length() == 0) {
-        continue;
-      }
-
-      // first check the single regexp patterns that can be used to totally exclude a file
-      for (java.util.regex.Pattern pattern : allFilePatterns) {
-        if (pattern.matcher(line).find()) {
+      if (!isBlank(content, lineStart, lineEnd)) {
+        // first check the single regexp patterns that can be used to totally exclude a file
+        Pattern allFilePattern = findAllFilePattern(content, lineStart, lineEnd);
+        if (allFilePattern != null) {
           exclusionPatternInitializer.getPatternMatcher().addPatternToExcludeResource(resource);
           // nothing more to do on this file
-          LOG.debug("- Exclusion pattern '{}': every violation in this file will be ignored.", pattern);
+          LOG.debug("- Exclusion pattern '{}': every violation in this file will be ignored.", allFilePattern);
           return;
         }
-      }
 
-      // then check the double regexps if we're still here
-      checkDoubleRegexps(line, lineIndex);
+        // then check the double regexps if we're still here
+        checkDoubleRegexps(content, lineStart, lineEnd, lineIndex);
+      }
+      lineStart = nextLineStart(content, lineEnd);
     }
 
     if (currentMatcher != null && !currentMatcher.hasSecondPattern()) {
@@ -118,6 +139,19 @@ public class IssueExclusionsRegexpScanner {
     }
   }
 
+  @CheckForNull
+  private Pattern findAllFilePattern(CharSequence content, int lineStart, int lineEnd) {
+    if (!matches(allFilePatternsUnion, content, lineStart, lineEnd)) {
+      return null;
+    }
+    for (Pattern pattern : allFilePatterns) {
+      if (matches(pattern.matcher(content), content, lineStart, lineEnd)) {
+        return pattern;
+      }
+    }
+    return null;
+  }
+
   private Set<LineRange> convertLineExclusionsToLineRanges() {
     Set<LineRange> lineRanges = Sets.newHashSet();
     for (LineExclusion lineExclusion : lineExclusions) {
@@ -126,17 +160,20 @@ public class IssueExclusionsRegexpScanner {
     return lineRanges;
   }
 
-  private void checkDoubleRegexps(String line, int lineIndex) {
+  private void checkDoubleRegexps(CharSequence content, int lineStart, int lineEnd, int lineIndex) {
     if (currentMatcher == null) {
+      if (!matches(blockStartPatternsUnion, content, lineStart, lineEnd)) {
+        return;
+      }
       for (DoubleRegexpMatcher matcher : blockMatchers) {
-        if (matcher.matchesFirstPattern(line)) {
+        if (matcher.matchesFirstPattern(content, lineStart, lineEnd)) {
           startExclusion(lineIndex);
           currentMatcher = matcher;
           break;
         }
       }
     } else {
-      if (currentMatcher.matchesSecondPattern(line)) {
+      if (currentMatcher.matchesSecondPattern(content, lineStart, lineEnd)) {
         endExclusion(lineIndex);
         currentMatcher = null;
       }
@@ -153,6 +190,74 @@ public class IssueExclusionsRegexpScanner {
     currentLineExclusion = null;
   }
 
+  /**
+   * Matcher of the alternation of all the patterns, or null if they can't be combined. Back references
+   * and named groups would not have the same meaning once patterns are concatenated.
+   */
+  @CheckForNull
+  static Matcher unionMatcher(List<Pattern> patterns) {
+    StringBuilder union = new StringBuilder();
+    for (Pattern pattern : patterns) {
+      if (BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+        return null;
+      }
+      if (union.length() > 0) {
+        union.append('|');
+      }
+      union.append("(?:").append(pattern.pattern()).append(')');
+    }
+    if (union.length() == 0) {
+      // no patterns, matches nothing
+      return Pattern.compile("(?!)").matcher("");
+    }
+    try {
+      return Pattern.compile(union.toString()).matcher("");
+    } catch (PatternSyntaxException e) {
+      LOG.debug("Patterns can not be combined: {}", union, e);
+      return null;
+    }
+  }
+
+  /**
+   * Same as {@code matcher.find()} on the line [lineStart, lineEnd). A null matcher matches everything.
+   */
+  private static boolean matches(@CheckForNull Matcher matcher, CharSequence content, int lineStart, int lineEnd) {
+    if (matcher == null) {
+      return true;
+    }
+    return matcher.reset(content).region(lineStart, lineEnd).find();
+  }
+
+  /**
+   * Lines are terminated by \n, \r or \r\n, as in {@link java.io.BufferedReader#readLine()}
+   */
+  private static int lineEnd(CharSequence content, int lineStart) {
+    int i = lineStart;
+    while (i < content.length() && content.charAt(i) != '\n' && content.charAt(i) != '\r') {
+      i++;
+    }
+    return i;
+  }
+
+  private static int nextLineStart(CharSequence content, int lineEnd) {
+    if (lineEnd < content.length() - 1 && content.charAt(lineEnd) == '\r' && content.charAt(lineEnd + 1) == '\n') {
+      return lineEnd + 2;
+    }
+    return lineEnd + 1;
+  }
+
+  /**
+   * Same as {@code line.trim().isEmpty()}
+   */
+  private static boolean isBlank(CharSequence content, int lineStart, int lineEnd) {
+    for (int i = lineStart; i < lineEnd; i++) {
+      if (content.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private class LineExclusion {
 
     private int start;
@@ -175,24 +280,24 @@ public class IssueExclusionsRegexpScanner {
 
   private static class DoubleRegexpMatcher {
 
-    private java.util.regex.Pattern firstPattern;
-    private java.util.regex.Pattern secondPattern;
+    private Matcher firstPattern;
+    private Matcher secondPattern;
 
-    DoubleRegexpMatcher(java.util.regex.Pattern firstPattern, java.util.regex.Pattern secondPattern) {
-      this.firstPattern = firstPattern;
-      this.secondPattern = secondPattern;
+    DoubleRegexpMatcher(Pattern firstPattern, Pattern secondPattern) {
+      this.firstPattern = firstPattern.matcher("");
+      this.secondPattern = secondPattern.matcher("");
     }
 
-    boolean matchesFirstPattern(String line) {
-      return firstPattern.matcher(line).find();
+    boolean matchesFirstPattern(CharSequence content, int lineStart, int lineEnd) {
+      return matches(firstPattern, content, lineStart, lineEnd);
     }
 
-    boolean matchesSecondPattern(String line) {
-      return hasSecondPattern() && secondPattern.matcher(line).find();
+    boolean matchesSecondPattern(CharSequence content, int lineStart, int lineEnd) {
+      return hasSecondPattern() && matches(secondPattern, content, lineStart, lineEnd);
     }
 
     boolean hasSecondPattern() {
-      return StringUtils.isNotEmpty(secondPattern.toString());
+      return StringUtils.isNotEmpty(secondPattern.pattern().pattern());
     }
   }
 
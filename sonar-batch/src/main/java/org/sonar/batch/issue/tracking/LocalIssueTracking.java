@@ -38,6 +38,7 @@ import org.sonar.batch.index.BatchComponent;
 import org.sonar.batch.index.BatchComponentCache;
 import org.sonar.batch.issue.IssueCache;
 import org.sonar.batch.protocol.input.ProjectRepositories;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 import org.sonar.batch.scan.filesystem.InputPathCache;
 import org.sonar.core.component.ComponentKeys;
 import org.sonar.core.issue.IssueUpdater;
@@ -57,6 +58,7 @@ public class LocalIssueTracking {
   private final IssueCache issueCache;
   private final IssueTracking tracking;
   private final ServerLineHashesLoader lastLineHashes;
+  private final FileContentCache contentCache;
   private final IssueWorkflow workflow;
   private final IssueUpdater updater;
   private final IssueChangeContext changeContext;
@@ -70,11 +72,12 @@ public class LocalIssueTracking {
   public LocalIssueTracking(BatchComponentCache resourceCache, IssueCache issueCache, IssueTracking tracking,
     ServerLineHashesLoader lastLineHashes, IssueWorkflow workflow, IssueUpdater updater,
     ActiveRules activeRules, InputPathCache inputPathCache, ServerIssueRepository serverIssueRepository,
-    ProjectRepositories projectRepositories, AnalysisMode analysisMode) {
+    ProjectRepositories projectRepositories, AnalysisMode analysisMode, FileContentCache contentCache) {
     this.resourceCache = resourceCache;
     this.issueCache = issueCache;
     this.tracking = tracking;
     this.lastLineHashes = lastLineHashes;
+    this.contentCache = contentCache;
     this.workflow = workflow;
     this.updater = updater;
     this.inputPathCache = inputPathCache;
@@ -143,7 +146,7 @@ public class LocalIssueTracking {
       if (file == null) {
         throw new IllegalStateException("Resource " + component.resource() + " was not found in InputPath cache");
       }
-      sourceHashHolder = new SourceHashHolder(file, lastLineHashes);
+      sourceHashHolder = new SourceHashHolder(file, lastLineHashes, contentCache);
     }
     return sourceHashHolder;
   }
@@ -22,6 +22,7 @@ package org.sonar.batch.issue.tracking;
 import com.google.common.collect.ImmutableSet;
 import org.sonar.api.batch.fs.InputFile.Status;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import javax.annotation.CheckForNull;
 
@@ -30,19 +31,21 @@ import java.util.Collection;
 public class SourceHashHolder {
 
   private final ServerLineHashesLoader lastSnapshots;
+  private final FileContentCache contentCache;
 
   private FileHashes hashedReference;
   private FileHashes hashedSource;
   private DefaultInputFile inputFile;
 
-  public SourceHashHolder(DefaultInputFile inputFile, ServerLineHashesLoader lastSnapshots) {
+  public SourceHashHolder(DefaultInputFile inputFile, ServerLineHashesLoader lastSnapshots, FileContentCache contentCache) {
     this.inputFile = inputFile;
     this.lastSnapshots = lastSnapshots;
+    this.contentCache = contentCache;
   }
 
   private void initHashes() {
     if (hashedSource == null) {
-      hashedSource = FileHashes.create(inputFile);
+      hashedSource = FileHashes.create(inputFile, contentCache.content(inputFile.file(), inputFile.charset()));
       Status status = inputFile.status();
       if (status == Status.ADDED) {
         hashedReference = null;
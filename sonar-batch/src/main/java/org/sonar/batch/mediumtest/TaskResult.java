@@ -119,6 +119,11 @@ public class TaskResult implements org.sonar.batch.mediumtest.ScanTaskObserver {
     return reader;
   }
 
+  @CheckForNull
+  public Component getReportComponent(String key) {
+    return reportComponents.get(key);
+  }
+
   private void storeMeasures(ProjectScanContainer container) {
     BatchComponentCache resourceCache = container.getComponentByType(BatchComponentCache.class);
     for (Entry<Measure> measureEntry : container.getComponentByType(MeasureCache.class).entries()) {
@@ -19,43 +19,167 @@
  */
 package org.sonar.batch.phases;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.sonar.api.batch.BatchSide;
+import org.sonar.api.batch.Phase;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.batch.bootstrap.BatchExtensionDictionnary;
 import org.sonar.batch.events.EventBus;
+import org.sonar.batch.events.BatchEvent;
+import org.sonar.batch.sensor.SensorWrapper;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Sensors are executed sequentially, unless the property {@value #THREADS_PROPERTY} is greater than 1.
+ * In this case sensors are executed by groups: sensors of a group are executed concurrently, and
+ * a group starts when the previous one is done. Only the sensors of the new API (which write
+ * data through the {@link org.sonar.api.batch.sensor.internal.SensorStorage}) share a group with
+ * other sensors, and only if they are in the same {@link Phase} and do not depend on each other.
+ */
 @BatchSide
 public class SensorsExecutor {
 
+  public static final String THREADS_PROPERTY = "sonar.batch.sensors.threads";
+
   private EventBus eventBus;
   private Project module;
   private BatchExtensionDictionnary selector;
+  private Settings settings;
 
-  public SensorsExecutor(BatchExtensionDictionnary selector, Project project, EventBus eventBus) {
+  public SensorsExecutor(BatchExtensionDictionnary selector, Project project, EventBus eventBus, Settings settings) {
     this.selector = selector;
     this.eventBus = eventBus;
     this.module = project;
+    this.settings = settings;
   }
 
   public void execute(SensorContext context) {
     Collection<Sensor> sensors = selector.select(Sensor.class, module, true, null);
     eventBus.fireEvent(new SensorsPhaseEvent(Lists.newArrayList(sensors), true));
 
-    for (Sensor sensor : sensors) {
-      executeSensor(context, sensor);
+    int threads = settings.getInt(THREADS_PROPERTY);
+    if (threads > 1 && sensors.size() > 1) {
+      executeConcurrently(context, sensors, threads);
+    } else {
+      for (Sensor sensor : sensors) {
+        executeSensor(context, sensor);
+      }
     }
 
     eventBus.fireEvent(new SensorsPhaseEvent(Lists.newArrayList(sensors), false));
   }
 
+  private void executeConcurrently(SensorContext context, Collection<Sensor> sensors, int threads) {
+    ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat(Thread.currentThread().getName() + "-sensor-%d").build());
+    try {
+      for (List<Sensor> group : groups(sensors)) {
+        if (group.size() == 1) {
+          executeSensor(context, group.get(0));
+        } else {
+          executeGroup(executorService, context, group);
+        }
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for all the sensors of the group to be executed, even if some of them fail.
+   */
+  private void executeGroup(ExecutorService executorService, final SensorContext context, List<Sensor> group) {
+    List<Future<Void>> futures = new ArrayList<>();
+    for (final Sensor sensor : group) {
+      futures.add(executorService.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          executeSensor(context, sensor);
+          return null;
+        }
+      }));
+    }
+    Throwable failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while executing sensors", e);
+      }
+    }
+    if (failure != null) {
+      throw Throwables.propagate(failure);
+    }
+  }
+
+  /**
+   * Splits the sorted sensors into consecutive groups of sensors that can be executed concurrently.
+   */
+  List<List<Sensor>> groups(Collection<Sensor> sortedSensors) {
+    List<List<Sensor>> groups = new ArrayList<>();
+    List<Sensor> group = new ArrayList<>();
+    Set<Object> provided = new HashSet<>();
+    Phase.Name groupPhase = null;
+    for (Sensor sensor : sortedSensors) {
+      Phase.Name phase = selector.evaluatePhase(sensor);
+      if (!group.isEmpty() && !canJoin(sensor, phase, group, groupPhase, provided)) {
+        groups.add(group);
+        group = new ArrayList<>();
+        provided.clear();
+      }
+      group.add(sensor);
+      groupPhase = phase;
+      provided.add(sensor);
+      provided.addAll(selector.getDependents(sensor));
+    }
+    if (!group.isEmpty()) {
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  private boolean canJoin(Sensor sensor, Phase.Name phase, List<Sensor> group, Phase.Name groupPhase, Set<Object> provided) {
+    if (!(sensor instanceof SensorWrapper) || !(group.get(0) instanceof SensorWrapper) || phase != groupPhase) {
+      return false;
+    }
+    for (Object dependency : selector.getDependencies(sensor)) {
+      if (provided.contains(dependency)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void executeSensor(SensorContext context, Sensor sensor) {
-    eventBus.fireEvent(new SensorExecutionEvent(sensor, true));
+    fireEvent(new SensorExecutionEvent(sensor, true));
     sensor.analyse(module, context);
-    eventBus.fireEvent(new SensorExecutionEvent(sensor, false));
+    fireEvent(new SensorExecutionEvent(sensor, false));
+  }
+
+  /**
+   * Event handlers are not thread-safe
+   */
+  private synchronized void fireEvent(BatchEvent event) {
+    eventBus.fireEvent(event);
   }
 }
@@ -48,6 +48,8 @@ import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TimeUtils;
 import org.sonar.batch.bootstrap.BootstrapProperties;
 import org.sonar.batch.events.BatchStepHandler;
+import org.sonar.batch.scan.filesystem.FileContentCache;
+import org.sonar.batch.scan.filesystem.FileContentCache.FileReads;
 import org.sonar.batch.util.BatchUtils;
 
 import static org.sonar.batch.profiling.AbstractTimeProfiling.sortByDescendingTotalTime;
@@ -59,6 +61,7 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
   static final Logger LOG = LoggerFactory.getLogger(PhasesSumUpTimeProfiler.class);
   private static final int TEXT_RIGHT_PAD = 60;
   private static final int TIME_LEFT_PAD = 10;
+  private static final int MAX_LOGGED_FILES = 10;
 
   @VisibleForTesting
   ModuleProfiling currentModuleProfiling;
@@ -70,6 +73,7 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
   private DecoratorsProfiler decoratorsProfiler;
 
   private final System2 system;
+  private final FileContentCache contentCache;
   private final File out;
 
   static void println(String msg) {
@@ -85,13 +89,14 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
     println(sb.toString());
   }
 
-  public PhasesSumUpTimeProfiler(System2 system, BootstrapProperties bootstrapProps) {
+  public PhasesSumUpTimeProfiler(System2 system, BootstrapProperties bootstrapProps, FileContentCache contentCache) {
     String workingDirPath = StringUtils.defaultIfBlank(bootstrapProps.property(CoreProperties.WORKING_DIRECTORY), CoreProperties.WORKING_DIRECTORY_DEFAULT_VALUE);
     File workingDir = new File(workingDirPath).getAbsoluteFile();
     this.out = new File(workingDir, "profiling");
     this.out.mkdirs();
     this.totalProfiling = new ModuleProfiling(null, system);
     this.system = system;
+    this.contentCache = contentCache;
   }
 
   @Override
@@ -109,6 +114,7 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
       println("");
       Properties props = new Properties();
       currentModuleProfiling.dump(props);
+      dumpFileReads(props);
       println("");
       println(" -------- End of profiling of module " + module.getName() + " --------");
       println("");
@@ -121,6 +127,32 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
     }
   }
 
+  /**
+   * Reads of source files requested since the end of the previous module
+   */
+  private void dumpFileReads(Properties props) {
+    Map<File, FileReads> readsPerFile = contentCache.drainReads();
+    long requests = 0L;
+    long fromDisk = 0L;
+    List<String> rereadFiles = Lists.newArrayList();
+    for (Map.Entry<File, FileReads> entry : readsPerFile.entrySet()) {
+      String path = entry.getKey().getAbsolutePath();
+      FileReads reads = entry.getValue();
+      requests += reads.requests();
+      fromDisk += reads.fromDisk();
+      props.setProperty("File reads from disk " + path, Integer.toString(reads.fromDisk()));
+      props.setProperty("File content requests " + path, Integer.toString(reads.requests()));
+      if (reads.fromDisk() > 1) {
+        rereadFiles.add(path + ": " + reads.fromDisk() + " reads from disk");
+      }
+    }
+    println("");
+    println(" * File reads: " + readsPerFile.size() + " files, " + fromDisk + " reads from disk for " + requests + " content requests");
+    for (String rereadFile : rereadFiles.subList(0, Math.min(MAX_LOGGED_FILES, rereadFiles.size()))) {
+      println("   o " + rereadFile);
+    }
+  }
+
   private void dumpTotalExecutionSummary() {
     totalProfiling.stop();
     long totalTime = totalProfiling.totalTime();
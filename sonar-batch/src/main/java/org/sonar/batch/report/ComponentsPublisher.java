@@ -75,6 +75,9 @@ public class ComponentsPublisher implements ReportPublisherStep {
     if (batchComponent.isFile()) {
       builder.setIsTest(ResourceUtils.isUnitTestFile(r));
       builder.setLines(((InputFile) batchComponent.inputPath()).lines());
+      if (batchComponent.isCarriedOver()) {
+        builder.setIsCarriedOver(true);
+      }
     }
     String name = getName(r);
     if (name != null) {
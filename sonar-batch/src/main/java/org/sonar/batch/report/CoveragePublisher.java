@@ -49,7 +49,7 @@ public class CoveragePublisher implements ReportPublisherStep {
   @Override
   public void publish(BatchReportWriter writer) {
     for (final BatchComponent resource : resourceCache.all()) {
-      if (!resource.isFile()) {
+      if (!resource.isFile() || resource.isCarriedOver()) {
         continue;
       }
       Map<Integer, Coverage.Builder> coveragePerLine = new LinkedHashMap<>();
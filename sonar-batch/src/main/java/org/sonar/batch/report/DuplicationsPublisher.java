@@ -44,7 +44,7 @@ public class DuplicationsPublisher implements ReportPublisherStep {
   @Override
   public void publish(BatchReportWriter writer) {
     for (final BatchComponent resource : resourceCache.all()) {
-      if (!resource.isFile()) {
+      if (!resource.isFile() || resource.isCarriedOver()) {
         continue;
       }
       Iterable<DefaultDuplication> dups = duplicationCache.byComponent(resource.resource().getEffectiveKey());
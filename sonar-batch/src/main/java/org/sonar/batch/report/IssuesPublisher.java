@@ -44,6 +44,10 @@ public class IssuesPublisher implements ReportPublisherStep {
   @Override
   public void publish(BatchReportWriter writer) {
     for (BatchComponent resource : componentCache.all()) {
+      if (resource.isCarriedOver()) {
+        // the previous issues of the file are kept by the server
+        continue;
+      }
       String componentKey = resource.resource().getEffectiveKey();
       Iterable<DefaultIssue> issues = issueCache.byComponent(componentKey);
       writer.writeComponentIssues(resource.batchId(), Iterables.transform(issues, new Function<DefaultIssue, BatchReport.Issue>() {
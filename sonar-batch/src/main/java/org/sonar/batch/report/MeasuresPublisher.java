@@ -52,6 +52,10 @@ public class MeasuresPublisher implements ReportPublisherStep {
   @Override
   public void publish(BatchReportWriter writer) {
     for (final BatchComponent resource : resourceCache.all()) {
+      if (resource.isCarriedOver()) {
+        // the previous measures of the file are kept by the server
+        continue;
+      }
       Iterable<Measure> batchMeasures = measureCache.byResource(resource.resource());
       batchMeasures = Iterables.filter(batchMeasures, new Predicate<Measure>() {
         @Override
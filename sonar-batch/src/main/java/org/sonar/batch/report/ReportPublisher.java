@@ -84,6 +84,7 @@ public class ReportPublisher implements Startable {
 
   @Override
   public void stop() {
+    writer.close();
     if (!settings.getBoolean(KEEP_REPORT_PROP_KEY)) {
       FileUtils.deleteQuietly(reportDir);
     } else {
@@ -116,6 +117,7 @@ public class ReportPublisher implements Startable {
       for (ReportPublisherStep publisher : publishers) {
         publisher.publish(writer);
       }
+      writer.close();
       long stopTime = System.currentTimeMillis();
       LOG.info("Analysis reports generated in " + (stopTime - startTime) + "ms, dir size=" + FileUtils.byteCountToDisplaySize(FileUtils.sizeOfDirectory(reportDir)));
 
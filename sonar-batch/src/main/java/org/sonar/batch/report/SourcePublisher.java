@@ -19,55 +19,62 @@
  */
 package org.sonar.batch.report;
 
-import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BOMInputStream;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.batch.index.BatchComponent;
 import org.sonar.batch.index.BatchComponentCache;
 import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 public class SourcePublisher implements ReportPublisherStep {
 
   private final BatchComponentCache resourceCache;
+  private final FileContentCache contentCache;
 
-  public SourcePublisher(BatchComponentCache resourceCache) {
+  public SourcePublisher(BatchComponentCache resourceCache, FileContentCache contentCache) {
     this.resourceCache = resourceCache;
+    this.contentCache = contentCache;
   }
 
   @Override
   public void publish(BatchReportWriter writer) {
     for (final BatchComponent resource : resourceCache.all()) {
-      if (!resource.isFile()) {
+      if (!resource.isFile() || resource.isCarriedOver()) {
         continue;
       }
 
       DefaultInputFile inputFile = (DefaultInputFile) resource.inputPath();
       File iofile = writer.getSourceFile(resource.batchId());
-      int line = 0;
-      try (FileOutputStream output = new FileOutputStream(iofile); BOMInputStream bomIn = new BOMInputStream(new FileInputStream(inputFile.file()),
-        ByteOrderMark.UTF_8, ByteOrderMark.UTF_16LE, ByteOrderMark.UTF_16BE, ByteOrderMark.UTF_32LE, ByteOrderMark.UTF_32BE);
-        BufferedReader reader = new BufferedReader(new InputStreamReader(bomIn, inputFile.charset()))) {
-        String lineStr = reader.readLine();
-        while (lineStr != null) {
-          IOUtils.write(lineStr, output, StandardCharsets.UTF_8);
-          line++;
-          if (line < inputFile.lines()) {
-            IOUtils.write("\n", output, StandardCharsets.UTF_8);
-          }
-          lineStr = reader.readLine();
-        }
+      try (BufferedReader reader = new BufferedReader(contentCache.reader(inputFile.file(), inputFile.charset()));
+        Writer output = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(iofile)), StandardCharsets.UTF_8)) {
+        writeLines(reader, inputFile.lines(), output);
       } catch (IOException e) {
         throw new IllegalStateException("Unable to store file source in the report", e);
       }
     }
   }
+
+  /**
+   * Lines are written with Unix line ends
+   */
+  private static void writeLines(BufferedReader reader, int lines, Writer output) throws IOException {
+    int line = 0;
+    String lineStr = reader.readLine();
+    while (lineStr != null) {
+      output.write(lineStr);
+      line++;
+      if (line < lines) {
+        output.write('\n');
+      }
+      lineStr = reader.readLine();
+    }
+  }
 }
@@ -115,7 +115,7 @@ public class TestExecutionAndCoveragePublisher implements ReportPublisherStep {
   @Override
   public void publish(BatchReportWriter writer) {
     for (final BatchComponent component : componentCache.all()) {
-      if (!component.isFile()) {
+      if (!component.isFile() || component.isCarriedOver()) {
         continue;
       }
 
@@ -61,6 +61,7 @@ import org.sonar.batch.rule.QProfileSensor;
 import org.sonar.batch.rule.QProfileVerifier;
 import org.sonar.batch.rule.RuleFinderCompatibility;
 import org.sonar.batch.rule.RulesProfileProvider;
+import org.sonar.batch.scan.filesystem.CarriedOverFiles;
 import org.sonar.batch.scan.filesystem.ComponentIndexer;
 import org.sonar.batch.scan.filesystem.DefaultModuleFileSystem;
 import org.sonar.batch.scan.filesystem.DeprecatedFileFilters;
@@ -130,6 +131,7 @@ public class ModuleScanContainer extends ComponentContainer {
       StatusDetectionFactory.class,
       LanguageDetectionFactory.class,
       FileIndexer.class,
+      CarriedOverFiles.class,
       ComponentIndexer.class,
       LanguageVerifier.class,
       FileSystemLogger.class,
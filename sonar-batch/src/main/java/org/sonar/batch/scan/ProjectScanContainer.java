@@ -66,6 +66,7 @@ import org.sonar.batch.report.TestExecutionAndCoveragePublisher;
 import org.sonar.batch.repository.ProjectRepositoriesProvider;
 import org.sonar.batch.repository.language.DefaultLanguagesRepository;
 import org.sonar.batch.rule.ActiveRulesProvider;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 import org.sonar.batch.scan.filesystem.InputPathCache;
 import org.sonar.batch.scan.measure.DefaultMetricFinder;
 import org.sonar.batch.scan.measure.DeprecatedMetricFinder;
@@ -147,6 +148,7 @@ public class ProjectScanContainer extends ComponentContainer {
 
       // file system
       InputPathCache.class,
+      FileContentCache.class,
       PathResolver.class,
 
       // rules
@@ -0,0 +1,48 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.scan.filesystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.api.batch.BatchSide;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.batch.bootstrap.DefaultAnalysisMode;
+
+/**
+ * Files of the module which are unchanged since the previous analysis when they are carried over (see
+ * {@link DefaultAnalysisMode#isCarryOverUnchangedFiles()}). They are not added to the file system, so sensors
+ * don't analyze them, but they are still part of the components of the report.
+ */
+@BatchSide
+public class CarriedOverFiles {
+
+  private final List<InputFile> files = new ArrayList<>();
+
+  /**
+   * Called concurrently by {@link FileIndexer}
+   */
+  synchronized void add(InputFile inputFile) {
+    files.add(inputFile);
+  }
+
+  public synchronized List<InputFile> all() {
+    return new ArrayList<>(files);
+  }
+}
@@ -26,6 +26,7 @@ import org.sonar.api.resources.File;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
+import org.sonar.batch.index.BatchComponent;
 import org.sonar.batch.index.BatchComponentCache;
 
 /**
@@ -40,23 +41,32 @@ public class ComponentIndexer {
   private final SonarIndex sonarIndex;
   private final Project module;
   private final BatchComponentCache resourceCache;
+  private final CarriedOverFiles carriedOverFiles;
 
-  public ComponentIndexer(Project module, Languages languages, SonarIndex sonarIndex, BatchComponentCache resourceCache) {
+  public ComponentIndexer(Project module, Languages languages, SonarIndex sonarIndex, BatchComponentCache resourceCache, CarriedOverFiles carriedOverFiles) {
     this.module = module;
     this.languages = languages;
     this.sonarIndex = sonarIndex;
     this.resourceCache = resourceCache;
+    this.carriedOverFiles = carriedOverFiles;
   }
 
   public void execute(DefaultModuleFileSystem fs) {
     module.setBaseDir(fs.baseDir());
 
     for (InputFile inputFile : fs.inputFiles(fs.predicates().all())) {
-      String languageKey = inputFile.language();
-      boolean unitTest = InputFile.Type.TEST == inputFile.type();
-      Resource sonarFile = File.create(inputFile.relativePath(), languages.get(languageKey), unitTest);
-      sonarIndex.index(sonarFile);
-      resourceCache.get(sonarFile).setInputPath(inputFile);
+      index(inputFile);
     }
+    for (InputFile inputFile : carriedOverFiles.all()) {
+      index(inputFile).setCarriedOver(true);
+    }
+  }
+
+  private BatchComponent index(InputFile inputFile) {
+    String languageKey = inputFile.language();
+    boolean unitTest = InputFile.Type.TEST == inputFile.type();
+    Resource sonarFile = File.create(inputFile.relativePath(), languages.get(languageKey), unitTest);
+    sonarIndex.index(sonarFile);
+    return resourceCache.get(sonarFile).setInputPath(inputFile);
   }
 }
@@ -0,0 +1,222 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.scan.filesystem;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.input.CharSequenceReader;
+import org.sonar.api.batch.BatchSide;
+import org.sonar.api.batch.fs.internal.FileMetadata;
+import org.sonar.api.config.Settings;
+
+/**
+ * Decoded content of the source files, shared amongst all project modules, so that the steps of the analysis
+ * which read the same file (metadata, issue exclusions, duplications, issue tracking, report) decode it only once.
+ * The cache is bounded by the total number of chars it keeps (property {@value #MAX_CHARS_PROPERTY}), the least
+ * recently used contents being read again from disk when needed.
+ * <p>
+ * Files bigger than {@value #MAX_FILE_SIZE_PROPERTY} bytes, typically generated files, are not kept: decoding
+ * them at once needs several times their size in heap. Callers should stream them instead, see {@link #isCached(File)}.
+ * </p>
+ */
+@BatchSide
+public class FileContentCache {
+
+  /**
+   * Maximum number of chars kept in the cache. Default is 32M chars, which is 64MB of heap.
+   */
+  public static final String MAX_CHARS_PROPERTY = "sonar.batch.fileContentCache.maxChars";
+  private static final long DEFAULT_MAX_CHARS = 32L * 1024L * 1024L;
+
+  /**
+   * Maximum size in bytes of the files kept in the cache. Default is 1MB.
+   */
+  public static final String MAX_FILE_SIZE_PROPERTY = "sonar.batch.fileContentCache.maxFileSize";
+  private static final long DEFAULT_MAX_FILE_SIZE = 1024L * 1024L;
+
+  private final long maxFileSize;
+  private final LoadingCache<Key, String> contents;
+  private final ConcurrentMap<File, FileReads> readsPerFile = new ConcurrentHashMap<>();
+
+  public FileContentCache(Settings settings) {
+    this(positiveLong(settings, MAX_CHARS_PROPERTY, DEFAULT_MAX_CHARS), positiveLong(settings, MAX_FILE_SIZE_PROPERTY, DEFAULT_MAX_FILE_SIZE));
+  }
+
+  private FileContentCache(long maxChars, long maxFileSize) {
+    this.maxFileSize = Math.min(maxFileSize, maxChars);
+    this.contents = CacheBuilder.newBuilder()
+      // a single segment, so that files as big as the limit can be kept
+      .concurrencyLevel(1)
+      .maximumWeight(maxChars)
+      .weigher(new Weigher<Key, String>() {
+        @Override
+        public int weigh(Key key, String content) {
+          return content.length();
+        }
+      })
+      .build(new CacheLoader<Key, String>() {
+        @Override
+        public String load(Key key) {
+          // an immutable copy, as the content is shared by all the consumers
+          return readContent(key.file, key.encoding).toString();
+        }
+      });
+  }
+
+  private static long positiveLong(Settings settings, String key, long defaultValue) {
+    long value = settings.getLong(key);
+    return value > 0 ? value : defaultValue;
+  }
+
+  /**
+   * Whether the content of the file is kept in the cache. If not, each call to {@link #content(File, Charset)}
+   * reads the whole file again.
+   */
+  public boolean isCached(File file) {
+    return file.length() <= maxFileSize;
+  }
+
+  /**
+   * Content of the file, without its byte order mark if any.
+   * @throws IllegalStateException if the file can't be read
+   */
+  public CharSequence content(File file, Charset encoding) {
+    File absoluteFile = file.getAbsoluteFile();
+    reads(absoluteFile).requests.incrementAndGet();
+    if (!isCached(absoluteFile)) {
+      return readContent(absoluteFile, encoding);
+    }
+    try {
+      return contents.getUnchecked(new Key(absoluteFile, encoding));
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Reader of the content of the file, without its byte order mark if any. Files which are not kept in
+   * the cache are streamed from disk.
+   * @throws IllegalStateException if the file can't be read
+   */
+  public Reader reader(File file, Charset encoding) {
+    File absoluteFile = file.getAbsoluteFile();
+    if (isCached(absoluteFile)) {
+      return new CharSequenceReader(content(absoluteFile, encoding));
+    }
+    reads(absoluteFile).requests.incrementAndGet();
+    reads(absoluteFile).fromDisk.incrementAndGet();
+    try {
+      return FileMetadata.newReader(absoluteFile, encoding);
+    } catch (IOException e) {
+      throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", absoluteFile.getAbsolutePath(), encoding), e);
+    }
+  }
+
+  private CharSequence readContent(File file, Charset encoding) {
+    reads(file).fromDisk.incrementAndGet();
+    return FileMetadata.readContent(file, encoding);
+  }
+
+  /**
+   * Numbers of reads of each file requested since the previous call, in no particular order.
+   */
+  public Map<File, FileReads> drainReads() {
+    Map<File, FileReads> result = new HashMap<>();
+    for (File file : readsPerFile.keySet()) {
+      FileReads reads = readsPerFile.remove(file);
+      if (reads != null) {
+        result.put(file, reads);
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  private FileReads reads(File file) {
+    FileReads reads = readsPerFile.get(file);
+    if (reads == null) {
+      FileReads newReads = new FileReads();
+      reads = readsPerFile.putIfAbsent(file, newReads);
+      if (reads == null) {
+        reads = newReads;
+      }
+    }
+    return reads;
+  }
+
+  public static class FileReads {
+    private final AtomicInteger requests = new AtomicInteger(0);
+    private final AtomicInteger fromDisk = new AtomicInteger(0);
+
+    /**
+     * Number of times the content of the file has been requested
+     */
+    public int requests() {
+      return requests.get();
+    }
+
+    /**
+     * Number of times the file has been read from disk and decoded
+     */
+    public int fromDisk() {
+      return fromDisk.get();
+    }
+  }
+
+  private static final class Key {
+    private final File file;
+    private final Charset encoding;
+
+    private Key(File file, Charset encoding) {
+      this.file = file;
+      this.encoding = encoding;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return file.equals(that.file) && encoding.equals(that.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * file.hashCode() + encoding.hashCode();
+    }
+  }
+}
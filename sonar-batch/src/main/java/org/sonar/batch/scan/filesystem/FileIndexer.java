@@ -33,6 +33,7 @@ import org.sonar.api.batch.fs.internal.DefaultInputDir;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.scan.filesystem.PathResolver;
 import org.sonar.api.utils.MessageException;
+import org.sonar.batch.bootstrap.DefaultAnalysisMode;
 import org.sonar.batch.util.ProgressReport;
 
 import java.io.File;
@@ -64,16 +65,20 @@ public class FileIndexer {
   private final boolean isAggregator;
   private final ExclusionFilters exclusionFilters;
   private final InputFileBuilderFactory inputFileBuilderFactory;
+  private final DefaultAnalysisMode analysisMode;
+  private final CarriedOverFiles carriedOverFiles;
 
   private ProgressReport progressReport;
   private ExecutorService executorService;
   private List<Future<Void>> tasks;
 
   public FileIndexer(List<InputFileFilter> filters, ExclusionFilters exclusionFilters, InputFileBuilderFactory inputFileBuilderFactory,
-    ProjectDefinition def) {
+    ProjectDefinition def, DefaultAnalysisMode analysisMode, CarriedOverFiles carriedOverFiles) {
     this.filters = filters;
     this.exclusionFilters = exclusionFilters;
     this.inputFileBuilderFactory = inputFileBuilderFactory;
+    this.analysisMode = analysisMode;
+    this.carriedOverFiles = carriedOverFiles;
     this.isAggregator = !def.getSubProjects().isEmpty();
   }
 
@@ -155,6 +160,11 @@ public class FileIndexer {
       public Void call() {
         DefaultInputFile completedInputFile = inputFileBuilder.completeAndComputeMetadata(inputFile, type);
         if (completedInputFile != null && accept(completedInputFile)) {
+          if (analysisMode.isCarryOverUnchangedFiles() && completedInputFile.status() == InputFile.Status.SAME) {
+            carriedOverFiles.add(completedInputFile);
+            status.markAsIndexed(completedInputFile);
+            return null;
+          }
           fs.add(completedInputFile);
           status.markAsIndexed(completedInputFile);
           File parentDir = completedInputFile.file().getParentFile();
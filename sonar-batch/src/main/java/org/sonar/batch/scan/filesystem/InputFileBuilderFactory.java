@@ -36,10 +36,13 @@ public class InputFileBuilderFactory {
   private final DefaultAnalysisMode analysisMode;
   private final Settings settings;
   private final FileMetadata fileMetadata;
+  private final FileContentCache contentCache;
 
   public InputFileBuilderFactory(ProjectDefinition def, PathResolver pathResolver, LanguageDetectionFactory langDetectionFactory,
-    StatusDetectionFactory statusDetectionFactory, DefaultAnalysisMode analysisMode, Settings settings, FileMetadata fileMetadata) {
+    StatusDetectionFactory statusDetectionFactory, DefaultAnalysisMode analysisMode, Settings settings, FileMetadata fileMetadata,
+    FileContentCache contentCache) {
     this.fileMetadata = fileMetadata;
+    this.contentCache = contentCache;
     this.moduleKey = def.getKeyWithBranch();
     this.pathResolver = pathResolver;
     this.langDetectionFactory = langDetectionFactory;
@@ -49,6 +52,7 @@ public class InputFileBuilderFactory {
   }
 
   InputFileBuilder create(DefaultModuleFileSystem fs) {
-    return new InputFileBuilder(moduleKey, pathResolver, langDetectionFactory.create(), statusDetectionFactory.create(), fs, analysisMode, settings, fileMetadata);
+    return new InputFileBuilder(moduleKey, pathResolver, langDetectionFactory.create(), statusDetectionFactory.create(), fs, analysisMode, settings, fileMetadata,
+      contentCache);
   }
 }
@@ -19,10 +19,13 @@
  */
 package org.sonar.batch.bootstrap;
 
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.RemotePlugin;
 import org.sonar.home.cache.FileCache;
 
@@ -34,6 +37,9 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BatchPluginInstallerTest {
@@ -46,13 +52,14 @@ public class BatchPluginInstallerTest {
 
   FileCache fileCache = mock(FileCache.class);
   BatchPluginPredicate pluginPredicate = mock(BatchPluginPredicate.class);
+  BatchPluginJarExploder jarExploder = mock(BatchPluginJarExploder.class);
 
   @Test
   public void listRemotePlugins() {
 
     ServerClient server = mock(ServerClient.class);
     when(server.request("/deploy/plugins/index.txt")).thenReturn("checkstyle\nsqale");
-    BatchPluginInstaller installer = new BatchPluginInstaller(server, fileCache, pluginPredicate);
+    BatchPluginInstaller installer = new BatchPluginInstaller(server, fileCache, pluginPredicate, jarExploder);
 
     List<RemotePlugin> remotePlugins = installer.listRemotePlugins();
     assertThat(remotePlugins).extracting("key").containsOnly("checkstyle", "sqale");
@@ -64,7 +71,7 @@ public class BatchPluginInstallerTest {
     when(fileCache.get(eq("checkstyle-plugin.jar"), eq("fakemd5_1"), any(FileCache.Downloader.class))).thenReturn(pluginJar);
 
     ServerClient server = mock(ServerClient.class);
-    BatchPluginInstaller installer = new BatchPluginInstaller(server, fileCache, pluginPredicate);
+    BatchPluginInstaller installer = new BatchPluginInstaller(server, fileCache, pluginPredicate, jarExploder);
 
     RemotePlugin remote = new RemotePlugin("checkstyle").setFile("checkstyle-plugin.jar", "fakemd5_1");
     File file = installer.download(remote);
@@ -79,6 +86,43 @@ public class BatchPluginInstallerTest {
     ServerClient server = mock(ServerClient.class);
     doThrow(new IllegalStateException()).when(server).request("/deploy/plugins/index.txt");
 
-    new BatchPluginInstaller(server, fileCache, pluginPredicate).installRemotes();
+    new BatchPluginInstaller(server, fileCache, pluginPredicate, jarExploder).installRemotes();
+  }
+
+  @Test
+  public void download_and_explode_only_missing_plugins() throws Exception {
+    File cachedJar = pluginJar();
+    File downloadedJar = pluginJar();
+    when(fileCache.get("cached.jar", "md5_1")).thenReturn(cachedJar);
+    when(fileCache.get(eq("missing.jar"), eq("md5_2"), any(FileCache.Downloader.class))).thenReturn(downloadedJar);
+    when(pluginPredicate.apply(any(String.class))).thenReturn(true);
+
+    ServerClient server = mock(ServerClient.class);
+    when(server.request("/deploy/plugins/index.txt")).thenReturn("cached,cached.jar|md5_1\nmissing,missing.jar|md5_2");
+    Map<String, PluginInfo> infos = new BatchPluginInstaller(server, fileCache, pluginPredicate, jarExploder).installRemotes();
+
+    assertThat(infos.get("checkstyle").getNonNullJarFile()).isIn(cachedJar, downloadedJar);
+    verify(fileCache, never()).get(eq("cached.jar"), eq("md5_1"), any(FileCache.Downloader.class));
+    verify(fileCache).get(eq("missing.jar"), eq("md5_2"), any(FileCache.Downloader.class));
+    verify(jarExploder, times(1)).explode(any(PluginInfo.class));
+  }
+
+  @Test
+  public void fail_to_download_plugin() {
+    when(fileCache.get(eq("missing.jar"), eq("md5_2"), any(FileCache.Downloader.class))).thenThrow(new IllegalStateException("BUG"));
+    when(pluginPredicate.apply(any(String.class))).thenReturn(true);
+    ServerClient server = mock(ServerClient.class);
+    when(server.request("/deploy/plugins/index.txt")).thenReturn("missing,missing.jar|md5_2");
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Fail to download plugin: missing");
+
+    new BatchPluginInstaller(server, fileCache, pluginPredicate, jarExploder).installRemotes();
+  }
+
+  private File pluginJar() throws Exception {
+    File jar = new File(temp.newFolder(), "sonar-checkstyle-plugin-2.8.jar");
+    FileUtils.copyFile(FileUtils.toFile(getClass().getResource("/org/sonar/batch/bootstrap/BatchPluginUnzipperTest/sonar-checkstyle-plugin-2.8.jar")), jar);
+    return jar;
   }
 }
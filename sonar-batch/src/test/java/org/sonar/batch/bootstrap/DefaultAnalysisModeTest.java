@@ -81,4 +81,16 @@ public class DefaultAnalysisModeTest {
     assertThat(mode.isPreview()).isTrue();
     assertThat(mode.isIncremental()).isFalse();
   }
+
+  @Test
+  public void carry_over_unchanged_files_only_when_published() {
+    assertThat(new DefaultAnalysisMode(Collections.<String, String>emptyMap()).isCarryOverUnchangedFiles()).isFalse();
+
+    DefaultAnalysisMode mode = new DefaultAnalysisMode(ImmutableMap.of(DefaultAnalysisMode.CARRY_OVER_UNCHANGED_FILES_PROP_KEY, "true"));
+    assertThat(mode.isCarryOverUnchangedFiles()).isTrue();
+
+    mode = new DefaultAnalysisMode(Maps.newHashMap(ImmutableMap.of(CoreProperties.ANALYSIS_MODE, CoreProperties.ANALYSIS_MODE_INCREMENTAL,
+      DefaultAnalysisMode.CARRY_OVER_UNCHANGED_FILES_PROP_KEY, "true")));
+    assertThat(mode.isCarryOverUnchangedFiles()).isFalse();
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.cpd.index;
+
+import com.google.common.io.InputSupplier;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.batch.protocol.input.BatchInput;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DuplicationBlocksLoaderTest {
+
+  ServerClient serverClient = mock(ServerClient.class);
+  DuplicationBlocksLoader underTest = new DuplicationBlocksLoader(serverClient);
+
+  @Test
+  public void load_blocks() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BatchInput.DuplicationBlock.newBuilder().setResourceKey("bar:src/Bar.java").setHash("a8998353e96320ec").setIndexInFile(3).setStartLine(4).setEndLine(13)
+      .build().writeDelimitedTo(out);
+    when(serverClient.doRequest("/batch/duplications?key=foo&language=java&hashes=a8998353e96320ec,bbbc1d8c4e4da2d1", "POST", null))
+      .thenReturn(supplier(out.toByteArray()));
+
+    List<Block> blocks = underTest.load("foo", "java", Arrays.asList("a8998353e96320ec", "bbbc1d8c4e4da2d1"));
+
+    assertThat(blocks).extracting("resourceId", "blockHash", "indexInFile", "startLine", "endLine")
+      .containsOnly(tuple("bar:src/Bar.java", new ByteArray("a8998353e96320ec"), 3, 4, 13));
+  }
+
+  @Test
+  public void send_hashes_by_groups() throws IOException {
+    when(serverClient.doRequest(anyString(), eq("POST"), isNull(Integer.class))).thenReturn(supplier(new byte[0]), supplier(new byte[0]));
+    List<String> hashes = new ArrayList<>();
+    for (int i = 0; i < DuplicationBlocksLoader.HASHES_PER_REQUEST + 1; i++) {
+      hashes.add(String.format("%016x", i));
+    }
+
+    assertThat(underTest.load("foo", "java", hashes)).isEmpty();
+
+    verify(serverClient, times(2)).doRequest(anyString(), eq("POST"), isNull(Integer.class));
+  }
+
+  private static InputSupplier<InputStream> supplier(final byte[] bytes) {
+    return new InputSupplier<InputStream>() {
+      @Override
+      public InputStream getInput() {
+        return new ByteArrayInputStream(bytes);
+      }
+    };
+  }
+}
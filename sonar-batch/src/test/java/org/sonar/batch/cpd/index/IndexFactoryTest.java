@@ -19,17 +19,29 @@
  */
 package org.sonar.batch.cpd.index;
 
+import java.io.IOException;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.sonar.api.CoreProperties;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.batch.bootstrap.DefaultAnalysisMode;
+import org.sonar.batch.index.BatchComponentCache;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.batch.report.ReportPublisher;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class IndexFactoryTest {
@@ -39,16 +51,47 @@ public class IndexFactoryTest {
   IndexFactory factory;
   Logger logger;
   private DefaultAnalysisMode analysisMode;
+  BatchReportWriter writer;
+  BatchComponentCache componentCache;
 
   @Before
   public void setUp() {
     project = new Project("foo");
     settings = new Settings();
     analysisMode = mock(DefaultAnalysisMode.class);
-    factory = new IndexFactory(analysisMode, settings);
+    ReportPublisher reportPublisher = mock(ReportPublisher.class);
+    writer = mock(BatchReportWriter.class);
+    when(reportPublisher.getWriter()).thenReturn(writer);
+    componentCache = new BatchComponentCache();
+    componentCache.add(project, null);
+    componentCache.add(org.sonar.api.resources.File.create("src/Foo.java").setEffectiveKey("foo:src/Foo.java"), project);
+    factory = new IndexFactory(analysisMode, settings, reportPublisher, componentCache, mock(DuplicationBlocksLoader.class));
     logger = mock(Logger.class);
   }
 
+  @Test
+  public void create_cross_project_index() throws IOException {
+    settings.setProperty(CoreProperties.CPD_CROSS_PROJECT, "true");
+    SonarDuplicationsIndex index = factory.create(project, "java");
+    index.insert(new DefaultInputFile("foo", "src/Foo.java"), Arrays.asList(block()));
+    index.close();
+
+    verify(writer).writeCpdTextBlocks(eq(2), anyListOf(BatchReport.CpdTextBlock.class));
+  }
+
+  @Test
+  public void create_local_index_if_cross_project_is_disabled() throws IOException {
+    SonarDuplicationsIndex index = factory.create(project, "java");
+    index.insert(new DefaultInputFile("foo", "src/Foo.java"), Arrays.asList(block()));
+    index.close();
+
+    verifyZeroInteractions(writer);
+  }
+
+  private static Block block() {
+    return Block.builder().setResourceId("foo:src/Foo.java").setBlockHash(new ByteArray("a8998353e96320ec")).setIndexInFile(0).setLines(1, 10).build();
+  }
+
   @Test
   public void crossProjectEnabled() {
     settings.setProperty(CoreProperties.CPD_CROSS_PROJECT, "true");
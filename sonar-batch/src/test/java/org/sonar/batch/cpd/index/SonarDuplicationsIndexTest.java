@@ -0,0 +1,128 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.cpd.index;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.resources.Project;
+import org.sonar.batch.index.BatchComponentCache;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportReader;
+import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class SonarDuplicationsIndexTest {
+
+  private static final String HASH_A = "a8998353e96320ec";
+  private static final String HASH_B = "bbbc1d8c4e4da2d1";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  DefaultInputFile inputFile = new DefaultInputFile("foo", "src/Foo.java");
+  BatchComponentCache componentCache = new BatchComponentCache();
+  DuplicationBlocksLoader blocksLoader = mock(DuplicationBlocksLoader.class);
+  File reportDir;
+  BatchReportWriter writer;
+  int fileRef;
+
+  @Before
+  public void setUp() throws IOException {
+    Project project = new Project("foo");
+    componentCache.add(project, null);
+    fileRef = componentCache.add(org.sonar.api.resources.File.create("src/Foo.java").setEffectiveKey("foo:src/Foo.java"), project).batchId();
+    reportDir = temp.newFolder();
+    writer = new BatchReportWriter(reportDir);
+  }
+
+  @Test
+  public void local_index_does_not_write_blocks_nor_load_blocks_from_server() throws IOException {
+    SonarDuplicationsIndex index = new SonarDuplicationsIndex();
+    index.insert(inputFile, Arrays.asList(block("foo:src/Foo.java", HASH_A, 0, 1, 10)));
+    index.loadCrossProjectBlocks();
+
+    assertThat(index.getByInputFile(inputFile, "foo:src/Foo.java")).hasSize(1);
+    assertThat(index.getBySequenceHash(new ByteArray(HASH_A))).hasSize(1);
+    index.close();
+  }
+
+  @Test
+  public void cross_project_index_writes_blocks_to_report() throws IOException {
+    SonarDuplicationsIndex index = new SonarDuplicationsIndex("foo", "java", blocksLoader, writer, componentCache);
+    index.insert(inputFile, Arrays.asList(block("foo:src/Foo.java", HASH_A, 0, 1, 10), block("foo:src/Foo.java", HASH_B, 1, 2, 11)));
+    writer.close();
+
+    Collection<BatchReport.CpdTextBlock> textBlocks = new BatchReportReader(reportDir).readCpdTextBlocks(fileRef);
+    assertThat(textBlocks).containsExactly(
+      BatchReport.CpdTextBlock.newBuilder().setHash(HASH_A).setIndexInFile(0).setStartLine(1).setEndLine(10).build(),
+      BatchReport.CpdTextBlock.newBuilder().setHash(HASH_B).setIndexInFile(1).setStartLine(2).setEndLine(11).build());
+    index.close();
+  }
+
+  @Test
+  public void cross_project_index_loads_blocks_of_other_modules_with_same_hashes() throws IOException {
+    when(blocksLoader.load(eq("foo"), eq("java"), anyCollectionOf(String.class))).thenReturn(Arrays.asList(block("bar:src/Bar.java", HASH_A, 3, 4, 13)));
+
+    SonarDuplicationsIndex index = new SonarDuplicationsIndex("foo", "java", blocksLoader, writer, componentCache);
+    index.insert(inputFile, Arrays.asList(block("foo:src/Foo.java", HASH_A, 0, 1, 10)));
+    index.loadCrossProjectBlocks();
+
+    verify(blocksLoader).load("foo", "java", ImmutableSet.of(HASH_A));
+    assertThat(index.getByInputFile(inputFile, "foo:src/Foo.java")).hasSize(1);
+    assertThat(index.getBySequenceHash(new ByteArray(HASH_A))).extracting("resourceId").containsOnly("foo:src/Foo.java", "bar:src/Bar.java");
+    index.close();
+  }
+
+  @Test
+  public void do_not_request_server_if_no_blocks() throws IOException {
+    SonarDuplicationsIndex index = new SonarDuplicationsIndex("foo", "java", blocksLoader, writer, componentCache);
+    index.insert(inputFile, Arrays.<Block>asList());
+    index.loadCrossProjectBlocks();
+
+    verifyZeroInteractions(blocksLoader);
+    index.close();
+  }
+
+  private static Block block(String resourceId, String hash, int indexInFile, int startLine, int endLine) {
+    return Block.builder()
+      .setResourceId(resourceId)
+      .setBlockHash(new ByteArray(hash))
+      .setIndexInFile(indexInFile)
+      .setLines(startLine, endLine)
+      .build();
+  }
+}
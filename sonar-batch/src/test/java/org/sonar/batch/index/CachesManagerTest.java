@@ -31,6 +31,8 @@ import org.sonar.batch.bootstrap.BootstrapProperties;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import org.sonar.api.utils.MessageException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -40,9 +42,16 @@ public class CachesManagerTest {
   public static TemporaryFolder temp = new TemporaryFolder();
 
   public static CachesManager createCacheOnTemp(TemporaryFolder temp) {
+    return createCacheOnTemp(temp, ImmutableMap.<String, String>of());
+  }
+
+  public static CachesManager createCacheOnTemp(TemporaryFolder temp, Map<String, String> props) {
     try {
-      BootstrapProperties bootstrapProps = new BootstrapProperties(ImmutableMap.of(CoreProperties.WORKING_DIRECTORY, temp.newFolder().getAbsolutePath()));
-      return new CachesManager(new TempFolderProvider().provide(bootstrapProps));
+      BootstrapProperties bootstrapProps = new BootstrapProperties(ImmutableMap.<String, String>builder()
+        .put(CoreProperties.WORKING_DIRECTORY, temp.newFolder().getAbsolutePath())
+        .putAll(props)
+        .build());
+      return new CachesManager(new TempFolderProvider().provide(bootstrapProps), bootstrapProps);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -69,4 +78,30 @@ public class CachesManagerTest {
     assertThat(cachesMgr.tempDir()).isNull();
     assertThat(cachesMgr.persistit()).isNull();
   }
+
+  @Test
+  public void disk_store_by_default() {
+    assertThat(cachesMgr.storeType()).isEqualTo(CachesManager.StoreType.DISK);
+  }
+
+  @Test
+  public void configure_store() {
+    CachesManager manager = createCacheOnTemp(temp, ImmutableMap.of(CachesManager.STORE_PROPERTY, "Memory", CachesManager.BUFFER_COUNT_PROPERTY, "20"));
+    try {
+      assertThat(manager.storeType()).isEqualTo(CachesManager.StoreType.MEMORY);
+      assertThat(manager.persistit().getProperty("buffer.count.8192")).isEqualTo("20");
+    } finally {
+      manager.stop();
+    }
+  }
+
+  @Test(expected = MessageException.class)
+  public void fail_if_unknown_store() {
+    createCacheOnTemp(temp, ImmutableMap.of(CachesManager.STORE_PROPERTY, "foo"));
+  }
+
+  @Test(expected = MessageException.class)
+  public void fail_if_invalid_buffer_count() {
+    createCacheOnTemp(temp, ImmutableMap.of(CachesManager.BUFFER_COUNT_PROPERTY, "-1"));
+  }
 }
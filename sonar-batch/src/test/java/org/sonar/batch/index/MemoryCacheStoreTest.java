@@ -0,0 +1,161 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.index;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemoryCacheStoreTest {
+
+  @ClassRule
+  public static TemporaryFolder temp = new TemporaryFolder();
+
+  CachesManager cachesManager;
+
+  @After
+  public void stop() {
+    if (cachesManager != null) {
+      cachesManager.stop();
+    }
+  }
+
+  @Test
+  public void sort_keys_part_by_part() {
+    MemoryCacheStore<String> store = new MemoryCacheStore<>();
+    store.put(new Object[] {"europe", "italy", 2}, "milan");
+    store.put(new Object[] {"europe", "france", 10}, "lyon");
+    store.put(new Object[] {"europe", "france", 2}, "paris");
+    store.put(new Object[] {"europe"}, "continent");
+    store.put(new Object[] {"asia", "china", 1}, "pekin");
+
+    assertThat(store.keySet(new Object[0])).containsExactly("asia", "europe");
+    assertThat(store.keySet(new Object[] {"europe"})).containsExactly("france", "italy");
+    assertThat(store.keySet(new Object[] {"europe", "france"})).containsExactly(2, 10);
+    // the value of the prefix itself is not part of its sub-keys
+    assertThat(Iterators.toArray(store.values(new Object[] {"europe"}), String.class)).containsExactly("paris", "lyon", "milan");
+
+    Cache.Entry<String> first = store.entries(new Object[0]).next();
+    assertThat(first.key()).isEqualTo(new Object[] {"asia", "china", 1});
+    assertThat(first.value()).isEqualTo("pekin");
+  }
+
+  @Test
+  public void clear_removes_key_and_sub_keys() {
+    MemoryCacheStore<String> store = new MemoryCacheStore<>();
+    store.put(new Object[] {"europe"}, "continent");
+    store.put(new Object[] {"europe", "france"}, "paris");
+    store.put(new Object[] {"europe2", "ukrania"}, "kiev");
+
+    store.clear(new Object[] {"europe"});
+
+    assertThat(store.containsKey(new Object[] {"europe"})).isFalse();
+    assertThat(store.containsKey(new Object[] {"europe", "france"})).isFalse();
+    assertThat(store.get(new Object[] {"europe2", "ukrania"})).isEqualTo("kiev");
+  }
+
+  @Test
+  public void key_is_copied() {
+    MemoryCacheStore<String> store = new MemoryCacheStore<>();
+    Object[] key = {"europe", "france"};
+    store.put(key, "paris");
+    key[1] = "italy";
+
+    assertThat(store.get(new Object[] {"europe", "france"})).isEqualTo("paris");
+    assertThat(store.containsKey(key)).isFalse();
+  }
+
+  @Test
+  public void value_is_not_copied() {
+    MemoryCacheStore<List<String>> store = new MemoryCacheStore<>();
+    List<String> cities = new ArrayList<>();
+    store.put(new Object[] {"europe"}, cities);
+    cities.add("paris");
+
+    assertThat(store.get(new Object[] {"europe"})).isSameAs(cities).containsOnly("paris");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fail_if_key_part_is_not_comparable() {
+    MemoryCacheStore<String> store = new MemoryCacheStore<>();
+    store.put(new Object[] {new Object()}, "foo");
+    store.put(new Object[] {new Object()}, "bar");
+  }
+
+  @Test
+  public void sort_parts_of_different_types_as_disk_store() {
+    Object[] parts = {"b", 2L, 'c', 1, true, "a", 1.5d};
+    assertThat(keysOfStore("memory", parts)).containsExactlyElementsOf(keysOfStore("disk", parts));
+  }
+
+  private List<Object> keysOfStore(String storeType, Object[] parts) {
+    cachesManager = CachesManagerTest.createCacheOnTemp(temp, ImmutableMap.of(CachesManager.STORE_PROPERTY, storeType));
+    Caches caches = new Caches(cachesManager);
+    try {
+      Cache<String> cache = caches.createCache("mixed");
+      for (Object part : parts) {
+        cache.put("prefix", part, "value");
+      }
+      return new ArrayList<>(cache.keySet("prefix"));
+    } finally {
+      caches.stop();
+      cachesManager.stop();
+      cachesManager = null;
+    }
+  }
+
+  @Test
+  public void support_concurrent_writes() throws Exception {
+    final MemoryCacheStore<Integer> store = new MemoryCacheStore<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final int thread = t;
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          for (int i = 0; i < 1000; i++) {
+            store.put(new Object[] {thread, i}, i);
+          }
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    for (int t = 0; t < 4; t++) {
+      assertThat(store.keySet(new Object[] {t})).hasSize(1000);
+    }
+  }
+}
@@ -34,13 +34,13 @@ import org.sonar.api.utils.SonarException;
 import org.sonar.batch.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.batch.issue.ignore.pattern.IssueInclusionPatternInitializer;
 import org.sonar.batch.issue.ignore.pattern.PatternMatcher;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import java.io.File;
 import java.io.IOException;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -65,6 +65,9 @@ public class IssueExclusionsLoaderTest {
   @Mock
   private PatternMatcher patternMatcher;
 
+  @Mock
+  private FileContentCache contentCache;
+
   private DefaultFileSystem fs;
   private IssueExclusionsLoader scanner;
   private File baseDir;
@@ -74,7 +77,7 @@ public class IssueExclusionsLoaderTest {
     baseDir = temp.newFolder();
     fs = new DefaultFileSystem(baseDir.toPath()).setEncoding(UTF_8);
     MockitoAnnotations.initMocks(this);
-    scanner = new IssueExclusionsLoader(regexpScanner, exclusionPatternInitializer, inclusionPatternInitializer, fs);
+    scanner = new IssueExclusionsLoader(regexpScanner, exclusionPatternInitializer, inclusionPatternInitializer, fs, contentCache);
   }
 
   @Test
@@ -112,6 +115,8 @@ public class IssueExclusionsLoaderTest {
       .setType(InputFile.Type.TEST));
 
     when(exclusionPatternInitializer.hasFileContentPattern()).thenReturn(true);
+    when(contentCache.content(javaFile1, UTF_8)).thenReturn("foo");
+    when(contentCache.content(javaTestFile1, UTF_8)).thenReturn("fooTest");
 
     scanner.execute();
 
@@ -119,8 +124,8 @@ public class IssueExclusionsLoaderTest {
     verify(inclusionPatternInitializer).initializePatternsForPath("src/test/java/FooTest.java", "polop:src/test/java/FooTest.java");
     verify(exclusionPatternInitializer).initializePatternsForPath("src/main/java/Foo.java", "polop:src/main/java/Foo.java");
     verify(exclusionPatternInitializer).initializePatternsForPath("src/test/java/FooTest.java", "polop:src/test/java/FooTest.java");
-    verify(regexpScanner).scan("polop:src/main/java/Foo.java", javaFile1, UTF_8);
-    verify(regexpScanner).scan("polop:src/test/java/FooTest.java", javaTestFile1, UTF_8);
+    verify(regexpScanner).scan("polop:src/main/java/Foo.java", "foo");
+    verify(regexpScanner).scan("polop:src/test/java/FooTest.java", "fooTest");
   }
 
   @Test
@@ -149,7 +154,7 @@ public class IssueExclusionsLoaderTest {
       .setType(InputFile.Type.MAIN));
 
     when(exclusionPatternInitializer.hasFileContentPattern()).thenReturn(true);
-    doThrow(new IOException("BUG")).when(regexpScanner).scan("polop:src/Foo.php", phpFile1, UTF_8);
+    when(contentCache.content(phpFile1, UTF_8)).thenThrow(new IllegalStateException("BUG"));
 
     thrown.expect(SonarException.class);
     thrown.expectMessage("Unable to read the source file");
@@ -22,8 +22,11 @@ package org.sonar.batch.issue.ignore.scanner;
 
 import com.google.common.collect.Sets;
 import com.google.common.io.Resources;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.sonar.batch.issue.ignore.pattern.IssueExclusionPatternInitializer;
@@ -34,8 +37,10 @@ import org.sonar.batch.issue.ignore.pattern.PatternMatcher;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -43,6 +48,9 @@ import static org.mockito.Mockito.when;
 
 public class IssueExclusionsRegexpScannerTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private IssueExclusionsRegexpScanner regexpScanner;
 
   private String javaFile;
@@ -166,4 +174,47 @@ public class IssueExclusionsRegexpScannerTest {
     verifyNoMoreInteractions(patternsInitializer);
   }
 
+  @Test
+  public void shouldSupportAllLineTerminators() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "a\r\n// SONAR-OFF\rb\n\n  \r\n// SONAR-ON\r\nc", UTF_8);
+
+    regexpScanner.scan(javaFile, file, UTF_8);
+
+    verify(patternMatcher).addPatternToExcludeLines(javaFile, Sets.newHashSet(new LineRange(2, 6)));
+  }
+
+  @Test
+  public void shouldMatchLinesWithAnchors() throws Exception {
+    when(blockPattern1.getBeginBlockRegexp()).thenReturn("^OFF$");
+    when(blockPattern1.getEndBlockRegexp()).thenReturn("^ON$");
+    regexpScanner = new IssueExclusionsRegexpScanner(patternsInitializer);
+    File file = temp.newFile();
+    FileUtils.write(file, "a OFF\nOFF\nb\nON b\nON\nc", UTF_8);
+
+    regexpScanner.scan(javaFile, file, UTF_8);
+
+    verify(patternMatcher).addPatternToExcludeLines(javaFile, Sets.newHashSet(new LineRange(2, 5)));
+  }
+
+  @Test
+  public void shouldSupportPatternsWhichCanNotBeCombined() throws Exception {
+    when(allFilePattern.getAllFileRegexp()).thenReturn("(IGNORE)-\\1");
+    when(blockPattern1.getBeginBlockRegexp()).thenReturn("(?<tag>OFF)");
+    when(blockPattern2.getBeginBlockRegexp()).thenReturn("(?<tag>FOO-OFF)");
+    regexpScanner = new IssueExclusionsRegexpScanner(patternsInitializer);
+    File file = temp.newFile();
+    FileUtils.write(file, "a\nFOO-OFF\nb\n// FOO-ON\nIGNORE-IGNORE", UTF_8);
+
+    regexpScanner.scan(javaFile, file, UTF_8);
+
+    verify(patternMatcher).addPatternToExcludeResource(javaFile);
+  }
+
+  @Test
+  public void shouldNotCombinePatternsWithBackReferences() {
+    assertThat(IssueExclusionsRegexpScanner.unionMatcher(Arrays.asList(Pattern.compile("a"), Pattern.compile("(b)\\1")))).isNull();
+    assertThat(IssueExclusionsRegexpScanner.unionMatcher(Arrays.asList(Pattern.compile("a"), Pattern.compile("b")))).isNotNull();
+  }
+
 }
@@ -27,6 +27,8 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Settings;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
@@ -59,7 +61,7 @@ public class SourceHashHolderTest {
     when(file.lines()).thenReturn(1);
     when(file.charset()).thenReturn(StandardCharsets.UTF_8);
 
-    sourceHashHolder = new SourceHashHolder(file, lastSnapshots);
+    sourceHashHolder = new SourceHashHolder(file, lastSnapshots, new FileContentCache(new Settings()));
   }
 
   @Test
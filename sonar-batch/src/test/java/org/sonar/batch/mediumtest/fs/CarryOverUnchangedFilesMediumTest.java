@@ -0,0 +1,109 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.mediumtest.fs;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.issue.Issue;
+import org.sonar.batch.bootstrap.DefaultAnalysisMode;
+import org.sonar.batch.mediumtest.BatchMediumTester;
+import org.sonar.batch.mediumtest.TaskResult;
+import org.sonar.batch.protocol.input.ActiveRule;
+import org.sonar.batch.protocol.input.FileData;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.xoo.XooPlugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CarryOverUnchangedFilesMediumTest {
+
+  private static final String SAMPLE_CONTENT = "Sample content\nwith\n4\nlines";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  public BatchMediumTester tester = BatchMediumTester.builder()
+    .bootstrapProperties(ImmutableMap.of(DefaultAnalysisMode.CARRY_OVER_UNCHANGED_FILES_PROP_KEY, "true"))
+    .registerPlugin("xoo", new XooPlugin())
+    .addDefaultQProfile("xoo", "Sonar Way")
+    .activateRule(new ActiveRule("xoo", "OneIssuePerLine", null, "One issue per line", "MAJOR", null, "xoo"))
+    .addFileData("sample", "src/sample.xoo", new FileData(DigestUtils.md5Hex(SAMPLE_CONTENT), false))
+    .addFileData("sample", "src/unchanged.xoo", new FileData(DigestUtils.md5Hex(SAMPLE_CONTENT), false))
+    .build();
+
+  @Before
+  public void prepare() {
+    tester.start();
+  }
+
+  @After
+  public void stop() {
+    tester.stop();
+  }
+
+  @Test
+  public void unchanged_files_are_only_referenced_by_the_report() throws IOException {
+    File baseDir = temp.newFolder();
+    File srcDir = new File(baseDir, "src");
+    srcDir.mkdir();
+    FileUtils.write(new File(srcDir, "sample.xoo"), SAMPLE_CONTENT + "\nmodification");
+    FileUtils.write(new File(srcDir, "unchanged.xoo"), SAMPLE_CONTENT);
+
+    TaskResult result = tester.newTask()
+      .properties(ImmutableMap.<String, String>builder()
+        .put("sonar.task", "scan")
+        .put("sonar.projectBaseDir", baseDir.getAbsolutePath())
+        .put("sonar.projectKey", "sample")
+        .put("sonar.projectName", "Foo Project")
+        .put("sonar.projectVersion", "1.0-SNAPSHOT")
+        .put("sonar.projectDescription", "Description of Foo Project")
+        .put("sonar.sources", "src")
+        .build())
+      .start();
+
+    // only the changed file is analyzed
+    assertThat(result.inputFiles()).hasSize(1);
+    assertThat(result.inputFiles().iterator().next().relativePath()).isEqualTo("src/sample.xoo");
+    for (Issue issue : result.issues()) {
+      assertThat(issue.componentKey()).isEqualTo("sample:src/sample.xoo");
+    }
+
+    BatchReport.Component changed = result.getReportComponent("sample:src/sample.xoo");
+    assertThat(changed.getIsCarriedOver()).isFalse();
+    assertThat(result.getReportReader().readComponentIssues(changed.getRef())).hasSize(5);
+
+    BatchReport.Component unchanged = result.getReportComponent("sample:src/unchanged.xoo");
+    assertThat(unchanged.getIsCarriedOver()).isTrue();
+    assertThat(unchanged.getLines()).isEqualTo(4);
+    assertThat(result.getReportReader().readComponentIssues(unchanged.getRef())).isEmpty();
+    assertThat(result.getReportReader().readComponentMeasures(unchanged.getRef())).isEmpty();
+    assertThat(result.getReportReader().readComponentCoverage(unchanged.getRef())).isNull();
+    assertThat(result.getReportReader().hasSyntaxHighlighting(unchanged.getRef())).isFalse();
+  }
+
+}
@@ -68,6 +68,7 @@ public class IncrementalModeMediumTest {
     .activateRule(new ActiveRule("manual", "MyManualIssue", null, "My manual issue", "MAJOR", null, null))
     .setPreviousAnalysisDate(new Date())
     .addFileData("sample", "src/sample.xoo", new FileData(DigestUtils.md5Hex(SAMPLE_CONTENT), false))
+    .addFileData("sample", "src/unchanged.xoo", new FileData(DigestUtils.md5Hex(SAMPLE_CONTENT), false))
     .mockLineHashes("sample:src/sample.xoo",
       new String[] {DigestUtils.md5Hex("Samplecontent"), DigestUtils.md5Hex("oldcode"), DigestUtils.md5Hex("4"), DigestUtils.md5Hex("lines")})
     // Remote open issue => will be tracked and not new
@@ -157,4 +158,32 @@ public class IncrementalModeMediumTest {
     assertThat(resolvedIssue).isEqualTo(1);
   }
 
+  @Test
+  public void skipUnchangedFiles() throws Exception {
+    File baseDir = temp.newFolder();
+    File srcDir = new File(baseDir, "src");
+    srcDir.mkdir();
+
+    FileUtils.write(new File(srcDir, "sample.xoo"), SAMPLE_CONTENT + "\nmodification");
+    FileUtils.write(new File(srcDir, "unchanged.xoo"), SAMPLE_CONTENT);
+
+    TaskResult result = tester.newTask()
+      .properties(ImmutableMap.<String, String>builder()
+        .put("sonar.task", "scan")
+        .put("sonar.projectBaseDir", baseDir.getAbsolutePath())
+        .put("sonar.projectKey", "sample")
+        .put("sonar.projectName", "Foo Project")
+        .put("sonar.projectVersion", "1.0-SNAPSHOT")
+        .put("sonar.projectDescription", "Description of Foo Project")
+        .put("sonar.sources", "src")
+        .build())
+      .start();
+
+    assertThat(result.inputFiles()).hasSize(1);
+    assertThat(result.inputFiles().iterator().next().relativePath()).isEqualTo("src/sample.xoo");
+    for (Issue issue : result.issues()) {
+      assertThat(issue.componentKey()).isNotEqualTo("sample:src/unchanged.xoo");
+    }
+  }
+
 }
@@ -0,0 +1,176 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.phases;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.Sensor;
+import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.Project;
+import org.sonar.batch.bootstrap.BatchExtensionDictionnary;
+import org.sonar.batch.events.EventBus;
+import org.sonar.batch.sensor.SensorOptimizer;
+import org.sonar.batch.sensor.SensorWrapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SensorsExecutorTest {
+
+  Project project = new Project("project");
+  BatchExtensionDictionnary selector = mock(BatchExtensionDictionnary.class);
+  Settings settings = new Settings();
+  SensorContext context = mock(SensorContext.class);
+  SensorsExecutor executor;
+
+  @Before
+  public void setUp() {
+    when(selector.evaluatePhase(any())).thenReturn(Phase.Name.DEFAULT);
+    when(selector.getDependencies(any())).thenReturn(Collections.emptyList());
+    when(selector.getDependents(any())).thenReturn(Collections.emptyList());
+    executor = new SensorsExecutor(selector, project, mock(EventBus.class), settings);
+  }
+
+  @Test
+  public void execute_sensors_sequentially_by_default() {
+    Sensor sensor1 = mock(Sensor.class);
+    Sensor sensor2 = mock(Sensor.class);
+    when(selector.select(Sensor.class, project, true, null)).thenReturn(Arrays.asList(sensor1, sensor2));
+
+    executor.execute(context);
+
+    verify(sensor1).analyse(project, context);
+    verify(sensor2).analyse(project, context);
+  }
+
+  @Test
+  public void execute_new_sensors_concurrently() {
+    settings.setProperty(SensorsExecutor.THREADS_PROPERTY, 2);
+    // each sensor waits for the other one to be started
+    CountDownLatch latch = new CountDownLatch(2);
+    LatchSensor sensor1 = new LatchSensor(latch);
+    LatchSensor sensor2 = new LatchSensor(latch);
+    when(selector.select(Sensor.class, project, true, null)).thenReturn(Arrays.<Sensor>asList(wrap(sensor1), wrap(sensor2)));
+
+    executor.execute(context);
+
+    assertThat(sensor1.executed).isTrue();
+    assertThat(sensor2.executed).isTrue();
+  }
+
+  @Test
+  public void group_only_new_sensors_of_same_phase() {
+    Sensor legacy = mock(Sensor.class);
+    Sensor new1 = wrap(new LatchSensor(new CountDownLatch(0)));
+    Sensor new2 = wrap(new LatchSensor(new CountDownLatch(0)));
+    Sensor new3 = wrap(new LatchSensor(new CountDownLatch(0)));
+    Sensor new4 = wrap(new LatchSensor(new CountDownLatch(0)));
+    when(selector.evaluatePhase(new4)).thenReturn(Phase.Name.POST);
+
+    List<List<Sensor>> groups = executor.groups(Arrays.asList(new1, new2, legacy, new3, new4));
+
+    assertThat(groups).hasSize(4);
+    assertThat(groups.get(0)).containsExactly(new1, new2);
+    assertThat(groups.get(1)).containsExactly(legacy);
+    assertThat(groups.get(2)).containsExactly(new3);
+    assertThat(groups.get(3)).containsExactly(new4);
+  }
+
+  @Test
+  public void do_not_group_dependent_sensors() {
+    Sensor new1 = wrap(new LatchSensor(new CountDownLatch(0)));
+    Sensor new2 = wrap(new LatchSensor(new CountDownLatch(0)));
+    when(selector.getDependents(new1)).thenReturn(Arrays.<Object>asList("foo"));
+    when(selector.getDependencies(new2)).thenReturn(Arrays.<Object>asList("foo"));
+
+    List<List<Sensor>> groups = executor.groups(Arrays.asList(new1, new2));
+
+    assertThat(groups).hasSize(2);
+  }
+
+  @Test
+  public void fail_if_a_concurrent_sensor_fails() {
+    settings.setProperty(SensorsExecutor.THREADS_PROPERTY, 2);
+    LatchSensor sensor1 = new LatchSensor(new CountDownLatch(0));
+    when(selector.select(Sensor.class, project, true, null)).thenReturn(Arrays.<Sensor>asList(wrap(sensor1), wrap(new FailingSensor())));
+
+    try {
+      executor.execute(context);
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("failure");
+    }
+    assertThat(sensor1.executed).isTrue();
+  }
+
+  private static Sensor wrap(org.sonar.api.batch.sensor.Sensor sensor) {
+    SensorOptimizer optimizer = mock(SensorOptimizer.class);
+    return new SensorWrapper(sensor, mock(org.sonar.api.batch.sensor.SensorContext.class), optimizer);
+  }
+
+  private static class LatchSensor implements org.sonar.api.batch.sensor.Sensor {
+    private final CountDownLatch latch;
+    private volatile boolean executed = false;
+
+    LatchSensor(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("latch");
+    }
+
+    @Override
+    public void execute(org.sonar.api.batch.sensor.SensorContext context) {
+      latch.countDown();
+      try {
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      executed = true;
+    }
+  }
+
+  private static class FailingSensor implements org.sonar.api.batch.sensor.Sensor {
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+      descriptor.name("failing");
+    }
+
+    @Override
+    public void execute(org.sonar.api.batch.sensor.SensorContext context) {
+      throw new IllegalStateException("failure");
+    }
+  }
+}
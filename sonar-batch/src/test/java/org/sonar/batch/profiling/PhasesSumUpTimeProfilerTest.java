@@ -20,10 +20,16 @@
 package org.sonar.batch.profiling;
 
 import com.google.common.collect.Maps;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -47,11 +53,13 @@ import org.sonar.api.batch.events.SensorExecutionHandler;
 import org.sonar.api.batch.events.SensorExecutionHandler.SensorExecutionEvent;
 import org.sonar.api.batch.events.SensorsPhaseHandler;
 import org.sonar.api.batch.events.SensorsPhaseHandler.SensorsPhaseEvent;
+import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.utils.System2;
 import org.sonar.batch.bootstrap.BootstrapProperties;
 import org.sonar.batch.events.BatchStepEvent;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
@@ -64,13 +72,17 @@ public class PhasesSumUpTimeProfilerTest {
 
   private MockedSystem clock;
   private PhasesSumUpTimeProfiler profiler;
+  private FileContentCache contentCache;
+  private File workingDir;
 
   @Before
   public void prepare() throws Exception {
     clock = new MockedSystem();
+    contentCache = new FileContentCache(new Settings());
+    workingDir = temp.newFolder();
     Map<String, String> props = Maps.newHashMap();
-    props.put(CoreProperties.WORKING_DIRECTORY, temp.newFolder().getAbsolutePath());
-    profiler = new PhasesSumUpTimeProfiler(clock, new BootstrapProperties(props));
+    props.put(CoreProperties.WORKING_DIRECTORY, workingDir.getAbsolutePath());
+    profiler = new PhasesSumUpTimeProfiler(clock, new BootstrapProperties(props), contentCache);
   }
 
   @Test
@@ -89,6 +101,27 @@ public class PhasesSumUpTimeProfilerTest {
 
   }
 
+  @Test
+  public void dump_file_reads() throws Exception {
+    File sourceFile = temp.newFile();
+    FileUtils.write(sourceFile, "foo", StandardCharsets.UTF_8);
+    Project project = mockProject("my:project", true);
+    when(project.getModules()).thenReturn(Collections.<Project>emptyList());
+
+    profiler.onProjectAnalysis(projectEvent(project, true));
+    contentCache.content(sourceFile, StandardCharsets.UTF_8);
+    contentCache.content(sourceFile, StandardCharsets.UTF_8);
+    profiler.onProjectAnalysis(projectEvent(project, false));
+
+    Properties props = new Properties();
+    try (InputStream input = new FileInputStream(new File(workingDir, "profiling/myProject-profiler.properties"))) {
+      props.load(input);
+    }
+    assertThat(props.getProperty("File reads from disk " + sourceFile.getAbsolutePath())).isEqualTo("1");
+    assertThat(props.getProperty("File content requests " + sourceFile.getAbsolutePath())).isEqualTo("2");
+    assertThat(contentCache.drainReads()).isEmpty();
+  }
+
   @Test
   public void testMultimoduleProject() throws InterruptedException {
     final Project project = mockProject("project root", true);
@@ -83,6 +83,11 @@ public class ComponentsPublisherTest {
     testFile.setId(6).setUuid("TEST_FILE_UUID");
     resourceCache.add(testFile, dir).setInputPath(new DefaultInputFile("module1", "test/FooTest.java").setLines(4));
 
+    org.sonar.api.resources.File unchangedFile = org.sonar.api.resources.File.create("src/Bar.java", Java.INSTANCE, false);
+    unchangedFile.setEffectiveKey("module1:src/Bar.java");
+    unchangedFile.setId(7).setUuid("UNCHANGED_FILE_UUID");
+    resourceCache.add(unchangedFile, dir).setInputPath(new DefaultInputFile("module1", "src/Bar.java").setLines(3)).setCarriedOver(true);
+
     ImmutableProjectReactor reactor = new ImmutableProjectReactor(rootDef);
 
     ComponentsPublisher publisher = new ComponentsPublisher(reactor, resourceCache);
@@ -90,6 +95,7 @@ public class ComponentsPublisherTest {
     File outputDir = temp.newFolder();
     BatchReportWriter writer = new BatchReportWriter(outputDir);
     publisher.publish(writer);
+    writer.close();
 
     assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 1)).isTrue();
     assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 2)).isTrue();
@@ -97,9 +103,10 @@ public class ComponentsPublisherTest {
     assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 4)).isTrue();
     assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 5)).isTrue();
     assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 6)).isTrue();
+    assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 7)).isTrue();
 
     // no such reference
-    assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 7)).isFalse();
+    assertThat(writer.hasComponentData(FileStructure.Domain.COMPONENT, 8)).isFalse();
 
     BatchReportReader reader = new BatchReportReader(outputDir);
     Component rootProtobuf = reader.readComponent(1);
@@ -112,6 +119,11 @@ public class ComponentsPublisherTest {
     assertThat(module1Protobuf.getKey()).isEqualTo("module1");
     assertThat(module1Protobuf.getDescription()).isEqualTo("Module description");
     assertThat(module1Protobuf.getVersion()).isEqualTo("1.0");
+
+    assertThat(reader.readComponent(4).getIsCarriedOver()).isFalse();
+    Component unchangedFileProtobuf = reader.readComponent(7);
+    assertThat(unchangedFileProtobuf.getIsCarriedOver()).isTrue();
+    assertThat(unchangedFileProtobuf.getLines()).isEqualTo(3);
   }
 
   @Test
@@ -151,6 +163,7 @@ public class ComponentsPublisherTest {
     File outputDir = temp.newFolder();
     BatchReportWriter writer = new BatchReportWriter(outputDir);
     publisher.publish(writer);
+    writer.close();
 
     BatchReportReader reader = new BatchReportReader(outputDir);
     Component rootProtobuf = reader.readComponent(1);
@@ -81,6 +81,7 @@ public class DuplicationsPublisherTest {
     BatchReportWriter writer = new BatchReportWriter(outputDir);
 
     publisher.publish(writer);
+    writer.close();
 
     BatchReportReader reader = new BatchReportReader(outputDir);
 
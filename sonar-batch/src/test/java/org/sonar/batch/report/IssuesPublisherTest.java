@@ -97,6 +97,7 @@ public class IssuesPublisherTest {
     BatchReportWriter writer = new BatchReportWriter(outputDir);
 
     underTest.publish(writer);
+    writer.close();
 
     BatchReportReader reader = new BatchReportReader(outputDir);
     assertThat(reader.readComponentIssues(1)).hasSize(0);
@@ -108,6 +108,7 @@ public class MeasuresPublisherTest {
     BatchReportWriter writer = new BatchReportWriter(outputDir);
 
     publisher.publish(writer);
+    writer.close();
 
     BatchReportReader reader = new BatchReportReader(outputDir);
 
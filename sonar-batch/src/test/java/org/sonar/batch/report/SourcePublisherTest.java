@@ -29,10 +29,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Qualifiers;
+import org.sonar.batch.index.BatchComponent;
 import org.sonar.batch.index.BatchComponentCache;
 import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.batch.scan.filesystem.FileContentCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -49,6 +52,8 @@ public class SourcePublisherTest {
 
   private org.sonar.api.resources.File sampleFile;
 
+  private BatchComponent sampleComponent;
+
   @Before
   public void prepare() throws IOException {
     Project p = new Project("foo").setAnalysisDate(new Date(1234567L));
@@ -58,9 +63,9 @@ public class SourcePublisherTest {
     resourceCache.add(p, null);
     File baseDir = temp.newFolder();
     sourceFile = new File(baseDir, "src/Foo.php");
-    resourceCache.add(sampleFile, null).setInputPath(
+    sampleComponent = resourceCache.add(sampleFile, null).setInputPath(
       new DefaultInputFile("foo", "src/Foo.php").setLines(5).setModuleBaseDir(baseDir.toPath()).setCharset(StandardCharsets.ISO_8859_1));
-    publisher = new SourcePublisher(resourceCache);
+    publisher = new SourcePublisher(resourceCache, new FileContentCache(new Settings()));
     File outputDir = temp.newFolder();
     writer = new BatchReportWriter(outputDir);
   }
@@ -96,6 +101,16 @@ public class SourcePublisherTest {
     assertThat(FileUtils.readFileToString(out, StandardCharsets.UTF_8)).isEqualTo("1\n2\n3\n4\n");
   }
 
+  @Test
+  public void dontPublishSourceOfCarriedOverFile() throws Exception {
+    FileUtils.write(sourceFile, "1\n2\n3\n4\n", StandardCharsets.ISO_8859_1);
+    sampleComponent.setCarriedOver(true);
+
+    publisher.publish(writer);
+
+    assertThat(writer.getSourceFile(2)).doesNotExist();
+  }
+
   @Test
   public void publishSourceWithLastLineNotEmpty() throws Exception {
     FileUtils.write(sourceFile, "1\n2\n3\n4\n5", StandardCharsets.ISO_8859_1);
@@ -41,6 +41,7 @@ import org.sonar.batch.index.BatchComponentCache;
 import java.io.File;
 import java.io.IOException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
@@ -57,6 +58,7 @@ public class ComponentIndexerTest {
   private AbstractLanguage cobolLanguage;
   private Project project;
   private ModuleFileSystemInitializer initializer;
+  private CarriedOverFiles carriedOverFiles = new CarriedOverFiles();
 
   @Before
   public void prepare() throws IOException {
@@ -102,7 +104,33 @@ public class ComponentIndexerTest {
   private ComponentIndexer createIndexer(Languages languages) {
     BatchComponentCache resourceCache = mock(BatchComponentCache.class);
     when(resourceCache.get(any(Resource.class))).thenReturn(new BatchComponent(1, org.sonar.api.resources.File.create("foo.php"), null));
-    return new ComponentIndexer(project, languages, sonarIndex, resourceCache);
+    return new ComponentIndexer(project, languages, sonarIndex, resourceCache, carriedOverFiles);
+  }
+
+  @Test
+  public void should_index_carried_over_files() throws IOException {
+    BatchComponentCache resourceCache = mock(BatchComponentCache.class);
+    org.sonar.api.resources.File changed = org.sonar.api.resources.File.create("src/main/java/foo/bar/Foo.java", Java.INSTANCE, false);
+    org.sonar.api.resources.File unchanged = org.sonar.api.resources.File.create("src/main/java/foo/bar/Bar.java", Java.INSTANCE, false);
+    BatchComponent changedComponent = new BatchComponent(1, changed, null);
+    BatchComponent unchangedComponent = new BatchComponent(2, unchanged, null);
+    when(resourceCache.get(changed)).thenReturn(changedComponent);
+    when(resourceCache.get(unchanged)).thenReturn(unchangedComponent);
+    ComponentIndexer indexer = new ComponentIndexer(project, new Languages(Java.INSTANCE), sonarIndex, resourceCache, carriedOverFiles);
+    DefaultModuleFileSystem fs = new DefaultModuleFileSystem(project, null, mock(FileIndexer.class), initializer, indexer);
+    fs.add(newInputFile("src/main/java/foo/bar/Foo.java", "", "foo/bar/Foo.java", "java", false));
+    DefaultInputFile unchangedInputFile = newInputFile("src/main/java/foo/bar/Bar.java", "", "foo/bar/Bar.java", "java", false);
+    carriedOverFiles.add(unchangedInputFile);
+
+    fs.index();
+
+    verify(sonarIndex).index(changed);
+    verify(sonarIndex).index(unchanged);
+    assertThat(changedComponent.isCarriedOver()).isFalse();
+    assertThat(unchangedComponent.isCarriedOver()).isTrue();
+    assertThat(unchangedComponent.inputPath()).isSameAs(unchangedInputFile);
+    // carried over files are not part of the file system
+    assertThat(fs.inputFiles(fs.predicates().all())).hasSize(1);
   }
 
   @Test
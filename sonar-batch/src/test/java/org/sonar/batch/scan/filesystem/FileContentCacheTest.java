@@ -0,0 +1,137 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.scan.filesystem;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.Settings;
+import org.sonar.batch.scan.filesystem.FileContentCache.FileReads;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileContentCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void read_file_once() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "\uFEFFfoo\nbar", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings());
+
+    assertThat(cache.content(file, StandardCharsets.UTF_8).toString()).isEqualTo("foo\nbar");
+    FileUtils.write(file, "changed", StandardCharsets.UTF_8);
+    assertThat(cache.content(file, StandardCharsets.UTF_8).toString()).isEqualTo("foo\nbar");
+
+    Map<File, FileReads> reads = cache.drainReads();
+    assertThat(reads).hasSize(1);
+    assertThat(reads.get(file.getAbsoluteFile()).requests()).isEqualTo(2);
+    assertThat(reads.get(file.getAbsoluteFile()).fromDisk()).isEqualTo(1);
+    assertThat(cache.drainReads()).isEmpty();
+  }
+
+  @Test
+  public void share_immutable_content() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "foo", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings());
+
+    CharSequence content = cache.content(file, StandardCharsets.UTF_8);
+    assertThat(content).isInstanceOf(String.class);
+    assertThat(cache.content(file, StandardCharsets.UTF_8)).isSameAs(content);
+  }
+
+  @Test
+  public void read_file_again_with_other_encoding() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "\u00e9", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings());
+
+    assertThat(cache.content(file, StandardCharsets.UTF_8).toString()).isEqualTo("\u00e9");
+    assertThat(cache.content(file, StandardCharsets.ISO_8859_1).toString()).isEqualTo("\u00c3\u00a9");
+    assertThat(cache.drainReads().get(file.getAbsoluteFile()).fromDisk()).isEqualTo(2);
+  }
+
+  @Test
+  public void evict_least_recently_used_contents() throws Exception {
+    File file1 = temp.newFile();
+    FileUtils.write(file1, "0123456789", StandardCharsets.UTF_8);
+    File file2 = temp.newFile();
+    FileUtils.write(file2, "0123456789", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings().setProperty(FileContentCache.MAX_CHARS_PROPERTY, 15L));
+
+    cache.content(file1, StandardCharsets.UTF_8);
+    cache.content(file2, StandardCharsets.UTF_8);
+    cache.content(file2, StandardCharsets.UTF_8);
+    cache.content(file1, StandardCharsets.UTF_8);
+
+    Map<File, FileReads> reads = cache.drainReads();
+    assertThat(reads.get(file1.getAbsoluteFile()).fromDisk()).isEqualTo(2);
+    assertThat(reads.get(file2.getAbsoluteFile()).fromDisk()).isEqualTo(1);
+  }
+
+  @Test
+  public void do_not_keep_files_bigger_than_max_file_size() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "\uFEFFfoo\nbar", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings().setProperty(FileContentCache.MAX_FILE_SIZE_PROPERTY, 5L));
+
+    assertThat(cache.isCached(file)).isFalse();
+    assertThat(cache.content(file, StandardCharsets.UTF_8).toString()).isEqualTo("foo\nbar");
+    assertThat(IOUtils.toString(cache.reader(file, StandardCharsets.UTF_8))).isEqualTo("foo\nbar");
+
+    FileReads reads = cache.drainReads().get(file.getAbsoluteFile());
+    assertThat(reads.requests()).isEqualTo(2);
+    assertThat(reads.fromDisk()).isEqualTo(2);
+  }
+
+  @Test
+  public void read_cached_content() throws Exception {
+    File file = temp.newFile();
+    FileUtils.write(file, "foo", StandardCharsets.UTF_8);
+    FileContentCache cache = new FileContentCache(new Settings());
+
+    assertThat(cache.isCached(file)).isTrue();
+    assertThat(IOUtils.toString(cache.reader(file, StandardCharsets.UTF_8))).isEqualTo("foo");
+    assertThat(IOUtils.toString(cache.reader(file, StandardCharsets.UTF_8))).isEqualTo("foo");
+    assertThat(cache.drainReads().get(file.getAbsoluteFile()).fromDisk()).isEqualTo(1);
+  }
+
+  @Test
+  public void fail_if_file_does_not_exist() throws Exception {
+    File file = new File(temp.newFolder(), "missing.txt");
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Fail to read file '" + file.getAbsolutePath() + "'");
+
+    new FileContentCache(new Settings()).content(file, StandardCharsets.UTF_8);
+  }
+}
@@ -67,7 +67,7 @@ public class InputFileBuilderTest {
       .thenReturn(InputFile.Status.ADDED);
 
     InputFileBuilder builder = new InputFileBuilder("struts", new PathResolver(),
-      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata());
+      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata(), new FileContentCache(new Settings()));
     DefaultInputFile inputFile = builder.create(srcFile);
     builder.completeAndComputeMetadata(inputFile, InputFile.Type.MAIN);
 
@@ -80,6 +80,25 @@ public class InputFileBuilderTest {
     assertThat(inputFile.lines()).isEqualTo(1);
   }
 
+  @Test
+  public void stream_metadata_of_files_not_kept_in_content_cache() throws Exception {
+    File basedir = temp.newFolder();
+    File srcFile = new File(basedir, "src/main/java/foo/Bar.java");
+    FileUtils.write(srcFile, "first line\nsecond line");
+    when(fs.baseDir()).thenReturn(basedir);
+    when(fs.encoding()).thenReturn(StandardCharsets.UTF_8);
+    when(langDetection.language(any(InputFile.class))).thenReturn("java");
+    FileContentCache contentCache = new FileContentCache(new Settings().setProperty(FileContentCache.MAX_FILE_SIZE_PROPERTY, 10L));
+
+    InputFileBuilder builder = new InputFileBuilder("struts", new PathResolver(),
+      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata(), contentCache);
+    DefaultInputFile inputFile = builder.create(srcFile);
+    builder.completeAndComputeMetadata(inputFile, InputFile.Type.MAIN);
+
+    assertThat(inputFile.lines()).isEqualTo(2);
+    assertThat(contentCache.drainReads()).isEmpty();
+  }
+
   @Test
   public void return_null_if_file_outside_basedir() throws Exception {
     // file system
@@ -90,7 +109,7 @@ public class InputFileBuilderTest {
     when(fs.baseDir()).thenReturn(basedir);
 
     InputFileBuilder builder = new InputFileBuilder("struts", new PathResolver(),
-      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata());
+      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata(), new FileContentCache(new Settings()));
     DefaultInputFile inputFile = builder.create(srcFile);
 
     assertThat(inputFile).isNull();
@@ -110,7 +129,7 @@ public class InputFileBuilderTest {
     when(langDetection.language(any(InputFile.class))).thenReturn(null);
 
     InputFileBuilder builder = new InputFileBuilder("struts", new PathResolver(),
-      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata());
+      langDetection, statusDetection, fs, analysisMode, new Settings(), new FileMetadata(), new FileContentCache(new Settings()));
     DefaultInputFile inputFile = builder.create(srcFile);
     inputFile = builder.completeAndComputeMetadata(inputFile, InputFile.Type.MAIN);
 
@@ -101,6 +101,18 @@ public final class PurgeProperties {
         .category(CoreProperties.CATEGORY_GENERAL)
         .subCategory(CoreProperties.SUBCATEGORY_DATABASE_CLEANER)
         .index(6)
+        .build(),
+
+      PropertyDefinition.builder(PurgeConstants.MAX_PURGED_IDS_PER_SECOND)
+        .defaultValue("0")
+        .name("Maximum purge rate")
+        .description("Maximum number of snapshots or components purged per second, in order to limit the load on the database. "
+          + "Deletions are committed by chunks of at most 1000 snapshots or components. 0 means no limit.")
+        .type(PropertyType.INTEGER)
+        .onQualifiers(Qualifiers.PROJECT)
+        .category(CoreProperties.CATEGORY_GENERAL)
+        .subCategory(CoreProperties.SUBCATEGORY_DATABASE_CLEANER)
+        .index(7)
         .build()
       );
   }
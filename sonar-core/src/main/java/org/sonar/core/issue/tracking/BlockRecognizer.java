@@ -121,6 +121,10 @@ class BlockRecognizer<RAW extends Trackable, BASE extends Trackable> {
 
   private void map(Collection<RAW> raws, Collection<BASE> bases, Tracking<RAW, BASE> result) {
     for (RAW raw : raws) {
+      if (result.baseFor(raw) != null) {
+        // already mapped by a previous pair of lines
+        continue;
+      }
       for (BASE base : bases) {
         if (result.containsUnmatchedBase(base) && base.getRuleKey().equals(raw.getRuleKey())) {
           result.match(raw, base);
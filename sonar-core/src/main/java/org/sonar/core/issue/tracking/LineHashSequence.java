@@ -24,7 +24,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.annotation.Nullable;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
 
@@ -43,12 +42,7 @@ public class LineHashSequence {
 
   public LineHashSequence(List<String> hashes) {
     this.hashes = hashes;
-    this.linesByHash = new HashMap<>(hashes.size());
-    for (int line = 1; line <= hashes.size(); line++) {
-      String hash = hashes.get(line - 1);
-      int[] lines = linesByHash.get(hash);
-      linesByHash.put(hash, appendLineTo(line, lines));
-    }
+    this.linesByHash = indexLinesByHash(hashes);
   }
 
   /**
@@ -88,14 +82,32 @@ public class LineHashSequence {
     return hashes;
   }
 
-  private static int[] appendLineTo(int line, @Nullable int[] to) {
-    int[] result;
-    if (to == null) {
-      result = new int[] {line};
-    } else {
-      result = new int[to.length + 1];
-      System.arraycopy(to, 0, result, 0, to.length);
-      result[result.length - 1] = line;
+  /**
+   * Arrays are sized by counting the lines of each hash first, so that hashes shared by many lines (for example
+   * empty lines) are not copied on each occurrence.
+   */
+  private static Map<String, int[]> indexLinesByHash(List<String> hashes) {
+    Map<String, int[]> counts = new HashMap<>(hashes.size());
+    for (String hash : hashes) {
+      int[] count = counts.get(hash);
+      if (count == null) {
+        counts.put(hash, new int[] {1});
+      } else {
+        count[0]++;
+      }
+    }
+    Map<String, int[]> result = new HashMap<>(counts.size());
+    // lines are added backward, so that they are sorted
+    for (int line = hashes.size(); line >= 1; line--) {
+      String hash = hashes.get(line - 1);
+      int[] count = counts.get(hash);
+      int[] lines = result.get(hash);
+      if (lines == null) {
+        lines = new int[count[0]];
+        result.put(hash, lines);
+      }
+      count[0]--;
+      lines[count[0]] = line;
     }
     return result;
   }
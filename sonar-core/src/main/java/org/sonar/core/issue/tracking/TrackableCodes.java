@@ -0,0 +1,87 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.issue.tracking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Fields of issues that are compared by {@link Tracker}, encoded as ints. Rule keys, line hashes
+ * and messages are replaced by codes of a dictionary shared by raw and base issues, so that
+ * equal values get the same code. Issues are identified by their position.
+ */
+class TrackableCodes<T extends Trackable> {
+
+  /**
+   * Code of the issues without line. Lines start with 1.
+   */
+  static final int NO_LINE = Integer.MIN_VALUE;
+
+  private final List<T> trackables;
+  final int[] rules;
+  final int[] lineHashes;
+  final int[] messages;
+  final int[] lines;
+  /**
+   * Constant field, used by the searches which do not compare the second field of the key
+   */
+  final int[] none;
+
+  TrackableCodes(Iterable<T> trackables, Map<Object, Integer> dictionary) {
+    this.trackables = new ArrayList<>();
+    for (T trackable : trackables) {
+      this.trackables.add(trackable);
+    }
+    int size = this.trackables.size();
+    this.rules = new int[size];
+    this.lineHashes = new int[size];
+    this.messages = new int[size];
+    this.lines = new int[size];
+    this.none = new int[size];
+    for (int i = 0; i < size; i++) {
+      T trackable = this.trackables.get(i);
+      rules[i] = code(dictionary, trackable.getRuleKey());
+      lineHashes[i] = code(dictionary, StringUtils.defaultString(trackable.getLineHash(), ""));
+      messages[i] = code(dictionary, trackable.getMessage());
+      Integer line = trackable.getLine();
+      lines[i] = line == null ? NO_LINE : line;
+    }
+  }
+
+  int size() {
+    return trackables.size();
+  }
+
+  T get(int position) {
+    return trackables.get(position);
+  }
+
+  private static int code(Map<Object, Integer> dictionary, @Nullable Object value) {
+    Integer code = dictionary.get(value);
+    if (code == null) {
+      code = dictionary.size();
+      dictionary.put(value, code);
+    }
+    return code;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.issue.tracking;
+
+import java.util.Arrays;
+
+/**
+ * Index of issues by a key of three ints (rule, then two fields that depend on the kind of search).
+ * Keys are stored in an open-addressed hash table. The issues sharing the same key are sorted by line,
+ * so that {@link #pollClosest(int, int, int, int)} finds the candidate which is the closest to a given line
+ * by binary search. Polled issues are skipped through two disjoint-set forests, so that a key shared by
+ * thousands of issues (generated code) does not make the search quadratic.
+ */
+class TrackableIndex {
+
+  private static final int FREE = -1;
+
+  // open-addressed table: three ints of key and bucket number per slot
+  private final int mask;
+  private final int[] slotKeys;
+  private final int[] slotBuckets;
+
+  // issues grouped by bucket and sorted by line. Bucket b is in [bucketStarts[b], bucketStarts[b + 1])
+  private final int[] bucketStarts;
+  private final int[] entryPositions;
+  private final int[] entryLines;
+
+  // nextEntries[i] leads to the first entry >= i which is not polled yet. Size is entries + 1, the last one is a sentinel.
+  private final int[] nextEntries;
+  // previousEntries[i + 1] leads to (the last entry <= i which is not polled yet) + 1. previousEntries[0] is a sentinel.
+  private final int[] previousEntries;
+
+  /**
+   * @param rules codes of rules, by position of issue
+   * @param firstFields codes of the second field of the key, by position of issue
+   * @param secondFields codes of the third field of the key, by position of issue
+   * @param lines lines, by position of issue
+   * @param positions positions of the issues to be indexed
+   */
+  TrackableIndex(int[] rules, int[] firstFields, int[] secondFields, int[] lines, int[] positions) {
+    int size = positions.length;
+    int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+    this.mask = capacity - 1;
+    this.slotKeys = new int[capacity * 3];
+    this.slotBuckets = new int[capacity];
+    Arrays.fill(slotBuckets, FREE);
+
+    int bucketCount = 0;
+    int[] bucketOfEntries = new int[size];
+    int[] bucketSizes = new int[size];
+    for (int i = 0; i < size; i++) {
+      int position = positions[i];
+      int slot = findSlot(rules[position], firstFields[position], secondFields[position]);
+      if (slotBuckets[slot] == FREE) {
+        slotKeys[slot * 3] = rules[position];
+        slotKeys[slot * 3 + 1] = firstFields[position];
+        slotKeys[slot * 3 + 2] = secondFields[position];
+        slotBuckets[slot] = bucketCount;
+        bucketCount++;
+      }
+      bucketOfEntries[i] = slotBuckets[slot];
+      bucketSizes[bucketOfEntries[i]]++;
+    }
+
+    this.bucketStarts = new int[bucketCount + 1];
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      bucketStarts[bucket + 1] = bucketStarts[bucket] + bucketSizes[bucket];
+    }
+
+    // line in high bits, so that sorting keeps the order of positions for the same line
+    long[] entries = new long[size];
+    int[] cursors = Arrays.copyOf(bucketStarts, bucketCount);
+    for (int i = 0; i < size; i++) {
+      int position = positions[i];
+      entries[cursors[bucketOfEntries[i]]++] = ((long) lines[position] << 32) | position;
+    }
+    this.entryPositions = new int[size];
+    this.entryLines = new int[size];
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      Arrays.sort(entries, bucketStarts[bucket], bucketStarts[bucket + 1]);
+    }
+    for (int i = 0; i < size; i++) {
+      entryPositions[i] = (int) entries[i];
+      entryLines[i] = (int) (entries[i] >> 32);
+    }
+
+    this.nextEntries = new int[size + 1];
+    this.previousEntries = new int[size + 1];
+    for (int i = 0; i <= size; i++) {
+      nextEntries[i] = i;
+      previousEntries[i] = i;
+    }
+  }
+
+  /**
+   * Removes from index the issue which has the given key and which is the closest to the given line.
+   * Between two issues at the same distance, the one on the lowest line is returned. Between two issues
+   * on the same line, the first indexed is returned.
+   *
+   * @return the position of the issue, or -1 if no issue matches the key
+   */
+  int pollClosest(int rule, int firstField, int secondField, int line) {
+    int bucket = slotBuckets[findSlot(rule, firstField, secondField)];
+    if (bucket == FREE) {
+      return -1;
+    }
+    int start = bucketStarts[bucket];
+    int end = bucketStarts[bucket + 1];
+    int insertion = firstEntryNotBefore(start, end, line);
+    int next = find(nextEntries, insertion);
+    int previous = find(previousEntries, insertion) - 1;
+
+    int entry;
+    if (previous >= start && (next >= end || (long) line - entryLines[previous] <= (long) entryLines[next] - line)) {
+      // first issue not polled yet on the same line
+      entry = find(nextEntries, firstEntryNotBefore(start, end, entryLines[previous]));
+    } else if (next < end) {
+      entry = next;
+    } else {
+      return -1;
+    }
+    nextEntries[entry] = entry + 1;
+    previousEntries[entry + 1] = entry;
+    return entryPositions[entry];
+  }
+
+  private int findSlot(int rule, int firstField, int secondField) {
+    int slot = hash(rule, firstField, secondField) & mask;
+    while (slotBuckets[slot] != FREE
+      && (slotKeys[slot * 3] != rule || slotKeys[slot * 3 + 1] != firstField || slotKeys[slot * 3 + 2] != secondField)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Index of the first entry of [start, end) whose line is greater than or equal to the given line
+   */
+  private int firstEntryNotBefore(int start, int end, int line) {
+    int low = start;
+    int high = end;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (entryLines[middle] < line) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int find(int[] parents, int from) {
+    int i = from;
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  private static int hash(int rule, int firstField, int secondField) {
+    int h = rule;
+    h = 31 * h + firstField;
+    h = 31 * h + secondField;
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
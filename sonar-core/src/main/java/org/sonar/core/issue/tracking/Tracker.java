@@ -21,13 +21,9 @@ package org.sonar.core.issue.tracking;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
-import java.util.Collection;
-import java.util.Objects;
-import javax.annotation.Nonnull;
-import org.apache.commons.lang.StringUtils;
-import org.sonar.api.rule.RuleKey;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.google.common.collect.FluentIterable.from;
 
@@ -37,22 +33,30 @@ public class Tracker<RAW extends Trackable, BASE extends Trackable> {
     Tracking<RAW, BASE> tracking = new Tracking<>(rawInput, baseInput);
 
     relocateManualIssues(rawInput, baseInput, tracking);
+    if (tracking.isComplete()) {
+      return tracking;
+    }
+
+    // fields of issues are encoded once and shared by all the searches
+    Map<Object, Integer> dictionary = new HashMap<>();
+    TrackableCodes<RAW> raws = new TrackableCodes<>(tracking.getUnmatchedRaws(), dictionary);
+    TrackableCodes<BASE> bases = new TrackableCodes<>(tracking.getUnmatchedBases(), dictionary);
 
     // 1. match issues with same rule, same line and same line hash, but not necessarily with same message
-    match(tracking, LineAndLineHashKeyFactory.INSTANCE);
+    match(tracking, raws, bases, SearchKey.LINE_AND_LINE_HASH);
 
     // 2. detect code moves by comparing blocks of codes
     detectCodeMoves(rawInput, baseInput, tracking);
 
     // 3. match issues with same rule, same message and same line hash
-    match(tracking, LineHashAndMessageKeyFactory.INSTANCE);
+    match(tracking, raws, bases, SearchKey.LINE_HASH_AND_MESSAGE);
 
     // 4. match issues with same rule, same line and same message
-    match(tracking, LineAndMessageKeyFactory.INSTANCE);
+    match(tracking, raws, bases, SearchKey.LINE_AND_MESSAGE);
 
     // 5. match issues with same rule and same line hash but different line and different message.
     // See SONAR-2812
-    match(tracking, LineHashKeyFactory.INSTANCE);
+    match(tracking, raws, bases, SearchKey.LINE_HASH);
 
     return tracking;
   }
@@ -63,27 +67,39 @@ public class Tracker<RAW extends Trackable, BASE extends Trackable> {
     }
   }
 
-  private void match(Tracking<RAW, BASE> tracking, SearchKeyFactory factory) {
+  /**
+   * When several base issues match a raw issue, the closest to the line of the raw issue is chosen.
+   */
+  private void match(Tracking<RAW, BASE> tracking, TrackableCodes<RAW> raws, TrackableCodes<BASE> bases, SearchKey key) {
     if (tracking.isComplete()) {
       return;
     }
 
-    Multimap<SearchKey, BASE> baseSearch = ArrayListMultimap.create();
-    for (BASE base : tracking.getUnmatchedBases()) {
-      baseSearch.put(factory.create(base), base);
+    TrackableIndex baseIndex = new TrackableIndex(bases.rules, key.firstField(bases), key.secondField(bases), bases.lines,
+      unmatchedBasePositions(tracking, bases));
+    int[] rawFirstFields = key.firstField(raws);
+    int[] rawSecondFields = key.secondField(raws);
+    for (int i = 0; i < raws.size(); i++) {
+      RAW raw = raws.get(i);
+      if (tracking.baseFor(raw) == null) {
+        int basePosition = baseIndex.pollClosest(raws.rules[i], rawFirstFields[i], rawSecondFields[i], raws.lines[i]);
+        if (basePosition >= 0) {
+          tracking.match(raw, bases.get(basePosition));
+        }
+      }
     }
+  }
 
-    for (RAW raw : tracking.getUnmatchedRaws()) {
-      SearchKey rawKey = factory.create(raw);
-      Collection<BASE> bases = baseSearch.get(rawKey);
-      if (!bases.isEmpty()) {
-        // TODO taking the first one. Could be improved if there are more than 2 issues on the same line.
-        // Message could be checked to take the best one.
-        BASE match = bases.iterator().next();
-        tracking.match(raw, match);
-        baseSearch.remove(rawKey, match);
+  private static <BASE extends Trackable> int[] unmatchedBasePositions(Tracking<?, BASE> tracking, TrackableCodes<BASE> bases) {
+    int[] positions = new int[bases.size()];
+    int count = 0;
+    for (int i = 0; i < bases.size(); i++) {
+      if (tracking.containsUnmatchedBase(bases.get(i))) {
+        positions[count] = i;
+        count++;
       }
     }
+    return count == positions.length ? positions : Arrays.copyOf(positions, count);
   }
 
   private void relocateManualIssues(Input<RAW> rawInput, Input<BASE> baseInput, Tracking<RAW, BASE> tracking) {
@@ -99,187 +115,97 @@ public class Tracker<RAW extends Trackable, BASE extends Trackable> {
         }
         if (!Strings.isNullOrEmpty(baseHash)) {
           int[] rawLines = rawInput.getLineHashSequence().getLinesForHash(baseHash);
-          if (rawLines.length == 1) {
-            tracking.keepManualIssueOpen(base, rawLines[0]);
-          } else if (rawLines.length == 0 && rawInput.getLineHashSequence().hasLine(base.getLine())) {
+          if (rawLines.length > 0) {
+            tracking.keepManualIssueOpen(base, closestLine(rawLines, base.getLine()));
+          } else if (rawInput.getLineHashSequence().hasLine(base.getLine())) {
             // still valid (???). We didn't manage to correctly detect code move, so the
             // issue is kept at the same location, even if code changes
             tracking.keepManualIssueOpen(base, base.getLine());
           }
-          // TODO if hash found multiple times, pick the closest line
         }
       }
     }
   }
 
-  private enum IsManual implements Predicate<Trackable> {
-    INSTANCE;
-    @Override
-    public boolean apply(Trackable input) {
-      return input.getRuleKey().isManual();
+  /**
+   * @param lines sorted lines
+   */
+  private static int closestLine(int[] lines, int line) {
+    int insertion = Arrays.binarySearch(lines, line);
+    if (insertion >= 0) {
+      return line;
     }
-  }
-
-  private interface SearchKey {
-  }
-
-  private interface SearchKeyFactory {
-    SearchKey create(Trackable trackable);
-  }
-
-  private static class LineAndLineHashKey implements SearchKey {
-    private final RuleKey ruleKey;
-    private final String lineHash;
-    private final Integer line;
-
-    LineAndLineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.line = trackable.getLine();
-      this.lineHash = StringUtils.defaultString(trackable.getLineHash(), "");
+    insertion = -insertion - 1;
+    if (insertion == 0) {
+      return lines[0];
     }
-
-    @Override
-    public boolean equals(@Nonnull Object o) {
-      if (this == o) {
-        return true;
-      }
-      LineAndLineHashKey that = (LineAndLineHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && lineHash.equals(that.lineHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + lineHash.hashCode();
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
+    if (insertion == lines.length) {
+      return lines[lines.length - 1];
     }
+    int previous = lines[insertion - 1];
+    int next = lines[insertion];
+    return line - previous <= next - line ? previous : next;
   }
 
-  private enum LineAndLineHashKeyFactory implements SearchKeyFactory {
+  private enum IsManual implements Predicate<Trackable> {
     INSTANCE;
     @Override
-    public SearchKey create(Trackable t) {
-      return new LineAndLineHashKey(t);
+    public boolean apply(Trackable input) {
+      return input.getRuleKey().isManual();
     }
   }
 
-  private static class LineHashAndMessageKey implements SearchKey {
-    private final RuleKey ruleKey;
-    private final String message;
-    private final String lineHash;
-
-    LineHashAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.lineHash = StringUtils.defaultString(trackable.getLineHash(), "");
-    }
-
-    @Override
-    public boolean equals(@Nonnull Object o) {
-      if (this == o) {
-        return true;
+  /**
+   * The fields compared in addition to rule
+   */
+  private enum SearchKey {
+    LINE_AND_LINE_HASH {
+      @Override
+      int[] firstField(TrackableCodes<?> codes) {
+        return codes.lineHashes;
       }
-      LineHashAndMessageKey that = (LineHashAndMessageKey) o;
-      // start with most discriminant field
-      return lineHash.equals(that.lineHash)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + lineHash.hashCode();
-      return result;
-    }
-  }
-
-  private enum LineHashAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-    @Override
-    public SearchKey create(Trackable t) {
-      return new LineHashAndMessageKey(t);
-    }
-  }
-
-  private static class LineAndMessageKey implements SearchKey {
-    private final RuleKey ruleKey;
-    private final String message;
-    private final Integer line;
-
-    LineAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.line = trackable.getLine();
-    }
-
-    @Override
-    public boolean equals(@Nonnull Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      int[] secondField(TrackableCodes<?> codes) {
+        return codes.lines;
+      }
+    },
+    LINE_HASH_AND_MESSAGE {
+      @Override
+      int[] firstField(TrackableCodes<?> codes) {
+        return codes.lineHashes;
       }
-      LineAndMessageKey that = (LineAndMessageKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum LineAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-    @Override
-    public SearchKey create(Trackable t) {
-      return new LineAndMessageKey(t);
-    }
-  }
 
-  private static class LineHashKey implements SearchKey {
-    private final RuleKey ruleKey;
-    private final String lineHash;
+      @Override
+      int[] secondField(TrackableCodes<?> codes) {
+        return codes.messages;
+      }
+    },
+    LINE_AND_MESSAGE {
+      @Override
+      int[] firstField(TrackableCodes<?> codes) {
+        return codes.messages;
+      }
 
-    LineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.lineHash = StringUtils.defaultString(trackable.getLineHash(), "");
-    }
+      @Override
+      int[] secondField(TrackableCodes<?> codes) {
+        return codes.lines;
+      }
+    },
+    LINE_HASH {
+      @Override
+      int[] firstField(TrackableCodes<?> codes) {
+        return codes.lineHashes;
+      }
 
-    @Override
-    public boolean equals(@Nonnull Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      int[] secondField(TrackableCodes<?> codes) {
+        return codes.none;
       }
-      LineHashKey that = (LineHashKey) o;
-      // start with most discriminant field
-      return lineHash.equals(that.lineHash)
-        && ruleKey.equals(that.ruleKey);
-    }
+    };
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + lineHash.hashCode();
-      return result;
-    }
-  }
+    abstract int[] firstField(TrackableCodes<?> codes);
 
-  private enum LineHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-    @Override
-    public SearchKey create(Trackable t) {
-      return new LineHashKey(t);
-    }
+    abstract int[] secondField(TrackableCodes<?> codes);
   }
 }
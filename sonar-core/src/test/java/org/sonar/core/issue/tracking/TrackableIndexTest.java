@@ -0,0 +1,100 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.issue.tracking;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrackableIndexTest {
+
+  static final int RULE = 0;
+  static final int OTHER_RULE = 1;
+  static final int HASH = 2;
+
+  @Test
+  public void poll_issue_with_same_key() {
+    TrackableIndex index = new TrackableIndex(
+      new int[] {RULE, OTHER_RULE, RULE},
+      new int[] {HASH, HASH, HASH + 1},
+      new int[] {0, 0, 0},
+      new int[] {10, 10, 10},
+      new int[] {0, 1, 2});
+
+    assertThat(index.pollClosest(OTHER_RULE, HASH, 0, 10)).isEqualTo(1);
+    assertThat(index.pollClosest(OTHER_RULE, HASH, 0, 10)).isEqualTo(-1);
+    assertThat(index.pollClosest(RULE, HASH + 1, 0, 10)).isEqualTo(2);
+    assertThat(index.pollClosest(RULE, HASH, 0, 10)).isEqualTo(0);
+    assertThat(index.pollClosest(RULE, HASH + 2, 0, 10)).isEqualTo(-1);
+  }
+
+  @Test
+  public void poll_closest_line() {
+    TrackableIndex index = new TrackableIndex(
+      new int[] {RULE, RULE, RULE, RULE},
+      new int[] {HASH, HASH, HASH, HASH},
+      new int[] {0, 0, 0, 0},
+      new int[] {30, 10, 20, 40},
+      new int[] {0, 1, 2, 3});
+
+    assertThat(index.pollClosest(RULE, HASH, 0, 22)).isEqualTo(2);
+    // same distance to lines 10 and 30 -> lowest line
+    assertThat(index.pollClosest(RULE, HASH, 0, 20)).isEqualTo(1);
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(0);
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(3);
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void poll_first_indexed_issue_on_same_line() {
+    TrackableIndex index = new TrackableIndex(
+      new int[] {RULE, RULE, RULE, RULE},
+      new int[] {HASH, HASH, HASH, HASH},
+      new int[] {0, 0, 0, 0},
+      new int[] {5, 5, 5, TrackableCodes.NO_LINE},
+      new int[] {0, 1, 2, 3});
+
+    assertThat(index.pollClosest(RULE, HASH, 0, 100)).isEqualTo(0);
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(1);
+    assertThat(index.pollClosest(RULE, HASH, 0, TrackableCodes.NO_LINE)).isEqualTo(3);
+    assertThat(index.pollClosest(RULE, HASH, 0, 5)).isEqualTo(2);
+    assertThat(index.pollClosest(RULE, HASH, 0, 5)).isEqualTo(-1);
+  }
+
+  @Test
+  public void index_only_given_positions() {
+    TrackableIndex index = new TrackableIndex(
+      new int[] {RULE, RULE, RULE},
+      new int[] {HASH, HASH, HASH},
+      new int[] {0, 0, 0},
+      new int[] {1, 2, 3},
+      new int[] {2});
+
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(2);
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void empty_index() {
+    TrackableIndex index = new TrackableIndex(new int[0], new int[0], new int[0], new int[0], new int[0]);
+
+    assertThat(index.pollClosest(RULE, HASH, 0, 1)).isEqualTo(-1);
+  }
+}
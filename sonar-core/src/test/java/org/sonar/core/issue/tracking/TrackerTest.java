@@ -26,7 +26,6 @@ import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -401,10 +400,7 @@ public class TrackerTest {
   }
 
   @Test
-  @Ignore("not implemented yet")
   public void move_to_closest_line_if_manual_issue_matches_multiple_hashes() {
-    // manual issue is on line 3 (hash H3) but this hash does not exist
-    // anymore nor the line 3.
     FakeInput baseInput = new FakeInput("H1", "H2");
     Issue issue = baseInput.createIssueOnLine(1, RULE_MANUAL, "message");
     FakeInput rawInput = new FakeInput("H1", "H3", "H1");
@@ -417,6 +413,26 @@ public class TrackerTest {
     assertThat(Iterables.getOnlyElement(openManualIssues.get(1))).isSameAs(issue);
   }
 
+  @Test
+  public void match_thousands_of_similar_issues() {
+    FakeInput baseInput = new FakeInput("H1");
+    FakeInput rawInput = new FakeInput("H1");
+    List<Issue> raws = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      baseInput.createIssue(RULE_SYSTEM_PRINT, "msg" + (i % 10));
+      raws.add(rawInput.createIssue(RULE_SYSTEM_PRINT, "msg" + (i % 10)));
+    }
+    rawInput.createIssue(RULE_UNUSED_LOCAL_VARIABLE, "msg");
+
+    Tracking<Issue, Issue> tracking = tracker.track(rawInput, baseInput);
+
+    assertThat(tracking.getUnmatchedBases()).isEmpty();
+    assertThat(tracking.getMatchedRaws()).hasSize(20_000);
+    for (Issue raw : raws) {
+      assertThat(tracking.baseFor(raw).getMessage()).isEqualTo(raw.getMessage());
+    }
+  }
+
   private static class Issue implements Trackable {
     private final RuleKey ruleKey;
     private final Integer line;
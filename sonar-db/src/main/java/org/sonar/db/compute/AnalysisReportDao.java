@@ -21,7 +21,9 @@
 package org.sonar.db.compute;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import org.sonar.api.utils.System2;
 import org.sonar.db.Dao;
@@ -58,15 +60,28 @@ public class AnalysisReportDao implements Dao {
     return mapper(session).selectById(id);
   }
 
+  /**
+   * Books the oldest pending report of a project which has no report being processed. When several
+   * workers pop concurrently, a worker which fails to book a report tries the oldest pending report of
+   * the next project, so that the reports of a same project are always processed in order of submission.
+   */
   @CheckForNull
   public AnalysisReportDto pop(DbSession session) {
-    List<Long> reportIds = mapper(session).selectAvailables(PENDING, WORKING);
-    if (reportIds.isEmpty()) {
-      return null;
+    List<AnalysisReportDto> candidates = mapper(session).selectAvailables(PENDING, WORKING);
+    Set<String> triedProjectKeys = new HashSet<>();
+    for (AnalysisReportDto candidate : candidates) {
+      if (triedProjectKeys.add(candidate.getProjectKey())) {
+        AnalysisReportDto report = tryToPop(session, candidate.getId());
+        if (report != null) {
+          return report;
+        }
+      }
     }
+    return null;
+  }
 
-    long reportId = reportIds.get(0);
-    return tryToPop(session, reportId);
+  public int countByStatus(DbSession session, AnalysisReportDto.Status status) {
+    return mapper(session).countByStatus(status);
   }
 
   @VisibleForTesting
@@ -19,10 +19,14 @@
  */
 package org.sonar.db.duplication;
 
+import com.google.common.base.Function;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.ibatis.session.SqlSession;
 import org.sonar.db.Dao;
+import org.sonar.db.DatabaseUtils;
 import org.sonar.db.DbSession;
 import org.sonar.db.MyBatis;
 
@@ -44,6 +48,34 @@ public class DuplicationDao implements Dao {
     }
   }
 
+  /**
+   * Blocks of the last snapshots of files of the given language whose hash is one of the given hashes.
+   * The blocks of the files of the module with uuid {@code excludedModuleUuid}, if any, are ignored.
+   */
+  public List<DuplicationUnitDto> selectByHashes(final DbSession session, Collection<String> hashes, final String language,
+    @Nullable final String excludedModuleUuid) {
+    return DatabaseUtils.executeLargeInputs(hashes, new Function<List<String>, List<DuplicationUnitDto>>() {
+      @Override
+      public List<DuplicationUnitDto> apply(@Nonnull List<String> partition) {
+        return session.getMapper(DuplicationMapper.class).selectByHashes(partition, language, excludedModuleUuid);
+      }
+    });
+  }
+
+  /**
+   * Blocks of the last snapshot of the file with the given uuid
+   */
+  public List<DuplicationUnitDto> selectLastBlocksOfFile(DbSession session, String fileUuid) {
+    return session.getMapper(DuplicationMapper.class).selectLastBlocksOfFile(fileUuid);
+  }
+
+  /**
+   * Insert a row in the table DUPLICATIONS_INDEX. Note that generated id is not returned.
+   */
+  public void insert(DbSession session, DuplicationUnitDto unit) {
+    session.getMapper(DuplicationMapper.class).batchInsert(unit);
+  }
+
   /**
    * Insert rows in the table DUPLICATIONS_INDEX.
    * Note that generated ids are not returned.
@@ -20,6 +20,7 @@
 package org.sonar.db.duplication;
 
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.ibatis.annotations.Param;
 
 public interface DuplicationMapper {
@@ -29,6 +30,13 @@ public interface DuplicationMapper {
     @Param("last_project_snapshot_id") Integer lastSnapshotId,
     @Param("language") String language);
 
+  List<DuplicationUnitDto> selectByHashes(
+    @Param("hashes") List<String> hashes,
+    @Param("language") String language,
+    @Nullable @Param("excludedModuleUuid") String excludedModuleUuid);
+
+  List<DuplicationUnitDto> selectLastBlocksOfFile(@Param("fileUuid") String fileUuid);
+
   void batchInsert(DuplicationUnitDto unit);
 
 }
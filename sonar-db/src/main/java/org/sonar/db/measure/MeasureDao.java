@@ -21,11 +21,14 @@
 package org.sonar.db.measure;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.CheckForNull;
+import org.apache.ibatis.session.ResultHandler;
+import org.sonar.db.BatchSession;
 import org.sonar.db.Dao;
 import org.sonar.db.DatabaseUtils;
 import org.sonar.db.DbSession;
@@ -33,6 +36,19 @@ import org.sonar.db.component.SnapshotDto;
 
 public class MeasureDao implements Dao {
 
+  /**
+   * Number of rows of a multi-row insert. Each row has 17 parameters, which keeps statements under the limit of 2100
+   * parameters of MS SQL Server.
+   */
+  static final int MULTI_ROW_INSERT_SIZE = 100;
+
+  /**
+   * Number of rows after which the pending statements are flushed. A batch session only counts statements, so without
+   * this limit it would hold {@link BatchSession#MAX_BATCH_SIZE} multi-row statements, including their data blobs,
+   * before executing them.
+   */
+  static final int FLUSH_ROWS = BatchSession.MAX_BATCH_SIZE;
+
   public boolean existsByKey(DbSession session, String componentKey, String metricKey) {
     return mapper(session).countByComponentAndMetric(componentKey, metricKey) > 0;
   }
@@ -42,6 +58,15 @@ public class MeasureDao implements Dao {
     return mapper(session).selectByComponentAndMetric(componentKey, metricKey);
   }
 
+  /**
+   * Streams the measures of the last analysis of the project and of its components, excluding the measures on rules,
+   * characteristics, persons and disabled metrics, to {@code handler}. Data blobs are not selected: the data of such measures is
+   * {@code null} and {@link MeasureDto#isDataSkipped()} is {@code true}.
+   */
+  public void selectLastMeasuresOfProjectWithoutDataBlobs(DbSession session, String projectUuid, ResultHandler handler) {
+    mapper(session).selectLastMeasuresOfProjectWithoutDataBlobs(projectUuid, handler);
+  }
+
   public List<MeasureDto> findByComponentKeyAndMetricKeys(final DbSession session, final String componentKey, List<String> metricKeys) {
     return DatabaseUtils.executeLargeInputs(metricKeys, new Function<List<String>, List<MeasureDto>>() {
       @Override
@@ -66,9 +91,28 @@ public class MeasureDao implements Dao {
     mapper(session).insert(measureDto);
   }
 
+  /**
+   * Measures are inserted with multi-row statements of at most {@link #MULTI_ROW_INSERT_SIZE} rows. In a batch session,
+   * these statements are themselves sent to the database in JDBC batches, which are flushed every {@link #FLUSH_ROWS}
+   * rows and at the end of the insertion.
+   */
   public void insert(DbSession session, Collection<MeasureDto> items) {
-    for (MeasureDto item : items) {
-      insert(session, item);
+    MeasureMapper mapper = mapper(session);
+    int pendingRows = 0;
+    for (List<MeasureDto> partition : Iterables.partition(items, MULTI_ROW_INSERT_SIZE)) {
+      if (partition.size() == 1) {
+        mapper.insert(partition.get(0));
+      } else {
+        mapper.insertMany(partition);
+      }
+      pendingRows += partition.size();
+      if (pendingRows >= FLUSH_ROWS) {
+        session.flushStatements();
+        pendingRows = 0;
+      }
+    }
+    if (pendingRows > 0) {
+      session.flushStatements();
     }
   }
 
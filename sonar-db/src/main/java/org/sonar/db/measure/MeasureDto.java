@@ -53,6 +53,9 @@ public class MeasureDto {
   private String metricKey;
   private String componentKey;
 
+  // set when the data blob is not selected
+  private boolean dataSkipped;
+
   public Long getId() {
     return id;
   }
@@ -240,6 +243,19 @@ public class MeasureDto {
     return this;
   }
 
+  /**
+   * Whether the data of the measure is stored in a blob which was not selected. {@link #getData()} then returns
+   * {@code null}, and the measure must be selected again to read its data.
+   */
+  public boolean isDataSkipped() {
+    return dataSkipped;
+  }
+
+  public MeasureDto setDataSkipped(boolean dataSkipped) {
+    this.dataSkipped = dataSkipped;
+    return this;
+  }
+
   @Override
   public String toString() {
     return Objects.toStringHelper(this)
@@ -263,6 +279,7 @@ public class MeasureDto {
       .add("personId", personId)
       .add("metricKey", metricKey)
       .add("componentKey", componentKey)
+      .add("dataSkipped", dataSkipped)
       .toString();
   }
 }
@@ -23,11 +23,14 @@ package org.sonar.db.measure;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 public interface MeasureMapper {
 
   MeasureDto selectByKey(@Param("componentKey") String componentKey, @Param("metricKey") String metricKey);
 
+  void selectLastMeasuresOfProjectWithoutDataBlobs(@Param("projectUuid") String projectUuid, ResultHandler resultHandler);
+
   List<MeasureDto> selectByComponentAndMetrics(@Param("componentKey") String componentKey, @Param("metricKeys") List<String> metricKeys);
 
   @CheckForNull
@@ -40,5 +43,7 @@ public interface MeasureMapper {
 
   void insert(MeasureDto measureDto);
 
+  void insertMany(@Param("measures") List<MeasureDto> measures);
+
   List<String> selectMetricKeysForSnapshot(@Param("snapshotId") long snapshotId);
 }
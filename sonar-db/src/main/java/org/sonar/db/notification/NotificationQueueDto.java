@@ -22,9 +22,16 @@ package org.sonar.db.notification;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -36,6 +43,26 @@ import org.sonar.api.utils.SonarException;
  */
 public class NotificationQueueDto {
 
+  /**
+   * First byte of the data. Data serialized by Java serialization before SonarQube 5.2 starts with 0xAC.
+   */
+  private static final byte FORMAT_VERSION = 1;
+
+  /**
+   * Size of the header: format version and date of creation
+   */
+  private static final int HEADER_SIZE = 9;
+
+  /**
+   * The payload is the type and the fields of a {@link Notification}
+   */
+  private static final byte FIELDS_PAYLOAD = 0;
+
+  /**
+   * The payload is a subclass of {@link Notification} serialized by Java serialization
+   */
+  private static final byte SERIALIZED_PAYLOAD = 1;
+
   private Long id;
   private byte[] data;
 
@@ -57,17 +84,51 @@ public class NotificationQueueDto {
     return this;
   }
 
+  /**
+   * Date when the notification was queued, or {@code null} if it was queued before SonarQube 5.2.
+   */
+  @CheckForNull
+  public Long getCreatedAt() {
+    if (!hasHeader()) {
+      return null;
+    }
+    long createdAt = 0L;
+    for (int i = 1; i < HEADER_SIZE; i++) {
+      createdAt = (createdAt << 8) | (data[i] & 0xFF);
+    }
+    return createdAt;
+  }
+
   @Override
   public String toString() {
     return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
   }
 
   public static NotificationQueueDto toNotificationQueueDto(Notification notification) {
+    return toNotificationQueueDto(notification, System.currentTimeMillis());
+  }
+
+  /**
+   * Data starts with a header made of a version byte and the date of creation. Instances of {@link Notification}
+   * are then written in a compact format: the type and the fields as length-prefixed UTF-8 strings. Subclasses,
+   * which may have their own state, are written with Java serialization.
+   */
+  public static NotificationQueueDto toNotificationQueueDto(Notification notification, long createdAt) {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     try {
-      ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
-      objectOutputStream.writeObject(notification);
-      objectOutputStream.close();
+      DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+      output.writeByte(FORMAT_VERSION);
+      output.writeLong(createdAt);
+      if (notification.getClass() == Notification.class) {
+        output.writeByte(FIELDS_PAYLOAD);
+        writeFields(output, notification);
+      } else {
+        output.writeByte(SERIALIZED_PAYLOAD);
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(output);
+        objectOutputStream.writeObject(notification);
+        objectOutputStream.flush();
+      }
+      output.close();
       return new NotificationQueueDto().setData(byteArrayOutputStream.toByteArray());
 
     } catch (IOException e) {
@@ -78,20 +139,75 @@ public class NotificationQueueDto {
     }
   }
 
+  private static void writeFields(DataOutputStream output, Notification notification) throws IOException {
+    writeString(output, notification.getType());
+    Map<String, String> fields = notification.getFieldValues();
+    output.writeInt(fields.size());
+    for (Map.Entry<String, String> field : fields.entrySet()) {
+      writeString(output, field.getKey());
+      writeString(output, field.getValue());
+    }
+  }
+
+  /**
+   * Reads notifications written by {@link #toNotificationQueueDto(Notification)} as well as the ones serialized by
+   * Java serialization before SonarQube 5.2.
+   */
   public Notification toNotification() throws IOException, ClassNotFoundException {
     if (this.data == null) {
       return null;
     }
-    ByteArrayInputStream byteArrayInputStream = null;
+    if (!hasHeader()) {
+      return readSerializedNotification(new ByteArrayInputStream(this.data));
+    }
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(this.data, HEADER_SIZE, this.data.length - HEADER_SIZE));
     try {
-      byteArrayInputStream = new ByteArrayInputStream(this.data);
-      ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream);
-      Object result = objectInputStream.readObject();
-      objectInputStream.close();
-      return (Notification) result;
+      if (input.readByte() == SERIALIZED_PAYLOAD) {
+        return readSerializedNotification(input);
+      }
+      Notification notification = new Notification(readString(input));
+      int fieldCount = input.readInt();
+      for (int i = 0; i < fieldCount; i++) {
+        notification.setFieldValue(readString(input), readString(input));
+      }
+      return notification;
     } finally {
-      IOUtils.closeQuietly(byteArrayInputStream);
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  private boolean hasHeader() {
+    return data != null && data.length > HEADER_SIZE && data[0] == FORMAT_VERSION;
+  }
+
+  private static Notification readSerializedNotification(InputStream input) throws IOException, ClassNotFoundException {
+    try {
+      ObjectInputStream objectInputStream = new ObjectInputStream(input);
+      return (Notification) objectInputStream.readObject();
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  private static void writeString(DataOutputStream output, @Nullable String s) throws IOException {
+    if (s == null) {
+      output.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  @CheckForNull
+  private static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
     }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
   }
 
 }
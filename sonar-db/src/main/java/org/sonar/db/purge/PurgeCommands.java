@@ -32,11 +32,17 @@ class PurgeCommands {
   private final SqlSession session;
   private final PurgeMapper purgeMapper;
   private final PurgeProfiler profiler;
+  private final PurgeThrottler throttler;
 
-  PurgeCommands(SqlSession session, PurgeMapper purgeMapper, PurgeProfiler profiler) {
+  PurgeCommands(SqlSession session, PurgeMapper purgeMapper, PurgeProfiler profiler, PurgeThrottler throttler) {
     this.session = session;
     this.purgeMapper = purgeMapper;
     this.profiler = profiler;
+    this.throttler = throttler;
+  }
+
+  PurgeCommands(SqlSession session, PurgeMapper purgeMapper, PurgeProfiler profiler) {
+    this(session, purgeMapper, profiler, PurgeThrottler.unlimited());
   }
 
   @VisibleForTesting
@@ -54,6 +60,7 @@ class PurgeCommands {
     // Note : do not merge the delete statements into a single loop of resource ids. It's
     // voluntarily grouped by tables in order to benefit from JDBC batch mode.
     // Batch requests can only relate to the same PreparedStatement.
+    // Each chunk is committed, so that locks are not held until the end of the purge of the table.
 
     for (List<Long> partResourceIds : componentIdPartitions) {
       deleteSnapshots(purgeMapper.selectSnapshotIdsByResource(partResourceIds));
@@ -64,85 +71,85 @@ class PurgeCommands {
     profiler.start("deleteResourceLinks (project_links)");
     for (List<String> componentUuidPartition : componentUuidsPartitions) {
       purgeMapper.deleteResourceLinks(componentUuidPartition);
+      commitChunk(componentUuidPartition.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceProperties (properties)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceProperties(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceIndex (resource_index)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceIndex(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceGroupRoles (group_roles)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceGroupRoles(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceUserRoles (user_roles)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceUserRoles(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceManualMeasures (manual_measures)");
     for (List<String> componentUuidPartition : componentUuidsPartitions) {
       purgeMapper.deleteResourceManualMeasures(componentUuidPartition);
+      commitChunk(componentUuidPartition.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteComponentIssueChanges (issue_changes)");
     for (List<String> componentUuidPartition : componentUuidsPartitions) {
       purgeMapper.deleteComponentIssueChanges(componentUuidPartition);
+      commitChunk(componentUuidPartition.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteComponentIssues (issues)");
     for (List<String> componentUuidPartition : componentUuidsPartitions) {
       purgeMapper.deleteComponentIssues(componentUuidPartition);
+      commitChunk(componentUuidPartition.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResourceActionPlans (action_plans)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceActionPlans(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteComponentEvents (events)");
     for (List<String> componentUuidPartition : componentUuidsPartitions) {
       purgeMapper.deleteComponentEvents(componentUuidPartition);
+      commitChunk(componentUuidPartition.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteResource (projects)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResource(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteAuthors (authors)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteAuthors(partResourceIds);
+      commitChunk(partResourceIds.size());
     }
-    session.commit();
     profiler.stop();
   }
 
@@ -160,22 +167,22 @@ class PurgeCommands {
     profiler.start("deleteSnapshotEvents (events)");
     for (List<Long> partSnapshotIds : snapshotIdsPartition) {
       purgeMapper.deleteSnapshotEvents(partSnapshotIds);
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteSnapshotMeasures (project_measures)");
     for (List<Long> partSnapshotIds : snapshotIdsPartition) {
       purgeMapper.deleteSnapshotMeasures(partSnapshotIds);
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("deleteSnapshot (snapshots)");
     for (List<Long> partSnapshotIds : snapshotIdsPartition) {
       purgeMapper.deleteSnapshot(partSnapshotIds);
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
   }
 
@@ -194,15 +201,17 @@ class PurgeCommands {
     List<Long> metricIdsWithoutHistoricalData = purgeMapper.selectMetricIdsWithoutHistoricalData();
     for (List<Long> partSnapshotIds : snapshotIdsPartition) {
       purgeMapper.deleteSnapshotWastedMeasures(partSnapshotIds, metricIdsWithoutHistoricalData);
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
 
     profiler.start("updatePurgeStatusToOne (snapshots)");
-    for (Long snapshotId : snapshotIds) {
-      purgeMapper.updatePurgeStatusToOne(snapshotId);
+    for (List<Long> partSnapshotIds : snapshotIdsPartition) {
+      for (Long snapshotId : partSnapshotIds) {
+        purgeMapper.updatePurgeStatusToOne(snapshotId);
+      }
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
   }
 
@@ -210,8 +219,8 @@ class PurgeCommands {
     profiler.start("deleteSnapshotDuplications (duplications_index)");
     for (List<Long> partSnapshotIds : snapshotIdsPartition) {
       purgeMapper.deleteSnapshotDuplications(partSnapshotIds);
+      commitChunk(partSnapshotIds.size());
     }
-    session.commit();
     profiler.stop();
   }
 
@@ -221,4 +230,13 @@ class PurgeCommands {
     session.commit();
     profiler.stop();
   }
+
+  /**
+   * Commits the deletions of a chunk of snapshots or components, then waits if the purge is throttled
+   */
+  private void commitChunk(int ids) {
+    session.commit();
+    profiler.chunkCommitted();
+    throttler.chunkPurged(ids);
+  }
 }
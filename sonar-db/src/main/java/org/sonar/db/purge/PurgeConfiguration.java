@@ -33,17 +33,28 @@ public class PurgeConfiguration {
   private final IdUuidPair rootProjectIdUuid;
   private final String[] scopesWithoutHistoricalData;
   private final int maxAgeInDaysOfClosedIssues;
+  private final int maxPurgedIdsPerSecond;
   private final System2 system2;
 
   public PurgeConfiguration(IdUuidPair rootProjectId, String[] scopesWithoutHistoricalData, int maxAgeInDaysOfClosedIssues) {
-    this(rootProjectId, scopesWithoutHistoricalData, maxAgeInDaysOfClosedIssues, System2.INSTANCE);
+    this(rootProjectId, scopesWithoutHistoricalData, maxAgeInDaysOfClosedIssues, 0);
+  }
+
+  public PurgeConfiguration(IdUuidPair rootProjectId, String[] scopesWithoutHistoricalData, int maxAgeInDaysOfClosedIssues, int maxPurgedIdsPerSecond) {
+    this(rootProjectId, scopesWithoutHistoricalData, maxAgeInDaysOfClosedIssues, maxPurgedIdsPerSecond, System2.INSTANCE);
   }
 
   @VisibleForTesting
   PurgeConfiguration(IdUuidPair rootProjectId, String[] scopesWithoutHistoricalData, int maxAgeInDaysOfClosedIssues, System2 system2) {
+    this(rootProjectId, scopesWithoutHistoricalData, maxAgeInDaysOfClosedIssues, 0, system2);
+  }
+
+  private PurgeConfiguration(IdUuidPair rootProjectId, String[] scopesWithoutHistoricalData, int maxAgeInDaysOfClosedIssues, int maxPurgedIdsPerSecond,
+    System2 system2) {
     this.rootProjectIdUuid = rootProjectId;
     this.scopesWithoutHistoricalData = scopesWithoutHistoricalData;
     this.maxAgeInDaysOfClosedIssues = maxAgeInDaysOfClosedIssues;
+    this.maxPurgedIdsPerSecond = maxPurgedIdsPerSecond;
     this.system2 = system2;
   }
 
@@ -52,7 +63,8 @@ public class PurgeConfiguration {
     if (settings.getBoolean(PurgeConstants.PROPERTY_CLEAN_DIRECTORY)) {
       scopes = new String[] {Scopes.DIRECTORY, Scopes.FILE};
     }
-    return new PurgeConfiguration(idUuidPair, scopes, settings.getInt(PurgeConstants.DAYS_BEFORE_DELETING_CLOSED_ISSUES));
+    return new PurgeConfiguration(idUuidPair, scopes, settings.getInt(PurgeConstants.DAYS_BEFORE_DELETING_CLOSED_ISSUES),
+      settings.getInt(PurgeConstants.MAX_PURGED_IDS_PER_SECOND));
   }
 
   public IdUuidPair rootProjectIdUuid() {
@@ -63,6 +75,13 @@ public class PurgeConfiguration {
     return scopesWithoutHistoricalData;
   }
 
+  /**
+   * Maximum number of snapshots or components purged per second. Zero or negative means no limit.
+   */
+  public int maxPurgedIdsPerSecond() {
+    return maxPurgedIdsPerSecond;
+  }
+
   @CheckForNull
   public Date maxLiveDateOfClosedIssues() {
     return maxLiveDateOfClosedIssues(new Date(system2.now()));
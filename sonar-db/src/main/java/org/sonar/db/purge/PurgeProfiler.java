@@ -20,19 +20,26 @@
 package org.sonar.db.purge;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.sonar.api.utils.TimeUtils;
 import org.sonar.api.utils.log.Logger;
 
+/**
+ * Cumulates the durations of the purge of each table. Durations and numbers of committed chunks can be read
+ * with {@link #getDurations()} and {@link #getChunkCounts()} while a purge is running.
+ */
 public class PurgeProfiler {
 
-  private Map<String, Long> durations = new HashMap<>();
+  private final ConcurrentMap<String, Long> durations = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Long> chunkCounts = new ConcurrentHashMap<>();
   private long startTime;
   private String currentTable;
   private final Clock clock;
@@ -48,6 +55,7 @@ public class PurgeProfiler {
 
   public void reset() {
     durations.clear();
+    chunkCounts.clear();
   }
 
   void start(String table) {
@@ -56,17 +64,36 @@ public class PurgeProfiler {
   }
 
   void stop() {
-    final Long cumulatedDuration;
-    if (durations.containsKey(currentTable)) {
-      cumulatedDuration = durations.get(currentTable);
-    } else {
-      cumulatedDuration = 0L;
+    add(durations, currentTable, clock.now() - startTime);
+  }
+
+  void chunkCommitted() {
+    add(chunkCounts, currentTable, 1L);
+  }
+
+  /**
+   * Cumulated durations in milliseconds, by table
+   */
+  public Map<String, Long> getDurations() {
+    return ImmutableMap.copyOf(durations);
+  }
+
+  /**
+   * Number of committed chunks, by table
+   */
+  public Map<String, Long> getChunkCounts() {
+    return ImmutableMap.copyOf(chunkCounts);
+  }
+
+  private static void add(ConcurrentMap<String, Long> values, String table, long value) {
+    Long previous = values.putIfAbsent(table, value);
+    while (previous != null && !values.replace(table, previous, previous + value)) {
+      previous = values.get(table);
     }
-    durations.put(currentTable, cumulatedDuration + (clock.now() - startTime));
   }
 
   public void dump(long totalTime, Logger logger) {
-    List<Entry<String, Long>> data = new ArrayList<>(durations.entrySet());
+    List<Entry<String, Long>> data = new ArrayList<>(getDurations().entrySet());
     Collections.sort(data, new Comparator<Entry<String, Long>>() {
       @Override
       public int compare(Entry<String, Long> o1, Entry<String, Long> o2) {
@@ -78,6 +105,10 @@ public class PurgeProfiler {
       StringBuilder sb = new StringBuilder();
       sb.append("   o ").append(entry.getKey()).append(": ").append(TimeUtils.formatDuration(entry.getValue()))
         .append(" (").append((int) (entry.getValue() / percent)).append("%)");
+      Long chunks = chunkCounts.get(entry.getKey());
+      if (chunks != null) {
+        sb.append(", ").append(chunks).append(" chunks");
+      }
       logger.info(sb.toString());
     }
   }
@@ -0,0 +1,73 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.purge;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.sonar.api.utils.System2;
+
+/**
+ * Limits the number of snapshots or components purged per second by pausing between two committed chunks.
+ * Pauses are applied to each chunk independently, so the rate of the purge of a table never exceeds the limit.
+ */
+class PurgeThrottler {
+
+  private final int maxIdsPerSecond;
+  private final System2 system2;
+  private long lastChunkEnd;
+
+  PurgeThrottler(int maxIdsPerSecond) {
+    this(maxIdsPerSecond, System2.INSTANCE);
+  }
+
+  @VisibleForTesting
+  PurgeThrottler(int maxIdsPerSecond, System2 system2) {
+    this.maxIdsPerSecond = maxIdsPerSecond;
+    this.system2 = system2;
+    this.lastChunkEnd = system2.now();
+  }
+
+  static PurgeThrottler unlimited() {
+    return new PurgeThrottler(0);
+  }
+
+  /**
+   * Called once the purge of a chunk of {@code ids} snapshots or components is committed.
+   */
+  void chunkPurged(int ids) {
+    if (maxIdsPerSecond <= 0) {
+      return;
+    }
+    long minDuration = ids * 1000L / maxIdsPerSecond;
+    long duration = system2.now() - lastChunkEnd;
+    if (duration < minDuration) {
+      pause(minDuration - duration);
+    }
+    lastChunkEnd = system2.now();
+  }
+
+  @VisibleForTesting
+  void pause(long durationInMs) {
+    try {
+      Thread.sleep(durationInMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
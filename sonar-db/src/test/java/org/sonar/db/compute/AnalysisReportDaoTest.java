@@ -120,6 +120,14 @@ public class AnalysisReportDaoTest {
     assertThat(nextAvailableReport.getProjectKey()).isEqualTo("P2");
   }
 
+  @Test
+  public void pop_never_books_two_reports_of_the_same_project() {
+    db.prepareDbUnit(getClass(), "pop_oldest_pending.xml");
+
+    assertThat(sut.pop(db.getSession()).getId()).isEqualTo(3);
+    assertThat(sut.pop(db.getSession())).isNull();
+  }
+
   @Test
   public void pop_null_if_no_pending_reports() {
     db.prepareDbUnit(getClass(), "pop_null_if_no_pending_reports.xml");
@@ -129,6 +137,14 @@ public class AnalysisReportDaoTest {
     assertThat(nextAvailableReport).isNull();
   }
 
+  @Test
+  public void count_by_status() {
+    db.prepareDbUnit(getClass(), "pop_oldest_pending.xml");
+
+    assertThat(sut.countByStatus(db.getSession(), PENDING)).isEqualTo(3);
+    assertThat(sut.countByStatus(db.getSession(), WORKING)).isEqualTo(1);
+  }
+
   @Test
   public void getById_maps_all_the_fields_except_the_data() {
     db.prepareDbUnit(getClass(), "one_analysis_report.xml");
@@ -20,6 +20,7 @@
 package org.sonar.db.duplication;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -58,6 +59,59 @@ public class DuplicationDaoTest {
     assertThat(blocks.size(), is(2));
   }
 
+  @Test
+  public void select_by_hashes() {
+    db.prepareDbUnit(getClass(), "select_by_hashes.xml");
+
+    List<DuplicationUnitDto> blocks = dao.selectByHashes(db.getSession(), Arrays.asList("aa", "bb", "unknown"), "java", "MODULE_FOO");
+    assertThat(blocks.size(), is(2));
+
+    DuplicationUnitDto block = blocks.get(0).getHash().equals("aa") ? blocks.get(0) : blocks.get(1);
+    assertThat("block resourceId", block.getResourceKey(), is("bar"));
+    assertThat("block index in file", block.getIndexInFile(), is(3));
+    assertThat("block start line", block.getStartLine(), is(4));
+    assertThat("block end line", block.getEndLine(), is(5));
+  }
+
+  @Test
+  public void select_by_hashes_includes_all_modules_if_none_is_excluded() {
+    db.prepareDbUnit(getClass(), "select_by_hashes.xml");
+
+    List<DuplicationUnitDto> blocks = dao.selectByHashes(db.getSession(), Arrays.asList("aa"), "java", null);
+    assertThat(blocks.size(), is(2));
+  }
+
+  @Test
+  public void select_by_hashes_returns_empty_list_if_no_hash() {
+    List<DuplicationUnitDto> blocks = dao.selectByHashes(db.getSession(), Collections.<String>emptyList(), "java", null);
+    assertThat(blocks.isEmpty(), is(true));
+  }
+
+  @Test
+  public void select_last_blocks_of_file() {
+    db.prepareDbUnit(getClass(), "select_by_hashes.xml");
+
+    List<DuplicationUnitDto> blocks = dao.selectLastBlocksOfFile(db.getSession(), "BAR");
+    assertThat(blocks.size(), is(3));
+    assertThat(blocks.get(0).getHash(), is("aa"));
+    assertThat(blocks.get(0).getIndexInFile(), is(3));
+    assertThat(blocks.get(0).getStartLine(), is(4));
+    assertThat(blocks.get(0).getEndLine(), is(5));
+    assertThat(blocks.get(2).getHash(), is("cc"));
+
+    assertThat(dao.selectLastBlocksOfFile(db.getSession(), "UNKNOWN").isEmpty(), is(true));
+  }
+
+  @Test
+  public void insert_in_session() {
+    db.prepareDbUnit(getClass(), "shouldInsert.xml");
+
+    dao.insert(db.getSession(), new DuplicationUnitDto(1, 2, "bb", 0, 1, 2));
+    db.getSession().commit();
+
+    db.assertDbUnit(getClass(), "shouldInsert-result.xml", "duplications_index");
+  }
+
   @Test
   public void shouldInsert() {
     db.prepareDbUnit(getClass(), "shouldInsert.xml");
@@ -23,18 +23,28 @@ package org.sonar.db.measure;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.InOrder;
 import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.test.DbTests;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
 
 @Category(DbTests.class)
 public class MeasureDaoTest {
@@ -80,6 +90,42 @@ public class MeasureDaoTest {
     assertThat(result.getData()).isEqualTo("36=1;37=1;38=1;39=1;43=1;48=1;53=1");
   }
 
+  @Test
+  public void select_last_measures_of_project_without_data_blobs() {
+    db.prepareDbUnit(getClass(), "select_last_measures_of_project_without_data_blobs.xml");
+
+    final List<MeasureDto> results = new ArrayList<>();
+    sut.selectLastMeasuresOfProjectWithoutDataBlobs(db.getSession(), "PROJECT", new ResultHandler() {
+      @Override
+      public void handleResult(ResultContext context) {
+        results.add((MeasureDto) context.getResultObject());
+      }
+    });
+
+    assertThat(results).extracting("id").containsOnly(20L, 22L, 23L);
+    for (MeasureDto result : results) {
+      if (result.getId() == 20L) {
+        assertThat(result.getComponentKey()).isEqualTo("org.struts:struts");
+        assertThat(result.getMetricId()).isEqualTo(12);
+        assertThat(result.getValue()).isEqualTo(10d);
+        assertThat(result.getVariation(1)).isEqualTo(1d);
+        assertThat(result.getVariation(2)).isNull();
+        assertThat(result.getVariation(5)).isEqualTo(-5d);
+        assertThat(result.getAlertStatus()).isEqualTo("OK");
+        assertThat(result.getAlertText()).isEqualTo("Green");
+        assertThat(result.isDataSkipped()).isFalse();
+      } else if (result.getId() == 22L) {
+        assertThat(result.getComponentKey()).isEqualTo("org.struts:struts:src/org/struts/RequestContext.java");
+        assertThat(result.getData()).isEqualTo("36=1;37=1");
+        assertThat(result.isDataSkipped()).isFalse();
+      } else {
+        assertThat(result.getMetricId()).isEqualTo(10);
+        assertThat(result.getData()).isNull();
+        assertThat(result.isDataSkipped()).isTrue();
+      }
+    }
+  }
+
   @Test
   public void find_by_component_key_and_metrics() {
     db.prepareDbUnit(getClass(), "shared.xml");
@@ -304,6 +350,53 @@ public class MeasureDaoTest {
     assertThat(db.countRowsOfTable("project_measures")).isEqualTo(2);
   }
 
+  @Test
+  public void insert_more_measures_than_the_size_of_a_multi_row_insert() {
+    db.prepareDbUnit(getClass(), "empty.xml");
+
+    List<MeasureDto> measures = new ArrayList<>();
+    for (int i = 0; i < MeasureDao.MULTI_ROW_INSERT_SIZE * 2 + 1; i++) {
+      measures.add(new MeasureDto()
+        .setSnapshotId(2L)
+        .setMetricId(i)
+        .setComponentId(6L)
+        .setValue((double) i)
+        .setVariation(1, 1.0d));
+    }
+    DbSession batchSession = db.myBatis().openSession(true);
+    try {
+      sut.insert(batchSession, measures);
+      batchSession.commit();
+    } finally {
+      batchSession.close();
+    }
+
+    assertThat(db.countRowsOfTable("project_measures")).isEqualTo(MeasureDao.MULTI_ROW_INSERT_SIZE * 2 + 1);
+    assertThat(db.countSql("select count(*) from project_measures where metric_id = value and variation_value_1 = 1.0")).isEqualTo(
+      MeasureDao.MULTI_ROW_INSERT_SIZE * 2 + 1);
+  }
+
+  @Test
+  public void flush_statements_every_flush_rows() {
+    DbSession session = mock(DbSession.class);
+    MeasureMapper mapper = mock(MeasureMapper.class);
+    when(session.getMapper(MeasureMapper.class)).thenReturn(mapper);
+    int statementsPerFlush = (MeasureDao.FLUSH_ROWS + MeasureDao.MULTI_ROW_INSERT_SIZE - 1) / MeasureDao.MULTI_ROW_INSERT_SIZE;
+
+    List<MeasureDto> measures = new ArrayList<>();
+    for (int i = 0; i < statementsPerFlush * MeasureDao.MULTI_ROW_INSERT_SIZE + 1; i++) {
+      measures.add(new MeasureDto().setSnapshotId(2L).setMetricId(i).setComponentId(6L));
+    }
+    sut.insert(session, measures);
+
+    InOrder inOrder = inOrder(mapper, session);
+    inOrder.verify(mapper, times(statementsPerFlush)).insertMany(anyListOf(MeasureDto.class));
+    inOrder.verify(session).flushStatements();
+    inOrder.verify(mapper).insert(measures.get(measures.size() - 1));
+    inOrder.verify(session).flushStatements();
+    inOrder.verifyNoMoreInteractions();
+  }
+
   private static Map<Long, PastMeasureDto> pastMeasuresById(List<PastMeasureDto> pastMeasures) {
     return FluentIterable.from(pastMeasures).uniqueIndex(new Function<PastMeasureDto, Long>() {
       @Nullable
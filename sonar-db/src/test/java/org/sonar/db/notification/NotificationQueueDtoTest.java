@@ -0,0 +1,101 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.notification;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import org.junit.Test;
+import org.sonar.api.notifications.Notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NotificationQueueDtoTest {
+
+  @Test
+  public void write_and_read_compact_format() throws Exception {
+    Notification notification = new Notification("new-issues")
+      .setDefaultMessage("10 new issues")
+      .setFieldValue("projectKey", "org.sonar:sonar")
+      .setFieldValue("projectName", "SonarQube éà");
+
+    NotificationQueueDto dto = NotificationQueueDto.toNotificationQueueDto(notification, 1_500_000_000_000L);
+    Notification read = dto.toNotification();
+
+    assertThat(dto.getData()[0]).isEqualTo((byte) 1);
+    assertThat(dto.getCreatedAt()).isEqualTo(1_500_000_000_000L);
+    assertThat(read.getClass()).isEqualTo(Notification.class);
+    assertThat(read).isEqualTo(notification);
+    assertThat(read.getDefaultMessage()).isEqualTo("10 new issues");
+    assertThat(read.getFieldValue("projectName")).isEqualTo("SonarQube éà");
+  }
+
+  @Test
+  public void write_and_read_subclasses_with_java_serialization() throws Exception {
+    CustomNotification notification = new CustomNotification("custom state");
+    notification.setFieldValue("projectKey", "org.sonar:sonar");
+
+    NotificationQueueDto dto = NotificationQueueDto.toNotificationQueueDto(notification, 42L);
+    Notification read = dto.toNotification();
+
+    assertThat(dto.getCreatedAt()).isEqualTo(42L);
+    assertThat(read).isInstanceOf(CustomNotification.class);
+    assertThat(((CustomNotification) read).state).isEqualTo("custom state");
+    assertThat(read.getFieldValue("projectKey")).isEqualTo("org.sonar:sonar");
+  }
+
+  @Test
+  public void compact_format_is_smaller_than_java_serialization() throws Exception {
+    Notification notification = new Notification("new-issues").setFieldValue("projectKey", "org.sonar:sonar");
+
+    assertThat(NotificationQueueDto.toNotificationQueueDto(notification).getData().length).isLessThan(javaSerialize(notification).length);
+  }
+
+  @Test
+  public void read_notifications_serialized_by_java_serialization() throws Exception {
+    Notification notification = new Notification("new-issues").setFieldValue("projectKey", "org.sonar:sonar");
+    NotificationQueueDto dto = new NotificationQueueDto().setData(javaSerialize(notification));
+
+    assertThat(dto.toNotification()).isEqualTo(notification);
+    assertThat(dto.getCreatedAt()).isNull();
+  }
+
+  @Test
+  public void read_null_data() throws Exception {
+    assertThat(new NotificationQueueDto().toNotification()).isNull();
+    assertThat(new NotificationQueueDto().getCreatedAt()).isNull();
+  }
+
+  private static byte[] javaSerialize(Notification notification) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream output = new ObjectOutputStream(bytes);
+    output.writeObject(notification);
+    output.close();
+    return bytes.toByteArray();
+  }
+
+  private static class CustomNotification extends Notification {
+    private final String state;
+
+    CustomNotification(String state) {
+      super("custom");
+      this.state = state;
+    }
+  }
+}
@@ -29,6 +29,9 @@ import org.sonar.test.DbTests;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @Category(DbTests.class)
 public class PurgeCommandsTest {
@@ -61,6 +64,19 @@ public class PurgeCommandsTest {
     // The goal of this test is only to check that the query do no fail, not to check result
   }
 
+  @Test
+  public void commit_and_throttle_each_chunk_of_snapshots() {
+    dbTester.truncateTables();
+    PurgeThrottler throttler = mock(PurgeThrottler.class);
+
+    new PurgeCommands(dbTester.getSession(), dbTester.getSession().getMapper(PurgeMapper.class), profiler, throttler).deleteSnapshots(getHugeNumberOfIds());
+
+    // 4 tables, 4 chunks of 1000 snapshots and a chunk of 500 snapshots each
+    verify(throttler, times(4 * 4)).chunkPurged(1000);
+    verify(throttler, times(4)).chunkPurged(500);
+    assertThat(profiler.getChunkCounts()).containsEntry("deleteSnapshot (snapshots)", 5L);
+  }
+
   /**
    * Test that all related data is purged.
    */
@@ -73,4 +73,13 @@ public class PurgeConfigurationTest {
 
     assertThat(sut.scopesWithoutHistoricalData()).contains(Scopes.DIRECTORY, Scopes.FILE);
   }
+
+  @Test
+  public void max_purged_ids_per_second_is_read_from_settings() {
+    Settings settings = new Settings();
+    assertThat(PurgeConfiguration.newDefaultPurgeConfiguration(settings, new IdUuidPair(42L, "any-uuid")).maxPurgedIdsPerSecond()).isZero();
+
+    settings.setProperty(PurgeConstants.MAX_PURGED_IDS_PER_SECOND, 500);
+    assertThat(PurgeConfiguration.newDefaultPurgeConfiguration(settings, new IdUuidPair(42L, "any-uuid")).maxPurgedIdsPerSecond()).isEqualTo(500);
+  }
 }
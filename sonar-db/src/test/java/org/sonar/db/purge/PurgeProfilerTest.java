@@ -23,6 +23,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sonar.api.utils.log.Logger;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -80,6 +82,25 @@ public class PurgeProfilerTest {
     verify(logger).info(contains("bar: 5ms"));
   }
 
+  @Test
+  public void shouldCountCommittedChunks() {
+    profiler.start("foo");
+    clock.sleep(10);
+    profiler.chunkCommitted();
+    profiler.chunkCommitted();
+    profiler.stop();
+
+    profiler.start("bar");
+    clock.sleep(5);
+    profiler.stop();
+
+    assertThat(profiler.getDurations()).containsOnly(entry("foo", 10L), entry("bar", 5L));
+    assertThat(profiler.getChunkCounts()).containsOnly(entry("foo", 2L));
+
+    profiler.dump(50, logger);
+    verify(logger).info(contains("foo: 10ms (20%), 2 chunks"));
+  }
+
   private class MockedClock extends PurgeProfiler.Clock {
     private long now = 0;
 
@@ -0,0 +1,65 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.purge;
+
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PurgeThrottlerTest {
+
+  System2 system2 = mock(System2.class);
+
+  @Test
+  public void pause_when_chunk_is_purged_faster_than_allowed() {
+    when(system2.now()).thenReturn(0L, 200L, 500L);
+    PurgeThrottler underTest = spy(new PurgeThrottler(1000, system2));
+
+    // 500 ids at 1000 ids/s must last at least 500ms
+    underTest.chunkPurged(500);
+
+    verify(underTest).pause(300L);
+  }
+
+  @Test
+  public void do_not_pause_when_chunk_is_purged_slower_than_allowed() {
+    when(system2.now()).thenReturn(0L, 800L, 800L);
+    PurgeThrottler underTest = spy(new PurgeThrottler(1000, system2));
+
+    underTest.chunkPurged(500);
+
+    verify(underTest, never()).pause(anyLong());
+  }
+
+  @Test
+  public void do_not_pause_when_unlimited() {
+    PurgeThrottler underTest = spy(new PurgeThrottler(0, system2));
+
+    underTest.chunkPurged(1000);
+
+    verify(underTest, never()).pause(anyLong());
+  }
+}
@@ -0,0 +1,391 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+/**
+ * Packed index, sorted by hash, which supports removal of resources.
+ * <p>
+ * Like {@link PackedMemoryCloneIndex}, blocks are stored in a flat buffer of ints. Differences are:
+ * </p>
+ * <ul>
+ *   <li>resource ids are replaced by codes of a dictionary, so that each block is only made of ints</li>
+ *   <li>blocks are sorted by hash, then by resource and index in file. A secondary index, built by a counting
+ *   sort on resource codes, gives the blocks of a resource without binary search on strings</li>
+ *   <li>removed resources are dropped when the index is sorted again</li>
+ *   <li>the buffer can be a memory-mapped file, so that large indexes do not need to fit into the heap</li>
+ * </ul>
+ * <p>
+ * Insertions and removals are not thread-safe. Once the index is sorted (on first query after a modification),
+ * queries can be executed concurrently.
+ * </p>
+ *
+ * @since 5.2
+ */
+public class SortedPackedCloneIndex extends AbstractCloneIndex implements Closeable {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+  /**
+   * resource code, index in file, first line, last line, start unit, end unit
+   */
+  private static final int BLOCK_INTS = 6;
+
+  private final int hashInts;
+  private final int blockInts;
+
+  @Nullable
+  private final FileChannel channel;
+  private IntBuffer data;
+  private int capacity;
+  private int size;
+
+  private final Map<String, Integer> codesByResourceId = new HashMap<>();
+  private final List<String> resourceIds = new ArrayList<>();
+  private final BitSet removedCodes = new BitSet();
+
+  private volatile boolean sorted = true;
+  /**
+   * Positions of blocks of resource with code c are between {@code resourceStarts[c]} (inclusive)
+   * and {@code resourceStarts[c + 1]} (exclusive) of {@code positionsByResource}.
+   */
+  private int[] resourceStarts = new int[1];
+  private int[] positionsByResource = new int[0];
+
+  public SortedPackedCloneIndex() {
+    this(8, DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param hashBytes size of hash in bytes
+   * @param initialCapacity the initial capacity
+   */
+  public SortedPackedCloneIndex(int hashBytes, int initialCapacity) {
+    this.hashInts = hashBytes / 4;
+    this.blockInts = hashInts + BLOCK_INTS;
+    this.channel = null;
+    this.capacity = initialCapacity;
+    this.data = IntBuffer.allocate(initialCapacity * blockInts);
+  }
+
+  /**
+   * Index stored in a memory-mapped file. The file is created or overwritten. Caller must {@link #close()} the index
+   * and delete the file once the index is not used anymore.
+   *
+   * @param hashBytes size of hash in bytes
+   * @param file the file backing the index
+   */
+  public SortedPackedCloneIndex(int hashBytes, File file) {
+    this.hashInts = hashBytes / 4;
+    this.blockInts = hashInts + BLOCK_INTS;
+    this.capacity = DEFAULT_INITIAL_CAPACITY;
+    try {
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+      randomAccessFile.setLength(0);
+      this.channel = randomAccessFile.getChannel();
+      this.data = map(capacity);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to create clone index in " + file, e);
+    }
+  }
+
+  /**
+   * Number of blocks, including the ones of removed resources until the next sort.
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void insert(Block block) {
+    int[] hash = block.getBlockHash().toIntArray();
+    if (hash.length != hashInts) {
+      throw new IllegalArgumentException("Expected " + hashInts + " ints in hash, but got " + hash.length);
+    }
+    ensureCapacity(size + 1);
+    sorted = false;
+
+    int offset = size * blockInts;
+    for (int i = 0; i < hashInts; i++) {
+      data.put(offset++, hash[i]);
+    }
+    data.put(offset++, codeOf(block.getResourceId()));
+    data.put(offset++, block.getIndexInFile());
+    data.put(offset++, block.getStartLine());
+    data.put(offset++, block.getEndLine());
+    data.put(offset++, block.getStartUnit());
+    data.put(offset, block.getEndUnit());
+    size++;
+  }
+
+  /**
+   * Removes all the blocks of the resource.
+   */
+  public void remove(String resourceId) {
+    Integer code = codesByResourceId.remove(resourceId);
+    if (code != null) {
+      // the code is not reused, so that blocks inserted later for the same resource are kept
+      removedCodes.set(code);
+      sorted = false;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * <strong>Note that this implementation does not guarantee that blocks would be sorted by index.</strong>
+   * </p>
+   */
+  @Override
+  public Collection<Block> getByResourceId(String resourceId) {
+    ensureSorted();
+    Integer code = codesByResourceId.get(resourceId);
+    if (code == null || code + 1 >= resourceStarts.length) {
+      return Collections.emptyList();
+    }
+    Block.Builder builder = Block.builder();
+    List<Block> result = new ArrayList<>(resourceStarts[code + 1] - resourceStarts[code]);
+    for (int i = resourceStarts[code]; i < resourceStarts[code + 1]; i++) {
+      int offset = positionsByResource[i] * blockInts;
+      int[] hash = new int[hashInts];
+      for (int j = 0; j < hashInts; j++) {
+        hash[j] = data.get(offset++);
+      }
+      result.add(toBlock(builder, resourceId, new ByteArray(hash), offset + 1));
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Collection<Block> getBySequenceHash(ByteArray sequenceHash) {
+    int[] hash = sequenceHash.toIntArray();
+    if (hash.length != hashInts) {
+      throw new IllegalArgumentException("Expected " + hashInts + " ints in hash, but got " + hash.length);
+    }
+    ensureSorted();
+
+    // lower bound of hash
+    int lower = 0;
+    int upper = size;
+    while (lower < upper) {
+      int mid = (lower + upper) >>> 1;
+      if (compareHash(mid, hash) < 0) {
+        lower = mid + 1;
+      } else {
+        upper = mid;
+      }
+    }
+
+    Block.Builder builder = Block.builder();
+    List<Block> result = new ArrayList<>();
+    for (int index = lower; index < size && compareHash(index, hash) == 0; index++) {
+      int offset = index * blockInts + hashInts;
+      String resourceId = resourceIds.get(data.get(offset));
+      result.add(toBlock(builder, resourceId, sequenceHash, offset + 1));
+    }
+    return result;
+  }
+
+  /**
+   * @param offset offset of the index in file of the block
+   */
+  private Block toBlock(Block.Builder builder, String resourceId, ByteArray hash, int offset) {
+    return builder
+      .setResourceId(resourceId)
+      .setBlockHash(hash)
+      .setIndexInFile(data.get(offset))
+      .setLines(data.get(offset + 1), data.get(offset + 2))
+      .setUnit(data.get(offset + 3), data.get(offset + 4))
+      .build();
+  }
+
+  private int codeOf(String resourceId) {
+    Integer code = codesByResourceId.get(resourceId);
+    if (code == null) {
+      code = resourceIds.size();
+      resourceIds.add(resourceId);
+      codesByResourceId.put(resourceId, code);
+    }
+    return code;
+  }
+
+  private int compareHash(int index, int[] hash) {
+    int offset = index * blockInts;
+    for (int k = 0; k < hashInts; k++) {
+      int c = Integer.compare(data.get(offset + k), hash[k]);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return 0;
+  }
+
+  private void ensureCapacity(int requiredCapacity) {
+    if (requiredCapacity <= capacity) {
+      return;
+    }
+    int newCapacity = Math.max(requiredCapacity, (capacity * 3) / 2 + 1);
+    if (channel == null) {
+      IntBuffer newData = IntBuffer.allocate(newCapacity * blockInts);
+      data.rewind();
+      newData.put(data);
+      data = newData;
+    } else {
+      // content is kept in the file
+      data = map(newCapacity);
+    }
+    capacity = newCapacity;
+  }
+
+  private IntBuffer map(int blocks) {
+    try {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, 4L * blocks * blockInts).asIntBuffer();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to map clone index", e);
+    }
+  }
+
+  /**
+   * Sorts the index on first query after a modification. The lock is only taken when the index is not sorted yet,
+   * so that concurrent queries on a sorted index do not contend.
+   */
+  private void ensureSorted() {
+    if (sorted) {
+      return;
+    }
+    synchronized (this) {
+      if (!sorted) {
+        compact();
+        DataUtils.sort(byHash);
+        buildResourceIndex();
+        sorted = true;
+      }
+    }
+  }
+
+  /**
+   * Releases the file backing the index, if any. The index must not be used anymore.
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Drops the blocks of removed resources
+   */
+  private void compact() {
+    if (removedCodes.isEmpty()) {
+      return;
+    }
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (!removedCodes.get(data.get(i * blockInts + hashInts))) {
+        if (kept != i) {
+          copy(i, kept);
+        }
+        kept++;
+      }
+    }
+    size = kept;
+    removedCodes.clear();
+  }
+
+  private void buildResourceIndex() {
+    int codes = resourceIds.size();
+    int[] starts = new int[codes + 1];
+    for (int i = 0; i < size; i++) {
+      starts[data.get(i * blockInts + hashInts) + 1]++;
+    }
+    for (int c = 0; c < codes; c++) {
+      starts[c + 1] += starts[c];
+    }
+    int[] next = starts.clone();
+    int[] positions = new int[size];
+    for (int i = 0; i < size; i++) {
+      positions[next[data.get(i * blockInts + hashInts)]++] = i;
+    }
+    resourceStarts = starts;
+    positionsByResource = positions;
+  }
+
+  private void copy(int from, int to) {
+    int fromOffset = from * blockInts;
+    int toOffset = to * blockInts;
+    for (int k = 0; k < blockInts; k++) {
+      data.put(toOffset + k, data.get(fromOffset + k));
+    }
+  }
+
+  private final DataUtils.Sortable byHash = new DataUtils.Sortable() {
+    @Override
+    public void swap(int i, int j) {
+      int i2 = i * blockInts;
+      int j2 = j * blockInts;
+      for (int k = 0; k < blockInts; k++, i2++, j2++) {
+        int tmp = data.get(i2);
+        data.put(i2, data.get(j2));
+        data.put(j2, tmp);
+      }
+    }
+
+    /**
+     * Compares hash, then resource code and index in file
+     */
+    @Override
+    public boolean isLess(int i, int j) {
+      int i2 = i * blockInts;
+      int j2 = j * blockInts;
+      for (int k = 0; k < hashInts + 2; k++, i2++, j2++) {
+        int c = Integer.compare(data.get(i2), data.get(j2));
+        if (c != 0) {
+          return c < 0;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  };
+}
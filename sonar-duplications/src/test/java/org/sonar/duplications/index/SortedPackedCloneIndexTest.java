@@ -0,0 +1,179 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.io.File;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SortedPackedCloneIndexTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private SortedPackedCloneIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SortedPackedCloneIndex();
+  }
+
+  @Test
+  public void test() {
+    insertBlocks(index);
+
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).hasSize(5);
+    assertThat(index.getBySequenceHash(new ByteArray(2L))).hasSize(2);
+    assertThat(index.getBySequenceHash(new ByteArray(3L))).hasSize(1);
+    assertThat(index.getBySequenceHash(new ByteArray(4L))).isEmpty();
+    assertThat(index.getByResourceId("a")).hasSize(2);
+    assertThat(index.getByResourceId("b")).hasSize(1);
+    assertThat(index.getByResourceId("e")).hasSize(3);
+    assertThat(index.getByResourceId("does not exist")).isEmpty();
+  }
+
+  @Test
+  public void should_restore_blocks() {
+    Block block = Block.builder()
+      .setResourceId("a")
+      .setBlockHash(new ByteArray(42L))
+      .setIndexInFile(3)
+      .setLines(10, 20)
+      .setUnit(100, 200)
+      .build();
+    index.insert(block);
+
+    assertThat(index.getByResourceId("a")).containsOnly(block);
+    Block found = index.getBySequenceHash(new ByteArray(42L)).iterator().next();
+    assertThat(found.getResourceId()).isEqualTo("a");
+    assertThat(found.getIndexInFile()).isEqualTo(3);
+    assertThat(found.getStartLine()).isEqualTo(10);
+    assertThat(found.getEndLine()).isEqualTo(20);
+    assertThat(found.getStartUnit()).isEqualTo(100);
+    assertThat(found.getEndUnit()).isEqualTo(200);
+  }
+
+  @Test
+  public void should_sort_blocks_of_same_hash_by_resource() {
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("c", 1));
+
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).extracting("resourceId").containsExactly("b", "a", "c");
+  }
+
+  @Test
+  public void should_construct_blocks_with_normalized_hash() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("b", 1));
+    ByteArray requestedHash = new ByteArray(1L);
+    Collection<Block> blocks = index.getBySequenceHash(requestedHash);
+    assertThat(blocks).hasSize(2);
+    for (Block block : blocks) {
+      assertThat(block.getBlockHash()).isSameAs(requestedHash);
+    }
+  }
+
+  @Test
+  public void remove_resource() {
+    insertBlocks(index);
+
+    index.remove("e");
+    index.remove("does not exist");
+
+    assertThat(index.getByResourceId("e")).isEmpty();
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).hasSize(4);
+    assertThat(index.getBySequenceHash(new ByteArray(3L))).isEmpty();
+    assertThat(index.size()).isEqualTo(5);
+
+    // insert again after removal
+    index.insert(newBlock("e", 3));
+    assertThat(index.getByResourceId("e")).hasSize(1);
+    assertThat(index.getBySequenceHash(new ByteArray(3L))).hasSize(1);
+  }
+
+  @Test
+  public void should_increase_capacity() {
+    CloneIndex index = new SortedPackedCloneIndex(8, 1);
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("a", 2));
+    assertThat(index.getByResourceId("a")).hasSize(2);
+  }
+
+  @Test
+  public void memory_mapped_file() throws Exception {
+    File file = temp.newFile();
+    SortedPackedCloneIndex index = new SortedPackedCloneIndex(8, file);
+    for (int i = 0; i < 5000; i++) {
+      index.insert(newBlock("r" + (i % 10), i % 100));
+    }
+
+    assertThat(index.getBySequenceHash(new ByteArray(7L))).hasSize(50);
+    assertThat(index.getByResourceId("r3")).hasSize(500);
+    assertThat(file.length()).isGreaterThan(0);
+
+    index.close();
+    assertThat(file.delete()).isTrue();
+  }
+
+  @Test
+  public void close_index_in_memory() throws Exception {
+    index.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void attempt_to_insert_hash_of_incorrect_size() {
+    CloneIndex index = new SortedPackedCloneIndex(4, 1);
+    index.insert(newBlock("a", 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void attempt_to_find_hash_of_incorrect_size() {
+    CloneIndex index = new SortedPackedCloneIndex(4, 1);
+    index.getBySequenceHash(new ByteArray(1L));
+  }
+
+  private static void insertBlocks(CloneIndex index) {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("a", 2));
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("c", 1));
+    index.insert(newBlock("d", 1));
+    index.insert(newBlock("e", 1));
+    index.insert(newBlock("e", 2));
+    index.insert(newBlock("e", 3));
+  }
+
+  private static Block newBlock(String resourceId, long hash) {
+    return Block.builder()
+      .setResourceId(resourceId)
+      .setBlockHash(new ByteArray(hash))
+      .setIndexInFile(1)
+      .setLines(1, 2)
+      .build();
+  }
+}
@@ -38,8 +38,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
@@ -56,6 +58,12 @@ public class FileMetadata {
   private static final char LINE_FEED = '\n';
   private static final char CARRIAGE_RETURN = '\r';
 
+  /**
+   * Longest first, as the BOM of UTF-16LE is a prefix of the one of UTF-32LE
+   */
+  private static final ByteOrderMark[] BYTE_ORDER_MARKS = {ByteOrderMark.UTF_32LE, ByteOrderMark.UTF_32BE, ByteOrderMark.UTF_8, ByteOrderMark.UTF_16LE,
+    ByteOrderMark.UTF_16BE};
+
   public abstract static class CharHandler {
 
     protected void handleAll(char c) {
@@ -235,6 +243,20 @@ public class FileMetadata {
       lineOffsetCounter.getLastValidOffset());
   }
 
+  /**
+   * Same as {@link #readMetadata(File, Charset)} when the content of the file has already been read
+   * with {@link #readContent(File, Charset)}.
+   * @since 5.2
+   */
+  public Metadata readMetadata(File file, Charset encoding, CharSequence content) {
+    LineCounter lineCounter = new LineCounter(file, encoding);
+    FileHashComputer fileHashComputer = new FileHashComputer();
+    LineOffsetCounter lineOffsetCounter = new LineOffsetCounter();
+    read(content, lineCounter, fileHashComputer, lineOffsetCounter);
+    return new Metadata(lineCounter.lines(), lineCounter.nonBlankLines(), fileHashComputer.getHash(), lineOffsetCounter.getOriginalLineOffsets(),
+      lineOffsetCounter.getLastValidOffset());
+  }
+
   /**
    * For testing purpose
    */
@@ -252,46 +274,65 @@ public class FileMetadata {
   }
 
   public static void readFile(File file, Charset encoding, CharHandler... handlers) {
-    try (BOMInputStream bomIn = new BOMInputStream(new FileInputStream(file),
-      ByteOrderMark.UTF_8, ByteOrderMark.UTF_16LE, ByteOrderMark.UTF_16BE, ByteOrderMark.UTF_32LE, ByteOrderMark.UTF_32BE);
-      Reader reader = new BufferedReader(new InputStreamReader(bomIn, encoding))) {
+    try (Reader reader = newReader(file, encoding)) {
       read(reader, handlers);
     } catch (IOException e) {
       throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", file.getAbsolutePath(), encoding), e);
     }
   }
 
+  /**
+   * Buffered reader of a file, which skips its byte order mark if any. Unlike {@link #readContent(File, Charset)},
+   * the file is not loaded in memory.
+   * @since 5.2
+   */
+  public static Reader newReader(File file, Charset encoding) throws IOException {
+    BOMInputStream bomIn = new BOMInputStream(new FileInputStream(file),
+      ByteOrderMark.UTF_8, ByteOrderMark.UTF_16LE, ByteOrderMark.UTF_16BE, ByteOrderMark.UTF_32LE, ByteOrderMark.UTF_32BE);
+    return new BufferedReader(new InputStreamReader(bomIn, encoding));
+  }
+
+  /**
+   * Decodes the whole content of a file, without its byte order mark if any. Malformed input and unmappable
+   * characters are replaced by '\ufffd'.
+   * @since 5.2
+   */
+  public static CharSequence readContent(File file, Charset encoding) {
+    try {
+      ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      skipByteOrderMark(bytes);
+      return encoding.decode(bytes);
+    } catch (IOException e) {
+      throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", file.getAbsolutePath(), encoding), e);
+    }
+  }
+
+  private static void skipByteOrderMark(ByteBuffer bytes) {
+    for (ByteOrderMark bom : BYTE_ORDER_MARKS) {
+      if (startsWith(bytes, bom)) {
+        bytes.position(bytes.position() + bom.length());
+        return;
+      }
+    }
+  }
+
+  private static boolean startsWith(ByteBuffer bytes, ByteOrderMark bom) {
+    if (bytes.remaining() < bom.length()) {
+      return false;
+    }
+    for (int i = 0; i < bom.length(); i++) {
+      if ((bytes.get(bytes.position() + i) & 0xFF) != bom.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static void read(Reader reader, CharHandler... handlers) throws IOException {
-    char c = (char) 0;
-    int i = reader.read();
     boolean afterCR = false;
+    int i = reader.read();
     while (i != -1) {
-      c = (char) i;
-      if (afterCR) {
-        for (CharHandler handler : handlers) {
-          if (c != CARRIAGE_RETURN && c != LINE_FEED) {
-            handler.handleIgnoreEoL(c);
-          }
-          handler.handleAll(c);
-          handler.newLine();
-        }
-        afterCR = c == CARRIAGE_RETURN;
-      } else if (c == LINE_FEED) {
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-          handler.newLine();
-        }
-      } else if (c == CARRIAGE_RETURN) {
-        afterCR = true;
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
-        }
-      } else {
-        for (CharHandler handler : handlers) {
-          handler.handleIgnoreEoL(c);
-          handler.handleAll(c);
-        }
-      }
+      afterCR = handle((char) i, afterCR, handlers);
       i = reader.read();
     }
     for (CharHandler handler : handlers) {
@@ -299,6 +340,53 @@ public class FileMetadata {
     }
   }
 
+  /**
+   * Feeds all the handlers in a single pass over the content.
+   * @since 5.2
+   */
+  public static void read(CharSequence content, CharHandler... handlers) {
+    boolean afterCR = false;
+    int length = content.length();
+    for (int i = 0; i < length; i++) {
+      afterCR = handle(content.charAt(i), afterCR, handlers);
+    }
+    for (CharHandler handler : handlers) {
+      handler.eof();
+    }
+  }
+
+  /**
+   * @return whether the next character follows a carriage return
+   */
+  private static boolean handle(char c, boolean afterCR, CharHandler[] handlers) {
+    if (afterCR) {
+      for (CharHandler handler : handlers) {
+        if (c != CARRIAGE_RETURN && c != LINE_FEED) {
+          handler.handleIgnoreEoL(c);
+        }
+        handler.handleAll(c);
+        handler.newLine();
+      }
+      return c == CARRIAGE_RETURN;
+    } else if (c == LINE_FEED) {
+      for (CharHandler handler : handlers) {
+        handler.handleAll(c);
+        handler.newLine();
+      }
+    } else if (c == CARRIAGE_RETURN) {
+      for (CharHandler handler : handlers) {
+        handler.handleAll(c);
+      }
+      return true;
+    } else {
+      for (CharHandler handler : handlers) {
+        handler.handleIgnoreEoL(c);
+        handler.handleAll(c);
+      }
+    }
+    return false;
+  }
+
   public static class Metadata {
     final int lines;
     final int nonBlankLines;
@@ -327,4 +415,13 @@ public class FileMetadata {
   public static void computeLineHashesForIssueTracking(DefaultInputFile f, LineHashConsumer consumer) {
     readFile(f.file(), f.charset(), new LineHashComputer(consumer));
   }
+
+  /**
+   * Same as {@link #computeLineHashesForIssueTracking(DefaultInputFile, LineHashConsumer)} when the content of the file
+   * has already been read with {@link #readContent(File, Charset)}.
+   * @since 5.2
+   */
+  public static void computeLineHashesForIssueTracking(CharSequence content, LineHashConsumer consumer) {
+    read(content, new LineHashComputer(consumer));
+  }
 }
@@ -19,6 +19,7 @@
  */
 package org.sonar.api.batch.fs.internal;
 
+import javax.annotation.CheckForNull;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.batch.fs.InputFile;
@@ -36,6 +37,12 @@ public abstract class PathPattern {
 
   public abstract boolean match(InputFile inputFile, boolean caseSensitiveFileExtension);
 
+  /**
+   * The path of file which is matched by this pattern
+   */
+  @CheckForNull
+  abstract String path(InputFile inputFile, boolean caseSensitiveFileExtension);
+
   public static PathPattern create(String s) {
     String trimmed = StringUtils.trim(s);
     if (StringUtils.startsWithIgnoreCase(trimmed, "file:")) {
@@ -64,15 +71,12 @@ public abstract class PathPattern {
 
     @Override
     public boolean match(InputFile inputFile, boolean caseSensitiveFileExtension) {
-      String path = inputFile.absolutePath();
-      if (!caseSensitiveFileExtension) {
-        String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
-        if (StringUtils.isNotBlank(extension)) {
-          path = StringUtils.removeEndIgnoreCase(path, extension);
-          path = path + extension;
-        }
-      }
-      return pattern.match(path);
+      return pattern.match(path(inputFile, caseSensitiveFileExtension));
+    }
+
+    @Override
+    String path(InputFile inputFile, boolean caseSensitiveFileExtension) {
+      return sanitizePath(inputFile.absolutePath(), inputFile, caseSensitiveFileExtension);
     }
 
     @Override
@@ -96,23 +100,33 @@ public abstract class PathPattern {
 
     @Override
     public boolean match(InputFile inputFile, boolean caseSensitiveFileExtension) {
-      String path = inputFile.relativePath();
-      if (!caseSensitiveFileExtension) {
-        String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
-        if (StringUtils.isNotBlank(extension)) {
-          path = StringUtils.removeEndIgnoreCase(path, extension);
-          path = path + extension;
-        }
-      }
+      String path = path(inputFile, caseSensitiveFileExtension);
       return path != null && pattern.match(path);
     }
 
+    @Override
+    String path(InputFile inputFile, boolean caseSensitiveFileExtension) {
+      return sanitizePath(inputFile.relativePath(), inputFile, caseSensitiveFileExtension);
+    }
+
     @Override
     public String toString() {
       return pattern.toString();
     }
   }
 
+  static String sanitizePath(String path, InputFile inputFile, boolean caseSensitiveFileExtension) {
+    String result = path;
+    if (!caseSensitiveFileExtension) {
+      String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
+      if (StringUtils.isNotBlank(extension)) {
+        result = StringUtils.removeEndIgnoreCase(result, extension);
+        result = result + extension;
+      }
+    }
+    return result;
+  }
+
   static String sanitizeExtension(String suffix) {
     return StringUtils.lowerCase(StringUtils.removeStart(suffix, "."));
   }
@@ -0,0 +1,82 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Set of {@link PathPattern} matched at once. Patterns are compiled into tries of path segments, so that
+ * the path of a file is walked once whatever the number of patterns, instead of being matched against
+ * the regular expression of each pattern.
+ * <p/>
+ * Instances are immutable and can be used by concurrent threads.
+ *
+ * @since 5.2
+ */
+public class PathPatternSet {
+
+  private final PathPattern[] patterns;
+  // patterns of the same class match the same path of file (relative or absolute path)
+  private final Map<Class<?>, Group> groups = new LinkedHashMap<>();
+
+  public PathPatternSet(PathPattern[] patterns) {
+    this.patterns = patterns;
+    for (PathPattern pattern : patterns) {
+      Group group = groups.get(pattern.getClass());
+      if (group == null) {
+        group = new Group(pattern);
+        groups.put(pattern.getClass(), group);
+      }
+      group.trie.add(pattern.pattern);
+    }
+  }
+
+  public boolean isEmpty() {
+    return patterns.length == 0;
+  }
+
+  /**
+   * Returns true if at least one pattern matches the file. File extension is case-sensitive.
+   */
+  public boolean matchAny(InputFile inputFile) {
+    return matchAny(inputFile, true);
+  }
+
+  public boolean matchAny(InputFile inputFile, boolean caseSensitiveFileExtension) {
+    for (Group group : groups.values()) {
+      String path = group.pathPattern.path(inputFile, caseSensitiveFileExtension);
+      if (path != null && group.trie.match(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class Group {
+    private final PathPattern pathPattern;
+    private final PathPatternTrie trie = new PathPatternTrie();
+
+    private Group(PathPattern pathPattern) {
+      this.pathPattern = pathPattern;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.utils.WildcardPattern;
+
+/**
+ * Ant-style patterns, with "/" as directory separator, compiled into a single trie of path segments. A path
+ * is split once and its segments are walked through the trie, so that all the patterns are matched in a single pass.
+ * Semantics are the ones of {@link WildcardPattern}:
+ * <ul>
+ * <li>a segment without wildcard is compared as is</li>
+ * <li>a segment containing ? or * is matched without crossing directory separators</li>
+ * <li>a <code>**</code> segment followed by other segments matches zero or more directories</li>
+ * <li>a trailing <code>**</code> segment matches everything, but at least one segment</li>
+ * </ul>
+ * Patterns which do not fit in segments, for example <code>**</code> inside a name, are matched with
+ * {@link WildcardPattern#match(String)}.
+ * <p/>
+ * The trie is not modified by {@link #match(String)}, so it can be shared by threads once all the patterns are added.
+ */
+class PathPatternTrie {
+
+  private static final char SEPARATOR = '/';
+  private static final String ANY_DIRECTORIES = "**";
+
+  private final Node root = new Node();
+  private final List<WildcardPattern> otherPatterns = new ArrayList<>();
+
+  void add(WildcardPattern pattern) {
+    List<String> segments = segments(pattern.toString());
+    if (segments == null) {
+      otherPatterns.add(pattern);
+      return;
+    }
+    Node node = root;
+    for (int i = 0; i < segments.size(); i++) {
+      String segment = segments.get(i);
+      if (ANY_DIRECTORIES.equals(segment)) {
+        if (i == segments.size() - 1) {
+          node.matchesRemainingSegments = true;
+          return;
+        }
+        node = node.anyDirectoriesChild();
+      } else {
+        node = node.child(segment);
+      }
+    }
+    node.terminal = true;
+  }
+
+  boolean match(String value) {
+    String path = StringUtils.removeEnd(StringUtils.removeStart(value, "/"), "/");
+    return matchSegments(path) || matchOtherPatterns(value);
+  }
+
+  private boolean matchSegments(String path) {
+    List<Node> nodes = new ArrayList<>();
+    addWithAnyDirectories(nodes, root);
+    int start = 0;
+    while (true) {
+      int end = path.indexOf(SEPARATOR, start);
+      if (end < 0) {
+        end = path.length();
+      }
+      String segment = path.substring(start, end);
+      List<Node> nextNodes = new ArrayList<>();
+      for (Node node : nodes) {
+        if (node.matchesRemainingSegments) {
+          return true;
+        }
+        node.addChildrenMatching(segment, nextNodes);
+      }
+      if (nextNodes.isEmpty()) {
+        return false;
+      }
+      if (end == path.length()) {
+        return containsTerminal(nextNodes);
+      }
+      nodes = nextNodes;
+      start = end + 1;
+    }
+  }
+
+  private boolean matchOtherPatterns(String value) {
+    for (WildcardPattern pattern : otherPatterns) {
+      if (pattern.match(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsTerminal(List<Node> nodes) {
+    for (Node node : nodes) {
+      if (node.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void addWithAnyDirectories(List<Node> nodes, Node node) {
+    if (!containsSame(nodes, node)) {
+      nodes.add(node);
+      if (node.anyDirectories != null) {
+        // zero directory
+        addWithAnyDirectories(nodes, node.anyDirectories);
+      }
+    }
+  }
+
+  private static boolean containsSame(List<Node> nodes, Node node) {
+    for (Node n : nodes) {
+      if (n == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Segments of pattern, or null if pattern contains "**" elsewhere than in a full segment.
+   */
+  @CheckForNull
+  private static List<String> segments(String pattern) {
+    String s = pattern.replace('\\', SEPARATOR);
+    if (s.startsWith("/")) {
+      s = s.substring(1);
+    }
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    while (true) {
+      int end = s.indexOf(SEPARATOR, start);
+      if (end < 0) {
+        end = s.length();
+      }
+      String segment = s.substring(start, end);
+      if (segment.contains(ANY_DIRECTORIES) && !ANY_DIRECTORIES.equals(segment)) {
+        return null;
+      }
+      segments.add(segment);
+      if (end == s.length()) {
+        return segments;
+      }
+      start = end + 1;
+    }
+  }
+
+  /**
+   * Matches ? and * in a segment. Equivalent to the regular expression generated by {@link WildcardPattern},
+   * without backtracking on each character.
+   */
+  static boolean matchSegment(String glob, String segment) {
+    int g = 0;
+    int s = 0;
+    int star = -1;
+    int starMatch = 0;
+    while (s < segment.length()) {
+      if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == segment.charAt(s))) {
+        g++;
+        s++;
+      } else if (g < glob.length() && glob.charAt(g) == '*') {
+        star = g;
+        starMatch = s;
+        g++;
+      } else if (star >= 0) {
+        g = star + 1;
+        starMatch++;
+        s = starMatch;
+      } else {
+        return false;
+      }
+    }
+    while (g < glob.length() && glob.charAt(g) == '*') {
+      g++;
+    }
+    return g == glob.length();
+  }
+
+  private static boolean isGlob(String segment) {
+    return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+  }
+
+  private static class Node {
+    private final Map<String, Node> literalChildren = new HashMap<>();
+    private final Map<String, Node> globChildren = new HashMap<>();
+    // loop of zero or more directories
+    private Node anyDirectories;
+    private boolean loop = false;
+    private boolean terminal = false;
+    private boolean matchesRemainingSegments = false;
+
+    Node child(String segment) {
+      Map<String, Node> children = isGlob(segment) ? globChildren : literalChildren;
+      Node child = children.get(segment);
+      if (child == null) {
+        child = new Node();
+        children.put(segment, child);
+      }
+      return child;
+    }
+
+    Node anyDirectoriesChild() {
+      if (anyDirectories == null) {
+        anyDirectories = new Node();
+        anyDirectories.loop = true;
+      }
+      return anyDirectories;
+    }
+
+    void addChildrenMatching(String segment, List<Node> nodes) {
+      if (loop) {
+        addWithAnyDirectories(nodes, this);
+      }
+      Node literal = literalChildren.get(segment);
+      if (literal != null) {
+        addWithAnyDirectories(nodes, literal);
+      }
+      for (Map.Entry<String, Node> glob : globChildren.entrySet()) {
+        if (matchSegment(glob.getKey(), segment)) {
+          addWithAnyDirectories(nodes, glob.getValue());
+        }
+      }
+    }
+  }
+}
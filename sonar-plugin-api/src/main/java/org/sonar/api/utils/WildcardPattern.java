@@ -19,8 +19,8 @@
  */
 package org.sonar.api.utils;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
@@ -28,7 +28,7 @@ import org.apache.commons.lang.StringUtils;
 /**
  * Implementation of Ant-style matching patterns.
  * Contrary to other implementations (like AntPathMatcher from Spring Framework) it is based on {@link Pattern Java Regular Expressions}.
- * To increase performance it holds an internal cache of all processed patterns.
+ * To increase performance it holds an internal cache of all processed patterns. The cache can be used by concurrent threads.
  * <p>
  * Following rules are applied:
  * <ul>
@@ -61,7 +61,7 @@ import org.apache.commons.lang.StringUtils;
  */
 public class WildcardPattern {
 
-  private static final Map<String, WildcardPattern> CACHE = new HashMap<>();
+  private static final Map<String, WildcardPattern> CACHE = new ConcurrentHashMap<>();
   private static final String SPECIAL_CHARS = "()[]^$.{}+|";
 
   private Pattern pattern;
@@ -293,4 +293,53 @@ public class FileMetadataTest {
       "glyphicons-halflings-regular.woff at line 1 for encoding UTF-8. Please fix file content or configure the encoding to be used using property 'sonar.sourceEncoding'.");
   }
 
+  @Test
+  public void read_content_without_byte_order_mark() throws Exception {
+    File utf16 = temp.newFile();
+    FileUtils.write(utf16, "\uFEFFfoo\nbar", StandardCharsets.UTF_16LE);
+    File utf32 = temp.newFile();
+    FileUtils.write(utf32, "\uFEFFfoo\nbar", Charset.forName("UTF-32LE"));
+
+    assertThat(FileMetadata.readContent(utf16, StandardCharsets.UTF_16LE).toString()).isEqualTo("foo\nbar");
+    assertThat(FileMetadata.readContent(utf32, Charset.forName("UTF-32LE")).toString()).isEqualTo("foo\nbar");
+  }
+
+  @Test
+  public void read_big_file() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      sb.append("line \u00e9 ").append(i).append("\r\n");
+    }
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, "\uFEFF" + sb, StandardCharsets.UTF_8);
+
+    CharSequence content = FileMetadata.readContent(tempFile, StandardCharsets.UTF_8);
+    assertThat(content.toString()).isEqualTo(sb.toString());
+
+    FileMetadata.Metadata metadata = new FileMetadata().readMetadata(tempFile, StandardCharsets.UTF_8, content);
+    assertThat(metadata.lines).isEqualTo(100_001);
+    assertThat(metadata.nonBlankLines).isEqualTo(100_000);
+    assertThat(metadata.hash).isEqualTo(md5Hex(sb.toString().replace("\r\n", "\n")));
+
+    // same metadata when the file is streamed
+    FileMetadata.Metadata streamed = new FileMetadata().readMetadata(tempFile, StandardCharsets.UTF_8);
+    assertThat(streamed.lines).isEqualTo(metadata.lines);
+    assertThat(streamed.nonBlankLines).isEqualTo(metadata.nonBlankLines);
+    assertThat(streamed.hash).isEqualTo(metadata.hash);
+    assertThat(streamed.originalLineOffsets).isEqualTo(metadata.originalLineOffsets);
+  }
+
+  @Test
+  public void compute_line_hashes_of_content() {
+    final StringBuilder hashes = new StringBuilder();
+    FileMetadata.computeLineHashesForIssueTracking(" foo\r\n\nbaz", new LineHashConsumer() {
+      @Override
+      public void consume(int lineIdx, @Nullable byte[] hash) {
+        hashes.append(lineIdx).append('=').append(hash == null ? "" : Hex.encodeHexString(hash)).append(';');
+      }
+    });
+
+    assertThat(hashes.toString()).isEqualTo("1=" + md5Hex("foo") + ";2=;3=" + md5Hex("baz") + ";");
+  }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PathPatternSetTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void match_relative_paths() {
+    PathPatternSet patterns = new PathPatternSet(PathPattern.create(new String[] {"**/*Foo.java", "src/test/**"}));
+
+    assertThat(patterns.isEmpty()).isFalse();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/MyFoo.java"))).isTrue();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/test/java/org/Other.java"))).isTrue();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/Other.java"))).isFalse();
+    // case sensitive by default
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/MyFoo.JAVA"))).isFalse();
+  }
+
+  @Test
+  public void match_relative_and_absolute_paths() throws Exception {
+    Path moduleBaseDir = temp.newFolder().toPath();
+    PathPatternSet patterns = new PathPatternSet(PathPattern.create(new String[] {"**/*Bar.java", "file:**/src/main/**Foo.java"}));
+
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/MyFoo.java").setModuleBaseDir(moduleBaseDir))).isTrue();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/MyBar.java").setModuleBaseDir(moduleBaseDir))).isTrue();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/Other.java").setModuleBaseDir(moduleBaseDir))).isFalse();
+  }
+
+  @Test
+  public void match_insensitive_file_extension() throws Exception {
+    Path moduleBaseDir = temp.newFolder().toPath();
+    PathPatternSet patterns = new PathPatternSet(PathPattern.create(new String[] {"**/*Foo.java"}));
+    InputFile inputFile = new DefaultInputFile("ABCDE", "src/main/java/org/MyFoo.JAVA").setModuleBaseDir(moduleBaseDir);
+
+    assertThat(patterns.matchAny(inputFile, false)).isTrue();
+    assertThat(patterns.matchAny(inputFile, true)).isFalse();
+  }
+
+  @Test
+  public void empty_set() {
+    PathPatternSet patterns = new PathPatternSet(new PathPattern[0]);
+
+    assertThat(patterns.isEmpty()).isTrue();
+    assertThat(patterns.matchAny(new DefaultInputFile("ABCDE", "src/main/java/org/MyFoo.java"))).isFalse();
+  }
+}
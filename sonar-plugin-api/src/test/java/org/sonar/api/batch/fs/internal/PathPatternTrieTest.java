@@ -0,0 +1,83 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import org.junit.Test;
+import org.sonar.api.utils.WildcardPattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PathPatternTrieTest {
+
+  static final String[] PATTERNS = {
+    "", "/", "**", "**/", "*", "?", "org", "/org", "\\org\\Foo.java", "org/", "org/**", "org/**/", "org/*", "org/?",
+    "org/*.java", "org/**/*.java", "org/**/Foo.java", "**/Foo.java", "**/*Foo.java", "**/org/**", "**/**/Foo.java",
+    "org/T?st.java", "org/*/*.java", "org/*o*/Foo.java", "org//Foo.java", "org/**/**", "*.java", "**/*.java",
+    "org/foo**", "**Foo.java", "org/**Foo.java", "org/f**/Foo.java", "file.(java)", "[a]/{b}/$c^.java", "o*g/**/b?r/*"
+  };
+
+  static final String[] PATHS = {
+    "", "/", "//", "org", "/org", "org/", "org//", "org/Foo.java", "/org/Foo.java", "org/Foo.java/", "org/Tost.java",
+    "org/Test.java", "org/foo/Foo.java", "org/foo/bar/Foo.java", "org/foo/MyFoo.java", "org//Foo.java", "com/org/Foo.java",
+    "org/foo", "org/foobar/baz", "Foo.java", "MyFoo.java", "a/b/c/Foo.java", "org/x", "file.(java)", "[a]/{b}/$c^.java",
+    "oog/a/bar/x", "org/bar/bar/x.y", "orgFoo.java", "org/o/Foo.java", "org/.java", "org/Foo.javax"
+  };
+
+  @Test
+  public void match_same_paths_as_wildcard_pattern() {
+    for (String pattern : PATTERNS) {
+      PathPatternTrie trie = new PathPatternTrie();
+      trie.add(WildcardPattern.create(pattern));
+      for (String path : PATHS) {
+        assertThat(trie.match(path)).as("pattern '" + pattern + "' and path '" + path + "'")
+          .isEqualTo(WildcardPattern.create(pattern).match(path));
+      }
+    }
+  }
+
+  @Test
+  public void match_any_of_patterns() {
+    PathPatternTrie trie = new PathPatternTrie();
+    for (String pattern : PATTERNS) {
+      trie.add(WildcardPattern.create(pattern));
+    }
+    for (String path : PATHS) {
+      assertThat(trie.match(path)).as(path).isEqualTo(WildcardPattern.match(WildcardPattern.create(PATTERNS), path));
+    }
+  }
+
+  @Test
+  public void match_nothing_if_no_patterns() {
+    PathPatternTrie trie = new PathPatternTrie();
+
+    assertThat(trie.match("")).isFalse();
+    assertThat(trie.match("org/Foo.java")).isFalse();
+  }
+
+  @Test
+  public void match_segment() {
+    assertThat(PathPatternTrie.matchSegment("*", "")).isTrue();
+    assertThat(PathPatternTrie.matchSegment("?", "")).isFalse();
+    assertThat(PathPatternTrie.matchSegment("*Foo*.java", "MyFooBar.java")).isTrue();
+    assertThat(PathPatternTrie.matchSegment("*Foo*.java", "MyFooBar.jav")).isFalse();
+    assertThat(PathPatternTrie.matchSegment("a*a*a", "aaaa")).isTrue();
+    assertThat(PathPatternTrie.matchSegment("a*a*a", "aab")).isFalse();
+  }
+}